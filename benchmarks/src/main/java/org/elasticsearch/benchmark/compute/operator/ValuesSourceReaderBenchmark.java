@@ -9,6 +9,7 @@
 
 package org.elasticsearch.benchmark.compute.operator;
 
+import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.document.FieldType;
 import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StoredField;
@@ -44,6 +45,8 @@ import org.elasticsearch.compute.operator.topn.TopNOperator;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexVersion;
+import org.elasticsearch.index.codec.Elasticsearch900Codec;
+import org.elasticsearch.index.codec.tsdb.ES87TSDBDocValuesFormat;
 import org.elasticsearch.index.mapper.BlockLoader;
 import org.elasticsearch.index.mapper.FieldNamesFieldMapper;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
@@ -283,6 +286,13 @@ public class ValuesSourceReaderBenchmark {
     @Param({ "long", "int", "double", "keyword", "stored_keyword", "3_stored_keywords" })
     public String name;
 
+    /**
+     * The doc values format of the numeric fields. {@code tsdb} is the format of the
+     * time series and logs index modes, which supports reading dense values in bulk.
+     */
+    @Param({ "default", "tsdb" })
+    public String docValuesFormat = "default";
+
     private Directory directory;
     private IndexReader reader;
     private List<Page> pages;
@@ -396,7 +406,17 @@ public class ValuesSourceReaderBenchmark {
         FieldType keywordFieldType = new FieldType(KeywordFieldMapper.Defaults.FIELD_TYPE);
         keywordFieldType.setStored(true);
         keywordFieldType.freeze();
-        try (IndexWriter iw = new IndexWriter(directory, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+        IndexWriterConfig config = new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        if (docValuesFormat.equals("tsdb")) {
+            DocValuesFormat tsdbDocValuesFormat = new ES87TSDBDocValuesFormat();
+            config.setCodec(new Elasticsearch900Codec() {
+                @Override
+                public DocValuesFormat getDocValuesFormatForField(String field) {
+                    return tsdbDocValuesFormat;
+                }
+            });
+        }
+        try (IndexWriter iw = new IndexWriter(directory, config)) {
             for (int i = 0; i < INDEX_SIZE; i++) {
                 String c = Character.toString('a' - ((i % 1000) % 26) + 26);
                 iw.addDocument(
@@ -0,0 +1,65 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.dissect;
+
+import org.elasticsearch.dissect.DissectParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dissects log lines whose fields are long compared to the delimiters, which is where scanning for delimiters dominates.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DissectParserBenchmark {
+
+    @Param({ "64", "1024" })
+    private int lineLength;
+
+    private DissectParser parser;
+    private String line;
+
+    @Setup
+    public void setup() {
+        parser = new DissectParser("%{timestamp} [%{thread}] %{level} %{logger} - %{message} | %{trace}", null);
+        Random random = new Random(42);
+        StringBuilder message = new StringBuilder();
+        while (message.length() < lineLength) {
+            // words with the occasional character that starts a delimiter
+            message.append(random.nextInt(10) == 0 ? '-' : (char) ('a' + random.nextInt(26)));
+            if (random.nextInt(6) == 0) {
+                message.append(' ');
+            }
+        }
+        line = "2024-01-01T12:00:00.000Z [main] INFO org.example.Service - " + message + " | trace-id-1234";
+    }
+
+    @Benchmark
+    public Map<String, String> parse() {
+        return parser.parse(line);
+    }
+}
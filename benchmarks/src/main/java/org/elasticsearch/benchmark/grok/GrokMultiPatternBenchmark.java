@@ -0,0 +1,153 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.grok;
+
+import org.elasticsearch.grok.Grok;
+import org.elasticsearch.grok.GrokBuiltinPatterns;
+import org.elasticsearch.grok.MatcherWatchdog;
+import org.elasticsearch.grok.PatternBank;
+import org.elasticsearch.grok.PrefilteredGrok;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares matching log lines against many grok patterns through a single alternation of all patterns, which is how the grok
+ * processor used to match them, with {@link PrefilteredGrok}, which only runs the patterns whose literal text occurs in the line.
+ * The pattern sets resemble real ingest pipelines: one that parses the messages of the common syslog programs, where every
+ * pattern shares the same prefix, and one that parses the lines of several applications, where the patterns have little in common.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(GrokMultiPatternBenchmark.NUM_LINES)
+@State(Scope.Benchmark)
+public class GrokMultiPatternBenchmark {
+
+    static final int NUM_LINES = 8;
+
+    private static final String SYSLOG_PREFIX = "%{SYSLOGTIMESTAMP:timestamp} %{SYSLOGHOST:host} ";
+
+    private static final List<String> SYSLOG_PATTERNS = List.of(
+        SYSLOG_PREFIX + "sshd\\[%{POSINT:pid}\\]: Accepted %{WORD:method} for %{USERNAME:user} from %{IP:source} port %{POSINT:port}",
+        SYSLOG_PREFIX + "sshd\\[%{POSINT:pid}\\]: Failed %{WORD:method} for %{USERNAME:user} from %{IP:source} port %{POSINT:port}",
+        SYSLOG_PREFIX + "sshd\\[%{POSINT:pid}\\]: Invalid user %{USERNAME:user} from %{IP:source} port %{POSINT:port}",
+        SYSLOG_PREFIX + "sshd\\[%{POSINT:pid}\\]: Disconnected from %{IP:source} port %{POSINT:port}",
+        SYSLOG_PREFIX + "sudo: +%{USERNAME:user} : TTY=%{NOTSPACE:tty} ; PWD=%{NOTSPACE:pwd} ; USER=%{USERNAME:target} ; "
+            + "COMMAND=%{GREEDYDATA:command}",
+        SYSLOG_PREFIX + "CRON\\[%{POSINT:pid}\\]: \\(%{USERNAME:user}\\) CMD \\(%{GREEDYDATA:command}\\)",
+        SYSLOG_PREFIX + "kernel: \\[%{NUMBER:uptime}\\] %{GREEDYDATA:message}",
+        SYSLOG_PREFIX + "systemd\\[%{POSINT:pid}\\]: Started %{GREEDYDATA:unit}",
+        SYSLOG_PREFIX + "systemd\\[%{POSINT:pid}\\]: Stopped %{GREEDYDATA:unit}",
+        SYSLOG_PREFIX + "postfix/smtpd\\[%{POSINT:pid}\\]: connect from %{NOTSPACE:client}",
+        SYSLOG_PREFIX + "postfix/smtpd\\[%{POSINT:pid}\\]: disconnect from %{NOTSPACE:client}",
+        SYSLOG_PREFIX + "dhclient\\[%{POSINT:pid}\\]: DHCPACK of %{IP:address} from %{IP:server}"
+    );
+
+    private static final List<String> SYSLOG_LINES = List.of(
+        "Oct 11 22:14:15 server sshd[4321]: Accepted publickey for deploy from 10.0.0.5 port 51234 ssh2",
+        "Oct 11 22:14:15 server sshd[4321]: Failed password for root from 10.0.0.1 port 22 ssh2",
+        "Oct 11 22:14:15 server sshd[4321]: Invalid user admin from 10.0.0.1 port 40022",
+        "Oct 11 22:14:15 server sudo:    alice : TTY=pts/0 ; PWD=/home/alice ; USER=root ; COMMAND=/usr/bin/apt update",
+        "Oct 11 22:14:15 server CRON[123]: (root) CMD (run-parts /etc/cron.hourly)",
+        "Oct 11 22:14:15 server kernel: [12345.678] eth0: link up",
+        "Oct 11 22:14:15 server systemd[1]: Started Daily apt download activities.",
+        "Oct 11 22:14:15 server ntpd[812]: adjusting local clock by 0.012345s"
+    );
+
+    private static final List<String> APPLICATION_PATTERNS = List.of(
+        "%{IPORHOST:client} %{USER:ident} %{USER:auth} \\[%{HTTPDATE:timestamp}\\] \"%{WORD:verb} %{NOTSPACE:request} "
+            + "HTTP/%{NUMBER:httpversion}\" %{NUMBER:response:int} %{NUMBER:bytes:int}",
+        "%{TIMESTAMP_ISO8601:timestamp} \\[%{DATA:thread}\\] %{LOGLEVEL:level} %{JAVACLASS:class} - %{GREEDYDATA:message}",
+        "%{TOMCAT_DATESTAMP:timestamp} \\| %{LOGLEVEL:level} \\| %{JAVACLASS:class} - %{GREEDYDATA:message}",
+        "%{TIMESTAMP_ISO8601:timestamp} %{POSINT:pid} %{LOGLEVEL:level} %{NOTSPACE:logger} \\[req-%{UUID:request_id}\\] "
+            + "%{GREEDYDATA:message}",
+        "level=%{LOGLEVEL:level} ts=%{TIMESTAMP_ISO8601:timestamp} caller=%{NOTSPACE:caller} msg=%{QS:message}",
+        "%{TIMESTAMP_ISO8601:timestamp} \\[%{LOGLEVEL:level}\\] %{POSINT:pid}#%{NUMBER:tid}: \\*%{NUMBER:connection} "
+            + "%{GREEDYDATA:message}, client: %{IP:client}, server: %{NOTSPACE:server}",
+        "%{TIMESTAMP_ISO8601:timestamp} %{WORD:component} ERROR %{GREEDYDATA:message}",
+        "%{IP:client} - %{NOTSPACE:user} \\[%{HTTPDATE:timestamp}\\] \"%{WORD:verb} %{NOTSPACE:request} HTTP/%{NUMBER:version}\" "
+            + "%{NUMBER:status:int} %{NUMBER:bytes:int} %{QS:referrer} %{QS:agent} rt=%{NUMBER:request_time:float}"
+    );
+
+    private static final List<String> APPLICATION_LINES = List.of(
+        "127.0.0.1 - frank [10/Oct/2000:13:55:36 -0700] \"GET /apache_pb.gif HTTP/1.0\" 200 2326",
+        "2024-01-01 12:00:00,123 [main] INFO org.example.Service - started in 123ms",
+        "2024-01-01 12:00:00,123 | WARN | org.example.Cache - evicting 12 entries",
+        "level=info ts=2024-01-01T12:00:00.000Z caller=main.go:42 msg=\"server listening\"",
+        "2024-01-01 12:00:00 [error] 1234#0: *56 open() \"/var/www/favicon.ico\" failed, client: 10.0.0.1, server: example.org",
+        "2024-01-01T12:00:00.000Z scheduler ERROR job 17 failed",
+        "10.0.0.1 - - [10/Oct/2000:13:55:36 -0700] \"GET / HTTP/1.1\" 200 612 \"-\" \"curl/8.0\" rt=0.002",
+        "2024-01-01T12:00:00.000Z app-7 request_id=abc status=ok duration=12ms"
+    );
+
+    @Param({ "syslog", "applications" })
+    private String patternSet;
+
+    private List<String> lines;
+    private Grok alternation;
+    private PrefilteredGrok prefiltered;
+
+    @Setup
+    public void setup() {
+        PatternBank patternBank = GrokBuiltinPatterns.legacyPatterns();
+        List<String> patterns;
+        switch (patternSet) {
+            case "syslog" -> {
+                patterns = SYSLOG_PATTERNS;
+                lines = SYSLOG_LINES;
+            }
+            case "applications" -> {
+                patterns = APPLICATION_PATTERNS;
+                lines = APPLICATION_LINES;
+            }
+            default -> throw new IllegalArgumentException("unknown pattern set [" + patternSet + "]");
+        }
+        assert lines.size() == NUM_LINES;
+        StringBuilder combined = new StringBuilder();
+        for (String pattern : patterns) {
+            if (combined.isEmpty() == false) {
+                combined.append('|');
+            }
+            combined.append("(?:").append(pattern).append(')');
+        }
+        alternation = new Grok(patternBank, combined.toString(), MatcherWatchdog.noop(), logMessage -> {});
+        prefiltered = new PrefilteredGrok(patternBank, patterns, MatcherWatchdog.noop(), logMessage -> {});
+    }
+
+    @Benchmark
+    public void alternation(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(alternation.captures(line));
+        }
+    }
+
+    @Benchmark
+    public void prefiltered(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(prefiltered.captures(line, blackhole::consume));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.index.codec.postings;
+
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.index.codec.Elasticsearch900Codec;
+import org.elasticsearch.index.codec.postings.ES812PostingsFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-k disjunctions of frequent terms over a synthetic log corpus, indexed with and without the dense skip data that
+ * {@link ES812PostingsFormat} writes for high frequency terms.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ES812PostingsDisjunctionBenchmark {
+    private static final String[] LEVELS = { "info", "info", "info", "info", "debug", "debug", "warn", "error" };
+    private static final String[] WORDS = {
+        "request",
+        "completed",
+        "connection",
+        "timeout",
+        "user",
+        "session",
+        "started",
+        "failed",
+        "retry",
+        "cache",
+        "miss",
+        "shard",
+        "node",
+        "disk",
+        "latency",
+        "exceeded" };
+
+    @Param({ "dense", "regular" })
+    public String skipData;
+
+    @Param({ "1000000" })
+    public int numDocs;
+
+    private Directory directory;
+    private IndexReader reader;
+    private IndexSearcher searcher;
+    private Query query;
+
+    @Setup
+    public void setup() throws IOException {
+        int denseSkipMinDocFreq = switch (skipData) {
+            case "dense" -> ES812PostingsFormat.DEFAULT_DENSE_SKIP_MIN_DOC_FREQ;
+            case "regular" -> Integer.MAX_VALUE;
+            default -> throw new IllegalArgumentException("unknown skip data [" + skipData + "]");
+        };
+        PostingsFormat postingsFormat = new ES812PostingsFormat(denseSkipMinDocFreq);
+        IndexWriterConfig iwc = new IndexWriterConfig().setCodec(new Elasticsearch900Codec() {
+            @Override
+            public PostingsFormat getPostingsFormatForField(String field) {
+                return postingsFormat;
+            }
+        });
+        directory = new ByteBuffersDirectory();
+        Random random = new Random(0);
+        try (IndexWriter w = new IndexWriter(directory, iwc)) {
+            StringBuilder message = new StringBuilder();
+            for (int i = 0; i < numDocs; i++) {
+                message.setLength(0);
+                message.append(LEVELS[random.nextInt(LEVELS.length)]).append(" host-").append(random.nextInt(64));
+                int numWords = 4 + random.nextInt(12);
+                for (int j = 0; j < numWords; j++) {
+                    // skew word frequencies so that a few terms are present in most documents
+                    int word = (int) (WORDS.length * Math.pow(random.nextDouble(), 3));
+                    message.append(' ').append(WORDS[word]);
+                }
+                Document doc = new Document();
+                doc.add(new TextField("message", message.toString(), Field.Store.NO));
+                w.addDocument(doc);
+            }
+            w.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+        query = new BooleanQuery.Builder().add(new TermQuery(new Term("message", "error")), BooleanClause.Occur.SHOULD)
+            .add(new TermQuery(new Term("message", "request")), BooleanClause.Occur.SHOULD)
+            .add(new TermQuery(new Term("message", "timeout")), BooleanClause.Occur.SHOULD)
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOUtils.close(reader, directory);
+    }
+
+    @Benchmark
+    public TopDocs topTen() throws IOException {
+        return searcher.search(query, 10);
+    }
+}
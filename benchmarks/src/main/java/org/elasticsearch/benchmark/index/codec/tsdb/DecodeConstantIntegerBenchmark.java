@@ -9,7 +9,6 @@
 
 package org.elasticsearch.benchmark.index.codec.tsdb;
 
-import org.elasticsearch.benchmark.index.codec.tsdb.internal.AbstractDocValuesForUtilBenchmark;
 import org.elasticsearch.benchmark.index.codec.tsdb.internal.ConstantIntegerSupplier;
 import org.elasticsearch.benchmark.index.codec.tsdb.internal.DecodeBenchmark;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -41,7 +40,7 @@ public class DecodeConstantIntegerBenchmark {
     @Param({ "15" })
     private int bitsPerValue;
 
-    private final AbstractDocValuesForUtilBenchmark decode;
+    private final DecodeBenchmark decode;
 
     public DecodeConstantIntegerBenchmark() {
         this.decode = new DecodeBenchmark();
@@ -61,4 +60,9 @@ public class DecodeConstantIntegerBenchmark {
     public void benchmark(Blackhole bh) throws IOException {
         decode.benchmark(bitsPerValue, bh);
     }
+
+    @Benchmark
+    public void benchmarkSingleValue(Blackhole bh) throws IOException {
+        decode.benchmarkSingleValue(bitsPerValue, bh);
+    }
 }
@@ -9,7 +9,6 @@
 
 package org.elasticsearch.benchmark.index.codec.tsdb;
 
-import org.elasticsearch.benchmark.index.codec.tsdb.internal.AbstractDocValuesForUtilBenchmark;
 import org.elasticsearch.benchmark.index.codec.tsdb.internal.DecodeBenchmark;
 import org.elasticsearch.benchmark.index.codec.tsdb.internal.IncreasingIntegerSupplier;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -41,7 +40,7 @@ public class DecodeIncreasingIntegerBenchmark {
     @Param({ "4", "8", "12", "16", "20", "24", "28", "32", "36", "40", "44", "48", "52", "56", "60", "64" })
     private int bitsPerValue;
 
-    private final AbstractDocValuesForUtilBenchmark decode;
+    private final DecodeBenchmark decode;
 
     public DecodeIncreasingIntegerBenchmark() {
         this.decode = new DecodeBenchmark();
@@ -63,4 +62,9 @@ public class DecodeIncreasingIntegerBenchmark {
         decode.benchmark(bitsPerValue, bh);
 
     }
+
+    @Benchmark
+    public void benchmarkSingleValue(Blackhole bh) throws IOException {
+        decode.benchmarkSingleValue(bitsPerValue, bh);
+    }
 }
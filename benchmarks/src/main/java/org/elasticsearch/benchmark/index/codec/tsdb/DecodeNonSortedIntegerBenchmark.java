@@ -9,7 +9,6 @@
 
 package org.elasticsearch.benchmark.index.codec.tsdb;
 
-import org.elasticsearch.benchmark.index.codec.tsdb.internal.AbstractDocValuesForUtilBenchmark;
 import org.elasticsearch.benchmark.index.codec.tsdb.internal.DecodeBenchmark;
 import org.elasticsearch.benchmark.index.codec.tsdb.internal.NonSortedIntegerSupplier;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -41,7 +40,7 @@ public class DecodeNonSortedIntegerBenchmark {
     @Param({ "4", "8", "12", "16", "20", "24", "28", "32", "36", "40", "44", "48", "52", "56", "60", "64" })
     private int bitsPerValue;
 
-    private final AbstractDocValuesForUtilBenchmark decode;
+    private final DecodeBenchmark decode;
 
     public DecodeNonSortedIntegerBenchmark() {
         this.decode = new DecodeBenchmark();
@@ -62,4 +61,9 @@ public class DecodeNonSortedIntegerBenchmark {
     public void benchmark(Blackhole bh) throws IOException {
         decode.benchmark(bitsPerValue, bh);
     }
+
+    @Benchmark
+    public void benchmarkSingleValue(Blackhole bh) throws IOException {
+        decode.benchmarkSingleValue(bitsPerValue, bh);
+    }
 }
@@ -12,6 +12,7 @@ package org.elasticsearch.benchmark.index.codec.tsdb.internal;
 import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.ByteArrayDataOutput;
 import org.apache.lucene.store.DataOutput;
+import org.elasticsearch.common.lucene.store.ByteArrayIndexInput;
 import org.openjdk.jmh.infra.Blackhole;
 
 import java.io.IOException;
@@ -19,10 +20,12 @@ import java.util.function.Supplier;
 
 public class DecodeBenchmark extends AbstractDocValuesForUtilBenchmark {
     protected ByteArrayDataInput dataInput;
+    protected ByteArrayIndexInput indexInput;
     protected long[] output;
     protected long[] input;
     private byte[] outputBuffer;
     private byte[] inputBuffer;
+    private int index;
 
     @Override
     public void setupIteration(int bitsPerValue, final Supplier<long[]> arraySupplier) throws IOException {
@@ -34,11 +37,13 @@ public class DecodeBenchmark extends AbstractDocValuesForUtilBenchmark {
         this.inputBuffer = new byte[Long.BYTES * blockSize];
         this.dataInput = new ByteArrayDataInput(this.inputBuffer);
         System.arraycopy(outputBuffer, 0, inputBuffer, 0, outputBuffer.length);
+        this.indexInput = new ByteArrayIndexInput("decode", this.inputBuffer);
     }
 
     @Override
     public void setupInvocation(int bitsPerValue) {
         this.dataInput.reset(this.inputBuffer);
+        this.indexInput.seek(0);
     }
 
     @Override
@@ -46,4 +51,12 @@ public class DecodeBenchmark extends AbstractDocValuesForUtilBenchmark {
         forUtil.decode(bitsPerValue, this.dataInput, this.output);
         bh.consume(this.output);
     }
+
+    /**
+     * Reads a single value out of the block, like a sparse query that matches a single document per block does.
+     */
+    public void benchmarkSingleValue(int bitsPerValue, Blackhole bh) throws IOException {
+        index = (index + 1) % blockSize;
+        bh.consume(forUtil.decodeSingle(bitsPerValue, this.indexInput, index));
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.ingest;
+
+import org.elasticsearch.index.VersionType;
+import org.elasticsearch.ingest.IngestDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the field accesses that simple processors like {@code set}, {@code rename} and {@code lowercase} perform on every
+ * document, i.e. resolving a dotted path and reading or writing the value at it.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class IngestDocumentFieldAccessBenchmark {
+
+    @Param({ "1", "3", "5" })
+    private int depth;
+
+    @Param({ "20" })
+    private int numFields;
+
+    private String[] paths;
+    private IngestDocument ingestDocument;
+
+    @Setup
+    public void setup() {
+        paths = new String[numFields];
+        Map<String, Object> source = new HashMap<>();
+        for (int i = 0; i < numFields; i++) {
+            StringBuilder path = new StringBuilder();
+            Map<String, Object> current = source;
+            for (int d = 0; d < depth - 1; d++) {
+                String element = "object_" + (i % 3) + "_" + d;
+                path.append(element).append('.');
+                @SuppressWarnings("unchecked")
+                Map<String, Object> next = (Map<String, Object>) current.computeIfAbsent(element, k -> new HashMap<String, Object>());
+                current = next;
+            }
+            String leaf = "field_" + i;
+            path.append(leaf);
+            current.put(leaf, "value_" + i);
+            paths[i] = path.toString();
+        }
+        ingestDocument = new IngestDocument("index", "id", 1, null, VersionType.INTERNAL, source);
+    }
+
+    @Benchmark
+    public void getFieldValue(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(ingestDocument.getFieldValue(path, String.class));
+        }
+    }
+
+    @Benchmark
+    public void setFieldValue() {
+        for (String path : paths) {
+            ingestDocument.setFieldValue(path, "value");
+        }
+    }
+
+    @Benchmark
+    public void hasField(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(ingestDocument.hasField(path));
+        }
+    }
+}
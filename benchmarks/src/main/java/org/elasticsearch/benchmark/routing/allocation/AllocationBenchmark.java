@@ -104,7 +104,10 @@ public class AllocationBenchmark {
             "       10|     10|        2|    50",
             "      100|      1|        2|    50",
             "      100|      3|        2|    50",
-            "      100|     10|        2|    50" }
+            "      100|     10|        2|    50",
+
+            "     1000|      5|        1|   100",
+            "     1000|     10|        1|   200" }
     )
     public String indicesShardsReplicasNodes = "10|1|0|1";
 
@@ -0,0 +1,161 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+package org.elasticsearch.benchmark.routing.allocation;
+
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator;
+import org.elasticsearch.cluster.routing.allocation.allocator.DesiredBalance;
+import org.elasticsearch.cluster.routing.allocation.allocator.DesiredBalanceComputer;
+import org.elasticsearch.cluster.routing.allocation.allocator.DesiredBalanceInput;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.time.TimeProvider;
+import org.elasticsearch.index.IndexVersion;
+import org.elasticsearch.snapshots.SnapshotShardSizeInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a round of the desired balance computation on large clusters, starting from the converged desired balance of an earlier
+ * round as {@code ContinuousComputation} does when it restarts the computation for a new cluster state.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class DesiredBalanceComputerBenchmark {
+
+    @Param(
+        {
+            // indices| shards| replicas| nodes
+            "     1000|     10|        1|   100",
+            "     5000|     10|        1|   200",
+            "    10000|      5|        1|   200" }
+    )
+    public String indicesShardsReplicasNodes = "1000|10|1|100";
+
+    @Param({ "false", "true" })
+    public boolean incrementalComputation = false;
+
+    private DesiredBalanceComputer desiredBalanceComputer;
+    private AllocationDeciders allocationDeciders;
+    private ClusterState clusterState;
+    private DesiredBalance desiredBalance;
+    private long inputIndex;
+
+    @Setup
+    public void setUp() throws Exception {
+        final String[] params = indicesShardsReplicasNodes.split("\\|");
+
+        int numIndices = toInt(params[0]);
+        int numShards = toInt(params[1]);
+        int numReplicas = toInt(params[2]);
+        int numNodes = toInt(params[3]);
+
+        final Settings settings = Settings.builder()
+            .put(DesiredBalanceComputer.INCREMENTAL_COMPUTATION_SETTING.getKey(), incrementalComputation)
+            .build();
+        final ClusterSettings clusterSettings = new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        allocationDeciders = Allocators.defaultAllocationDeciders(settings, clusterSettings);
+        desiredBalanceComputer = new DesiredBalanceComputer(clusterSettings, new TimeProvider() {
+            @Override
+            public long relativeTimeInMillis() {
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+            }
+
+            @Override
+            public long relativeTimeInNanos() {
+                return System.nanoTime();
+            }
+
+            @Override
+            public long rawRelativeTimeInMillis() {
+                return relativeTimeInMillis();
+            }
+
+            @Override
+            public long absoluteTimeInMillis() {
+                return System.currentTimeMillis();
+            }
+        }, new BalancedShardsAllocator(settings));
+
+        Metadata.Builder mb = Metadata.builder();
+        for (int i = 1; i <= numIndices; i++) {
+            mb.put(
+                IndexMetadata.builder("test_" + i)
+                    .settings(Settings.builder().put(IndexMetadata.SETTING_VERSION_CREATED, IndexVersion.current()))
+                    .numberOfShards(numShards)
+                    .numberOfReplicas(numReplicas)
+            );
+        }
+        Metadata metadata = mb.build();
+        RoutingTable.Builder rb = RoutingTable.builder(TestShardRoutingRoleStrategies.DEFAULT_ROLE_ONLY);
+        for (int i = 1; i <= numIndices; i++) {
+            rb.addAsNew(metadata.index("test_" + i));
+        }
+        DiscoveryNodes.Builder nb = DiscoveryNodes.builder();
+        for (int i = 1; i <= numNodes; i++) {
+            nb.add(Allocators.newNode("node" + i, Collections.emptyMap()));
+        }
+        clusterState = ClusterState.builder(ClusterName.DEFAULT).metadata(metadata).routingTable(rb.build()).nodes(nb).build();
+
+        // the first round allocates every shard, the benchmark measures the rounds that follow it
+        desiredBalance = computeDesiredBalance(DesiredBalance.INITIAL);
+    }
+
+    private int toInt(String v) {
+        return Integer.valueOf(v.trim());
+    }
+
+    private DesiredBalance computeDesiredBalance(DesiredBalance previousDesiredBalance) {
+        final RoutingAllocation routingAllocation = new RoutingAllocation(
+            allocationDeciders,
+            clusterState,
+            ClusterInfo.EMPTY,
+            SnapshotShardSizeInfo.EMPTY,
+            0L
+        );
+        return desiredBalanceComputer.compute(
+            previousDesiredBalance,
+            DesiredBalanceInput.create(++inputIndex, routingAllocation),
+            new LinkedList<>(),
+            input -> true
+        );
+    }
+
+    @Benchmark
+    public DesiredBalance measureComputationRound() {
+        desiredBalance = computeDesiredBalance(desiredBalance);
+        return desiredBalance;
+    }
+}
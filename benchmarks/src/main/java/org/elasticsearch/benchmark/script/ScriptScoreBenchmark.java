@@ -92,9 +92,15 @@ public class ScriptScoreBenchmark {
         SourceProvider.fromStoredFields()
     );
 
-    @Param({ "expression", "metal", "painless_cast", "painless_def" })
+    @Param({ "expression", "metal", "metal_batch", "painless_cast", "painless_def", "painless_def_megamorphic" })
     private String script;
 
+    /**
+     * Whether the query scores its matches in batches, like on indices with {@code index.search.script_score.batch_scoring.enabled}.
+     */
+    @Param({ "false", "true" })
+    private boolean batchScoring;
+
     @Param({ "16" })
     private double indexingBufferMb;
 
@@ -106,7 +112,8 @@ public class ScriptScoreBenchmark {
     public void setupScript() {
         factory = switch (script) {
             case "expression" -> scriptModule.engines.get("expression").compile("test", "doc['n'].value", ScoreScript.CONTEXT, Map.of());
-            case "metal" -> bareMetalScript();
+            case "metal" -> bareMetalScript(false);
+            case "metal_batch" -> bareMetalScript(true);
             case "painless_cast" -> scriptModule.engines.get("painless")
                 .compile(
                     "test",
@@ -115,6 +122,20 @@ public class ScriptScoreBenchmark {
                     Map.of()
                 );
             case "painless_def" -> scriptModule.engines.get("painless").compile("test", "doc['n'].value", ScoreScript.CONTEXT, Map.of());
+            // a def call site that sees more receiver types than its inline cache holds, but mostly one of them, so that it goes
+            // megamorphic and then specializes for that type
+            case "painless_def_megamorphic" -> scriptModule.engines.get("painless").compile("test", """
+                long n = doc['n'].value;
+                def v;
+                int k = (int) (n % 20);
+                if (k == 1) { v = (int) n; }
+                else if (k == 2) { v = (double) n; }
+                else if (k == 3) { v = (float) n; }
+                else if (k == 4) { v = (short) n; }
+                else if (k == 5) { v = (byte) n; }
+                else { v = n; }
+                return n + v.intValue() * 0;
+                """, ScoreScript.CONTEXT, Map.of());
             default -> throw new IllegalArgumentException("Don't know how to implement script [" + script + "]");
         };
     }
@@ -149,10 +170,20 @@ public class ScriptScoreBenchmark {
 
     private Query scriptScoreQuery(ScoreScript.Factory factory) {
         ScoreScript.LeafFactory leafFactory = factory.newFactory(Map.of(), lookup);
-        return new ScriptScoreQuery(new MatchAllDocsQuery(), null, leafFactory, lookup, null, "test", 0, IndexVersion.current());
+        return new ScriptScoreQuery(
+            new MatchAllDocsQuery(),
+            null,
+            leafFactory,
+            lookup,
+            null,
+            "test",
+            0,
+            IndexVersion.current(),
+            batchScoring
+        );
     }
 
-    private ScoreScript.Factory bareMetalScript() {
+    private ScoreScript.Factory bareMetalScript(boolean batch) {
         return (params, lookup) -> {
             MappedFieldType type = fieldTypes.get("n");
             IndexNumericFieldData ifd = (IndexNumericFieldData) lookup.getForField(type, MappedFieldType.FielddataOperation.SEARCH);
@@ -161,6 +192,7 @@ public class ScriptScoreBenchmark {
                 public ScoreScript newInstance(DocReader docReader) throws IOException {
                     SortedNumericDocValues values = ifd.load(((DocValuesDocReader) docReader).getLeafReaderContext()).getLongValues();
                     return new ScoreScript(params, null, docReader) {
+                        private long[] batchValues = new long[0];
                         private int docId;
 
                         @Override
@@ -176,6 +208,32 @@ public class ScriptScoreBenchmark {
                             }
                         }
 
+                        @Override
+                        public void executeBatch(int[] docIds, float[] subQueryScores, int count, double[] scores) {
+                            if (batch == false) {
+                                super.executeBatch(docIds, subQueryScores, count, scores);
+                                return;
+                            }
+                            // load all values first and then compute the scores in a loop over them
+                            if (batchValues.length < count) {
+                                batchValues = new long[count];
+                            }
+                            try {
+                                for (int i = 0; i < count; i++) {
+                                    values.advance(docIds[i]);
+                                    if (values.docValueCount() != 1) {
+                                        throw new IllegalArgumentException("script only works when there is exactly one value");
+                                    }
+                                    batchValues[i] = values.nextValue();
+                                }
+                            } catch (IOException e) {
+                                throw new RuntimeException(e);
+                            }
+                            for (int i = 0; i < count; i++) {
+                                scores[i] = batchValues[i];
+                            }
+                        }
+
                         @Override
                         public void setDocument(int docid) {
                             this.docId = docid;
@@ -0,0 +1,141 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.transport.netty4;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.transport.netty4.Netty4Plugin;
+import org.elasticsearch.transport.netty4.SharedGroupFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of heap buffers, as the transport layer writes them, over a loopback connection using the NIO or the native
+ * epoll transport.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class Netty4LoopbackBenchmark {
+
+    @Param({ "nio", "native" })
+    public String transport;
+
+    @Param({ "1024", "65536", "1048576" })
+    public int messageSize;
+
+    private final Semaphore roundTrips = new Semaphore(0);
+
+    private SharedGroupFactory.SharedGroup group;
+    private Channel serverChannel;
+    private Channel clientChannel;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws Exception {
+        Settings settings = Settings.builder()
+            .put(Netty4Plugin.NATIVE_TRANSPORT.getKey(), transport.equals("native"))
+            .put(Netty4Plugin.WORKER_COUNT.getKey(), 2)
+            .build();
+        SharedGroupFactory sharedGroupFactory = new SharedGroupFactory(settings);
+        if (sharedGroupFactory.isNativeTransport() != transport.equals("native")) {
+            throw new IllegalStateException("the native transport is not available");
+        }
+        group = sharedGroupFactory.getTransportGroup();
+
+        serverChannel = new ServerBootstrap().group(group.getLowLevelGroup())
+            .channel(group.getServerChannelType())
+            .option(ChannelOption.ALLOCATOR, group.getAllocator())
+            .childOption(ChannelOption.ALLOCATOR, group.getAllocator())
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childHandler(new EchoHandler())
+            .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+            .sync()
+            .channel();
+        clientChannel = new Bootstrap().group(group.getLowLevelGroup())
+            .channel(group.getChannelType())
+            .option(ChannelOption.ALLOCATOR, group.getAllocator())
+            .option(ChannelOption.TCP_NODELAY, true)
+            .handler(new RoundTripHandler())
+            .connect(serverChannel.localAddress())
+            .sync()
+            .channel();
+
+        payload = new byte[messageSize];
+        new Random(0).nextBytes(payload);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        clientChannel.close().sync();
+        serverChannel.close().sync();
+        group.shutdown();
+    }
+
+    @Benchmark
+    public void roundTrip() throws InterruptedException {
+        clientChannel.writeAndFlush(Unpooled.wrappedBuffer(payload));
+        roundTrips.acquire();
+    }
+
+    private static final class EchoHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ctx.write(msg);
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            ctx.flush();
+        }
+    }
+
+    private final class RoundTripHandler extends ChannelInboundHandlerAdapter {
+        private int received;
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            received += buf.readableBytes();
+            buf.release();
+            while (received >= messageSize) {
+                received -= messageSize;
+                roundTrips.release();
+            }
+        }
+    }
+}
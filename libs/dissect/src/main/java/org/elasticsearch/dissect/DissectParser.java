@@ -9,6 +9,9 @@
 
 package org.elasticsearch.dissect;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -95,9 +98,11 @@ public final class DissectParser {
         DissectKey.Modifier.APPEND_WITH_ORDER
     );
     private static final Function<DissectPair, String> KEY_NAME = val -> val.key().getName();
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
     private final List<DissectPair> matchPairs;
     private final String pattern;
     private String leadingDelimiter = "";
+    private final int leadingDelimiterLength;
     private final int maxMatches;
     private final int maxResults;
     private final int appendCount;
@@ -111,6 +116,7 @@ public final class DissectParser {
         while (matcher.find()) {
             leadingDelimiter = matcher.group(1);
         }
+        leadingDelimiterLength = leadingDelimiter.getBytes(StandardCharsets.UTF_8).length;
         List<DissectPair> dissectPairs = new ArrayList<>();
         matcher = KEY_DELIMITER_FIELD_PATTERN.matcher(pattern.substring(leadingDelimiter.length()));
         while (matcher.find()) {
@@ -195,49 +201,36 @@ public final class DissectParser {
         DissectMatch dissectMatch = new DissectMatch(appendSeparator, maxMatches, maxResults, appendCount, referenceCount);
         Iterator<DissectPair> it = matchPairs.iterator();
         // ensure leading delimiter matches
-        if (inputString != null
-            && inputString.length() > leadingDelimiter.length()
-            && leadingDelimiter.equals(inputString.substring(0, leadingDelimiter.length()))) {
+        if (inputString != null && inputString.length() > leadingDelimiter.length() && inputString.startsWith(leadingDelimiter)) {
             byte[] input = inputString.getBytes(StandardCharsets.UTF_8);
             // grab the first key/delimiter pair
             DissectPair dissectPair = it.next();
             DissectKey key = dissectPair.key();
-            byte[] delimiter = dissectPair.delimiter().getBytes(StandardCharsets.UTF_8);
+            byte[] delimiter = dissectPair.delimiterBytes();
             // start dissection after the first delimiter
-            int i = leadingDelimiter.getBytes(StandardCharsets.UTF_8).length;
+            int i = leadingDelimiterLength;
             int valueStart = i;
-            int lookAheadMatches;
-            // start walking the input string byte by byte, look ahead for matches where needed
-            // if a match is found jump forward to the end of the match
+            // jump from one occurrence of the first byte of the delimiter to the next, and check whether the entire delimiter matches
+            // there. if a match is found jump forward to the end of the match
             while (i < input.length) {
-                lookAheadMatches = 0;
                 // potential match between delimiter and input string
-                if (delimiter.length > 0 && input[i] == delimiter[0]) {
-                    // look ahead to see if the entire delimiter matches the input string
-                    for (int j = 0; j < delimiter.length; j++) {
-                        if (i + j < input.length && input[i + j] == delimiter[j]) {
-                            lookAheadMatches++;
-                        }
-                    }
+                final int candidate = delimiter.length > 0 ? indexOf(input, i, input.length, delimiter[0]) : -1;
+                if (candidate < 0) {
+                    i = input.length;
+                } else {
+                    i = candidate;
                     // found a full delimiter match
-                    if (lookAheadMatches == delimiter.length) {
+                    if (matchesAt(input, i, delimiter)) {
                         // record the key/value tuple
-                        byte[] value = Arrays.copyOfRange(input, valueStart, i);
-                        dissectMatch.add(key, new String(value, StandardCharsets.UTF_8));
+                        dissectMatch.add(key, new String(input, valueStart, i - valueStart, StandardCharsets.UTF_8));
                         // jump to the end of the match
-                        i += lookAheadMatches;
+                        i += delimiter.length;
                         // look for consecutive delimiters (e.g. a,,,,d,e)
                         while (i < input.length) {
-                            lookAheadMatches = 0;
-                            for (int j = 0; j < delimiter.length; j++) {
-                                if (i + j < input.length && input[i + j] == delimiter[j]) {
-                                    lookAheadMatches++;
-                                }
-                            }
                             // found consecutive delimiters
-                            if (lookAheadMatches == delimiter.length) {
+                            if (matchesAt(input, i, delimiter)) {
                                 // jump to the end of the match
-                                i += lookAheadMatches;
+                                i += delimiter.length;
                                 if (key.skipRightPadding() == false) {
                                     // progress the keys/delimiter if possible
                                     if (it.hasNext() == false) {
@@ -258,22 +251,18 @@ public final class DissectParser {
                         }
                         dissectPair = it.next();
                         key = dissectPair.key();
-                        delimiter = dissectPair.delimiter().getBytes(StandardCharsets.UTF_8);
+                        delimiter = dissectPair.delimiterBytes();
                         // i is always one byte after the last found delimiter, aka the start of the next value
                         valueStart = i;
                     } else {
                         i++;
                     }
-                } else {
-                    i++;
                 }
             }
             // the last key, grab the rest of the input (unless consecutive delimiters already grabbed the last key)
             // and there is no trailing delimiter
             if (dissectMatch.fullyMatched() == false && delimiter.length == 0) {
-                byte[] value = Arrays.copyOfRange(input, valueStart, input.length);
-                String valueString = new String(value, StandardCharsets.UTF_8);
-                dissectMatch.add(key, valueString);
+                dissectMatch.add(key, new String(input, valueStart, input.length - valueStart, StandardCharsets.UTF_8));
             }
         }
         Map<String, String> results = dissectMatch.getResults();
@@ -335,9 +324,42 @@ public final class DissectParser {
         return result;
     }
 
+    private static boolean matchesAt(byte[] input, int offset, byte[] delimiter) {
+        return offset + delimiter.length <= input.length
+            && Arrays.equals(input, offset, offset + delimiter.length, delimiter, 0, delimiter.length);
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code b} in {@code input} between {@code from} (inclusive) and {@code to}
+     * (exclusive), or -1 if there is none. Compares eight bytes at a time, using the classic "has zero byte" bit trick on the
+     * input xor'ed with the byte that is searched for.
+     */
+    static int indexOf(byte[] input, int from, int to, byte b) {
+        final long pattern = (b & 0xFFL) * 0x0101010101010101L;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            final long word = (long) LONG_LE.get(input, i) ^ pattern;
+            // the lowest set high bit marks the first zero byte, higher ones may be false positives caused by the borrow
+            final long found = (word - 0x0101010101010101L) & ~word & 0x8080808080808080L;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (input[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * A tuple class to hold the dissect key and delimiter
      */
-    private record DissectPair(DissectKey key, String delimiter) {}
+    private record DissectPair(DissectKey key, String delimiter, byte[] delimiterBytes) {
+        DissectPair(DissectKey key, String delimiter) {
+            this(key, delimiter, delimiter.getBytes(StandardCharsets.UTF_8));
+        }
+    }
 
 }
@@ -332,6 +332,47 @@ public class DissectParserTests extends ESTestCase {
         );
     }
 
+    public void testIndexOf() {
+        byte[] input = randomByteArrayOfLength(between(0, 64));
+        byte b = randomBoolean() && input.length > 0 ? randomFrom(input[0], input[input.length - 1]) : randomByte();
+        int from = between(0, input.length);
+        int to = between(from, input.length);
+        int expected = -1;
+        for (int i = from; i < to; i++) {
+            if (input[i] == b) {
+                expected = i;
+                break;
+            }
+        }
+        assertThat(DissectParser.indexOf(input, from, to, b), Matchers.equalTo(expected));
+    }
+
+    public void testValuesContainingPartialDelimiters() {
+        // the values contain the first byte of the delimiter at random offsets within and across 8 byte words, but as "|" only
+        // occurs within the delimiters every delimiter is found exactly where it was put
+        List<String> keys = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        StringBuilder pattern = new StringBuilder();
+        StringBuilder input = new StringBuilder();
+        int numKeys = between(1, 10);
+        for (int i = 0; i < numKeys; i++) {
+            StringBuilder value = new StringBuilder();
+            int length = between(1, 40);
+            for (int j = 0; j < length; j++) {
+                value.append(randomFrom('a', 'b', '-', 'é'));
+            }
+            keys.add("k" + i);
+            values.add(value.toString());
+            if (i > 0) {
+                pattern.append("-|-");
+                input.append("-|-");
+            }
+            pattern.append("%{k").append(i).append("}");
+            input.append(value);
+        }
+        assertMatch(pattern.toString(), input.toString(), keys, values);
+    }
+
     public void testTrimmedEnd() {
         assertMatch("%{a} %{b}", "foo bar", Arrays.asList("a", "b"), Arrays.asList("foo", "bar"));
         assertMatch("%{a} %{b->} ", "foo bar        ", Arrays.asList("a", "b"), Arrays.asList("foo", "bar"));
@@ -226,6 +226,20 @@ public final class Grok {
      * @throws RuntimeException if there was a timeout
      */
     public boolean match(byte[] utf8Bytes, int offset, int length, GrokCaptureExtracter extracter) {
+        Matcher matcher = search(utf8Bytes, offset, length);
+        if (matcher == null) {
+            return false;
+        }
+        extracter.extract(utf8Bytes, offset, matcher.getEagerRegion());
+        return true;
+    }
+
+    /**
+     * Searches for the leftmost match of the grok expression.
+     * @return the matcher positioned on the match, or {@code null} if there was no match
+     * @throws RuntimeException if there was a timeout
+     */
+    Matcher search(byte[] utf8Bytes, int offset, int length) {
         Matcher matcher = compiledExpression.matcher(utf8Bytes, offset, offset + length);
         int result;
         try {
@@ -239,11 +253,7 @@ public final class Grok {
                 "grok pattern matching was interrupted after [" + matcherWatchdog.maxExecutionTimeInMillis() + "] ms"
             );
         }
-        if (result == Matcher.FAILED) {
-            return false;
-        }
-        extracter.extract(utf8Bytes, offset, matcher.getEagerRegion());
-        return true;
+        return result == Matcher.FAILED ? null : matcher;
     }
 
     /**
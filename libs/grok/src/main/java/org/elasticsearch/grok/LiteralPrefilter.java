@@ -0,0 +1,240 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.grok;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Selects the grok patterns that can possibly match a text, based on literal text that each pattern requires to be present. All
+ * literals are compiled into a single Aho-Corasick automaton, so that one pass over the UTF-8 bytes of the text finds the literals
+ * of all patterns at once.
+ */
+final class LiteralPrefilter {
+
+    /**
+     * Literals shorter than this occur in almost every text, so that looking for them costs more than it saves.
+     */
+    static final int MIN_LITERAL_LENGTH = 3;
+
+    private final int numPatterns;
+    // patterns that do not require any literal, which are always candidates
+    private final BitSet unfiltered;
+    // maps each byte to its class, all bytes that do not appear in any literal share class 0
+    private final int[] byteClasses = new int[256];
+    private final int numClasses;
+    // the transitions of the automaton, state * numClasses + class, with failure transitions already resolved
+    private final int[] transitions;
+    // the patterns whose literal ends in each state, or null if there are none
+    private final BitSet[] outputs;
+
+    /**
+     * @param literals for each pattern the literal that it requires, or {@code null} if it does not require any
+     */
+    LiteralPrefilter(List<String> literals) {
+        this.numPatterns = literals.size();
+        this.unfiltered = new BitSet(numPatterns);
+        final List<byte[]> literalBytes = new ArrayList<>(numPatterns);
+        int nextClass = 1;
+        for (int i = 0; i < numPatterns; i++) {
+            final String literal = literals.get(i);
+            if (literal == null || literal.isEmpty()) {
+                unfiltered.set(i);
+                literalBytes.add(null);
+                continue;
+            }
+            final byte[] bytes = literal.getBytes(StandardCharsets.UTF_8);
+            for (byte b : bytes) {
+                if (byteClasses[b & 0xFF] == 0) {
+                    byteClasses[b & 0xFF] = nextClass++;
+                }
+            }
+            literalBytes.add(bytes);
+        }
+        this.numClasses = nextClass;
+
+        // build the trie of all literals
+        final List<int[]> rows = new ArrayList<>();
+        final List<BitSet> stateOutputs = new ArrayList<>();
+        rows.add(newRow());
+        stateOutputs.add(null);
+        for (int i = 0; i < numPatterns; i++) {
+            final byte[] bytes = literalBytes.get(i);
+            if (bytes == null) {
+                continue;
+            }
+            int state = 0;
+            for (byte b : bytes) {
+                final int c = byteClasses[b & 0xFF];
+                if (rows.get(state)[c] < 0) {
+                    rows.get(state)[c] = rows.size();
+                    rows.add(newRow());
+                    stateOutputs.add(null);
+                }
+                state = rows.get(state)[c];
+            }
+            if (stateOutputs.get(state) == null) {
+                stateOutputs.set(state, new BitSet(numPatterns));
+            }
+            stateOutputs.get(state).set(i);
+        }
+
+        // turn the trie into a deterministic automaton by resolving the failure links breadth first
+        final int[] failure = new int[rows.size()];
+        final Queue<Integer> queue = new ArrayDeque<>();
+        final int[] root = rows.get(0);
+        for (int c = 0; c < numClasses; c++) {
+            if (root[c] < 0) {
+                root[c] = 0;
+            } else {
+                failure[root[c]] = 0;
+                queue.add(root[c]);
+            }
+        }
+        while (queue.isEmpty() == false) {
+            final int state = queue.poll();
+            final int[] row = rows.get(state);
+            final BitSet inherited = stateOutputs.get(failure[state]);
+            if (inherited != null) {
+                if (stateOutputs.get(state) == null) {
+                    stateOutputs.set(state, new BitSet(numPatterns));
+                }
+                stateOutputs.get(state).or(inherited);
+            }
+            for (int c = 0; c < numClasses; c++) {
+                final int next = row[c];
+                if (next < 0) {
+                    row[c] = rows.get(failure[state])[c];
+                } else {
+                    failure[next] = rows.get(failure[state])[c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = new int[rows.size() * numClasses];
+        for (int state = 0; state < rows.size(); state++) {
+            System.arraycopy(rows.get(state), 0, transitions, state * numClasses, numClasses);
+        }
+        this.outputs = stateOutputs.toArray(new BitSet[0]);
+    }
+
+    private int[] newRow() {
+        final int[] row = new int[numClasses];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * Returns the patterns that may match the given text, i.e. those that do not require any literal and those whose literal occurs
+     * in the text.
+     */
+    BitSet candidates(byte[] utf8Bytes, int offset, int length) {
+        final BitSet candidates = (BitSet) unfiltered.clone();
+        if (transitions.length == numClasses) {
+            // there are no literals at all
+            return candidates;
+        }
+        int state = 0;
+        for (int i = offset; i < offset + length; i++) {
+            state = transitions[state * numClasses + byteClasses[utf8Bytes[i] & 0xFF]];
+            final BitSet output = outputs[state];
+            if (output != null) {
+                candidates.or(output);
+                if (candidates.cardinality() == numPatterns) {
+                    break;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Extracts the most selective literal that every match of the given grok pattern contains, or returns {@code null} if there is
+     * none, if it is shorter than {@link #MIN_LITERAL_LENGTH} or if it cannot be determined. Whitespace and punctuation, like the
+     * separators between grok references, are common in any text, so the literal with the most letters and digits is preferred and
+     * the longest one only breaks ties. Only patterns that are a plain sequence of grok references, literal text and single character
+     * escapes are considered, any group, alternation, character class or quantifier outside of grok references means that no literal
+     * is extracted, as the literal text around it may be optional.
+     */
+    static String requiredLiteral(String grokPattern) {
+        String best = null;
+        final StringBuilder current = new StringBuilder();
+        int i = 0;
+        while (i < grokPattern.length()) {
+            final char ch = grokPattern.charAt(i);
+            if (ch == '%' && i + 1 < grokPattern.length() && grokPattern.charAt(i + 1) == '{') {
+                // a grok reference can expand to anything, but it does not make the text around it optional
+                final int end = grokPattern.indexOf('}', i);
+                if (end < 0) {
+                    return null;
+                }
+                best = moreSelective(best, current);
+                i = end + 1;
+            } else if (ch == '\\') {
+                if (i + 1 >= grokPattern.length()) {
+                    return null;
+                }
+                final char escaped = grokPattern.charAt(i + 1);
+                if (Character.isLetterOrDigit(escaped)) {
+                    if ("sSdDwWbB".indexOf(escaped) < 0) {
+                        // escapes like \x41 or \k<name> are followed by characters that are not literal text
+                        return null;
+                    }
+                    best = moreSelective(best, current);
+                } else {
+                    current.append(escaped);
+                }
+                i += 2;
+            } else if ("()|?*+{}[]".indexOf(ch) >= 0) {
+                return null;
+            } else if (ch == '.' || ch == '^' || ch == '$') {
+                best = moreSelective(best, current);
+                i++;
+            } else {
+                current.append(ch);
+                i++;
+            }
+        }
+        best = moreSelective(best, current);
+        return best != null && best.length() >= MIN_LITERAL_LENGTH ? best : null;
+    }
+
+    private static String moreSelective(String best, StringBuilder current) {
+        if (current.isEmpty() == false) {
+            final String candidate = current.toString();
+            if (best == null) {
+                best = candidate;
+            } else {
+                final int cmp = Integer.compare(letterOrDigitCount(candidate), letterOrDigitCount(best));
+                if (cmp > 0 || (cmp == 0 && candidate.length() > best.length())) {
+                    best = candidate;
+                }
+            }
+        }
+        current.setLength(0);
+        return best;
+    }
+
+    private static int letterOrDigitCount(String literal) {
+        int count = 0;
+        for (int i = 0; i < literal.length(); i++) {
+            if (Character.isLetterOrDigit(literal.charAt(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.grok;
+
+import org.joni.Matcher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Matches text against a list of grok patterns and captures the values of the pattern that matches first, with the same result as a
+ * single {@link Grok} over the alternation of all patterns: the pattern whose match starts first wins, and the earliest pattern in
+ * the list wins among patterns that match at the same position.
+ * <p>
+ * Rather than trying every pattern on every text, literal text that each pattern requires is extracted up front, and a single pass of
+ * a {@link LiteralPrefilter} over the text selects the patterns that can match at all. Only those run through joni.
+ */
+public final class PrefilteredGrok {
+
+    private final List<Grok> groks;
+    private final LiteralPrefilter prefilter;
+
+    public PrefilteredGrok(
+        PatternBank patternBank,
+        List<String> grokPatterns,
+        MatcherWatchdog matcherWatchdog,
+        Consumer<String> logCallBack
+    ) {
+        this(patternBank, grokPatterns, matcherWatchdog, logCallBack, logCallBack);
+    }
+
+    /**
+     * @param logCallBack receives the warnings of the regular expression engine while matching
+     * @param warningCallBack receives the warnings of the regular expression engine once, when the patterns are compiled. Joni only
+     *                        emits warnings on an attempt to match, and then on every attempt, so this allows to report them at a
+     *                        higher level than {@code logCallBack} without flooding the logs.
+     */
+    public PrefilteredGrok(
+        PatternBank patternBank,
+        List<String> grokPatterns,
+        MatcherWatchdog matcherWatchdog,
+        Consumer<String> logCallBack,
+        Consumer<String> warningCallBack
+    ) {
+        if (grokPatterns.isEmpty()) {
+            throw new IllegalArgumentException("at least one grok pattern is required");
+        }
+        SwitchingCallBack callBack = new SwitchingCallBack(warningCallBack);
+        List<Grok> groks = new ArrayList<>(grokPatterns.size());
+        List<String> literals = new ArrayList<>(grokPatterns.size());
+        for (String grokPattern : grokPatterns) {
+            Grok grok = new Grok(patternBank, grokPattern, matcherWatchdog, callBack);
+            grok.match("___nomatch___");
+            groks.add(grok);
+            literals.add(LiteralPrefilter.requiredLiteral(grokPattern));
+        }
+        callBack.target = logCallBack;
+        this.groks = List.copyOf(groks);
+        this.prefilter = new LiteralPrefilter(literals);
+    }
+
+    /**
+     * Checks whether any of the grok patterns matches the text.
+     *
+     * @param text the string to match
+     * @return true if a grok pattern matches text or there is a timeout, false otherwise.
+     */
+    public boolean match(String text) {
+        byte[] utf8Bytes = text.getBytes(StandardCharsets.UTF_8);
+        BitSet candidates = prefilter.candidates(utf8Bytes, 0, utf8Bytes.length);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (groks.get(i).match(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Matches and returns any named captures of the first matching pattern.
+     *
+     * @param text the text to match and extract values from.
+     * @param matchedPattern receives the index of the pattern that matched, if any
+     * @return a map containing field names and their respective coerced values that matched or null if no pattern matched
+     * @throws RuntimeException if there was a timeout
+     */
+    public Map<String, Object> captures(String text, IntConsumer matchedPattern) {
+        byte[] utf8Bytes = text.getBytes(StandardCharsets.UTF_8);
+        BitSet candidates = prefilter.candidates(utf8Bytes, 0, utf8Bytes.length);
+        int bestPattern = -1;
+        Matcher bestMatcher = null;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            Matcher matcher = groks.get(i).search(utf8Bytes, 0, utf8Bytes.length);
+            // patterns are tried in order, so a later pattern only wins if its match starts strictly earlier
+            if (matcher != null && (bestMatcher == null || matcher.getBegin() < bestMatcher.getBegin())) {
+                bestPattern = i;
+                bestMatcher = matcher;
+                if (matcher.getBegin() == 0) {
+                    break;
+                }
+            }
+        }
+        if (bestMatcher == null) {
+            return null;
+        }
+        GrokCaptureExtracter.MapExtracter extracter = new GrokCaptureExtracter.MapExtracter(
+            groks.get(bestPattern).captureConfig(),
+            cfg -> cfg::objectExtracter
+        );
+        extracter.extract(utf8Bytes, 0, bestMatcher.getEagerRegion());
+        matchedPattern.accept(bestPattern);
+        return extracter.result();
+    }
+
+    private static final class SwitchingCallBack implements Consumer<String> {
+
+        private volatile Consumer<String> target;
+
+        private SwitchingCallBack(Consumer<String> target) {
+            this.target = target;
+        }
+
+        @Override
+        public void accept(String message) {
+            target.accept(message);
+        }
+    }
+}
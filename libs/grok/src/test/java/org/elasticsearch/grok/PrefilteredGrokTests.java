@@ -0,0 +1,172 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.grok;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PrefilteredGrokTests extends ESTestCase {
+
+    private static final List<String> PATTERNS = List.of(
+        "%{IPORHOST:client} %{USER:ident} %{USER:auth} \\[%{HTTPDATE:timestamp}\\] \"%{WORD:verb} %{NOTSPACE:request} "
+            + "HTTP/%{NUMBER:httpversion}\" %{NUMBER:response:int} %{NUMBER:bytes:int}",
+        "%{SYSLOGTIMESTAMP:timestamp} %{SYSLOGHOST:host} sshd\\[%{POSINT:pid}\\]: Failed password for %{USERNAME:user} "
+            + "from %{IP:source} port %{POSINT:port}",
+        "user=%{USERNAME:user} action=%{WORD:action}",
+        "(?:%{WORD:word}|%{NUMBER:number}) tail",
+        "%{TIMESTAMP_ISO8601:timestamp} %{LOGLEVEL:level} %{GREEDYDATA:message}"
+    );
+
+    private static final List<String> LINES = List.of(
+        "127.0.0.1 - frank [10/Oct/2000:13:55:36 -0700] \"GET /apache_pb.gif HTTP/1.0\" 200 2326",
+        "Oct 11 22:14:15 server sshd[4321]: Failed password for root from 10.0.0.1 port 22 ssh2",
+        "user=alice action=login",
+        "something user=bob action=logout and more",
+        "12 tail",
+        "2024-01-01T00:00:00Z INFO user=carol action=login",
+        "2024-01-01T00:00:00Z WARN something happened",
+        "tail",
+        "no match here"
+    );
+
+    public void testSameResultAsAlternation() {
+        PatternBank patternBank = GrokBuiltinPatterns.legacyPatterns();
+        List<String> patterns = new ArrayList<>(randomSubsetOf(between(1, PATTERNS.size()), PATTERNS));
+        PrefilteredGrok prefiltered = new PrefilteredGrok(patternBank, patterns, MatcherWatchdog.noop(), logMessage -> {});
+        StringBuilder alternation = new StringBuilder();
+        for (int i = 0; i < patterns.size(); i++) {
+            if (i > 0) {
+                alternation.append('|');
+            }
+            alternation.append("(?<pattern.").append(i).append('>').append(patterns.get(i)).append(')');
+        }
+        Grok combined = new Grok(patternBank, alternation.toString(), MatcherWatchdog.noop(), logMessage -> {});
+
+        for (int round = 0; round < 100; round++) {
+            String line = randomFrom(LINES);
+            if (randomBoolean()) {
+                // mutate the line so that literals go missing or move around
+                int from = between(0, line.length());
+                int to = between(from, line.length());
+                line = switch (between(0, 2)) {
+                    case 0 -> line.substring(0, from) + line.substring(to);
+                    case 1 -> line.substring(from, to);
+                    default -> line.substring(0, from) + randomAlphaOfLength(between(1, 5)) + line.substring(from);
+                };
+            }
+            Map<String, Object> expected = combined.captures(line);
+            int[] matchedPattern = new int[] { -1 };
+            Map<String, Object> actual = prefiltered.captures(line, index -> matchedPattern[0] = index);
+            assertThat(line, prefiltered.match(line), equalTo(expected != null));
+            if (expected == null) {
+                assertThat(line, actual, nullValue());
+                assertThat(matchedPattern[0], equalTo(-1));
+            } else {
+                Map<String, Object> expectedCaptures = new HashMap<>(expected);
+                int expectedPattern = -1;
+                for (int i = 0; i < patterns.size(); i++) {
+                    if (expectedCaptures.remove("pattern." + i) != null) {
+                        expectedPattern = i;
+                    }
+                }
+                assertThat(line, matchedPattern[0], equalTo(expectedPattern));
+                assertThat(line, actual, equalTo(expectedCaptures));
+            }
+        }
+    }
+
+    public void testRequiredLiteral() {
+        assertThat(LiteralPrefilter.requiredLiteral("%{IP:client} sshd\\[%{NUMBER:pid}\\]: Failed"), equalTo("]: Failed"));
+        assertThat(LiteralPrefilter.requiredLiteral("%{WORD}\\s%{WORD} GET /x"), equalTo(" GET /x"));
+        assertThat(LiteralPrefilter.requiredLiteral("abc.de"), equalTo("abc"));
+        assertThat(LiteralPrefilter.requiredLiteral("%{WORD:word}"), nullValue());
+        // text around groups, alternations, character classes and quantifiers may be optional
+        assertThat(LiteralPrefilter.requiredLiteral("foo|bar"), nullValue());
+        assertThat(LiteralPrefilter.requiredLiteral("(foo)? bar"), nullValue());
+        assertThat(LiteralPrefilter.requiredLiteral("foo[0-9] bar"), nullValue());
+        assertThat(LiteralPrefilter.requiredLiteral("fooo* bar"), nullValue());
+        assertThat(LiteralPrefilter.requiredLiteral("%{WORD}{2} bar"), nullValue());
+        assertThat(LiteralPrefilter.requiredLiteral("\\x41bc"), nullValue());
+    }
+
+    public void testRequiredLiteralPrefersSelectiveLiterals() {
+        // separators between grok references are in almost every text
+        assertThat(LiteralPrefilter.requiredLiteral("%{WORD:a} %{WORD:b}"), nullValue());
+        assertThat(LiteralPrefilter.requiredLiteral("%{WORD:a}: %{WORD:b}"), nullValue());
+        assertThat(LiteralPrefilter.requiredLiteral("%{WORD:a} ab %{WORD:b}"), equalTo(" ab "));
+        // letters and digits make a literal more selective than whitespace and punctuation
+        assertThat(LiteralPrefilter.requiredLiteral("%{IP:client} - - \\[%{HTTPDATE:timestamp}\\] \"GET"), equalTo("] \"GET"));
+        assertThat(LiteralPrefilter.requiredLiteral("%{WORD:a} ------ %{WORD:b} id=%{WORD:c}"), equalTo(" id="));
+        // the longest literal breaks ties
+        assertThat(LiteralPrefilter.requiredLiteral("%{WORD:a} [id] %{WORD:b}, id=%{WORD:c}"), equalTo(" [id] "));
+    }
+
+    public void testWarningsAreEmittedOnceOnConstruction() {
+        List<String> warnings = new ArrayList<>();
+        List<String> logged = new ArrayList<>();
+        PrefilteredGrok grok = new PrefilteredGrok(
+            GrokBuiltinPatterns.legacyPatterns(),
+            List.of("%{WORD:word} foo", ".*\\[.*%{SPACE}*\\].*"),
+            MatcherWatchdog.noop(),
+            logged::add,
+            warnings::add
+        );
+        // this message comes from Joni, so updates to Joni may change the expectation
+        assertThat(warnings, hasItem(containsString("regular expression has redundant nested repeat operator")));
+        assertThat(logged, empty());
+
+        int numWarnings = warnings.size();
+        assertTrue(grok.match("[foo]"));
+        assertThat(warnings, hasSize(numWarnings));
+    }
+
+    public void testCandidates() {
+        LiteralPrefilter prefilter = new LiteralPrefilter(Arrays.asList("he", "she", null, "hers", "xyz"));
+        assertThat(candidates(prefilter, "ushers"), equalTo(bits(0, 1, 2, 3)));
+        assertThat(candidates(prefilter, "nothing"), equalTo(bits(2)));
+        assertThat(candidates(prefilter, "xyzhe"), equalTo(bits(0, 2, 4)));
+        assertThat(candidates(prefilter, ""), equalTo(bits(2)));
+
+        String literal = randomAlphaOfLength(between(1, 10));
+        prefilter = new LiteralPrefilter(List.of(literal));
+        String prefix = randomAlphaOfLength(between(0, 10));
+        String suffix = randomAlphaOfLength(between(0, 10));
+        assertThat(candidates(prefilter, prefix + literal + suffix), equalTo(bits(0)));
+        String text = randomAlphaOfLength(between(0, 20));
+        assertThat(candidates(prefilter, text).get(0), equalTo(text.contains(literal)));
+    }
+
+    private static BitSet candidates(LiteralPrefilter prefilter, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return prefilter.candidates(bytes, 0, bytes.length);
+    }
+
+    private static BitSet bits(int... indices) {
+        BitSet bits = new BitSet();
+        for (int index : indices) {
+            bits.set(index);
+        }
+        return bits;
+    }
+}
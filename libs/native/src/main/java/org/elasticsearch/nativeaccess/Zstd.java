@@ -11,6 +11,7 @@ package org.elasticsearch.nativeaccess;
 
 import org.elasticsearch.nativeaccess.lib.ZstdLibrary;
 
+import java.io.Closeable;
 import java.nio.ByteBuffer;
 import java.util.Objects;
 
@@ -54,6 +55,98 @@ public final class Zstd {
         return (int) ret;
     }
 
+    /**
+     * Digest the content of {@code dict} for compression at compression level {@code level}. {@code dict} may either be a dictionary
+     * produced by {@link #trainDictionary} or raw content. Digesting a dictionary is expensive, so the returned dictionary should be
+     * reused for all the content that it compresses. The content of {@code dict} is copied, so {@code dict} may be closed once this
+     * method returns. {@link ByteBuffer#position()} and {@link ByteBuffer#limit()} of {@code dict} are left unmodified.
+     */
+    public CompressionDictionary newCompressionDictionary(CloseableByteBuffer dict, int level) {
+        Objects.requireNonNull(dict, "Null dictionary buffer");
+        ZstdLibrary.CDict cdict = zstdLib.createCDict(dict, level);
+        if (cdict == null) {
+            throw new IllegalArgumentException("Failed to create a zstd compression dictionary");
+        }
+        ZstdLibrary.CCtx cctx = zstdLib.createCCtx();
+        if (cctx == null) {
+            zstdLib.freeCDict(cdict);
+            throw new OutOfMemoryError("Failed to allocate a zstd compression context");
+        }
+        return new CompressionDictionary(cdict, cctx);
+    }
+
+    /**
+     * Digest the content of {@code dict} for decompression. Digesting a dictionary is expensive, so the returned dictionary should be
+     * reused for all the content that it decompresses. The content of {@code dict} is copied, so {@code dict} may be closed once this
+     * method returns. {@link ByteBuffer#position()} and {@link ByteBuffer#limit()} of {@code dict} are left unmodified.
+     */
+    public DecompressionDictionary newDecompressionDictionary(CloseableByteBuffer dict) {
+        Objects.requireNonNull(dict, "Null dictionary buffer");
+        ZstdLibrary.DDict ddict = zstdLib.createDDict(dict);
+        if (ddict == null) {
+            throw new IllegalArgumentException("Failed to create a zstd decompression dictionary");
+        }
+        return new DecompressionDictionary(ddict);
+    }
+
+    /**
+     * Compress the content of {@code src} into {@code dst} using dictionary {@code dict}, and return the number of compressed bytes. The
+     * compression level is the one that the dictionary was created with. {@link ByteBuffer#position()} and {@link ByteBuffer#limit()} of
+     * both {@link ByteBuffer}s are left unmodified.
+     */
+    public int compress(CloseableByteBuffer dst, CloseableByteBuffer src, CompressionDictionary dict) {
+        Objects.requireNonNull(dst, "Null destination buffer");
+        Objects.requireNonNull(src, "Null source buffer");
+        Objects.requireNonNull(dict, "Null dictionary");
+        dict.ensureOpen();
+        long ret = zstdLib.compressUsingCDict(dict.cctx, dst, src, dict.cdict);
+        if (zstdLib.isError(ret)) {
+            throw new IllegalArgumentException(zstdLib.getErrorName(ret));
+        } else if (ret < 0 || ret > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Integer overflow? ret=" + ret);
+        }
+        return (int) ret;
+    }
+
+    /**
+     * Decompress the content of {@code src} into {@code dst} using a dictionary {@code dict} that has the same content as the one that
+     * was used for compression, and return the number of decompressed bytes. {@link ByteBuffer#position()} and {@link ByteBuffer#limit()}
+     * of both {@link ByteBuffer}s are left unmodified.
+     */
+    public int decompress(CloseableByteBuffer dst, CloseableByteBuffer src, DecompressionDictionary dict) {
+        Objects.requireNonNull(dst, "Null destination buffer");
+        Objects.requireNonNull(src, "Null source buffer");
+        Objects.requireNonNull(dict, "Null dictionary");
+        dict.ensureOpen();
+        long ret = zstdLib.decompressUsingDDict(dst, src, dict.ddict);
+        if (zstdLib.isError(ret)) {
+            throw new IllegalArgumentException(zstdLib.getErrorName(ret));
+        } else if (ret < 0 || ret > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Integer overflow? ret=" + ret);
+        }
+        return (int) ret;
+    }
+
+    /**
+     * Train a dictionary from the samples that are stored back to back in {@code samples}, whose lengths are given by {@code sampleSizes},
+     * and write it into {@code dict}. Returns the size of the dictionary, which is at most the remaining capacity of {@code dict}.
+     * Training fails with an {@link IllegalArgumentException} if the samples are too small or too few to build a useful dictionary, in
+     * which case callers may want to fall back to using raw content as a dictionary. {@link ByteBuffer#position()} and
+     * {@link ByteBuffer#limit()} of both {@link ByteBuffer}s are left unmodified.
+     */
+    public int trainDictionary(CloseableByteBuffer dict, CloseableByteBuffer samples, int[] sampleSizes) {
+        Objects.requireNonNull(dict, "Null dictionary buffer");
+        Objects.requireNonNull(samples, "Null samples buffer");
+        Objects.requireNonNull(sampleSizes, "Null sample sizes");
+        long ret = zstdLib.trainFromBuffer(dict, samples, sampleSizes);
+        if (zstdLib.isError(ret)) {
+            throw new IllegalArgumentException(zstdLib.getErrorName(ret));
+        } else if (ret < 0 || ret > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Integer overflow? ret=" + ret);
+        }
+        return (int) ret;
+    }
+
     /**
      * Return the maximum number of compressed bytes given an input length.
      */
@@ -71,4 +164,63 @@ public final class Zstd {
         }
         return (int) ret;
     }
+
+    /**
+     * A dictionary that was digested for compression, together with the compression context that uses it. Instances are not thread-safe
+     * and must be closed to release native memory.
+     */
+    public final class CompressionDictionary implements Closeable {
+
+        private final ZstdLibrary.CDict cdict;
+        private final ZstdLibrary.CCtx cctx;
+        private boolean closed;
+
+        private CompressionDictionary(ZstdLibrary.CDict cdict, ZstdLibrary.CCtx cctx) {
+            this.cdict = cdict;
+            this.cctx = cctx;
+        }
+
+        private void ensureOpen() {
+            if (closed) {
+                throw new IllegalStateException("Compression dictionary is closed");
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed == false) {
+                closed = true;
+                zstdLib.freeCCtx(cctx);
+                zstdLib.freeCDict(cdict);
+            }
+        }
+    }
+
+    /**
+     * A dictionary that was digested for decompression. Instances may be used concurrently by several threads, and must be closed to
+     * release native memory once no thread uses them anymore.
+     */
+    public final class DecompressionDictionary implements Closeable {
+
+        private final ZstdLibrary.DDict ddict;
+        private volatile boolean closed;
+
+        private DecompressionDictionary(ZstdLibrary.DDict ddict) {
+            this.ddict = ddict;
+        }
+
+        private void ensureOpen() {
+            if (closed) {
+                throw new IllegalStateException("Decompression dictionary is closed");
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed == false) {
+                closed = true;
+                zstdLib.freeDDict(ddict);
+            }
+        }
+    }
 }
@@ -13,6 +13,7 @@ import org.elasticsearch.nativeaccess.CloseableByteBuffer;
 import org.elasticsearch.nativeaccess.lib.LoaderHelper;
 import org.elasticsearch.nativeaccess.lib.ZstdLibrary;
 
+import java.lang.foreign.Arena;
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.MemorySegment;
 import java.lang.invoke.MethodHandle;
@@ -40,6 +41,32 @@ class JdkZstdLibrary implements ZstdLibrary {
         "ZSTD_decompress",
         FunctionDescriptor.of(JAVA_LONG, ADDRESS, JAVA_INT, ADDRESS, JAVA_INT)
     );
+    private static final MethodHandle createCCtx$mh = downcallHandle("ZSTD_createCCtx", FunctionDescriptor.of(ADDRESS));
+    private static final MethodHandle freeCCtx$mh = downcallHandle("ZSTD_freeCCtx", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
+    private static final MethodHandle createDCtx$mh = downcallHandle("ZSTD_createDCtx", FunctionDescriptor.of(ADDRESS));
+    private static final MethodHandle freeDCtx$mh = downcallHandle("ZSTD_freeDCtx", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
+    private static final MethodHandle createCDict$mh = downcallHandle(
+        "ZSTD_createCDict",
+        FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_LONG, JAVA_INT)
+    );
+    private static final MethodHandle freeCDict$mh = downcallHandle("ZSTD_freeCDict", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
+    private static final MethodHandle createDDict$mh = downcallHandle(
+        "ZSTD_createDDict",
+        FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_LONG)
+    );
+    private static final MethodHandle freeDDict$mh = downcallHandle("ZSTD_freeDDict", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
+    private static final MethodHandle compressUsingCDict$mh = downcallHandle(
+        "ZSTD_compress_usingCDict",
+        FunctionDescriptor.of(JAVA_LONG, ADDRESS, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG, ADDRESS)
+    );
+    private static final MethodHandle decompressUsingDDict$mh = downcallHandle(
+        "ZSTD_decompress_usingDDict",
+        FunctionDescriptor.of(JAVA_LONG, ADDRESS, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG, ADDRESS)
+    );
+    private static final MethodHandle trainFromBuffer$mh = downcallHandle(
+        "ZDICT_trainFromBuffer",
+        FunctionDescriptor.of(JAVA_LONG, ADDRESS, JAVA_LONG, ADDRESS, ADDRESS, JAVA_INT)
+    );
 
     @Override
     public long compressBound(int srcLen) {
@@ -102,4 +129,161 @@ class JdkZstdLibrary implements ZstdLibrary {
             throw new AssertionError(t);
         }
     }
+
+    record JdkCDict(MemorySegment segment) implements CDict {}
+
+    record JdkDDict(MemorySegment segment) implements DDict {}
+
+    record JdkCCtx(MemorySegment segment) implements CCtx {}
+
+    @Override
+    public CDict createCDict(CloseableByteBuffer dict, int compressionLevel) {
+        assert dict instanceof JdkCloseableByteBuffer;
+        var segmentDict = slice(dict);
+        try {
+            // ZSTD_createCDict copies the dictionary, so the buffer may be released once this returns
+            MemorySegment cdict = (MemorySegment) createCDict$mh.invokeExact(segmentDict, segmentDict.byteSize(), compressionLevel);
+            return cdict.equals(MemorySegment.NULL) ? null : new JdkCDict(cdict);
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public void freeCDict(CDict cdict) {
+        assert cdict instanceof JdkCDict;
+        try {
+            long ignored = (long) freeCDict$mh.invokeExact(((JdkCDict) cdict).segment());
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public DDict createDDict(CloseableByteBuffer dict) {
+        assert dict instanceof JdkCloseableByteBuffer;
+        var segmentDict = slice(dict);
+        try {
+            // ZSTD_createDDict copies the dictionary, so the buffer may be released once this returns
+            MemorySegment ddict = (MemorySegment) createDDict$mh.invokeExact(segmentDict, segmentDict.byteSize());
+            return ddict.equals(MemorySegment.NULL) ? null : new JdkDDict(ddict);
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public void freeDDict(DDict ddict) {
+        assert ddict instanceof JdkDDict;
+        try {
+            long ignored = (long) freeDDict$mh.invokeExact(((JdkDDict) ddict).segment());
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public CCtx createCCtx() {
+        try {
+            MemorySegment cctx = (MemorySegment) createCCtx$mh.invokeExact();
+            return cctx.equals(MemorySegment.NULL) ? null : new JdkCCtx(cctx);
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public void freeCCtx(CCtx cctx) {
+        assert cctx instanceof JdkCCtx;
+        try {
+            long ignored = (long) freeCCtx$mh.invokeExact(((JdkCCtx) cctx).segment());
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public long compressUsingCDict(CCtx cctx, CloseableByteBuffer dst, CloseableByteBuffer src, CDict cdict) {
+        assert cctx instanceof JdkCCtx;
+        assert dst instanceof JdkCloseableByteBuffer;
+        assert src instanceof JdkCloseableByteBuffer;
+        assert cdict instanceof JdkCDict;
+        var segmentDst = slice(dst);
+        var segmentSrc = slice(src);
+        try {
+            return (long) compressUsingCDict$mh.invokeExact(
+                ((JdkCCtx) cctx).segment(),
+                segmentDst,
+                segmentDst.byteSize(),
+                segmentSrc,
+                segmentSrc.byteSize(),
+                ((JdkCDict) cdict).segment()
+            );
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    @Override
+    public long decompressUsingDDict(CloseableByteBuffer dst, CloseableByteBuffer src, DDict ddict) {
+        assert dst instanceof JdkCloseableByteBuffer;
+        assert src instanceof JdkCloseableByteBuffer;
+        assert ddict instanceof JdkDDict;
+        var segmentDst = slice(dst);
+        var segmentSrc = slice(src);
+        MemorySegment dctx = null;
+        try {
+            dctx = (MemorySegment) createDCtx$mh.invokeExact();
+            if (dctx.equals(MemorySegment.NULL)) {
+                throw new OutOfMemoryError("Failed to allocate a zstd decompression context");
+            }
+            return (long) decompressUsingDDict$mh.invokeExact(
+                dctx,
+                segmentDst,
+                segmentDst.byteSize(),
+                segmentSrc,
+                segmentSrc.byteSize(),
+                ((JdkDDict) ddict).segment()
+            );
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        } finally {
+            if (dctx != null) {
+                freeDCtx(dctx);
+            }
+        }
+    }
+
+    @Override
+    public long trainFromBuffer(CloseableByteBuffer dict, CloseableByteBuffer samples, int[] sampleSizes) {
+        assert dict instanceof JdkCloseableByteBuffer;
+        assert samples instanceof JdkCloseableByteBuffer;
+        var segmentDict = slice(dict);
+        var segmentSamples = slice(samples);
+        try (Arena arena = Arena.ofConfined()) {
+            // ZDICT expects the sizes of the samples as an array of size_t
+            MemorySegment sizes = ArenaUtil.allocate(arena, JAVA_LONG, sampleSizes.length);
+            for (int i = 0; i < sampleSizes.length; i++) {
+                sizes.setAtIndex(JAVA_LONG, i, sampleSizes[i]);
+            }
+            return (long) trainFromBuffer$mh.invokeExact(segmentDict, segmentDict.byteSize(), segmentSamples, sizes, sampleSizes.length);
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    private static MemorySegment slice(CloseableByteBuffer buffer) {
+        var nativeBuffer = (JdkCloseableByteBuffer) buffer;
+        return nativeBuffer.segment.asSlice(buffer.buffer().position(), buffer.buffer().remaining());
+    }
+
+    private static void freeDCtx(MemorySegment dctx) {
+        try {
+            long ignored = (long) freeDCtx$mh.invokeExact(dctx);
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
 }
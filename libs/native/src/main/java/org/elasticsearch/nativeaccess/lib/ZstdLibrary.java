@@ -22,4 +22,46 @@ public non-sealed interface ZstdLibrary extends NativeLibrary {
     String getErrorName(long code);
 
     long decompress(CloseableByteBuffer dst, CloseableByteBuffer src);
+
+    /**
+     * Marker interface for a ZSTD_CDict, a dictionary that was digested for compression at a given level.
+     */
+    interface CDict {}
+
+    /**
+     * Marker interface for a ZSTD_DDict, a dictionary that was digested for decompression.
+     */
+    interface DDict {}
+
+    /**
+     * Marker interface for a ZSTD_CCtx, a compression context that can be reused across compressions.
+     */
+    interface CCtx {}
+
+    /**
+     * Returns the digested dictionary, or {@code null} if it could not be created.
+     */
+    CDict createCDict(CloseableByteBuffer dict, int compressionLevel);
+
+    void freeCDict(CDict cdict);
+
+    /**
+     * Returns the digested dictionary, or {@code null} if it could not be created.
+     */
+    DDict createDDict(CloseableByteBuffer dict);
+
+    void freeDDict(DDict ddict);
+
+    /**
+     * Returns the context, or {@code null} if it could not be created.
+     */
+    CCtx createCCtx();
+
+    void freeCCtx(CCtx cctx);
+
+    long compressUsingCDict(CCtx cctx, CloseableByteBuffer dst, CloseableByteBuffer src, CDict cdict);
+
+    long decompressUsingDDict(CloseableByteBuffer dst, CloseableByteBuffer src, DDict ddict);
+
+    long trainFromBuffer(CloseableByteBuffer dict, CloseableByteBuffer samples, int[] sampleSizes);
 }
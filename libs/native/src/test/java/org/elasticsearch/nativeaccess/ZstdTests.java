@@ -13,6 +13,7 @@ import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matchers;
 import org.junit.BeforeClass;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 import static org.hamcrest.Matchers.equalTo;
@@ -103,6 +104,70 @@ public class ZstdTests extends ESTestCase {
         doTestRoundtrip(b);
     }
 
+    public void testRoundtripWithRawContentDictionary() {
+        byte[] dict = "{\"@timestamp\":\"2024-01-01T00:00:00Z\",\"message\":\"GET /index.html HTTP/1.1\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] data = "{\"@timestamp\":\"2024-01-02T00:00:00Z\",\"message\":\"GET /about.html HTTP/1.1\"}".getBytes(StandardCharsets.UTF_8);
+        try (
+            var dictionary = nativeAccess.newBuffer(dict.length);
+            var original = nativeAccess.newBuffer(data.length);
+            var compressed = nativeAccess.newBuffer(zstd.compressBound(data.length));
+            var compressedNoDict = nativeAccess.newBuffer(zstd.compressBound(data.length));
+            var restored = nativeAccess.newBuffer(data.length)
+        ) {
+            dictionary.buffer().put(0, dict);
+            original.buffer().put(0, data);
+            try (
+                var compressionDictionary = zstd.newCompressionDictionary(dictionary, randomIntBetween(-3, 9));
+                var decompressionDictionary = zstd.newDecompressionDictionary(dictionary)
+            ) {
+                // digested dictionaries are reused across blocks
+                for (int i = 0; i < 3; i++) {
+                    compressed.buffer().clear();
+                    int compressedLength = zstd.compress(compressed, original, compressionDictionary);
+                    assertThat(compressedLength, Matchers.lessThan(zstd.compress(compressedNoDict, original, 3)));
+                    compressed.buffer().limit(compressedLength);
+                    restored.buffer().clear();
+                    int decompressedLength = zstd.decompress(restored, compressed, decompressionDictionary);
+                    assertThat(decompressedLength, equalTo(data.length));
+                    assertThat(restored.buffer(), equalTo(original.buffer()));
+                }
+                compressionDictionary.close();
+                decompressionDictionary.close();
+                expectThrows(IllegalStateException.class, () -> zstd.compress(compressedNoDict, original, compressionDictionary));
+                expectThrows(IllegalStateException.class, () -> zstd.decompress(restored, compressed, decompressionDictionary));
+            }
+        }
+    }
+
+    public void testTrainDictionary() {
+        int numSamples = 1000;
+        int[] sampleSizes = new int[numSamples];
+        StringBuilder samples = new StringBuilder();
+        for (int i = 0; i < numSamples; ++i) {
+            String sample = "{\"@timestamp\":\""
+                + (1_700_000_000L + i)
+                + "\",\"host\":\"host-"
+                + (i % 17)
+                + "\",\"message\":\"request "
+                + randomAlphaOfLength(8)
+                + " served\"}";
+            sampleSizes[i] = sample.length();
+            samples.append(sample);
+        }
+        byte[] samplesBytes = samples.toString().getBytes(StandardCharsets.UTF_8);
+        try (var dict = nativeAccess.newBuffer(4096); var samplesBuffer = nativeAccess.newBuffer(samplesBytes.length)) {
+            samplesBuffer.buffer().put(0, samplesBytes);
+            int dictLength = zstd.trainDictionary(dict, samplesBuffer, sampleSizes);
+            assertThat(dictLength, Matchers.greaterThan(0));
+            assertThat(dictLength, Matchers.lessThanOrEqualTo(4096));
+        }
+
+        try (var dict = nativeAccess.newBuffer(4096); var samplesBuffer = nativeAccess.newBuffer(2)) {
+            // not enough samples to train a dictionary
+            expectThrows(IllegalArgumentException.class, () -> zstd.trainDictionary(dict, samplesBuffer, new int[] { 1, 1 }));
+        }
+    }
+
     private void doTestRoundtrip(byte[] data) {
         try (
             var original = nativeAccess.newBuffer(data.length);
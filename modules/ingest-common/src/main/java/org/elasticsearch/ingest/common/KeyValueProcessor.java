@@ -114,7 +114,7 @@ public final class KeyValueProcessor extends AbstractProcessor {
         final Function<String, String> keyTrimmer = buildTrimmer(trimKey);
         final Function<String, String> bracketStrip;
         if (stripBrackets) {
-            bracketStrip = val -> STRIP_BRACKETS.matcher(val).replaceAll("");
+            bracketStrip = KeyValueProcessor::stripBrackets;
         } else {
             bracketStrip = val -> val;
         }
@@ -171,6 +171,10 @@ public final class KeyValueProcessor extends AbstractProcessor {
             return val -> val;
         } else {
             Pattern pattern = Pattern.compile("(^([" + trim + "]+))|([" + trim + "]+$)");
+            if (isPlainCharacterSet(trim)) {
+                // the characters to trim are a simple set, trim them by walking the string from both ends instead of running the regex
+                return val -> endsWithLineTerminator(val) ? pattern.matcher(val).replaceAll("") : trim(val, trim);
+            }
             return val -> {
                 try {
                     return pattern.matcher(val).replaceAll("");
@@ -181,6 +185,72 @@ public final class KeyValueProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * Whether the given content of a regex character class only consists of characters that stand for themselves.
+     */
+    static boolean isPlainCharacterSet(String chars) {
+        if (chars.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c == '\\' || c == '[' || c == ']' || c == '^' || c == '-' || c == '&' || Character.isSurrogate(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the leading and trailing characters of {@code val} that are contained in {@code chars}.
+     */
+    static String trim(String val, String chars) {
+        int start = 0;
+        int end = val.length();
+        while (start < end && chars.indexOf(val.charAt(start)) >= 0) {
+            start++;
+        }
+        while (end > start && chars.indexOf(val.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return val.substring(start, end);
+    }
+
+    /**
+     * Removes one leading opening and one trailing closing bracket or quote, like {@link #STRIP_BRACKETS} does.
+     */
+    static String stripBrackets(String val) {
+        if (endsWithLineTerminator(val)) {
+            // "$" also matches right before a final line terminator, leave that subtlety to the regex
+            return STRIP_BRACKETS.matcher(val).replaceAll("");
+        }
+        int start = 0;
+        int end = val.length();
+        if (start < end && isOpeningBracket(val.charAt(start))) {
+            start++;
+        }
+        if (start < end && isClosingBracket(val.charAt(end - 1))) {
+            end--;
+        }
+        return val.substring(start, end);
+    }
+
+    private static boolean isOpeningBracket(char c) {
+        return c == '(' || c == '[' || c == '<' || c == '"' || c == '\'';
+    }
+
+    private static boolean isClosingBracket(char c) {
+        return c == ']' || c == ')' || c == '>' || c == '"' || c == '\'';
+    }
+
+    private static boolean endsWithLineTerminator(String val) {
+        if (val.isEmpty()) {
+            return false;
+        }
+        char c = val.charAt(val.length() - 1);
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
     private Function<String, String[]> buildSplitter(String split, boolean fields) {
         int limit = fields ? 0 : 2;
         if (split.length() > 2 || split.length() == 2 && split.charAt(0) != '\\') {
@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import static org.elasticsearch.ingest.IngestDocumentMatcher.assertIngestDocument;
 import static org.hamcrest.Matchers.equalTo;
@@ -183,6 +184,24 @@ public class KeyValueProcessorTests extends ESTestCase {
         assertThat(ingestDocument.getFieldValue("target.fifth", String.class), equalTo("last"));
     }
 
+    public void testTrimAndStripBracketsWithoutRegex() {
+        String value = randomFrom("", "'", "\"\"", "(", "]") + randomAlphaOfLengthBetween(0, 5) + randomFrom("", " ", "'", ")>", "\n");
+        String regexStripped = Pattern.compile("(^[\\(\\[<\"'])|([\\]\\)>\"']$)").matcher(value).replaceAll("");
+        assertThat(KeyValueProcessor.stripBrackets(value), equalTo(regexStripped));
+
+        String trim = randomFrom(" ", "<>,", "%+", ".:\"");
+        assertTrue(KeyValueProcessor.isPlainCharacterSet(trim));
+        String toTrim = randomFrom("", " ", "<", ".,") + randomAlphaOfLengthBetween(0, 5) + randomFrom("", "%", " >", ":+:");
+        String regexTrimmed = Pattern.compile("(^([" + trim + "]+))|([" + trim + "]+$)").matcher(toTrim).replaceAll("");
+        assertThat(KeyValueProcessor.trim(toTrim, trim), equalTo(regexTrimmed));
+        assertThat(KeyValueProcessor.trim(" \t:a: b:", " :"), equalTo("\t:a: b"));
+        assertThat(KeyValueProcessor.trim("::", ":"), equalTo(""));
+
+        for (String special : List.of("\\s", "a-z", "^a", "[a]", "a&&b", "")) {
+            assertFalse(KeyValueProcessor.isPlainCharacterSet(special));
+        }
+    }
+
     public void testAddPrefix() throws Exception {
         IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random());
         String fieldName = RandomDocumentPicks.addRandomField(random(), ingestDocument, "first=hello&second=world&second=universe");
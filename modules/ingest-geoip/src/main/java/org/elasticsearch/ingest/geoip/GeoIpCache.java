@@ -10,13 +10,13 @@ package org.elasticsearch.ingest.geoip;
 
 import com.maxmind.db.NodeCache;
 
-import org.elasticsearch.common.cache.Cache;
-import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.ingest.geoip.stats.CacheStats;
 
 import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 import java.util.function.LongSupplier;
 
@@ -25,6 +25,15 @@ import java.util.function.LongSupplier;
  * This cache differs from the maxmind's {@link NodeCache} such that this cache stores the deserialized Json objects to avoid the
  * cost of deserialization for each lookup (cached or not). This comes at slight expense of higher memory usage, but significant
  * reduction of CPU usage.
+ * <p>
+ * Every ingest thread that runs a geoip processor goes through this cache, so lookups must not contend on locks. Entries are hashed
+ * to one of many small sets of {@link #WAYS} slots, and a lookup only reads the slots of one set. A miss replaces the least recently
+ * used entry of its set with a compare-and-set, so the cache is LRU within each set rather than globally. Caches that are not larger
+ * than a single set are exactly LRU.
+ * <p>
+ * The cache is made of whole sets, so its capacity is the configured size rounded up to the next multiple of {@link #WAYS}. It can
+ * therefore hold up to {@code WAYS - 1} entries more than configured, but an entry may be evicted before the cache is full if its set
+ * is.
  */
 public final class GeoIpCache {
 
@@ -41,35 +50,61 @@ public final class GeoIpCache {
         }
     };
 
+    // visible for testing
+    static final int WAYS = 8;
+    private static final int MAX_SETS = 1 << 24;
+
     private final LongSupplier relativeNanoTimeProvider;
-    private final Cache<CacheKey, Object> cache;
+    private final int ways;
+    private final int numSets;
+    // the sets are only allocated once they are used, so that large cache sizes do not cost memory up front
+    private final AtomicReferenceArray<AtomicReferenceArray<Entry>> sets;
+    private final CounterMetric count = new CounterMetric();
+    private final CounterMetric hits = new CounterMetric();
+    private final CounterMetric misses = new CounterMetric();
+    private final CounterMetric evictions = new CounterMetric();
     private final AtomicLong hitsTimeInNanos = new AtomicLong(0);
     private final AtomicLong missesTimeInNanos = new AtomicLong(0);
 
+    /**
+     * @param maxSize the number of entries to cache, rounded up to a whole number of sets (capped at {@code 2^24} sets)
+     */
     // package private for testing
     GeoIpCache(long maxSize, LongSupplier relativeNanoTimeProvider) {
         if (maxSize < 0) {
             throw new IllegalArgumentException("geoip max cache size must be 0 or greater");
         }
         this.relativeNanoTimeProvider = relativeNanoTimeProvider;
-        this.cache = CacheBuilder.<CacheKey, Object>builder().setMaximumWeight(maxSize).build();
+        this.ways = (int) Math.min(maxSize, WAYS);
+        this.numSets = ways == 0 ? 0 : (int) Math.min((maxSize + ways - 1) / ways, MAX_SETS);
+        this.sets = new AtomicReferenceArray<>(numSets);
     }
 
     GeoIpCache(long maxSize) {
         this(maxSize, System::nanoTime);
     }
 
+    // visible for testing
+    long capacity() {
+        return (long) ways * numSets;
+    }
+
     @SuppressWarnings("unchecked")
     <RESPONSE> RESPONSE putIfAbsent(String ip, String databasePath, Function<String, RESPONSE> retrieveFunction) {
-        // can't use cache.computeIfAbsent due to the elevated permissions for the jackson (run via the cache loader)
-        CacheKey cacheKey = new CacheKey(ip, databasePath);
         long cacheStart = relativeNanoTimeProvider.getAsLong();
         // intentionally non-locking for simplicity...it's OK if we re-put the same key/value in the cache during a race condition.
-        Object response = cache.get(cacheKey);
-        long cacheRequestTime = relativeNanoTimeProvider.getAsLong() - cacheStart;
-
-        // populate the cache for this key, if necessary
-        if (response == null) {
+        Entry entry = find(ip, databasePath);
+        Object response;
+        if (entry != null) {
+            // the start of the request doubles as the access time, which saves reading the clock once more
+            entry.lastAccess = cacheStart;
+            response = entry.value;
+            hits.inc();
+            hitsTimeInNanos.addAndGet(relativeNanoTimeProvider.getAsLong() - cacheStart);
+        } else {
+            long cacheRequestTime = relativeNanoTimeProvider.getAsLong() - cacheStart;
+            misses.inc();
+            // populate the cache for this key
             long retrieveStart = relativeNanoTimeProvider.getAsLong();
             response = retrieveFunction.apply(ip);
             // if the response from the database was null, then use the no-result sentinel value
@@ -77,11 +112,9 @@ public final class GeoIpCache {
                 response = NO_RESULT;
             }
             // store the result or no-result in the cache
-            cache.put(cacheKey, response);
+            put(new Entry(ip, databasePath, response, retrieveStart));
             long databaseRequestAndCachePutTime = relativeNanoTimeProvider.getAsLong() - retrieveStart;
             missesTimeInNanos.addAndGet(cacheRequestTime + databaseRequestAndCachePutTime);
-        } else {
-            hitsTimeInNanos.addAndGet(cacheRequestTime);
         }
 
         if (response == NO_RESULT) {
@@ -91,26 +124,101 @@ public final class GeoIpCache {
         }
     }
 
+    private Entry find(String ip, String databasePath) {
+        if (numSets == 0) {
+            return null;
+        }
+        AtomicReferenceArray<Entry> set = sets.get(setIndex(ip, databasePath));
+        if (set == null) {
+            return null;
+        }
+        for (int i = 0; i < ways; i++) {
+            Entry entry = set.get(i);
+            if (entry != null && entry.matches(ip, databasePath)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void put(Entry newEntry) {
+        if (numSets == 0) {
+            return;
+        }
+        AtomicReferenceArray<Entry> set = getOrCreateSet(setIndex(newEntry.ip, newEntry.databasePath));
+        // a concurrent put may win the slot that we picked, in which case we pick again. give up after a few attempts since all that
+        // is at stake is caching this one value
+        for (int attempt = 0; attempt < ways; attempt++) {
+            int victim = -1;
+            Entry victimEntry = null;
+            for (int i = 0; i < ways; i++) {
+                Entry entry = set.get(i);
+                if (entry == null || entry.matches(newEntry.ip, newEntry.databasePath)) {
+                    // an empty slot, or a concurrent put of the same key which we replace rather than caching the key twice
+                    victim = i;
+                    victimEntry = entry;
+                    break;
+                }
+                if (victimEntry == null || entry.lastAccess < victimEntry.lastAccess) {
+                    victim = i;
+                    victimEntry = entry;
+                }
+            }
+            if (set.compareAndSet(victim, victimEntry, newEntry)) {
+                if (victimEntry == null) {
+                    count.inc();
+                } else if (victimEntry.matches(newEntry.ip, newEntry.databasePath) == false) {
+                    evictions.inc();
+                }
+                return;
+            }
+        }
+    }
+
+    private AtomicReferenceArray<Entry> getOrCreateSet(int index) {
+        AtomicReferenceArray<Entry> set = sets.get(index);
+        if (set == null) {
+            sets.compareAndSet(index, null, new AtomicReferenceArray<>(ways));
+            set = sets.get(index);
+        }
+        return set;
+    }
+
+    private int setIndex(String ip, String databasePath) {
+        int hash = 31 * ip.hashCode() + databasePath.hashCode();
+        // spread the bits of the string hashes, which differ little for similar ips
+        hash *= 0x9E3779B9;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, numSets);
+    }
+
     // only useful for testing
     Object get(String ip, String databasePath) {
-        CacheKey cacheKey = new CacheKey(ip, databasePath);
-        return cache.get(cacheKey);
+        Entry entry = find(ip, databasePath);
+        return entry == null ? null : entry.value;
     }
 
     public int purgeCacheEntriesForDatabase(Path databaseFile) {
         String databasePath = databaseFile.toString();
         int counter = 0;
-        for (CacheKey key : cache.keys()) {
-            if (key.databasePath.equals(databasePath)) {
-                cache.invalidate(key);
-                counter++;
+        for (int s = 0; s < numSets; s++) {
+            AtomicReferenceArray<Entry> set = sets.get(s);
+            if (set == null) {
+                continue;
+            }
+            for (int i = 0; i < ways; i++) {
+                Entry entry = set.get(i);
+                if (entry != null && entry.databasePath.equals(databasePath) && set.compareAndSet(i, entry, null)) {
+                    count.dec();
+                    counter++;
+                }
             }
         }
         return counter;
     }
 
     public int count() {
-        return cache.count();
+        return (int) count.count();
     }
 
     /**
@@ -119,21 +227,36 @@ public final class GeoIpCache {
      * @return Current stats about this cache
      */
     public CacheStats getCacheStats() {
-        Cache.CacheStats stats = cache.stats();
         return new CacheStats(
-            cache.count(),
-            stats.getHits(),
-            stats.getMisses(),
-            stats.getEvictions(),
+            count.count(),
+            hits.count(),
+            misses.count(),
+            evictions.count(),
             TimeValue.nsecToMSec(hitsTimeInNanos.get()),
             TimeValue.nsecToMSec(missesTimeInNanos.get())
         );
     }
 
     /**
-     * The key to use for the cache. Since this cache can span multiple geoip processors that all use different databases, the database
-     * path is needed to be included in the cache key. For example, if we only used the IP address as the key the City and ASN the same
-     * IP may be in both with different values and we need to cache both.
+     * An entry of the cache. Since this cache can span multiple geoip processors that all use different databases, the database path
+     * is part of the key of an entry. For example, if we only used the IP address as the key the City and ASN the same IP may be in both
+     * with different values and we need to cache both.
      */
-    private record CacheKey(String ip, String databasePath) {}
+    private static final class Entry {
+        private final String ip;
+        private final String databasePath;
+        private final Object value;
+        private volatile long lastAccess;
+
+        private Entry(String ip, String databasePath, Object value, long lastAccess) {
+            this.ip = ip;
+            this.databasePath = databasePath;
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+
+        private boolean matches(String ip, String databasePath) {
+            return this.ip.equals(ip) && this.databasePath.equals(databasePath);
+        }
+    }
 }
@@ -11,6 +11,7 @@ package org.elasticsearch.ingest.geoip;
 
 import com.maxmind.geoip2.model.AbstractResponse;
 
+import org.elasticsearch.core.PathUtils;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.ingest.geoip.stats.CacheStats;
 import org.elasticsearch.test.ESTestCase;
@@ -20,6 +21,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.mockito.Mockito.mock;
 
 public class GeoIpCacheTests extends ESTestCase {
@@ -87,6 +91,66 @@ public class GeoIpCacheTests extends ESTestCase {
         assertEquals("geoip max cache size must be 0 or greater", ex.getMessage());
     }
 
+    public void testBoundedAcrossSets() {
+        final int maxCacheSize = between(GeoIpCache.WAYS, 1000);
+        GeoIpCache cache = new GeoIpCache(maxCacheSize);
+        final String databasePath1 = PathUtils.get("path", "to", "db1").toString();
+        final String databasePath2 = PathUtils.get("path", "to", "db2").toString();
+        final int numKeys = between(1, 5000);
+        for (int i = 0; i < numKeys; i++) {
+            String ip = "10.0." + (i / 256) + "." + (i % 256);
+            assertEquals(ip, cache.putIfAbsent(ip, randomFrom(databasePath1, databasePath2), Function.identity()));
+        }
+        CacheStats cacheStats = cache.getCacheStats();
+        assertThat(cacheStats.count(), lessThanOrEqualTo(cache.capacity()));
+        assertThat(cacheStats.misses(), equalTo((long) numKeys));
+        assertThat(cacheStats.count() + cacheStats.evictions(), equalTo((long) numKeys));
+
+        int purged = cache.purgeCacheEntriesForDatabase(PathUtils.get(databasePath1));
+        purged += cache.purgeCacheEntriesForDatabase(PathUtils.get(databasePath2));
+        assertThat((long) purged, equalTo(cacheStats.count()));
+        assertThat(cache.count(), equalTo(0));
+    }
+
+    public void testConcurrentLookups() throws Exception {
+        final int maxCacheSize = between(0, 100);
+        GeoIpCache cache = new GeoIpCache(maxCacheSize);
+        final int numKeys = between(1, 200);
+        final AtomicInteger lookups = new AtomicInteger();
+        startInParallel(between(2, 8), thread -> {
+            for (int i = 0; i < 1000; i++) {
+                String ip = "127.0.0." + between(0, numKeys - 1);
+                lookups.incrementAndGet();
+                assertEquals(ip, cache.putIfAbsent(ip, "path/to/db", Function.identity()));
+            }
+        });
+        CacheStats cacheStats = cache.getCacheStats();
+        assertThat(cacheStats.hits() + cacheStats.misses(), equalTo((long) lookups.get()));
+        assertThat(cacheStats.count(), lessThanOrEqualTo(cache.capacity()));
+    }
+
+    public void testCapacityIsRoundedUpToWholeSets() {
+        assertThat(new GeoIpCache(0).capacity(), equalTo(0L));
+        final int singleSetSize = between(1, GeoIpCache.WAYS);
+        assertThat(new GeoIpCache(singleSetSize).capacity(), equalTo((long) singleSetSize));
+        assertThat(new GeoIpCache(15).capacity(), equalTo(16L));
+        assertThat(new GeoIpCache(16).capacity(), equalTo(16L));
+
+        final int maxCacheSize = between(GeoIpCache.WAYS, 1000);
+        final long capacity = new GeoIpCache(maxCacheSize).capacity();
+        assertThat(capacity, greaterThanOrEqualTo((long) maxCacheSize));
+        assertThat(capacity, lessThan((long) maxCacheSize + GeoIpCache.WAYS));
+        assertThat(capacity % GeoIpCache.WAYS, equalTo(0L));
+
+        // with enough distinct keys every set fills up, so the cache holds its full capacity
+        GeoIpCache cache = new GeoIpCache(15);
+        for (int i = 0; i < 4096; i++) {
+            String ip = "10.0." + (i / 256) + "." + (i % 256);
+            cache.putIfAbsent(ip, "path/to/db", Function.identity());
+        }
+        assertThat(cache.getCacheStats().count(), equalTo(16L));
+    }
+
     public void testGetCacheStats() {
         final long maxCacheSize = 2;
         final AtomicLong testNanoTime = new AtomicLong(0);
@@ -29,11 +29,13 @@ import java.io.IOException;
 class ExpressionScoreScript implements ScoreScript.LeafFactory {
 
     private final Expression exprScript;
+    private final SimpleBindings bindings;
     private final DoubleValuesSource source;
     private final boolean needsScores;
 
     ExpressionScoreScript(Expression e, SimpleBindings b, boolean needsScores) {
         this.exprScript = e;
+        this.bindings = b;
         this.source = exprScript.getDoubleValuesSource(b);
         this.needsScores = needsScores;
     }
@@ -72,6 +74,8 @@ class ExpressionScoreScript implements ScoreScript.LeafFactory {
                     return true;
                 }
             });
+            // only created once the script scores a batch of documents
+            Batch batch;
 
             @Override
             public double execute(ExplanationHolder explanation) {
@@ -90,7 +94,84 @@ class ExpressionScoreScript implements ScoreScript.LeafFactory {
                     throw new IllegalStateException("Can't advance to doc using " + exprScript, e);
                 }
             }
+
+            /**
+             * Loads the values of one variable after the other for all documents of the batch into arrays, and then runs the compiled
+             * expression over these arrays. Variables that a document has no value for are 0, like when evaluating documents one by one.
+             */
+            @Override
+            public void executeBatch(int[] docIds, float[] subQueryScores, int count, double[] scores) {
+                try {
+                    if (batch == null) {
+                        batch = new Batch(leaf);
+                    }
+                    batch.load(docIds, subQueryScores, count);
+                    for (batch.current = 0; batch.current < count; batch.current++) {
+                        scores[batch.current] = exprScript.evaluate(batch.columnValues);
+                    }
+                } catch (Exception exception) {
+                    throw new GeneralScriptException("Error evaluating " + exprScript, exception);
+                }
+            }
         };
     }
 
+    /**
+     * The values of the variables of the expression for the documents of a batch, one array per variable.
+     */
+    private class Batch {
+        private final DoubleValues[] variableValues;
+        private final DoubleValues[] columnValues;
+        private final double[][] columns;
+        private float[] subQueryScores;
+        private int current;
+
+        Batch(LeafReaderContext leaf) throws IOException {
+            final DoubleValues scores = new DoubleValues() {
+                @Override
+                public double doubleValue() {
+                    return subQueryScores[current];
+                }
+
+                @Override
+                public boolean advanceExact(int doc) {
+                    return true;
+                }
+            };
+            final String[] variables = exprScript.variables;
+            this.variableValues = new DoubleValues[variables.length];
+            this.columnValues = new DoubleValues[variables.length];
+            this.columns = new double[variables.length][0];
+            for (int i = 0; i < variables.length; i++) {
+                variableValues[i] = bindings.getDoubleValuesSource(variables[i]).getValues(leaf, scores);
+                final int variable = i;
+                columnValues[i] = new DoubleValues() {
+                    @Override
+                    public double doubleValue() {
+                        return columns[variable][current];
+                    }
+
+                    @Override
+                    public boolean advanceExact(int doc) {
+                        return true;
+                    }
+                };
+            }
+        }
+
+        void load(int[] docIds, float[] subQueryScores, int count) throws IOException {
+            this.subQueryScores = subQueryScores;
+            for (int i = 0; i < variableValues.length; i++) {
+                if (columns[i].length < count) {
+                    columns[i] = new double[count];
+                }
+                final DoubleValues values = variableValues[i];
+                final double[] column = columns[i];
+                for (current = 0; current < count; current++) {
+                    column[current] = values.advanceExact(docIds[current]) ? values.doubleValue() : 0;
+                }
+            }
+        }
+    }
+
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.script.expression;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.RandomIndexWriter;
+import org.elasticsearch.index.fielddata.FieldDataContext;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.mapper.NumberFieldMapper.NumberFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper.NumberType;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.script.DocValuesDocReader;
+import org.elasticsearch.script.ScoreScript;
+import org.elasticsearch.search.lookup.SearchLookup;
+import org.elasticsearch.search.lookup.Source;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xcontent.XContentType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ExpressionScoreScriptTests extends ESTestCase {
+
+    public void testBatchScoresMatchScoresOfSingleDocuments() throws IOException {
+        NumberFieldType fieldType = new NumberFieldType("n", NumberType.LONG);
+        SearchLookup lookup = new SearchLookup(
+            field -> field.equals("n") ? fieldType : null,
+            (mft, _lookup, fdo) -> mft.fielddataBuilder(FieldDataContext.noRuntimeFields("test"))
+                .build(new IndexFieldDataCache.None(), new NoneCircuitBreakerService()),
+            (ctx, doc) -> Source.empty(XContentType.JSON)
+        );
+        ScoreScript.LeafFactory factory = new ExpressionScriptEngine().compile(
+            null,
+            "doc['n'].value * 2 + _score + doc['n'].empty",
+            ScoreScript.CONTEXT,
+            Map.of()
+        ).newFactory(Map.of(), lookup);
+        assertTrue(factory.needs_score());
+
+        try (Directory directory = newDirectory(); RandomIndexWriter writer = new RandomIndexWriter(random(), directory)) {
+            int numDocs = between(1, 300);
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                // leave some documents without a value, expressions see 0 for them
+                if (randomBoolean()) {
+                    doc.add(new SortedNumericDocValuesField("n", randomLongBetween(-1000, 1000)));
+                }
+                writer.addDocument(doc);
+            }
+            try (DirectoryReader reader = writer.getReader()) {
+                for (LeafReaderContext leaf : reader.leaves()) {
+                    ScoreScript single = factory.newInstance(new DocValuesDocReader(lookup, leaf));
+                    ScoreScript batched = factory.newInstance(new DocValuesDocReader(lookup, leaf));
+                    float[] currentScore = new float[1];
+                    single.setScorer(new Scorable() {
+                        @Override
+                        public float score() {
+                            return currentScore[0];
+                        }
+                    });
+
+                    List<Integer> matches = new ArrayList<>();
+                    for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+                        if (randomBoolean()) {
+                            matches.add(doc);
+                        }
+                    }
+                    // the batches cover increasing documents, like the matches of a query
+                    int batchSize = between(1, 64);
+                    for (int from = 0; from < matches.size(); from += batchSize) {
+                        int count = Math.min(batchSize, matches.size() - from);
+                        int[] docIds = new int[batchSize];
+                        float[] subQueryScores = new float[batchSize];
+                        for (int i = 0; i < count; i++) {
+                            docIds[i] = matches.get(from + i);
+                            subQueryScores[i] = randomFloat();
+                        }
+                        double[] scores = new double[batchSize];
+                        batched.executeBatch(docIds, subQueryScores, count, scores);
+                        for (int i = 0; i < count; i++) {
+                            currentScore[0] = subQueryScores[i];
+                            single.setDocument(docIds[i]);
+                            assertEquals(single.execute(null), scores[i], 0.0);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
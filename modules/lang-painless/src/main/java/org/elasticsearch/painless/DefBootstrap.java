@@ -19,6 +19,9 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.invoke.MutableCallSite;
 import java.lang.invoke.WrongMethodTypeException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -92,10 +95,19 @@ public final class DefBootstrap {
 
     /**
      * CallSite that implements the polymorphic inlining cache (PIC).
+     * <p>
+     * Once more than {@link #MAX_DEPTH} receiver types were seen, the call site goes megamorphic and looks up the target of each call
+     * by the receiver's class. It first counts how often each receiver type occurs for {@link #PROFILE_CALLS} calls, and then
+     * specializes itself for the types that dominate the profile: calls with these types go through class guards again, and all other
+     * types fall back to the lookup by class.
      */
     static final class PIC extends MutableCallSite {
         /** maximum number of types before we go megamorphic */
         static final int MAX_DEPTH = 5;
+        /** number of megamorphic calls to profile before specializing for the most frequent receiver types */
+        static final int PROFILE_CALLS = 10_000;
+        /** minimum share of the profiled calls, in percent, that a receiver type needs in order to get its own guard */
+        static final int MIN_SPECIALIZED_SHARE = 5;
 
         private final PainlessLookup painlessLookup;
         private final FunctionTable functions;
@@ -105,6 +117,12 @@ public final class DefBootstrap {
         private final int flavor;
         private final Object[] args;
         int depth; // pkg-protected for testing
+        // the receiver types that the megamorphic call site specialized for, most frequent first, pkg-protected for testing
+        List<Class<?>> specializedTypes;
+        // profiling state of the megamorphic call site. updates are racy, which is fine since the profile only needs to be approximate
+        private ClassValue<TypeProfile> typeProfiles;
+        private List<TypeProfile> profiledTypes;
+        private int profiledCalls;
 
         PIC(
             PainlessLookup painlessLookup,
@@ -215,6 +233,70 @@ public final class DefBootstrap {
             return MethodHandles.foldArguments(MethodHandles.exactInvoker(type), lookup);
         }
 
+        /**
+         * Creates the {@link MethodHandle} for the megamorphic call site that also counts the calls per receiver type,
+         * see {@link #profile(Object)}.
+         */
+        private MethodHandle createProfilingHandle() {
+            final MethodType type = type();
+            final List<TypeProfile> profiled = new ArrayList<>();
+            profiledTypes = profiled;
+            typeProfiles = new ClassValue<TypeProfile>() {
+                @Override
+                protected TypeProfile computeValue(Class<?> receiverType) {
+                    try {
+                        TypeProfile profile = new TypeProfile(receiverType, lookup(flavor, name, receiverType).asType(type));
+                        synchronized (profiled) {
+                            profiled.add(profile);
+                        }
+                        return profile;
+                    } catch (Throwable t) {
+                        Def.rethrow(t);
+                        throw new AssertionError();
+                    }
+                }
+            };
+            return MethodHandles.foldArguments(MethodHandles.exactInvoker(type), PROFILE.bindTo(this));
+        }
+
+        /**
+         * Looks up the target for the receiver of a call of the profiling megamorphic call site, and counts the call. Once enough
+         * calls were counted the call site replaces itself with guards for the most frequent receiver types, in front of a plain
+         * megamorphic lookup for all other types.
+         */
+        MethodHandle profile(Object receiver) {
+            final TypeProfile profile = typeProfiles.get(checkNull(receiver, name));
+            profile.calls++;
+            if (++profiledCalls == PROFILE_CALLS) {
+                specialize();
+            }
+            return profile.target;
+        }
+
+        private void specialize() {
+            final List<TypeProfile> candidates;
+            synchronized (profiledTypes) {
+                candidates = new ArrayList<>(profiledTypes);
+            }
+            // most frequent first
+            candidates.sort(Comparator.comparingLong((TypeProfile profile) -> profile.calls).reversed());
+            final List<TypeProfile> specialized = new ArrayList<>();
+            for (TypeProfile profile : candidates) {
+                if (specialized.size() == MAX_DEPTH || profile.calls * 100L < (long) MIN_SPECIALIZED_SHARE * PROFILE_CALLS) {
+                    break;
+                }
+                specialized.add(profile);
+            }
+            MethodHandle target = createMegamorphicHandle();
+            // the guard that is added last is checked first
+            for (int i = specialized.size() - 1; i >= 0; i--) {
+                final TypeProfile profile = specialized.get(i);
+                target = MethodHandles.guardWithTest(CHECK_CLASS.bindTo(profile.receiverType), profile.target, target);
+            }
+            specializedTypes = specialized.stream().<Class<?>>map(profile -> profile.receiverType).toList();
+            setTarget(target);
+        }
+
         /**
          * Called when a new type is encountered (or, when we have encountered more than {@code MAX_DEPTH}
          * types at this call site and given up on caching using this fallback and we switch to a
@@ -223,8 +305,8 @@ public final class DefBootstrap {
         @SuppressForbidden(reason = "slow path")
         Object fallback(final Object[] callArgs) throws Throwable {
             if (depth >= MAX_DEPTH) {
-                // we revert the whole cache and build a new megamorphic one
-                final MethodHandle target = this.createMegamorphicHandle();
+                // we revert the whole cache and build a new megamorphic one, which specializes for the most frequent types later
+                final MethodHandle target = this.createProfilingHandle();
 
                 setTarget(target);
                 return target.invokeWithArguments(callArgs);
@@ -242,9 +324,24 @@ public final class DefBootstrap {
             }
         }
 
+        /**
+         * The number of calls of a megamorphic call site with a receiver type, along with the target for that type.
+         */
+        private static final class TypeProfile {
+            private final Class<?> receiverType;
+            private final MethodHandle target;
+            private long calls;
+
+            private TypeProfile(Class<?> receiverType, MethodHandle target) {
+                this.receiverType = receiverType;
+                this.target = target;
+            }
+        }
+
         private static final MethodHandle CHECK_NULL;
         private static final MethodHandle CHECK_CLASS;
         private static final MethodHandle FALLBACK;
+        private static final MethodHandle PROFILE;
         private static final MethodHandle CLASSVALUE_GET;
         static {
             final MethodHandles.Lookup methodHandlesLookup = MethodHandles.lookup();
@@ -265,6 +362,11 @@ public final class DefBootstrap {
                     "fallback",
                     MethodType.methodType(Object.class, Object[].class)
                 );
+                PROFILE = methodHandlesLookup.findVirtual(
+                    methodHandlesLookup.lookupClass(),
+                    "profile",
+                    MethodType.methodType(MethodHandle.class, Object.class)
+                );
                 CLASSVALUE_GET = publicMethodHandlesLookup.findVirtual(
                     ClassValue.class,
                     "get",
@@ -18,9 +18,12 @@ import java.lang.invoke.CallSite;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.elasticsearch.painless.ScriptTestCase.PAINLESS_BASE_WHITELIST;
 
@@ -148,6 +151,44 @@ public class DefBootstrapTests extends ESTestCase {
         }));
     }
 
+    /** test that a megamorphic call site specializes for the receiver types that dominate its profile */
+    public void testMegamorphicSpecializesForFrequentTypes() throws Throwable {
+        DefBootstrap.PIC site = (DefBootstrap.PIC) DefBootstrap.bootstrap(
+            painlessLookup,
+            new FunctionTable(),
+            Collections.emptyMap(),
+            MethodHandles.publicLookup(),
+            "size",
+            MethodType.methodType(int.class, Object.class),
+            0,
+            DefBootstrap.METHOD_CALL,
+            ""
+        );
+        site.depth = DefBootstrap.PIC.MAX_DEPTH; // mark megamorphic
+        MethodHandle handle = site.dynamicInvoker();
+        final List<String> list = new ArrayList<>(List.of("x", "y"));
+        final Map<String, String> map = Collections.singletonMap("a", "b");
+        for (int i = 0; i < DefBootstrap.PIC.PROFILE_CALLS; i++) {
+            assertNull(site.specializedTypes);
+            if (i % 100 == 0) {
+                // too rare to be specialized for
+                assertEquals(1, (int) handle.invokeExact((Object) map));
+            } else {
+                assertEquals(2, (int) handle.invokeExact((Object) list));
+            }
+        }
+        assertEquals(List.of(ArrayList.class), site.specializedTypes);
+
+        // the specialized type and all other types still work
+        assertEquals(2, (int) handle.invokeExact((Object) list));
+        assertEquals(1, (int) handle.invokeExact((Object) map));
+        assertEquals(3, (int) handle.invokeExact((Object) Arrays.asList("x", "y", "z")));
+        final IllegalArgumentException iae = expectThrows(IllegalArgumentException.class, () -> {
+            Integer.toString((int) handle.invokeExact(new Object()));
+        });
+        assertEquals("dynamic method [java.lang.Object, size/0] not found", iae.getMessage());
+    }
+
     // test operators with null guards
 
     public void testNullGuardAdd() throws Throwable {
@@ -20,6 +20,8 @@ module org.elasticsearch.transport.netty4 {
     requires io.netty.common;
     requires io.netty.handler;
     requires io.netty.transport;
+    requires io.netty.transport.classes.epoll;
+    requires io.netty.transport.unix.common;
     requires io.netty.codec.http;
 
     exports org.elasticsearch.http.netty4;
@@ -9,6 +9,8 @@
 
 package org.elasticsearch.transport.netty4;
 
+import io.netty.channel.ChannelException;
+import io.netty.channel.epoll.EpollSocketChannelConfig;
 import jdk.net.ExtendedSocketOptions;
 
 import org.elasticsearch.core.SuppressForbidden;
@@ -77,6 +79,26 @@ public class NetUtils {
         }
     }
 
+    /**
+     * Same as {@link #tryEnsureReasonableKeepAliveConfig(NetworkChannel)} for channels of Netty's native epoll transport.
+     */
+    public static void tryEnsureReasonableKeepAliveConfig(EpollSocketChannelConfig config) {
+        assert config != null;
+        try {
+            if (config.isKeepAlive()) {
+                if (config.getTcpKeepIdle() > 300) {
+                    config.setTcpKeepIdle(300);
+                }
+                if (config.getTcpKeepIntvl() > 300) {
+                    config.setTcpKeepIntvl(300);
+                }
+            }
+        } catch (ChannelException e) {
+            // Getting an exception here should be ok when concurrently closing the channel
+            assert e.getCause() instanceof IOException : e;
+        }
+    }
+
     private static void setMinValueForSocketOption(NetworkChannel socketChannel, SocketOption<Integer> option, int minValue) {
         Objects.requireNonNull(option);
         if (socketChannel.supportedOptions().contains(option)) {
@@ -82,6 +82,18 @@ public class Netty4Plugin extends Plugin implements NetworkPlugin {
         Setting.Property.NodeScope
     );
     public static final Setting<Integer> NETTY_BOSS_COUNT = intSetting("transport.netty.boss_count", 1, 1, Setting.Property.NodeScope);
+    /*
+     * Whether to use Netty's native epoll transport instead of NIO for both the transport and the HTTP layer. The native transport is
+     * only available on Linux. We only ship the Java classes of the epoll transport (netty-transport-classes-epoll), not its native
+     * library, so this setting requires the library that matches the architecture (libnetty_transport_native_epoll_x86_64.so or
+     * libnetty_transport_native_epoll_aarch_64.so, from the netty-transport-native-epoll jar of the same Netty version) to be on the
+     * java.library.path of the node. We fall back to NIO (and log a warning) if it cannot be loaded.
+     */
+    public static final Setting<Boolean> NATIVE_TRANSPORT = Setting.boolSetting(
+        "transport.netty.native_transport",
+        false,
+        Setting.Property.NodeScope
+    );
     /*
      * Size in bytes of an individual message received by io.netty.handler.codec.MessageAggregator which accumulates the content for an
      * HTTP request. This number is used for estimating the maximum number of allowed buffers before the MessageAggregator's internal
@@ -134,7 +146,8 @@ public class Netty4Plugin extends Plugin implements NetworkPlugin {
             NETTY_RECEIVE_PREDICTOR_SIZE,
             NETTY_RECEIVE_PREDICTOR_MIN,
             NETTY_RECEIVE_PREDICTOR_MAX,
-            NETTY_BOSS_COUNT
+            NETTY_BOSS_COUNT,
+            NATIVE_TRANSPORT
         );
     }
 
@@ -18,8 +18,12 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.FixedRecvByteBufAllocator;
 import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.socket.nio.NioChannelOption;
 import io.netty.util.AttributeKey;
 
@@ -71,6 +75,29 @@ public class Netty4Transport extends TcpTransport {
     public static final ChannelOption<Integer> OPTION_TCP_KEEP_INTERVAL = NioChannelOption.of(NetUtils.getTcpKeepIntervalSocketOption());
     public static final ChannelOption<Integer> OPTION_TCP_KEEP_COUNT = NioChannelOption.of(NetUtils.getTcpKeepCountSocketOption());
 
+    /**
+     * The channel options that configure TCP keep-alive, which differ between the NIO and the native transport.
+     */
+    public record TcpKeepAliveOptions(ChannelOption<Integer> idle, ChannelOption<Integer> interval, ChannelOption<Integer> count) {
+        public static final TcpKeepAliveOptions NIO = new TcpKeepAliveOptions(
+            OPTION_TCP_KEEP_IDLE,
+            OPTION_TCP_KEEP_INTERVAL,
+            OPTION_TCP_KEEP_COUNT
+        );
+        public static final TcpKeepAliveOptions NATIVE = new TcpKeepAliveOptions(
+            EpollChannelOption.TCP_KEEPIDLE,
+            EpollChannelOption.TCP_KEEPINTVL,
+            EpollChannelOption.TCP_KEEPCNT
+        );
+
+        /**
+         * @return the keep-alive options for channels that are registered with the given event loop group
+         */
+        public static TcpKeepAliveOptions forGroup(EventLoopGroup group) {
+            return group instanceof EpollEventLoopGroup ? NATIVE : NIO;
+        }
+    }
+
     private final SharedGroupFactory sharedGroupFactory;
     private final RecvByteBufAllocator recvByteBufAllocator;
     private final ByteSizeValue receivePredictorMin;
@@ -143,10 +170,11 @@ public class Netty4Transport extends TcpTransport {
         final Bootstrap bootstrap = new Bootstrap();
         bootstrap.group(sharedGroupForBootstrap.getLowLevelGroup());
 
-        // NettyAllocator will return the channel type designed to work with the configured allocator
-        assert Netty4NioSocketChannel.class.isAssignableFrom(NettyAllocator.getChannelType());
-        bootstrap.channel(NettyAllocator.getChannelType());
-        bootstrap.option(ChannelOption.ALLOCATOR, NettyAllocator.getAllocator());
+        // the shared group will return the channel type designed to work with its event loops and allocator
+        assert sharedGroupForBootstrap.isNativeTransport()
+            || Netty4NioSocketChannel.class.isAssignableFrom(sharedGroupForBootstrap.getChannelType());
+        bootstrap.channel(sharedGroupForBootstrap.getChannelType());
+        bootstrap.option(ChannelOption.ALLOCATOR, sharedGroupForBootstrap.getAllocator());
 
         // The TCP options are re-configured for client connections to RCS remote clusters
         // If how options are configured is changed here, please also update RemoteClusterClientBootstrapOptions#configure
@@ -155,14 +183,15 @@ public class Netty4Transport extends TcpTransport {
         bootstrap.option(ChannelOption.SO_KEEPALIVE, TransportSettings.TCP_KEEP_ALIVE.get(settings));
         if (TransportSettings.TCP_KEEP_ALIVE.get(settings)) {
             // Note that Netty logs a warning if it can't set the option
+            final TcpKeepAliveOptions keepAliveOptions = sharedGroupForBootstrap.getTcpKeepAliveOptions();
             if (TransportSettings.TCP_KEEP_IDLE.get(settings) >= 0) {
-                bootstrap.option(OPTION_TCP_KEEP_IDLE, TransportSettings.TCP_KEEP_IDLE.get(settings));
+                bootstrap.option(keepAliveOptions.idle(), TransportSettings.TCP_KEEP_IDLE.get(settings));
             }
             if (TransportSettings.TCP_KEEP_INTERVAL.get(settings) >= 0) {
-                bootstrap.option(OPTION_TCP_KEEP_INTERVAL, TransportSettings.TCP_KEEP_INTERVAL.get(settings));
+                bootstrap.option(keepAliveOptions.interval(), TransportSettings.TCP_KEEP_INTERVAL.get(settings));
             }
             if (TransportSettings.TCP_KEEP_COUNT.get(settings) >= 0) {
-                bootstrap.option(OPTION_TCP_KEEP_COUNT, TransportSettings.TCP_KEEP_COUNT.get(settings));
+                bootstrap.option(keepAliveOptions.count(), TransportSettings.TCP_KEEP_COUNT.get(settings));
             }
         }
 
@@ -203,12 +232,12 @@ public class Netty4Transport extends TcpTransport {
 
         serverBootstrap.group(sharedGroupForServerBootstrap.getLowLevelGroup());
 
-        // NettyAllocator will return the channel type designed to work with the configuredAllocator
-        serverBootstrap.channel(NettyAllocator.getServerChannelType());
+        // the shared group will return the channel type designed to work with its event loops and allocator
+        serverBootstrap.channel(sharedGroupForServerBootstrap.getServerChannelType());
 
         // Set the allocators for both the server channel and the child channels created
-        serverBootstrap.option(ChannelOption.ALLOCATOR, NettyAllocator.getAllocator());
-        serverBootstrap.childOption(ChannelOption.ALLOCATOR, NettyAllocator.getAllocator());
+        serverBootstrap.option(ChannelOption.ALLOCATOR, sharedGroupForServerBootstrap.getAllocator());
+        serverBootstrap.childOption(ChannelOption.ALLOCATOR, sharedGroupForServerBootstrap.getAllocator());
 
         serverBootstrap.childHandler(getServerChannelInitializer(name));
         serverBootstrap.handler(new ServerChannelExceptionHandler());
@@ -217,17 +246,15 @@ public class Netty4Transport extends TcpTransport {
         serverBootstrap.childOption(ChannelOption.SO_KEEPALIVE, profileSettings.tcpKeepAlive);
         if (profileSettings.tcpKeepAlive) {
             // Note that Netty logs a warning if it can't set the option
+            final TcpKeepAliveOptions keepAliveOptions = sharedGroupForServerBootstrap.getTcpKeepAliveOptions();
             if (profileSettings.tcpKeepIdle >= 0) {
-                serverBootstrap.childOption(NioChannelOption.of(NetUtils.getTcpKeepIdleSocketOption()), profileSettings.tcpKeepIdle);
+                serverBootstrap.childOption(keepAliveOptions.idle(), profileSettings.tcpKeepIdle);
             }
             if (profileSettings.tcpKeepInterval >= 0) {
-                serverBootstrap.childOption(
-                    NioChannelOption.of(NetUtils.getTcpKeepIntervalSocketOption()),
-                    profileSettings.tcpKeepInterval
-                );
+                serverBootstrap.childOption(keepAliveOptions.interval(), profileSettings.tcpKeepInterval);
             }
             if (profileSettings.tcpKeepCount >= 0) {
-                serverBootstrap.childOption(NioChannelOption.of(NetUtils.getTcpKeepCountSocketOption()), profileSettings.tcpKeepCount);
+                serverBootstrap.childOption(keepAliveOptions.count(), profileSettings.tcpKeepCount);
             }
         }
 
@@ -257,6 +284,15 @@ public class Netty4Transport extends TcpTransport {
         return new ClientChannelInitializer();
     }
 
+    private static void tryEnsureReasonableKeepAliveConfig(Channel ch) {
+        if (ch instanceof EpollSocketChannel epollChannel) {
+            NetUtils.tryEnsureReasonableKeepAliveConfig(epollChannel.config());
+        } else {
+            assert ch instanceof Netty4NioSocketChannel;
+            NetUtils.tryEnsureReasonableKeepAliveConfig(((Netty4NioSocketChannel) ch).javaChannel());
+        }
+    }
+
     static final AttributeKey<Netty4TcpChannel> CHANNEL_KEY = AttributeKey.newInstance("es-channel");
     static final AttributeKey<Netty4TcpServerChannel> SERVER_CHANNEL_KEY = AttributeKey.newInstance("es-server-channel");
 
@@ -313,8 +349,7 @@ public class Netty4Transport extends TcpTransport {
         @Override
         protected void initChannel(Channel ch) throws Exception {
             addClosedExceptionLogger(ch);
-            assert ch instanceof Netty4NioSocketChannel;
-            NetUtils.tryEnsureReasonableKeepAliveConfig(((Netty4NioSocketChannel) ch).javaChannel());
+            tryEnsureReasonableKeepAliveConfig(ch);
             setupPipeline(ch, false);
         }
 
@@ -338,8 +373,7 @@ public class Netty4Transport extends TcpTransport {
         @Override
         protected void initChannel(Channel ch) throws Exception {
             addClosedExceptionLogger(ch);
-            assert ch instanceof Netty4NioSocketChannel;
-            NetUtils.tryEnsureReasonableKeepAliveConfig(((Netty4NioSocketChannel) ch).javaChannel());
+            tryEnsureReasonableKeepAliveConfig(ch);
             Netty4TcpChannel nettyTcpChannel = new Netty4TcpChannel(ch, true, name, rstOnClose, ch.newSucceededFuture());
             ch.attr(CHANNEL_KEY).set(nettyTcpChannel);
             setupPipeline(ch, isRemoteClusterServerChannel);
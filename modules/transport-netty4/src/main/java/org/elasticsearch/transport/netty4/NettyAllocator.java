@@ -16,6 +16,8 @@ import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 
 import org.apache.logging.log4j.LogManager;
@@ -179,6 +181,13 @@ public class NettyAllocator {
         return ALLOCATOR;
     }
 
+    /**
+     * @return the allocator to use for the channels of the NIO transport, or of the native transport if {@code nativeTransport} is set
+     */
+    public static ByteBufAllocator getAllocator(boolean nativeTransport) {
+        return nativeTransport ? NativeTransportAllocatorHolder.ALLOCATOR : ALLOCATOR;
+    }
+
     public static Recycler<BytesRef> getRecycler() {
         return RECYCLER;
     }
@@ -207,6 +216,14 @@ public class NettyAllocator {
         }
     }
 
+    public static Class<? extends Channel> getChannelType(boolean nativeTransport) {
+        return nativeTransport ? EpollSocketChannel.class : getChannelType();
+    }
+
+    public static Class<? extends ServerChannel> getServerChannelType(boolean nativeTransport) {
+        return nativeTransport ? EpollServerSocketChannel.class : getServerChannelType();
+    }
+
     private static boolean useUnpooled(long heapSizeInBytes, boolean g1gcEnabled, boolean g1gcRegionSizeIsKnown, long g1RegionSize) {
         if (userForcedUnpooled()) {
             return true;
@@ -362,6 +379,154 @@ public class NettyAllocator {
         }
     }
 
+    /**
+     * The native transport can only read from the network into direct buffers, so it can't use {@link NoDirectBuffers} and work
+     * around it by copying like {@link CopyBytesSocketChannel} does. Created lazily to only reserve direct memory if the native
+     * transport is used.
+     */
+    private static final class NativeTransportAllocatorHolder {
+        private static final ByteBufAllocator ALLOCATOR;
+
+        static {
+            if (NettyAllocator.ALLOCATOR instanceof NoDirectBuffers) {
+                // 8192 byte pages with max order 7 make for 1MB chunks, see the pooled heap allocator above
+                ALLOCATOR = new DirectIoBuffers(
+                    NettyAllocator.ALLOCATOR,
+                    new PooledByteBufAllocator(
+                        true,
+                        0,
+                        PooledByteBufAllocator.defaultNumDirectArena(),
+                        8192,
+                        7,
+                        PooledByteBufAllocator.defaultSmallCacheSize(),
+                        PooledByteBufAllocator.defaultNormalCacheSize(),
+                        PooledByteBufAllocator.defaultUseCacheForAllThreads()
+                    )
+                );
+            } else {
+                ALLOCATOR = NettyAllocator.ALLOCATOR;
+            }
+        }
+    }
+
+    /**
+     * Allocates the buffers that channels of the native transport read into and write from as pooled direct buffers, so network
+     * reads are passed up the pipeline without copying them to the heap, and all other buffers as heap buffers like
+     * {@link NoDirectBuffers}.
+     */
+    static final class DirectIoBuffers implements ByteBufAllocator {
+
+        private final ByteBufAllocator heap;
+        private final ByteBufAllocator direct;
+
+        DirectIoBuffers(ByteBufAllocator heap, ByteBufAllocator direct) {
+            assert direct.isDirectBufferPooled();
+            this.heap = heap;
+            this.direct = direct;
+        }
+
+        @Override
+        public ByteBuf buffer() {
+            return heap.heapBuffer();
+        }
+
+        @Override
+        public ByteBuf buffer(int initialCapacity) {
+            return heap.heapBuffer(initialCapacity);
+        }
+
+        @Override
+        public ByteBuf buffer(int initialCapacity, int maxCapacity) {
+            return heap.heapBuffer(initialCapacity, maxCapacity);
+        }
+
+        @Override
+        public ByteBuf ioBuffer() {
+            return direct.directBuffer();
+        }
+
+        @Override
+        public ByteBuf ioBuffer(int initialCapacity) {
+            return direct.directBuffer(initialCapacity);
+        }
+
+        @Override
+        public ByteBuf ioBuffer(int initialCapacity, int maxCapacity) {
+            return direct.directBuffer(initialCapacity, maxCapacity);
+        }
+
+        @Override
+        public ByteBuf heapBuffer() {
+            return heap.heapBuffer();
+        }
+
+        @Override
+        public ByteBuf heapBuffer(int initialCapacity) {
+            return heap.heapBuffer(initialCapacity);
+        }
+
+        @Override
+        public ByteBuf heapBuffer(int initialCapacity, int maxCapacity) {
+            return heap.heapBuffer(initialCapacity, maxCapacity);
+        }
+
+        @Override
+        public ByteBuf directBuffer() {
+            return direct.directBuffer();
+        }
+
+        @Override
+        public ByteBuf directBuffer(int initialCapacity) {
+            return direct.directBuffer(initialCapacity);
+        }
+
+        @Override
+        public ByteBuf directBuffer(int initialCapacity, int maxCapacity) {
+            return direct.directBuffer(initialCapacity, maxCapacity);
+        }
+
+        @Override
+        public CompositeByteBuf compositeBuffer() {
+            return heap.compositeHeapBuffer();
+        }
+
+        @Override
+        public CompositeByteBuf compositeBuffer(int maxNumComponents) {
+            return heap.compositeHeapBuffer(maxNumComponents);
+        }
+
+        @Override
+        public CompositeByteBuf compositeHeapBuffer() {
+            return heap.compositeHeapBuffer();
+        }
+
+        @Override
+        public CompositeByteBuf compositeHeapBuffer(int maxNumComponents) {
+            return heap.compositeHeapBuffer(maxNumComponents);
+        }
+
+        @Override
+        public CompositeByteBuf compositeDirectBuffer() {
+            return direct.compositeDirectBuffer();
+        }
+
+        @Override
+        public CompositeByteBuf compositeDirectBuffer(int maxNumComponents) {
+            return direct.compositeDirectBuffer(maxNumComponents);
+        }
+
+        @Override
+        public boolean isDirectBufferPooled() {
+            // makes the native transport copy heap buffers that are written to the network into pooled rather than unpooled buffers
+            return true;
+        }
+
+        @Override
+        public int calculateNewCapacity(int minNewCapacity, int maxCapacity) {
+            return direct.calculateNewCapacity(minNewCapacity, maxCapacity);
+        }
+    }
+
     static class TrashingByteBuf extends WrappedByteBuf {
 
         private boolean trashed = false;
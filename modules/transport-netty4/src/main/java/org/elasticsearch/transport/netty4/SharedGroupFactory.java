@@ -9,7 +9,12 @@
 
 package org.elasticsearch.transport.netty4;
 
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.concurrent.Future;
 
@@ -21,6 +26,7 @@ import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.http.HttpServerTransport;
 import org.elasticsearch.transport.TcpTransport;
 
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -31,6 +37,8 @@ import static org.elasticsearch.common.util.concurrent.EsExecutors.daemonThreadF
  * both {@link #getHttpGroup()} and {@link #getTransportGroup()} if
  * {@link Netty4Plugin#SETTING_HTTP_WORKER_COUNT} is configured to be 0.
  * If that setting is not 0, then it will return a different group in the {@link #getHttpGroup()} call.
+ * The groups use Netty's native epoll transport if {@link Netty4Plugin#NATIVE_TRANSPORT} is enabled and the native transport is
+ * available, and NIO otherwise.
  */
 public final class SharedGroupFactory {
 
@@ -39,6 +47,7 @@ public final class SharedGroupFactory {
     private final Settings settings;
     private final int workerCount;
     private final int httpWorkerCount;
+    private final boolean nativeTransport;
 
     private RefCountedGroup genericGroup;
     private SharedGroup dedicatedHttpGroup;
@@ -47,6 +56,22 @@ public final class SharedGroupFactory {
         this.settings = settings;
         this.workerCount = Netty4Plugin.WORKER_COUNT.get(settings);
         this.httpWorkerCount = Netty4Plugin.SETTING_HTTP_WORKER_COUNT.get(settings);
+        this.nativeTransport = useNativeTransport(settings);
+    }
+
+    private static boolean useNativeTransport(Settings settings) {
+        if (Netty4Plugin.NATIVE_TRANSPORT.get(settings) == false) {
+            return false;
+        }
+        if (Epoll.isAvailable()) {
+            return true;
+        }
+        logger.warn(
+            "[{}] is enabled but the native transport is not available, using NIO instead",
+            Netty4Plugin.NATIVE_TRANSPORT.getKey(),
+            Epoll.unavailabilityCause()
+        );
+        return false;
     }
 
     public Settings getSettings() {
@@ -57,6 +82,13 @@ public final class SharedGroupFactory {
         return workerCount;
     }
 
+    /**
+     * @return whether the event loop groups created by this factory use Netty's native epoll transport
+     */
+    public boolean isNativeTransport() {
+        return nativeTransport;
+    }
+
     public synchronized SharedGroup getTransportGroup() {
         return getGenericGroup();
     }
@@ -66,11 +98,11 @@ public final class SharedGroupFactory {
             return getGenericGroup();
         } else {
             if (dedicatedHttpGroup == null) {
-                NioEventLoopGroup eventLoopGroup = new NioEventLoopGroup(
+                EventLoopGroup eventLoopGroup = newEventLoopGroup(
                     httpWorkerCount,
                     daemonThreadFactory(settings, HttpServerTransport.HTTP_SERVER_WORKER_THREAD_NAME_PREFIX)
                 );
-                dedicatedHttpGroup = new SharedGroup(new RefCountedGroup(eventLoopGroup));
+                dedicatedHttpGroup = new SharedGroup(new RefCountedGroup(eventLoopGroup, nativeTransport));
             }
             return dedicatedHttpGroup;
         }
@@ -78,23 +110,33 @@ public final class SharedGroupFactory {
 
     private SharedGroup getGenericGroup() {
         if (genericGroup == null) {
-            EventLoopGroup eventLoopGroup = new NioEventLoopGroup(
+            EventLoopGroup eventLoopGroup = newEventLoopGroup(
                 workerCount,
                 EsExecutors.daemonThreadFactory(settings, TcpTransport.TRANSPORT_WORKER_THREAD_NAME_PREFIX)
             );
-            this.genericGroup = new RefCountedGroup(eventLoopGroup);
+            this.genericGroup = new RefCountedGroup(eventLoopGroup, nativeTransport);
         } else {
             genericGroup.incRef();
         }
         return new SharedGroup(genericGroup);
     }
 
+    private EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+        if (nativeTransport) {
+            return new EpollEventLoopGroup(threads, threadFactory);
+        } else {
+            return new NioEventLoopGroup(threads, threadFactory);
+        }
+    }
+
     private static class RefCountedGroup extends AbstractRefCounted {
 
         private final EventLoopGroup eventLoopGroup;
+        private final boolean nativeTransport;
 
-        private RefCountedGroup(EventLoopGroup eventLoopGroup) {
+        private RefCountedGroup(EventLoopGroup eventLoopGroup, boolean nativeTransport) {
             this.eventLoopGroup = eventLoopGroup;
+            this.nativeTransport = nativeTransport;
         }
 
         @Override
@@ -125,6 +167,35 @@ public final class SharedGroupFactory {
             return refCountedGroup.eventLoopGroup;
         }
 
+        public boolean isNativeTransport() {
+            return refCountedGroup.nativeTransport;
+        }
+
+        /**
+         * @return the type of the client channels that must be used with this group and the allocator from {@link #getAllocator()}
+         */
+        public Class<? extends Channel> getChannelType() {
+            return NettyAllocator.getChannelType(refCountedGroup.nativeTransport);
+        }
+
+        /**
+         * @return the type of the server channels that must be used with this group and the allocator from {@link #getAllocator()}
+         */
+        public Class<? extends ServerChannel> getServerChannelType() {
+            return NettyAllocator.getServerChannelType(refCountedGroup.nativeTransport);
+        }
+
+        public ByteBufAllocator getAllocator() {
+            return NettyAllocator.getAllocator(refCountedGroup.nativeTransport);
+        }
+
+        /**
+         * @return the channel options that configure TCP keep-alive for the channels of this group
+         */
+        public Netty4Transport.TcpKeepAliveOptions getTcpKeepAliveOptions() {
+            return refCountedGroup.nativeTransport ? Netty4Transport.TcpKeepAliveOptions.NATIVE : Netty4Transport.TcpKeepAliveOptions.NIO;
+        }
+
         public void shutdown() {
             if (isOpen.compareAndSet(true, false)) {
                 refCountedGroup.decRef();
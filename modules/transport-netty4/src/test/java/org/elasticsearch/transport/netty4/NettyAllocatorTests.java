@@ -9,6 +9,7 @@
 
 package org.elasticsearch.transport.netty4;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 
@@ -103,4 +104,24 @@ public class NettyAllocatorTests extends ESTestCase {
         assertBufferTrashed(bytesRef);
     }
 
+    public void testNativeTransportAllocator() {
+        assumeTrue("direct buffers are always allowed", NettyAllocator.getAllocator() instanceof NettyAllocator.NoDirectBuffers);
+        final ByteBufAllocator allocator = NettyAllocator.getAllocator(true);
+        assertTrue(allocator.isDirectBufferPooled());
+        // the native transport reads from and writes to the network using direct buffers
+        final ByteBuf ioBuffer = allocator.ioBuffer(between(1, 1024));
+        try {
+            assertTrue(ioBuffer.isDirect());
+        } finally {
+            ioBuffer.release();
+        }
+        // but everything else stays on heap
+        final ByteBuf buffer = randomBoolean() ? allocator.buffer(between(1, 1024)) : allocator.compositeBuffer();
+        try {
+            assertFalse(buffer.isDirect());
+        } finally {
+            buffer.release();
+        }
+        assertSame(NettyAllocator.getAllocator(), NettyAllocator.getAllocator(false));
+    }
 }
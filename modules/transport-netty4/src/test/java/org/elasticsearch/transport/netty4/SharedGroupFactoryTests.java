@@ -9,9 +9,32 @@
 
 package org.elasticsearch.transport.netty4;
 
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.test.ESTestCase;
 
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.instanceOf;
+
 public final class SharedGroupFactoryTests extends ESTestCase {
 
     public void testSharedEventLoops() throws Exception {
@@ -58,4 +81,102 @@ public final class SharedGroupFactoryTests extends ESTestCase {
             assertTrue(transportGroup.getLowLevelGroup().terminationFuture().isDone());
         }
     }
+
+    public void testNioByDefault() {
+        SharedGroupFactory sharedGroupFactory = new SharedGroupFactory(Settings.EMPTY);
+        assertFalse(sharedGroupFactory.isNativeTransport());
+        SharedGroupFactory.SharedGroup transportGroup = sharedGroupFactory.getTransportGroup();
+        try {
+            assertThat(transportGroup.getLowLevelGroup(), instanceOf(NioEventLoopGroup.class));
+            assertSame(NettyAllocator.getChannelType(), transportGroup.getChannelType());
+            assertSame(NettyAllocator.getServerChannelType(), transportGroup.getServerChannelType());
+            assertSame(NettyAllocator.getAllocator(), transportGroup.getAllocator());
+            assertSame(Netty4Transport.TcpKeepAliveOptions.NIO, transportGroup.getTcpKeepAliveOptions());
+        } finally {
+            transportGroup.shutdown();
+        }
+    }
+
+    public void testNativeTransport() {
+        Settings settings = Settings.builder()
+            .put(Netty4Plugin.NATIVE_TRANSPORT.getKey(), true)
+            .put(Netty4Plugin.SETTING_HTTP_WORKER_COUNT.getKey(), randomIntBetween(0, 2))
+            .build();
+        SharedGroupFactory sharedGroupFactory = new SharedGroupFactory(settings);
+        // falls back to NIO if the native transport is not available on this platform
+        assertEquals(Epoll.isAvailable(), sharedGroupFactory.isNativeTransport());
+        SharedGroupFactory.SharedGroup httpGroup = sharedGroupFactory.getHttpGroup();
+        SharedGroupFactory.SharedGroup transportGroup = sharedGroupFactory.getTransportGroup();
+        try {
+            for (SharedGroupFactory.SharedGroup group : new SharedGroupFactory.SharedGroup[] { httpGroup, transportGroup }) {
+                assertEquals(Epoll.isAvailable(), group.isNativeTransport());
+                if (Epoll.isAvailable()) {
+                    assertThat(group.getLowLevelGroup(), instanceOf(EpollEventLoopGroup.class));
+                    assertSame(EpollSocketChannel.class, group.getChannelType());
+                    assertSame(EpollServerSocketChannel.class, group.getServerChannelType());
+                    assertSame(Netty4Transport.TcpKeepAliveOptions.NATIVE, group.getTcpKeepAliveOptions());
+                } else {
+                    assertThat(group.getLowLevelGroup(), instanceOf(NioEventLoopGroup.class));
+                    assertSame(NettyAllocator.getChannelType(), group.getChannelType());
+                }
+            }
+        } finally {
+            httpGroup.shutdown();
+            transportGroup.shutdown();
+        }
+    }
+
+    public void testNativeTransportExchangesData() throws Exception {
+        assumeTrue("native transport is not available on this platform", Epoll.isAvailable());
+        Settings settings = Settings.builder().put(Netty4Plugin.NATIVE_TRANSPORT.getKey(), true).build();
+        SharedGroupFactory sharedGroupFactory = new SharedGroupFactory(settings);
+        SharedGroupFactory.SharedGroup group = sharedGroupFactory.getTransportGroup();
+        try {
+            assertTrue(group.isNativeTransport());
+            String message = randomAlphaOfLength(between(1, 100));
+            PlainActionFuture<String> received = new PlainActionFuture<>();
+            Channel serverChannel = new ServerBootstrap().group(group.getLowLevelGroup())
+                .channel(group.getServerChannelType())
+                .childOption(ChannelOption.ALLOCATOR, group.getAllocator())
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(new SimpleChannelInboundHandler<ByteBuf>() {
+                            private final StringBuilder content = new StringBuilder();
+
+                            @Override
+                            protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
+                                content.append(msg.toString(StandardCharsets.UTF_8));
+                                if (content.length() == message.length()) {
+                                    received.onResponse(content.toString());
+                                }
+                            }
+                        });
+                    }
+                })
+                .bind(InetAddress.getLoopbackAddress(), 0)
+                .sync()
+                .channel();
+            try {
+                Channel clientChannel = new Bootstrap().group(group.getLowLevelGroup())
+                    .channel(group.getChannelType())
+                    .option(ChannelOption.ALLOCATOR, group.getAllocator())
+                    .handler(new ChannelInboundHandlerAdapter())
+                    .connect(serverChannel.localAddress())
+                    .sync()
+                    .channel();
+                try {
+                    assertThat(clientChannel, instanceOf(EpollSocketChannel.class));
+                    clientChannel.writeAndFlush(Unpooled.copiedBuffer(message, StandardCharsets.UTF_8)).sync();
+                    assertEquals(message, received.get(10, TimeUnit.SECONDS));
+                } finally {
+                    clientChannel.close().sync();
+                }
+            } finally {
+                serverChannel.close().sync();
+            }
+        } finally {
+            group.shutdown();
+        }
+    }
 }
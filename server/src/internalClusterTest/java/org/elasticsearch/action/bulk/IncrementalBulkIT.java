@@ -283,6 +283,61 @@ public class IncrementalBulkIT extends ESIntegTestCase {
         }
     }
 
+    public void testDispatchesBeforeLastItems() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(1);
+
+        try (Releasable ignored = executorService::shutdown;) {
+            String index = "test";
+            createIndex(index);
+
+            String nodeName = internalCluster().getRandomNodeName();
+            IncrementalBulkService incrementalBulkService = new IncrementalBulkService(
+                client(nodeName),
+                internalCluster().getInstance(IndexingPressure.class, nodeName),
+                Settings.builder().put(IncrementalBulkService.INCREMENTAL_BULK_DISPATCH_SIZE.getKey(), "1kb").build()
+            );
+
+            IncrementalBulkService.Handler handler = incrementalBulkService.newBulkRequest();
+            ArrayList<DocWriteRequest<?>> requests = new ArrayList<>();
+            add512BRequests(requests, index);
+            add512BRequests(requests, index);
+            AbstractRefCounted refCounted = AbstractRefCounted.of(() -> {});
+            AtomicBoolean nextPage = new AtomicBoolean(false);
+            refCounted.incRef();
+            handler.addItems(requests, refCounted::decRef, () -> nextPage.set(true));
+            // the bulk is dispatched without waiting for the rest of the request and reading continues
+            assertTrue(nextPage.get());
+
+            long dispatched = requests.size();
+            assertBusy(() -> {
+                refresh(index);
+                assertResponse(prepareSearch(index).setQuery(QueryBuilders.matchAllQuery()), searchResponse -> {
+                    assertNoFailures(searchResponse);
+                    assertThat(searchResponse.getHits().getTotalHits().value(), equalTo(dispatched));
+                });
+            });
+
+            PlainActionFuture<BulkResponse> future = new PlainActionFuture<>();
+            handler.lastItems(List.of(indexRequest(index)), refCounted::decRef, future);
+            BulkResponse bulkResponse = safeGet(future);
+            assertNoFailures(bulkResponse);
+            assertThat(bulkResponse.getItems().length, equalTo(requests.size() + 1));
+            assertFalse(refCounted.hasReferences());
+
+            long docs = randomIntBetween(200, 400);
+            bulkResponse = executeBulk(docs, index, incrementalBulkService.newBulkRequest(), executorService);
+            assertNoFailures(bulkResponse);
+            assertThat(bulkResponse.getItems().length, equalTo((int) docs));
+
+            refresh(index);
+
+            assertResponse(prepareSearch(index).setQuery(QueryBuilders.matchAllQuery()), searchResponse -> {
+                assertNoFailures(searchResponse);
+                assertThat(searchResponse.getHits().getTotalHits().value(), equalTo(dispatched + 1 + docs));
+            });
+        }
+    }
+
     public void testGlobalBulkFailure() throws InterruptedException {
         ExecutorService executorService = Executors.newFixedThreadPool(1);
         CountDownLatch blockingLatch = new CountDownLatch(1);
@@ -211,6 +211,11 @@ public class TransportVersions {
     public static final TransportVersion ESQL_REMOVE_NODE_LEVEL_PLAN = def(8_800_00_0);
     public static final TransportVersion LOGSDB_TELEMETRY_CUSTOM_CUTOFF_DATE = def(8_801_00_0);
     public static final TransportVersion SOURCE_MODE_TELEMETRY = def(8_802_00_0);
+    public static final TransportVersion KNN_PROFILE_VECTOR_SEARCH_DEBUG = def(8_803_00_0);
+    public static final TransportVersion ZSTD_TRANSPORT_COMPRESSION = def(8_804_00_0);
+    public static final TransportVersion CLUSTER_STATE_SERIALIZATION_TIME_STATS = def(8_805_00_0);
+    public static final TransportVersion SCRIPT_PRECOMPILATION_STATS = def(8_806_00_0);
+    public static final TransportVersion HEDGED_SEARCH_STATS = def(8_807_00_0);
 
     /*
      * STOP! READ THIS FIRST! No, really,
@@ -14,6 +14,7 @@ import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.logging.DeprecationLogger;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.xcontent.LoggingDeprecationHandler;
@@ -117,6 +118,10 @@ public final class BulkRequestParser {
         } else {
             length = nextMarker - from;
         }
+        if (bytesReference instanceof ReleasableBytesReference releasable) {
+            // keep track of the buffers the source is sliced from so that it can be forwarded to the shards without copying it
+            return releasable.sharedSlice(from, length);
+        }
         return bytesReference.slice(from, length);
     }
 
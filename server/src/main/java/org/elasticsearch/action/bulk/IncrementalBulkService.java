@@ -16,16 +16,20 @@ import org.elasticsearch.action.support.ActiveShardCount;
 import org.elasticsearch.client.internal.Client;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.IndexingPressure;
+import org.elasticsearch.index.shard.ShardId;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
@@ -39,13 +43,33 @@ public class IncrementalBulkService {
         Setting.Property.NodeScope,
         Setting.Property.Dynamic
     );
+
+    /**
+     * Once the items buffered for an incremental bulk request reach this size they are dispatched to the shards without waiting for
+     * the rest of the request body. At most one of these bulks is in flight per request, while it executes the next one is buffered and
+     * reading from the request stream pauses once it is full, so that the memory held on the coordinating node stays bounded.
+     */
+    public static final Setting<ByteSizeValue> INCREMENTAL_BULK_DISPATCH_SIZE = Setting.byteSizeSetting(
+        "rest.incremental_bulk.dispatch_size",
+        ByteSizeValue.ofMb(4),
+        ByteSizeValue.ofKb(1),
+        ByteSizeValue.ofBytes(Long.MAX_VALUE),
+        Setting.Property.NodeScope
+    );
+
     private final Client client;
     private final AtomicBoolean enabledForTests = new AtomicBoolean(true);
     private final IndexingPressure indexingPressure;
+    private final long dispatchSize;
 
     public IncrementalBulkService(Client client, IndexingPressure indexingPressure) {
+        this(client, indexingPressure, Settings.EMPTY);
+    }
+
+    public IncrementalBulkService(Client client, IndexingPressure indexingPressure, Settings settings) {
         this.client = client;
         this.indexingPressure = indexingPressure;
+        this.dispatchSize = INCREMENTAL_BULK_DISPATCH_SIZE.get(settings).getBytes();
     }
 
     public Handler newBulkRequest() {
@@ -55,7 +79,7 @@ public class IncrementalBulkService {
 
     public Handler newBulkRequest(@Nullable String waitForActiveShards, @Nullable TimeValue timeout, @Nullable String refresh) {
         ensureEnabled();
-        return new Handler(client, indexingPressure, waitForActiveShards, timeout, refresh);
+        return new Handler(client, indexingPressure, dispatchSize, waitForActiveShards, timeout, refresh);
     }
 
     private void ensureEnabled() {
@@ -86,17 +110,26 @@ public class IncrementalBulkService {
         }
     }
 
+    /**
+     * Accumulates the items of an incremental bulk request and dispatches them in bounded bulks as the request body arrives. A bulk is
+     * dispatched as soon as the buffered items reach the dispatch size, or earlier if indexing pressure asks for the bulk to be split.
+     * Bulks are executed one at a time so that operations on the same document are applied in request order, but the next bulk is
+     * parsed and buffered while the previous one executes. Reading from the request stream is paused while a full bulk is waiting for
+     * the one in flight, or while a bulk that was split due to indexing pressure executes.
+     */
     public static class Handler implements Releasable {
 
         public static final BulkRequest.IncrementalState EMPTY_STATE = new BulkRequest.IncrementalState(Collections.emptyMap(), true);
 
         private final Client client;
         private final IndexingPressure indexingPressure;
+        private final long dispatchSize;
         private final ActiveShardCount waitForActiveShards;
         private final TimeValue timeout;
         private final String refresh;
 
         private final ArrayList<Releasable> releasables = new ArrayList<>(4);
+        // responses in item order, the slot of a bulk that is still in flight is null
         private final ArrayList<BulkResponse> responses = new ArrayList<>(2);
         private boolean closed = false;
         private boolean globalFailure = false;
@@ -105,63 +138,71 @@ public class IncrementalBulkService {
         private Exception bulkActionLevelFailure = null;
         private long currentBulkSize = 0L;
         private BulkRequest bulkRequest = null;
+        private Map<ShardId, Exception> shardLevelFailures = Collections.emptyMap();
+        private Runnable pendingNextItems = null;
+        private ActionListener<BulkResponse> lastItemsListener = null;
 
         protected Handler(
             Client client,
             IndexingPressure indexingPressure,
+            long dispatchSize,
             @Nullable String waitForActiveShards,
             @Nullable TimeValue timeout,
             @Nullable String refresh
         ) {
             this.client = client;
             this.indexingPressure = indexingPressure;
+            this.dispatchSize = dispatchSize;
             this.waitForActiveShards = waitForActiveShards != null ? ActiveShardCount.parseString(waitForActiveShards) : null;
             this.timeout = timeout;
             this.refresh = refresh;
-            createNewBulkRequest(EMPTY_STATE);
+            createNewBulkRequest();
         }
 
         public void addItems(List<DocWriteRequest<?>> items, Releasable releasable, Runnable nextItems) {
-            assert closed == false;
-            assert bulkInProgress == false;
-            if (bulkActionLevelFailure != null) {
-                shortCircuitDueToTopLevelFailure(items, releasable);
-                nextItems.run();
-            } else {
-                assert bulkRequest != null;
-                if (internalAddItems(items, releasable)) {
-                    if (shouldBackOff()) {
-                        final boolean isFirstRequest = incrementalRequestSubmitted == false;
-                        incrementalRequestSubmitted = true;
-                        final ArrayList<Releasable> toRelease = new ArrayList<>(releasables);
-                        releasables.clear();
-                        bulkInProgress = true;
-                        client.bulk(bulkRequest, ActionListener.runAfter(new ActionListener<>() {
-
-                            @Override
-                            public void onResponse(BulkResponse bulkResponse) {
-                                handleBulkSuccess(bulkResponse);
-                                createNewBulkRequest(
-                                    new BulkRequest.IncrementalState(bulkResponse.getIncrementalState().shardLevelFailures(), true)
-                                );
-                            }
-
-                            @Override
-                            public void onFailure(Exception e) {
-                                handleBulkFailure(isFirstRequest, e);
+            final PendingBulk toDispatch;
+            final Runnable toRun;
+            synchronized (this) {
+                assert closed == false;
+                assert pendingNextItems == null : "next items requested while reading is paused";
+                assert lastItemsListener == null;
+                if (bulkActionLevelFailure != null) {
+                    shortCircuitDueToTopLevelFailure(items, releasable);
+                    toDispatch = null;
+                    toRun = nextItems;
+                } else {
+                    assert bulkRequest != null;
+                    if (internalAddItems(items, releasable)) {
+                        final boolean backOff = shouldBackOff();
+                        if (backOff == false && currentBulkSize < dispatchSize) {
+                            toDispatch = null;
+                            toRun = nextItems;
+                        } else if (bulkInProgress) {
+                            // the buffered items are dispatched once the bulk in flight completes, pause reading until then
+                            toDispatch = null;
+                            toRun = null;
+                            pendingNextItems = nextItems;
+                        } else {
+                            toDispatch = prepareDispatch();
+                            if (backOff) {
+                                toRun = null;
+                                pendingNextItems = nextItems;
+                            } else {
+                                toRun = nextItems;
                             }
-                        }, () -> {
-                            bulkInProgress = false;
-                            toRelease.forEach(Releasable::close);
-                            nextItems.run();
-                        }));
+                        }
                     } else {
-                        nextItems.run();
+                        toDispatch = null;
+                        toRun = nextItems;
                     }
-                } else {
-                    nextItems.run();
                 }
             }
+            if (toDispatch != null) {
+                dispatch(toDispatch);
+            }
+            if (toRun != null) {
+                toRun.run();
+            }
         }
 
         private boolean shouldBackOff() {
@@ -169,41 +210,47 @@ public class IncrementalBulkService {
         }
 
         public void lastItems(List<DocWriteRequest<?>> items, Releasable releasable, ActionListener<BulkResponse> listener) {
-            assert bulkInProgress == false;
-            if (bulkActionLevelFailure != null) {
-                shortCircuitDueToTopLevelFailure(items, releasable);
-                errorResponse(listener);
-            } else {
-                assert bulkRequest != null;
-                if (internalAddItems(items, releasable)) {
-                    final ArrayList<Releasable> toRelease = new ArrayList<>(releasables);
-                    releasables.clear();
-                    // We do not need to set this back to false as this will be the last request.
-                    bulkInProgress = true;
-                    client.bulk(bulkRequest, ActionListener.runBefore(new ActionListener<>() {
-
-                        private final boolean isFirstRequest = incrementalRequestSubmitted == false;
-
-                        @Override
-                        public void onResponse(BulkResponse bulkResponse) {
-                            handleBulkSuccess(bulkResponse);
-                            listener.onResponse(combineResponses());
-                        }
-
-                        @Override
-                        public void onFailure(Exception e) {
-                            handleBulkFailure(isFirstRequest, e);
-                            errorResponse(listener);
-                        }
-                    }, () -> toRelease.forEach(Releasable::close)));
+            final PendingBulk toDispatch;
+            final boolean respond;
+            synchronized (this) {
+                assert pendingNextItems == null : "last items received while reading is paused";
+                assert lastItemsListener == null;
+                lastItemsListener = listener;
+                if (bulkActionLevelFailure != null) {
+                    shortCircuitDueToTopLevelFailure(items, releasable);
+                    toDispatch = null;
+                    respond = bulkInProgress == false;
                 } else {
-                    errorResponse(listener);
+                    assert bulkRequest != null;
+                    if (internalAddItems(items, releasable)) {
+                        // if a bulk is in flight the remaining items are dispatched once it completes
+                        if (bulkInProgress) {
+                            toDispatch = null;
+                            respond = false;
+                        } else if (bulkRequest.numberOfActions() == 0 && incrementalRequestSubmitted) {
+                            releaseBufferedItems();
+                            toDispatch = null;
+                            respond = true;
+                        } else {
+                            toDispatch = prepareDispatch();
+                            respond = false;
+                        }
+                    } else {
+                        toDispatch = null;
+                        respond = bulkInProgress == false;
+                    }
                 }
             }
+            if (toDispatch != null) {
+                dispatch(toDispatch);
+            }
+            if (respond) {
+                errorResponse(listener);
+            }
         }
 
         @Override
-        public void close() {
+        public synchronized void close() {
             closed = true;
             releasables.forEach(Releasable::close);
             releasables.clear();
@@ -213,7 +260,7 @@ public class IncrementalBulkService {
             assert releasables.isEmpty();
             assert bulkRequest == null;
             if (globalFailure == false) {
-                addItemLevelFailures(items);
+                responses.add(itemLevelFailures(items, bulkActionLevelFailure));
             }
             Releasables.close(releasable);
         }
@@ -226,30 +273,119 @@ public class IncrementalBulkService {
             }
         }
 
-        private void handleBulkSuccess(BulkResponse bulkResponse) {
-            responses.add(bulkResponse);
+        /**
+         * Takes the buffered items as the next bulk to execute. The bulk carries the shard level failures of the bulks that completed so
+         * far, which is why only one bulk is in flight at a time.
+         */
+        private PendingBulk prepareDispatch() {
+            assert bulkInProgress == false;
+            assert bulkRequest != null;
+            final boolean isFirstRequest = incrementalRequestSubmitted == false;
+            incrementalRequestSubmitted = true;
+            bulkInProgress = true;
+            bulkRequest.incrementalState(new BulkRequest.IncrementalState(shardLevelFailures, true));
+            responses.add(null);
+            final int responseSlot = responses.size() - 1;
+            final PendingBulk pendingBulk = new PendingBulk(bulkRequest, new ArrayList<>(releasables), isFirstRequest, responseSlot);
+            releasables.clear();
             currentBulkSize = 0L;
             bulkRequest = null;
+            if (lastItemsListener == null) {
+                createNewBulkRequest();
+            }
+            return pendingBulk;
+        }
+
+        private void dispatch(PendingBulk pendingBulk) {
+            client.bulk(pendingBulk.request(), new ActionListener<>() {
+                @Override
+                public void onResponse(BulkResponse bulkResponse) {
+                    onBulkCompleted(pendingBulk, bulkResponse, null);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    onBulkCompleted(pendingBulk, null, e);
+                }
+            });
+        }
+
+        private void onBulkCompleted(PendingBulk pendingBulk, @Nullable BulkResponse bulkResponse, @Nullable Exception e) {
+            Releasables.close(pendingBulk.releasables());
+            PendingBulk toDispatch = null;
+            Runnable toRun = null;
+            ActionListener<BulkResponse> toRespond = null;
+            synchronized (this) {
+                assert bulkInProgress;
+                bulkInProgress = false;
+                if (e == null) {
+                    responses.set(pendingBulk.responseSlot(), bulkResponse);
+                    shardLevelFailures = bulkResponse.getIncrementalState().shardLevelFailures();
+                } else {
+                    handleBulkFailure(pendingBulk.isFirstRequest(), e);
+                    responses.set(pendingBulk.responseSlot(), itemLevelFailures(pendingBulk.request().requests(), e));
+                }
+
+                if (lastItemsListener != null) {
+                    if (bulkRequest != null && bulkRequest.numberOfActions() > 0) {
+                        toDispatch = prepareDispatch();
+                    } else {
+                        releaseBufferedItems();
+                        toRespond = lastItemsListener;
+                    }
+                } else if (pendingNextItems != null) {
+                    final boolean backOff = bulkRequest != null && shouldBackOff();
+                    if (backOff || (bulkRequest != null && currentBulkSize >= dispatchSize)) {
+                        toDispatch = prepareDispatch();
+                    }
+                    // keep reading paused while a bulk that was split due to indexing pressure executes
+                    if (backOff == false) {
+                        toRun = pendingNextItems;
+                        pendingNextItems = null;
+                    }
+                }
+            }
+            if (toDispatch != null) {
+                dispatch(toDispatch);
+            }
+            if (toRun != null) {
+                toRun.run();
+            }
+            if (toRespond != null) {
+                errorResponse(toRespond);
+            }
         }
 
         private void handleBulkFailure(boolean isFirstRequest, Exception e) {
-            assert bulkActionLevelFailure == null;
-            globalFailure = isFirstRequest;
-            bulkActionLevelFailure = e;
-            addItemLevelFailures(bulkRequest.requests());
-            currentBulkSize = 0;
+            if (bulkActionLevelFailure == null) {
+                globalFailure = isFirstRequest;
+                bulkActionLevelFailure = e;
+            }
+            // items buffered behind the failed bulk are failed with it
+            if (bulkRequest != null) {
+                if (globalFailure == false) {
+                    responses.add(itemLevelFailures(bulkRequest.requests(), bulkActionLevelFailure));
+                }
+                releaseBufferedItems();
+            }
+        }
+
+        private void releaseBufferedItems() {
+            releasables.forEach(Releasable::close);
+            releasables.clear();
+            currentBulkSize = 0L;
             bulkRequest = null;
         }
 
-        private void addItemLevelFailures(List<DocWriteRequest<?>> items) {
+        private static BulkResponse itemLevelFailures(List<DocWriteRequest<?>> items, Exception e) {
             BulkItemResponse[] bulkItemResponses = new BulkItemResponse[items.size()];
             int idx = 0;
             for (DocWriteRequest<?> item : items) {
-                BulkItemResponse.Failure failure = new BulkItemResponse.Failure(item.index(), item.id(), bulkActionLevelFailure);
+                BulkItemResponse.Failure failure = new BulkItemResponse.Failure(item.index(), item.id(), e);
                 bulkItemResponses[idx++] = BulkItemResponse.failure(idx, item.opType(), failure);
             }
 
-            responses.add(new BulkResponse(bulkItemResponses, 0, 0));
+            return new BulkResponse(bulkItemResponses, 0, 0);
         }
 
         private boolean internalAddItems(List<DocWriteRequest<?>> items, Releasable releasable) {
@@ -262,17 +398,15 @@ public class IncrementalBulkService {
                 return true;
             } catch (EsRejectedExecutionException e) {
                 handleBulkFailure(incrementalRequestSubmitted == false, e);
-                releasables.forEach(Releasable::close);
-                releasables.clear();
                 return false;
             }
         }
 
-        private void createNewBulkRequest(BulkRequest.IncrementalState incrementalState) {
+        private void createNewBulkRequest() {
             assert currentBulkSize == 0L;
             assert bulkRequest == null;
             bulkRequest = new BulkRequest();
-            bulkRequest.incrementalState(incrementalState);
+            bulkRequest.incrementalState(EMPTY_STATE);
 
             if (waitForActiveShards != null) {
                 bulkRequest.waitForActiveShards(waitForActiveShards);
@@ -290,6 +424,7 @@ public class IncrementalBulkService {
             long ingestTookInMillis = 0;
             int itemResponseCount = 0;
             for (BulkResponse response : responses) {
+                assert response != null : "bulk still in flight";
                 tookInMillis += response.getTookInMillis();
                 ingestTookInMillis += response.getIngestTookInMillis();
                 itemResponseCount += response.getItems().length;
@@ -304,5 +439,7 @@ public class IncrementalBulkService {
 
             return new BulkResponse(bulkItemResponses, tookInMillis, ingestTookInMillis);
         }
+
+        private record PendingBulk(BulkRequest request, List<Releasable> releasables, boolean isFirstRequest, int responseSlot) {}
     }
 }
@@ -27,8 +27,10 @@ import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.SearchContextMissingException;
 import org.elasticsearch.search.SearchPhaseResult;
@@ -40,7 +42,9 @@ import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchContextId;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.transport.Transport;
+import org.elasticsearch.transport.TransportRequest;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -287,24 +291,41 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
     }
 
     protected void performPhaseOnShard(final int shardIndex, final SearchShardIterator shardIt, final SearchShardTarget shard) {
+        performPhaseOnShard(shardIndex, shardIt, shard, maybeHedge(shardIndex, shardIt, shard));
+    }
+
+    private void performPhaseOnShard(int shardIndex, SearchShardIterator shardIt, SearchShardTarget shard, @Nullable ShardAttempt attempt) {
         if (throttleConcurrentRequests) {
             var pendingExecutions = pendingExecutionsPerNode.computeIfAbsent(
                 shard.getNodeId(),
                 n -> new PendingExecutions(maxConcurrentRequestsPerNode)
             );
-            pendingExecutions.submit(l -> doPerformPhaseOnShard(shardIndex, shardIt, shard, l));
+            pendingExecutions.submit(l -> doPerformPhaseOnShard(shardIndex, shardIt, shard, attempt, l));
         } else {
-            doPerformPhaseOnShard(shardIndex, shardIt, shard, () -> {});
+            doPerformPhaseOnShard(shardIndex, shardIt, shard, attempt, () -> {});
         }
     }
 
-    private void doPerformPhaseOnShard(int shardIndex, SearchShardIterator shardIt, SearchShardTarget shard, Releasable releasable) {
+    private void doPerformPhaseOnShard(
+        int shardIndex,
+        SearchShardIterator shardIt,
+        SearchShardTarget shard,
+        @Nullable ShardAttempt attempt,
+        Releasable releasable
+    ) {
+        if (attempt != null && attempt.isLost()) {
+            // another copy of the shard responded while this hedged request was waiting for a free slot on its node
+            releasable.close();
+            return;
+        }
         var shardListener = new SearchActionListener<Result>(shard, shardIndex) {
             @Override
             public void innerOnResponse(Result result) {
                 try {
                     releasable.close();
-                    onShardResult(result, shardIt);
+                    if (attempt == null || attempt.onResponse(result)) {
+                        onShardResult(result, shardIt);
+                    }
                 } catch (Exception exc) {
                     onShardFailure(shardIndex, shard, shardIt, exc);
                 }
@@ -313,7 +334,16 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
             @Override
             public void onFailure(Exception e) {
                 releasable.close();
-                onShardFailure(shardIndex, shard, shardIt, e);
+                if (attempt == null || attempt.onFailure(e)) {
+                    onShardFailure(shardIndex, shard, shardIt, e);
+                }
+            }
+
+            @Override
+            void onRequestSent(TransportRequest request) {
+                if (attempt != null) {
+                    attempt.onRequestSent(request);
+                }
             }
         };
         final Transport.Connection connection;
@@ -323,7 +353,35 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
             shardListener.onFailure(e);
             return;
         }
+        if (attempt != null) {
+            attempt.setConnection(connection);
+        }
         executePhaseOnShard(shardIt, connection, shardListener);
+        if (attempt != null && attempt.hedge == false) {
+            attempt.hedgedShardRequest.scheduleHedge();
+        }
+    }
+
+    /**
+     * Returns the policy for hedging the shard-level requests of this phase, or {@code null} if they are never hedged.
+     */
+    @Nullable
+    ShardRequestHedging shardRequestHedging() {
+        return null;
+    }
+
+    @Nullable
+    private ShardAttempt maybeHedge(int shardIndex, SearchShardIterator shardIt, SearchShardTarget shard) {
+        final ShardRequestHedging hedging = shardRequestHedging();
+        // requests that target an existing search context (scroll, point in time) cannot be sent to another copy of the shard
+        if (hedging == null || shardIt.remaining() == 0 || shardIt.getSearchContextId() != null || request.scroll() != null) {
+            return null;
+        }
+        final TimeValue delay = hedging.hedgeDelay(shard.getNodeId());
+        if (delay == null) {
+            return null;
+        }
+        return new HedgedShardRequest(hedging, shardIndex, shardIt, delay).newAttempt(shard, false);
     }
 
     private void failOnUnavailable(int shardIndex, SearchShardIterator shardIt) {
@@ -806,6 +864,209 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
      */
     protected abstract SearchPhase getNextPhase();
 
+    /**
+     * Tracks the requests that were sent to different copies of the same shard because the copy that was tried first did not respond
+     * in time. The first successful response wins, the other requests are cancelled and their responses are discarded. A failure only
+     * moves on to the next copy of the shard once none of the requests is pending anymore.
+     */
+    private final class HedgedShardRequest {
+        private final ShardRequestHedging hedging;
+        private final int shardIndex;
+        private final SearchShardIterator shardIt;
+        private final TimeValue delay;
+
+        // the fields below are guarded by this
+        private final List<ShardAttempt> pending = new ArrayList<>(2);
+        private boolean done;
+        private Scheduler.ScheduledCancellable scheduledHedge;
+
+        HedgedShardRequest(ShardRequestHedging hedging, int shardIndex, SearchShardIterator shardIt, TimeValue delay) {
+            this.hedging = hedging;
+            this.shardIndex = shardIndex;
+            this.shardIt = shardIt;
+            this.delay = delay;
+        }
+
+        synchronized ShardAttempt newAttempt(SearchShardTarget target, boolean hedge) {
+            final ShardAttempt attempt = new ShardAttempt(this, target, hedge);
+            pending.add(attempt);
+            return attempt;
+        }
+
+        synchronized void scheduleHedge() {
+            if (done == false && scheduledHedge == null) {
+                scheduledHedge = hedging.scheduleHedge(this::sendHedge, delay, executor);
+            }
+        }
+
+        private void sendHedge() {
+            final ShardAttempt hedge;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                final SearchShardTarget target = shardIt.nextOrNull();
+                if (target == null) {
+                    return;
+                }
+                hedge = newAttempt(target, true);
+            }
+            logger.trace("{}: no response after [{}], hedging request to [{}]", shardIt.shardId(), delay, hedge.target);
+            hedging.onHedgeSent(hedge.target.getNodeId());
+            performPhaseOnShard(shardIndex, shardIt, hedge.target, hedge);
+        }
+
+        private void cancelScheduledHedge() {
+            assert Thread.holdsLock(this);
+            if (scheduledHedge != null) {
+                scheduledHedge.cancel();
+            }
+        }
+
+        /**
+         * @return whether the response won and should be processed, {@code false} if another copy of the shard already responded
+         */
+        boolean onResponse(ShardAttempt attempt, Result result) {
+            final List<ShardAttempt> losers;
+            final List<ShardAttempt> toCancel = new ArrayList<>();
+            final Transport.Connection connection;
+            synchronized (this) {
+                if (done) {
+                    assert attempt.lost;
+                    connection = attempt.connection;
+                    losers = null;
+                } else {
+                    done = true;
+                    cancelScheduledHedge();
+                    pending.remove(attempt);
+                    losers = new ArrayList<>(pending);
+                    pending.clear();
+                    for (ShardAttempt loser : losers) {
+                        loser.lost = true;
+                        if (loser.request != null) {
+                            toCancel.add(loser);
+                        }
+                    }
+                    connection = null;
+                }
+            }
+            if (losers == null) {
+                final ShardSearchContextId contextId = result.getContextId();
+                if (contextId != null && isPartOfPointInTime(contextId) == false) {
+                    sendReleaseSearchContext(contextId, connection, getOriginalIndices(shardIndex));
+                }
+                return false;
+            }
+            if (attempt.hedge) {
+                hedging.onHedgeWon(attempt.target.getNodeId());
+            }
+            for (ShardAttempt loser : toCancel) {
+                cancel(loser);
+            }
+            if (losers.isEmpty() == false) {
+                // each loser consumed a copy of the shard which needs to be accounted for, this cannot complete the phase since the
+                // winner is still to be accounted for
+                final int ops = totalOps.addAndGet(losers.size());
+                assert ops < expectedTotalOps : "unexpected total ops [" + ops + "] compared to expected [" + expectedTotalOps + "]";
+            }
+            return true;
+        }
+
+        /**
+         * @return whether the failure should be processed as a failure of the whole shard request, i.e. the shard should be retried on its
+         * next copy if there is one
+         */
+        boolean onFailure(ShardAttempt attempt, Exception e) {
+            synchronized (this) {
+                if (done) {
+                    // another copy of the shard already responded, typically this request failed because it was cancelled
+                    return false;
+                }
+                pending.remove(attempt);
+                if (pending.isEmpty()) {
+                    done = true;
+                    cancelScheduledHedge();
+                    return true;
+                }
+                // another copy of the shard is still working on the request, record the failure but wait for that copy to respond.
+                // This happens under the lock so that a winning response, which clears the failures of the shard and accounts for the
+                // remaining copies of the shard, can only be processed once the failed copy has been accounted for.
+                onShardFailure(shardIndex, attempt.target, e);
+                final int ops = totalOps.incrementAndGet();
+                assert ops < expectedTotalOps : "unexpected total ops [" + ops + "] compared to expected [" + expectedTotalOps + "]";
+            }
+            logger.debug(() -> format("%s: Failed to execute [%s] while hedging", attempt.target, request), e);
+            return false;
+        }
+
+        void onRequestSent(ShardAttempt attempt, TransportRequest request) {
+            final boolean lost;
+            synchronized (this) {
+                attempt.request = request;
+                lost = attempt.lost;
+            }
+            if (lost) {
+                cancel(attempt);
+            }
+        }
+
+        private void cancel(ShardAttempt attempt) {
+            try {
+                searchTransportService.cancelChildRequest(
+                    attempt.connection,
+                    attempt.request,
+                    "another copy of shard " + shardIt.shardId() + " responded first"
+                );
+            } catch (Exception e) {
+                logger.debug(() -> format("%s: failed to cancel hedged request", attempt.target), e);
+            }
+        }
+    }
+
+    /**
+     * A request to one copy of a shard as part of a {@link HedgedShardRequest}.
+     */
+    private final class ShardAttempt {
+        private final HedgedShardRequest hedgedShardRequest;
+        private final SearchShardTarget target;
+        private final boolean hedge;
+
+        // the fields below are guarded by the hedged shard request
+        private Transport.Connection connection;
+        private TransportRequest request;
+        private boolean lost;
+
+        ShardAttempt(HedgedShardRequest hedgedShardRequest, SearchShardTarget target, boolean hedge) {
+            this.hedgedShardRequest = hedgedShardRequest;
+            this.target = target;
+            this.hedge = hedge;
+        }
+
+        boolean isLost() {
+            synchronized (hedgedShardRequest) {
+                return lost;
+            }
+        }
+
+        void setConnection(Transport.Connection connection) {
+            synchronized (hedgedShardRequest) {
+                this.connection = connection;
+            }
+        }
+
+        boolean onResponse(Result result) {
+            return hedgedShardRequest.onResponse(this, result);
+        }
+
+        boolean onFailure(Exception e) {
+            return hedgedShardRequest.onFailure(this, e);
+        }
+
+        void onRequestSent(TransportRequest request) {
+            hedgedShardRequest.onRequestSent(this, request);
+        }
+    }
+
     private static final class PendingExecutions {
         private final Semaphore semaphore;
         private final ConcurrentLinkedQueue<Consumer<Releasable>> queue = new ConcurrentLinkedQueue<>();
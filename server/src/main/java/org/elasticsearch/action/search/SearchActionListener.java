@@ -11,6 +11,7 @@ package org.elasticsearch.action.search;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.transport.TransportRequest;
 
 /**
  * A base action listener that ensures shard target and shard index is set on all responses
@@ -39,4 +40,9 @@ abstract class SearchActionListener<T extends SearchPhaseResult> implements Acti
     }
 
     protected abstract void innerOnResponse(T response);
+
+    /**
+     * Invoked with the shard-level request once it has been sent, so that it can be cancelled if its response is no longer needed.
+     */
+    void onRequestSent(TransportRequest request) {}
 }
@@ -15,12 +15,14 @@ import org.elasticsearch.client.internal.Client;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.dfs.AggregatedDfs;
 import org.elasticsearch.search.dfs.DfsKnnResults;
 import org.elasticsearch.search.dfs.DfsSearchResult;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.transport.Transport;
 
 import java.util.List;
@@ -33,6 +35,8 @@ final class SearchDfsQueryThenFetchAsyncAction extends AbstractSearchAsyncAction
     private final SearchPhaseResults<SearchPhaseResult> queryPhaseResultConsumer;
     private final SearchProgressListener progressListener;
     private final Client client;
+    @Nullable
+    private final ShardRequestHedging shardRequestHedging;
 
     SearchDfsQueryThenFetchAsyncAction(
         Logger logger,
@@ -50,7 +54,8 @@ final class SearchDfsQueryThenFetchAsyncAction extends AbstractSearchAsyncAction
         ClusterState clusterState,
         SearchTask task,
         SearchResponse.Clusters clusters,
-        Client client
+        Client client,
+        @Nullable ShardRequestHedging shardRequestHedging
     ) {
         super(
             "dfs",
@@ -79,6 +84,7 @@ final class SearchDfsQueryThenFetchAsyncAction extends AbstractSearchAsyncAction
             notifyListShards(progressListener, clusters, request.source());
         }
         this.client = client;
+        this.shardRequestHedging = shardRequestHedging;
     }
 
     @Override
@@ -87,7 +93,14 @@ final class SearchDfsQueryThenFetchAsyncAction extends AbstractSearchAsyncAction
         final Transport.Connection connection,
         final SearchActionListener<DfsSearchResult> listener
     ) {
-        getSearchTransport().sendExecuteDfs(connection, buildShardSearchRequest(shardIt, listener.requestIndex), getTask(), listener);
+        final ShardSearchRequest request = buildShardSearchRequest(shardIt, listener.requestIndex);
+        getSearchTransport().sendExecuteDfs(connection, request, getTask(), listener);
+        listener.onRequestSent(request);
+    }
+
+    @Override
+    ShardRequestHedging shardRequestHedging() {
+        return shardRequestHedging;
     }
 
     @Override
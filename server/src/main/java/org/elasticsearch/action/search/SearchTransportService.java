@@ -330,6 +330,14 @@ public class SearchTransportService {
         return transportService.getRemoteClusterService();
     }
 
+    /**
+     * Cancels the task that executes the given child request on the node of the given connection, e.g. because another copy of the shard
+     * already responded to the same request.
+     */
+    public void cancelChildRequest(Transport.Connection connection, TransportRequest request, String reason) {
+        transportService.getTaskManager().cancelChildRemote(request.getParentTask(), request.getRequestId(), connection, reason);
+    }
+
     /**
      * Return a map of nodeId to pending number of search requests.
      * This is a snapshot of the current pending search and not a live map.
@@ -0,0 +1,82 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.node.ResponseCollectorService;
+import org.elasticsearch.rest.action.search.SearchResponseMetrics;
+import org.elasticsearch.threadpool.Scheduler;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Decides whether and when a shard-level search request is hedged, i.e. duplicated to the next copy of the shard because the copy that
+ * adaptive replica selection picked has not responded yet. The delay is derived from the moving average of the response times that the
+ * {@link ResponseCollectorService} tracks for the picked node, assuming that response times are exponentially distributed around it.
+ */
+final class ShardRequestHedging {
+
+    private final ThreadPool threadPool;
+    private final ResponseCollectorService responseCollectorService;
+    private final SearchResponseMetrics searchResponseMetrics;
+
+    private volatile boolean enabled;
+    private volatile double percentile;
+    private volatile TimeValue minDelay;
+
+    ShardRequestHedging(
+        ThreadPool threadPool,
+        ResponseCollectorService responseCollectorService,
+        SearchResponseMetrics searchResponseMetrics,
+        ClusterSettings clusterSettings
+    ) {
+        this.threadPool = threadPool;
+        this.responseCollectorService = responseCollectorService;
+        this.searchResponseMetrics = searchResponseMetrics;
+        clusterSettings.initializeAndWatch(TransportSearchAction.HEDGING_ENABLED_SETTING, value -> this.enabled = value);
+        clusterSettings.initializeAndWatch(TransportSearchAction.HEDGING_PERCENTILE_SETTING, value -> this.percentile = value);
+        clusterSettings.initializeAndWatch(TransportSearchAction.HEDGING_MIN_DELAY_SETTING, value -> this.minDelay = value);
+    }
+
+    /**
+     * Returns how long to wait for a response of the given node before hedging a request to it, or {@code null} if hedging is disabled
+     * or if there are no statistics about the node yet.
+     */
+    @Nullable
+    TimeValue hedgeDelay(String nodeId) {
+        if (enabled == false) {
+            return null;
+        }
+        final ResponseCollectorService.ComputedNodeStats stats = responseCollectorService.getNodeStatistics(nodeId).orElse(null);
+        if (stats == null) {
+            return null;
+        }
+        // the p-th percentile of an exponential distribution with mean m is -m * ln(1 - p)
+        final long delayNanos = (long) (-Math.log1p(-percentile / 100.0) * stats.responseTime);
+        return TimeValue.timeValueNanos(Math.max(minDelay.nanos(), delayNanos));
+    }
+
+    Scheduler.ScheduledCancellable scheduleHedge(Runnable hedge, TimeValue delay, Executor executor) {
+        return threadPool.schedule(hedge, delay, executor);
+    }
+
+    void onHedgeSent(String nodeId) {
+        searchResponseMetrics.incrementHedgedShardRequestCount();
+        responseCollectorService.onHedgedRequest(nodeId);
+    }
+
+    void onHedgeWon(String nodeId) {
+        searchResponseMetrics.incrementHedgedShardRequestWonCount();
+        responseCollectorService.onHedgedRequestWon(nodeId);
+    }
+}
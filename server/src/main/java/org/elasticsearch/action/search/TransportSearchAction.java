@@ -145,6 +145,39 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         Property.NodeScope
     );
 
+    /**
+     * Whether a shard-level query that has not responded in time is duplicated to the next copy of the shard, see
+     * {@link #HEDGING_PERCENTILE_SETTING}.
+     */
+    public static final Setting<Boolean> HEDGING_ENABLED_SETTING = Setting.boolSetting(
+        "action.search.hedging.enabled",
+        false,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /**
+     * The percentile of the response times of a node after which a shard-level query to that node is hedged. Response times are assumed
+     * to be exponentially distributed around the moving average that adaptive replica selection tracks for each node.
+     */
+    public static final Setting<Double> HEDGING_PERCENTILE_SETTING = Setting.doubleSetting(
+        "action.search.hedging.percentile",
+        95.0,
+        50.0,
+        99.9,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /** The minimum time to wait for a response from a shard before hedging the request. */
+    public static final Setting<TimeValue> HEDGING_MIN_DELAY_SETTING = Setting.timeSetting(
+        "action.search.hedging.min_delay",
+        TimeValue.timeValueMillis(10),
+        TimeValue.ZERO,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
     private final ThreadPool threadPool;
     private final ClusterService clusterService;
     private final TransportService transportService;
@@ -153,6 +186,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
     private final SearchPhaseController searchPhaseController;
     private final SearchService searchService;
     private final ResponseCollectorService responseCollectorService;
+    private final ShardRequestHedging shardRequestHedging;
     private final IndexNameExpressionResolver indexNameExpressionResolver;
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final CircuitBreaker circuitBreaker;
@@ -201,6 +235,12 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         this.ccsCheckCompatibility = SearchService.CCS_VERSION_CHECK_SETTING.get(settings);
         this.collectTelemetry = SearchService.CCS_COLLECT_TELEMETRY.get(settings);
         this.searchResponseMetrics = searchResponseMetrics;
+        this.shardRequestHedging = new ShardRequestHedging(
+            threadPool,
+            responseCollectorService,
+            searchResponseMetrics,
+            clusterService.getClusterSettings()
+        );
         this.client = client;
         this.usageService = usageService;
     }
@@ -1528,7 +1568,8 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                         clusterState,
                         task,
                         clusters,
-                        client
+                        client,
+                        shardRequestHedging
                     );
                 } else {
                     assert searchRequest.searchType() == QUERY_THEN_FETCH : searchRequest.searchType();
@@ -1548,7 +1589,8 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                         clusterState,
                         task,
                         clusters,
-                        client
+                        client,
+                        shardRequestHedging
                     );
                 }
                 success = true;
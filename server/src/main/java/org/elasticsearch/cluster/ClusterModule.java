@@ -68,6 +68,7 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.core.UpdateForV10;
 import org.elasticsearch.gateway.GatewayAllocator;
 import org.elasticsearch.health.metadata.HealthMetadataService;
@@ -412,12 +413,18 @@ public class ClusterModule extends AbstractModule {
         NodeAllocationStatsProvider nodeAllocationStatsProvider
     ) {
         Map<String, Supplier<ShardsAllocator>> allocators = new HashMap<>();
-        allocators.put(BALANCED_ALLOCATOR, () -> new BalancedShardsAllocator(clusterSettings, writeLoadForecaster));
+        Supplier<ShardsAllocator> balancedShardsAllocator = () -> new BalancedShardsAllocator(
+            clusterSettings,
+            writeLoadForecaster,
+            threadPool.generic(),
+            EsExecutors.allocatedProcessors(settings)
+        );
+        allocators.put(BALANCED_ALLOCATOR, balancedShardsAllocator);
         allocators.put(
             DESIRED_BALANCE_ALLOCATOR,
             () -> new DesiredBalanceShardsAllocator(
                 clusterSettings,
-                new BalancedShardsAllocator(clusterSettings, writeLoadForecaster),
+                balancedShardsAllocator.get(),
                 threadPool,
                 clusterService,
                 reconciler,
@@ -145,6 +145,10 @@ public final class DiffableUtils {
     ) {
         assert after != null && before != null;
 
+        if (before instanceof ImmutableOpenMap<K, T> immutableBefore && after instanceof ImmutableOpenMap<K, T> immutableAfter) {
+            return createImmutableOpenMapDiff(immutableBefore, immutableAfter, keySerializer, valueSerializer);
+        }
+
         int inserts = 0;
         var upserts = new ArrayList<Map.Entry<K, T>>();
         var diffs = new ArrayList<Map.Entry<K, Diff<T>>>();
@@ -187,6 +191,37 @@ public final class DiffableUtils {
         return new MapDiff<>(keySerializer, valueSerializer, deletes, diffs, upserts, builderCtor);
     }
 
+    /**
+     * Like {@link #createDiff} but only visits the entries that are not shared between the two maps, which for maps that are derived
+     * from each other is much cheaper than looking up every key of one map in the other.
+     */
+    private static <K, T, M extends Map<K, T>> MapDiff<K, T, M> createImmutableOpenMapDiff(
+        ImmutableOpenMap<K, T> before,
+        ImmutableOpenMap<K, T> after,
+        KeySerializer<K> keySerializer,
+        ValueSerializer<K, T> valueSerializer
+    ) {
+        var deletes = new ArrayList<K>();
+        var upserts = new ArrayList<Map.Entry<K, T>>();
+        var diffs = new ArrayList<Map.Entry<K, Diff<T>>>();
+        ImmutableOpenMap.diff(before, after, (previous, entry) -> {
+            if (entry == null) {
+                deletes.add(previous.getKey());
+            } else if (previous == null) {
+                upserts.add(entry);
+            } else if (entry.getValue().equals(previous.getValue()) == false) {
+                if (valueSerializer.supportsDiffableValues()) {
+                    diffs.add(
+                        new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), valueSerializer.diff(entry.getValue(), previous.getValue()))
+                    );
+                } else {
+                    upserts.add(entry);
+                }
+            }
+        });
+        return new MapDiff<>(keySerializer, valueSerializer, deletes, diffs, upserts, DiffableUtils::createImmutableMapBuilder);
+    }
+
     @SuppressWarnings("unchecked")
     private static <K, T, M extends Map<K, T>> MapBuilder<K, T, M> createImmutableMapBuilder(Map<K, T> m) {
         assert m instanceof ImmutableOpenMap<K, T>;
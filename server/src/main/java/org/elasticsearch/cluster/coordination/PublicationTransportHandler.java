@@ -34,10 +34,11 @@ import org.elasticsearch.common.io.stream.PositionTrackingOutputStreamStreamOutp
 import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
-import org.elasticsearch.common.util.LazyInitializable;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BytesTransportRequest;
@@ -48,10 +49,16 @@ import org.elasticsearch.transport.TransportRequestOptions;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -79,6 +86,7 @@ public class PublicationTransportHandler {
     private final Executor clusterCoordinationExecutor;
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest;
+    private final TimeValue serializationTimeout;
 
     private final AtomicReference<ClusterState> lastSeenClusterState = new AtomicReference<>();
 
@@ -100,8 +108,21 @@ public class PublicationTransportHandler {
         TransportService transportService,
         NamedWriteableRegistry namedWriteableRegistry,
         Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest
+    ) {
+        this(transportService, namedWriteableRegistry, handlePublishRequest, Coordinator.PUBLISH_TIMEOUT_SETTING.get(Settings.EMPTY));
+    }
+
+    /**
+     * @param serializationTimeout how long the master waits for the serializations of a cluster state that run on other threads
+     */
+    public PublicationTransportHandler(
+        TransportService transportService,
+        NamedWriteableRegistry namedWriteableRegistry,
+        Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest,
+        TimeValue serializationTimeout
     ) {
         this.transportService = transportService;
+        this.serializationTimeout = serializationTimeout;
         this.clusterCoordinationExecutor = transportService.getThreadPool().executor(ThreadPool.Names.CLUSTER_COORDINATION);
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.handlePublishRequest = handlePublishRequest;
@@ -262,6 +283,7 @@ public class PublicationTransportHandler {
     }
 
     private ReleasableBytesReference serializeFullClusterState(ClusterState clusterState, DiscoveryNode node, TransportVersion version) {
+        final long startTimeMillis = transportService.getThreadPool().rawRelativeTimeInMillis();
         final RecyclerBytesStreamOutput bytesStream = transportService.newNetworkBytesStream();
         boolean success = false;
         try {
@@ -279,7 +301,11 @@ public class PublicationTransportHandler {
                 throw new ElasticsearchException("failed to serialize cluster state for publishing to node {}", e, node);
             }
             final ReleasableBytesReference result = new ReleasableBytesReference(bytesStream.bytes(), bytesStream);
-            serializationStatsTracker.serializedFullState(uncompressedBytes, result.length());
+            serializationStatsTracker.serializedFullState(
+                uncompressedBytes,
+                result.length(),
+                transportService.getThreadPool().rawRelativeTimeInMillis() - startTimeMillis
+            );
             logger.trace(
                 "serialized full cluster state version [{}] using transport version [{}] with size [{}]",
                 clusterState.version(),
@@ -302,6 +328,7 @@ public class PublicationTransportHandler {
         TransportVersion version
     ) {
         final long clusterStateVersion = newState.version();
+        final long startTimeMillis = transportService.getThreadPool().rawRelativeTimeInMillis();
         final RecyclerBytesStreamOutput bytesStream = transportService.newNetworkBytesStream();
         boolean success = false;
         try {
@@ -323,7 +350,11 @@ public class PublicationTransportHandler {
                 throw new ElasticsearchException("failed to serialize cluster state diff for publishing to node {}", e, node);
             }
             final ReleasableBytesReference result = new ReleasableBytesReference(bytesStream.bytes(), bytesStream);
-            serializationStatsTracker.serializedDiff(uncompressedBytes, result.length());
+            serializationStatsTracker.serializedDiff(
+                uncompressedBytes,
+                result.length(),
+                transportService.getThreadPool().rawRelativeTimeInMillis() - startTimeMillis
+            );
             logger.trace(
                 "serialized cluster state diff for version [{}] using transport version [{}] with size [{}]",
                 clusterStateVersion,
@@ -357,7 +388,7 @@ public class PublicationTransportHandler {
         private final Map<DiscoveryNode, Transport.Connection> nodeConnections = new HashMap<>();
         // All the values of these maps have one ref for the context (while it's open) and one for each in-flight message.
         private final Map<TransportVersion, ReleasableBytesReference> serializedStates = new ConcurrentHashMap<>();
-        private final Map<TransportVersion, ReleasableBytesReference> serializedDiffs = new HashMap<>();
+        private final Map<TransportVersion, ReleasableBytesReference> serializedDiffs = new ConcurrentHashMap<>();
 
         PublicationContext(ClusterStatePublicationEvent clusterStatePublicationEvent) {
             discoveryNodes = clusterStatePublicationEvent.getNewState().nodes();
@@ -369,9 +400,8 @@ public class PublicationTransportHandler {
 
         void buildDiffAndSerializeStates() {
             assert refCount() > 0;
-            final LazyInitializable<Diff<ClusterState>, RuntimeException> diffSupplier = new LazyInitializable<>(
-                () -> newState.diff(previousState)
-            );
+            final Map<TransportVersion, DiscoveryNode> fullStateVersions = new HashMap<>();
+            final Map<TransportVersion, DiscoveryNode> diffVersions = new HashMap<>();
             for (DiscoveryNode node : discoveryNodes) {
                 if (node.equals(transportService.getLocalNode())) {
                     // publication to local node bypasses any serialization
@@ -389,13 +419,96 @@ public class PublicationTransportHandler {
 
                 nodeConnections.put(node, connection);
                 if (sendFullVersion || previousState.nodes().nodeExists(node) == false) {
-                    serializedStates.computeIfAbsent(connection.getTransportVersion(), v -> serializeFullClusterState(newState, node, v));
+                    fullStateVersions.putIfAbsent(connection.getTransportVersion(), node);
                 } else {
-                    serializedDiffs.computeIfAbsent(
-                        connection.getTransportVersion(),
-                        v -> serializeDiffClusterState(newState, diffSupplier.getOrCompute(), node, v)
+                    diffVersions.putIfAbsent(connection.getTransportVersion(), node);
+                }
+            }
+
+            final List<Runnable> serializationTasks = new ArrayList<>(fullStateVersions.size() + diffVersions.size());
+            fullStateVersions.forEach(
+                (version, node) -> serializationTasks.add(
+                    () -> serializedStates.put(version, serializeFullClusterState(newState, node, version))
+                )
+            );
+            if (diffVersions.isEmpty() == false) {
+                // compute the diff up front, it is shared by the serializations for each version
+                final Diff<ClusterState> diff = newState.diff(previousState);
+                diffVersions.forEach(
+                    (version, node) -> serializationTasks.add(
+                        () -> serializedDiffs.put(version, serializeDiffClusterState(newState, diff, node, version))
+                    )
+                );
+            }
+            runSerializationTasks(serializationTasks);
+        }
+
+        /**
+         * Runs the given serialization tasks. If there is more than one, e.g. a full state for a joining node and a diff for the other
+         * nodes, then the other tasks are offered to the generic pool so that they run concurrently. The calling thread runs every task
+         * that has not yet been picked up, so it only ever waits for tasks that are already running elsewhere. It waits for at most the
+         * serialization timeout, which defaults to the publish timeout since the publication could not complete in time anyway, and
+         * then fails the publication. Each forked task holds a reference to this context, so a serialization that completes after
+         * that is still released.
+         */
+        private void runSerializationTasks(List<Runnable> tasks) {
+            if (tasks.size() <= 1) {
+                tasks.forEach(Runnable::run);
+                return;
+            }
+
+            final AtomicInteger nextTask = new AtomicInteger();
+            final CountDownLatch completedTasks = new CountDownLatch(tasks.size());
+            final List<RuntimeException> failures = Collections.synchronizedList(new ArrayList<>());
+            final Runnable worker = () -> {
+                int taskIndex;
+                while ((taskIndex = nextTask.getAndIncrement()) < tasks.size()) {
+                    try {
+                        tasks.get(taskIndex).run();
+                    } catch (RuntimeException e) {
+                        failures.add(e);
+                    } finally {
+                        completedTasks.countDown();
+                    }
+                }
+            };
+            final Executor generic = transportService.getThreadPool().generic();
+            for (int i = 1; i < tasks.size(); i++) {
+                incRef();
+                try {
+                    generic.execute(() -> {
+                        try {
+                            worker.run();
+                        } finally {
+                            decRef();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // the calling thread runs the remaining tasks
+                    decRef();
+                    break;
+                }
+            }
+            worker.run();
+            try {
+                if (completedTasks.await(serializationTimeout.millis(), TimeUnit.MILLISECONDS) == false) {
+                    throw new ElasticsearchException(
+                        "timed out after [{}] waiting for cluster state version [{}] to be serialized",
+                        serializationTimeout,
+                        newState.version()
                     );
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ElasticsearchException("interrupted while serializing cluster state", e);
+            }
+
+            if (failures.isEmpty() == false) {
+                final RuntimeException failure = failures.get(0);
+                for (int i = 1; i < failures.size(); i++) {
+                    failure.addSuppressed(failures.get(i));
+                }
+                throw failure;
             }
         }
 
@@ -552,21 +665,25 @@ public class PublicationTransportHandler {
         private long fullStateCount;
         private long totalUncompressedFullStateBytes;
         private long totalCompressedFullStateBytes;
+        private long totalFullStateSerializationTimeMillis;
 
         private long diffCount;
         private long totalUncompressedDiffBytes;
         private long totalCompressedDiffBytes;
+        private long totalDiffSerializationTimeMillis;
 
-        public synchronized void serializedFullState(long uncompressedBytes, int compressedBytes) {
+        public synchronized void serializedFullState(long uncompressedBytes, int compressedBytes, long serializationTimeMillis) {
             fullStateCount += 1;
             totalUncompressedFullStateBytes += uncompressedBytes;
             totalCompressedFullStateBytes += compressedBytes;
+            totalFullStateSerializationTimeMillis += serializationTimeMillis;
         }
 
-        public synchronized void serializedDiff(long uncompressedBytes, int compressedBytes) {
+        public synchronized void serializedDiff(long uncompressedBytes, int compressedBytes, long serializationTimeMillis) {
             diffCount += 1;
             totalUncompressedDiffBytes += uncompressedBytes;
             totalCompressedDiffBytes += compressedBytes;
+            totalDiffSerializationTimeMillis += serializationTimeMillis;
         }
 
         public synchronized ClusterStateSerializationStats getSerializationStats() {
@@ -574,9 +691,11 @@ public class PublicationTransportHandler {
                 fullStateCount,
                 totalUncompressedFullStateBytes,
                 totalCompressedFullStateBytes,
+                totalFullStateSerializationTimeMillis,
                 diffCount,
                 totalUncompressedDiffBytes,
-                totalCompressedDiffBytes
+                totalCompressedDiffBytes,
+                totalDiffSerializationTimeMillis
             );
         }
     }
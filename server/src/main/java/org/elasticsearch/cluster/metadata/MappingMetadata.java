@@ -17,8 +17,10 @@ import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.xcontent.XContentParser;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -49,15 +51,71 @@ public class MappingMetadata implements SimpleDiffable<MappingMetadata> {
         this.routingRequired = docMapper.routingFieldMapper().required();
     }
 
-    @SuppressWarnings({ "this-escape", "unchecked" })
+    @SuppressWarnings("this-escape")
     public MappingMetadata(CompressedXContent mapping) {
         this.source = mapping;
-        Map<String, Object> mappingMap = XContentHelper.convertToMap(mapping.compressedReference(), true).v2();
-        if (mappingMap.size() != 1) {
+        // only extract the type and the _routing.required flag rather than parsing the whole mapping into a map, which matters when
+        // loading the many mappings of a large cluster state, the full mapping is only parsed if and when it is needed
+        final TypeAndRouting typeAndRouting = XContentHelper.parseToType(
+            MappingMetadata::parseTypeAndRouting,
+            mapping.compressedReference(),
+            null,
+            null
+        ).v2();
+        if (typeAndRouting == null) {
             throw new IllegalStateException("Can't derive type from mapping, no root type: " + mapping.string());
         }
-        this.type = mappingMap.keySet().iterator().next();
-        this.routingRequired = routingRequired((Map<String, Object>) mappingMap.get(this.type));
+        this.type = typeAndRouting.type();
+        this.routingRequired = typeAndRouting.hasRoutingRequired() && parseRoutingRequired(typeAndRouting.routingRequired());
+    }
+
+    private record TypeAndRouting(String type, boolean hasRoutingRequired, Object routingRequired) {}
+
+    /**
+     * Extracts the single root type of the mapping and the raw value of its {@code _routing.required} field, skipping everything else.
+     * Returns {@code null} if the mapping does not have exactly one root type.
+     */
+    @Nullable
+    private static TypeAndRouting parseTypeAndRouting(XContentParser parser) throws IOException {
+        if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+            return null;
+        }
+        String type = null;
+        int rootTypes = 0;
+        boolean hasRoutingRequired = false;
+        Object routingRequired = null;
+        while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+            rootTypes++;
+            type = parser.currentName();
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                final String fieldName = parser.currentName();
+                if (parser.nextToken() == XContentParser.Token.START_OBJECT && "_routing".equals(fieldName)) {
+                    while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                        final String routingFieldName = parser.currentName();
+                        final XContentParser.Token token = parser.nextToken();
+                        if ("required".equals(routingFieldName)) {
+                            hasRoutingRequired = true;
+                            routingRequired = switch (token) {
+                                case START_OBJECT -> parser.map();
+                                case START_ARRAY -> parser.list();
+                                case VALUE_BOOLEAN -> parser.booleanValue();
+                                case VALUE_NULL -> null;
+                                default -> parser.text();
+                            };
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return rootTypes == 1 ? new TypeAndRouting(type, hasRoutingRequired, routingRequired) : null;
     }
 
     @SuppressWarnings({ "this-escape", "unchecked" })
@@ -99,20 +157,24 @@ public class MappingMetadata implements SimpleDiffable<MappingMetadata> {
                 String fieldName = entry.getKey();
                 Object fieldNode = entry.getValue();
                 if (fieldName.equals("required")) {
-                    try {
-                        required = nodeBooleanValue(fieldNode);
-                    } catch (IllegalArgumentException ex) {
-                        throw new IllegalArgumentException(
-                            "Failed to create mapping for type [" + this.type() + "]. " + "Illegal value in field [_routing.required].",
-                            ex
-                        );
-                    }
+                    required = parseRoutingRequired(fieldNode);
                 }
             }
         }
         return required;
     }
 
+    private boolean parseRoutingRequired(Object fieldNode) {
+        try {
+            return nodeBooleanValue(fieldNode);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(
+                "Failed to create mapping for type [" + this.type() + "]. " + "Illegal value in field [_routing.required].",
+                ex
+            );
+        }
+    }
+
     public String type() {
         return this.type;
     }
@@ -13,6 +13,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IntroSorter;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.cluster.ClusterInfo;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
@@ -38,6 +39,8 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.gateway.PriorityComparator;
@@ -52,6 +55,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.stream.StreamSupport;
 
@@ -112,13 +119,29 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         Property.NodeScope
     );
 
+    /**
+     * The minimum number of indices for which the node weights that determine the order in which the indices are balanced are computed
+     * on several threads. The nodes are still sorted by these weights one index after the other on the calling thread, so the result is
+     * the same as if the weights were computed sequentially.
+     */
+    public static final Setting<Integer> PARALLEL_WEIGHT_COMPUTATION_MIN_INDICES_SETTING = Setting.intSetting(
+        "cluster.routing.allocation.balance.parallel_weight_computation.min_indices",
+        1000,
+        1,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
     private volatile float indexBalanceFactor;
     private volatile float shardBalanceFactor;
     private volatile float writeLoadBalanceFactor;
     private volatile float diskUsageBalanceFactor;
     private volatile float threshold;
+    private volatile int parallelWeightComputationMinIndices;
 
     private final WriteLoadForecaster writeLoadForecaster;
+    private final Executor weightComputationExecutor;
+    private final int weightComputationParallelism;
 
     public BalancedShardsAllocator() {
         this(Settings.EMPTY);
@@ -134,12 +157,32 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
     @Inject
     public BalancedShardsAllocator(ClusterSettings clusterSettings, WriteLoadForecaster writeLoadForecaster) {
+        this(clusterSettings, writeLoadForecaster, EsExecutors.DIRECT_EXECUTOR_SERVICE, 1);
+    }
+
+    /**
+     * @param weightComputationExecutor   executor on which the node weights of many indices are computed, see
+     *                                    {@link #PARALLEL_WEIGHT_COMPUTATION_MIN_INDICES_SETTING}
+     * @param weightComputationParallelism the maximum number of threads that compute these weights, including the calling thread
+     */
+    public BalancedShardsAllocator(
+        ClusterSettings clusterSettings,
+        WriteLoadForecaster writeLoadForecaster,
+        Executor weightComputationExecutor,
+        int weightComputationParallelism
+    ) {
         clusterSettings.initializeAndWatch(SHARD_BALANCE_FACTOR_SETTING, value -> this.shardBalanceFactor = value);
         clusterSettings.initializeAndWatch(INDEX_BALANCE_FACTOR_SETTING, value -> this.indexBalanceFactor = value);
         clusterSettings.initializeAndWatch(WRITE_LOAD_BALANCE_FACTOR_SETTING, value -> this.writeLoadBalanceFactor = value);
         clusterSettings.initializeAndWatch(DISK_USAGE_BALANCE_FACTOR_SETTING, value -> this.diskUsageBalanceFactor = value);
         clusterSettings.initializeAndWatch(THRESHOLD_SETTING, value -> this.threshold = value);
+        clusterSettings.initializeAndWatch(
+            PARALLEL_WEIGHT_COMPUTATION_MIN_INDICES_SETTING,
+            value -> this.parallelWeightComputationMinIndices = value
+        );
         this.writeLoadForecaster = writeLoadForecaster;
+        this.weightComputationExecutor = weightComputationExecutor;
+        this.weightComputationParallelism = weightComputationParallelism;
     }
 
     @Override
@@ -156,7 +199,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             writeLoadBalanceFactor,
             diskUsageBalanceFactor
         );
-        final Balancer balancer = new Balancer(writeLoadForecaster, allocation, weightFunction, threshold);
+        final Balancer balancer = newBalancer(allocation, weightFunction);
         balancer.allocateUnassigned();
         balancer.moveShards();
         balancer.balance();
@@ -192,7 +235,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             writeLoadBalanceFactor,
             diskUsageBalanceFactor
         );
-        Balancer balancer = new Balancer(writeLoadForecaster, allocation, weightFunction, threshold);
+        Balancer balancer = newBalancer(allocation, weightFunction);
         AllocateUnassignedDecision allocateUnassignedDecision = AllocateUnassignedDecision.NOT_TAKEN;
         MoveDecision moveDecision = MoveDecision.NOT_TAKEN;
         if (shard.unassigned()) {
@@ -206,6 +249,18 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         return new ShardAllocationDecision(allocateUnassignedDecision, moveDecision);
     }
 
+    private Balancer newBalancer(RoutingAllocation allocation, WeightFunction weightFunction) {
+        return new Balancer(
+            writeLoadForecaster,
+            allocation,
+            weightFunction,
+            threshold,
+            weightComputationParallelism > 1 ? parallelWeightComputationMinIndices : Integer.MAX_VALUE,
+            weightComputationExecutor,
+            weightComputationParallelism
+        );
+    }
+
     private void failAllocationOfNewPrimaries(RoutingAllocation allocation) {
         RoutingNodes routingNodes = allocation.routingNodes();
         assert routingNodes.size() == 0 : routingNodes;
@@ -259,6 +314,11 @@ public class BalancedShardsAllocator implements ShardsAllocator {
      * A {@link Balancer}
      */
     public static class Balancer {
+        /* the number of indices whose node weights are computed ahead of sorting the nodes by them, bounds the memory that this needs */
+        private static final int WEIGHT_COMPUTATION_ROUND_SIZE = 1024;
+        /* the number of indices whose node weights a thread claims at once */
+        private static final int WEIGHT_COMPUTATION_CHUNK_SIZE = 64;
+
         private final WriteLoadForecaster writeLoadForecaster;
         private final RoutingAllocation allocation;
         private final RoutingNodes routingNodes;
@@ -266,19 +326,33 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private final WeightFunction weight;
 
         private final float threshold;
+        private final int parallelWeightComputationMinIndices;
+        private final Executor weightComputationExecutor;
+        private final int weightComputationParallelism;
         private final float avgShardsPerNode;
         private final double avgWriteLoadPerNode;
         private final double avgDiskUsageInBytesPerNode;
         private final Map<String, ModelNode> nodes;
         private final NodeSorter sorter;
 
-        private Balancer(WriteLoadForecaster writeLoadForecaster, RoutingAllocation allocation, WeightFunction weight, float threshold) {
+        private Balancer(
+            WriteLoadForecaster writeLoadForecaster,
+            RoutingAllocation allocation,
+            WeightFunction weight,
+            float threshold,
+            int parallelWeightComputationMinIndices,
+            Executor weightComputationExecutor,
+            int weightComputationParallelism
+        ) {
             this.writeLoadForecaster = writeLoadForecaster;
             this.allocation = allocation;
             this.routingNodes = allocation.routingNodes();
             this.metadata = allocation.metadata();
             this.weight = weight;
             this.threshold = threshold;
+            this.parallelWeightComputationMinIndices = parallelWeightComputationMinIndices;
+            this.weightComputationExecutor = weightComputationExecutor;
+            this.weightComputationParallelism = weightComputationParallelism;
             avgShardsPerNode = WeightFunction.avgShardPerNode(metadata, routingNodes);
             avgWriteLoadPerNode = WeightFunction.avgWriteLoadPerNode(writeLoadForecaster, metadata, routingNodes);
             avgDiskUsageInBytesPerNode = WeightFunction.avgDiskUsageInBytesPerNode(allocation.clusterInfo(), metadata, routingNodes);
@@ -683,13 +757,33 @@ public class BalancedShardsAllocator implements ShardsAllocator {
          * has no shards yet and global balance for the node is way below
          * average. To re-balance we need to move shards back eventually likely
          * to the nodes we relocated them from.
+         *
+         * With many indices the node weights are computed on several threads, see {@link #computeWeightsInParallel}. The nodes are
+         * still sorted by them one index after the other, so the deltas and the order in which the sorter leaves the nodes are the same
+         * as if the weights were computed sequentially.
          */
         private String[] buildWeightOrderedIndices() {
             final String[] indices = allocation.routingTable().indicesRouting().keySet().toArray(String[]::new);
             final float[] deltas = new float[indices.length];
-            for (int i = 0; i < deltas.length; i++) {
-                sorter.reset(indices[i]);
-                deltas[i] = sorter.delta();
+            if (indices.length >= parallelWeightComputationMinIndices) {
+                final ModelNode[] nodesByOrdinal = new ModelNode[nodes.size()];
+                for (ModelNode node : nodes.values()) {
+                    nodesByOrdinal[node.ordinal] = node;
+                }
+                final float[] weights = new float[WEIGHT_COMPUTATION_ROUND_SIZE * nodesByOrdinal.length];
+                for (int from = 0; from < indices.length; from += WEIGHT_COMPUTATION_ROUND_SIZE) {
+                    final int to = Math.min(indices.length, from + WEIGHT_COMPUTATION_ROUND_SIZE);
+                    computeWeightsInParallel(indices, from, to, nodesByOrdinal, weights);
+                    for (int i = from; i < to; i++) {
+                        sorter.reset(indices[i], weights, (i - from) * nodesByOrdinal.length);
+                        deltas[i] = sorter.delta();
+                    }
+                }
+            } else {
+                for (int i = 0; i < deltas.length; i++) {
+                    sorter.reset(indices[i]);
+                    deltas[i] = sorter.delta();
+                }
             }
             new IntroSorter() {
 
@@ -724,6 +818,58 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return indices;
         }
 
+        /**
+         * Computes the weight of every node for each of the indices in {@code [from, to)} into {@code weights}, which holds the weights
+         * of the index at position {@code from + i} at {@code i * nodesByOrdinal.length} onwards, ordered by node ordinal. Computing a
+         * weight only reads the model, so chunks of indices are forked to the weight computation executor. The calling thread computes
+         * chunks too and so only ever waits for chunks that another thread has already started.
+         */
+        private void computeWeightsInParallel(String[] indices, int from, int to, ModelNode[] nodesByOrdinal, float[] weights) {
+            final int chunks = (to - from + WEIGHT_COMPUTATION_CHUNK_SIZE - 1) / WEIGHT_COMPUTATION_CHUNK_SIZE;
+            final AtomicInteger nextChunk = new AtomicInteger();
+            final CountDownLatch completedChunks = new CountDownLatch(chunks);
+            final AtomicReference<Exception> failure = new AtomicReference<>();
+            final Runnable computeChunks = () -> {
+                int chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                    try {
+                        final int chunkFrom = from + chunk * WEIGHT_COMPUTATION_CHUNK_SIZE;
+                        final int chunkTo = Math.min(to, chunkFrom + WEIGHT_COMPUTATION_CHUNK_SIZE);
+                        for (int i = chunkFrom; i < chunkTo; i++) {
+                            final int offset = (i - from) * nodesByOrdinal.length;
+                            for (int ordinal = 0; ordinal < nodesByOrdinal.length; ordinal++) {
+                                weights[offset + ordinal] = weight.weight(this, nodesByOrdinal[ordinal], indices[i]);
+                            }
+                        }
+                    } catch (Exception e) {
+                        failure.accumulateAndGet(e, ExceptionsHelper::useOrSuppress);
+                    } finally {
+                        completedChunks.countDown();
+                    }
+                }
+            };
+            final int forks = Math.min(chunks, weightComputationParallelism) - 1;
+            for (int i = 0; i < forks; i++) {
+                try {
+                    weightComputationExecutor.execute(computeChunks);
+                } catch (EsRejectedExecutionException e) {
+                    // the calling thread computes the remaining chunks
+                    break;
+                }
+            }
+            computeChunks.run();
+            try {
+                // all chunks are claimed by now, those that are not completed yet are being computed by a forked task
+                completedChunks.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while computing node weights", e);
+            }
+            if (failure.get() != null) {
+                throw ExceptionsHelper.convertToRuntime(failure.get());
+            }
+        }
+
         /**
          * Move started shards that can not be allocated to a node anymore
          *
@@ -867,7 +1013,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private Map<String, ModelNode> buildModelFromAssigned() {
             Map<String, ModelNode> nodes = Maps.newMapWithExpectedSize(routingNodes.size());
             for (RoutingNode rn : routingNodes) {
-                ModelNode node = new ModelNode(writeLoadForecaster, metadata, allocation.clusterInfo(), rn);
+                ModelNode node = new ModelNode(nodes.size(), writeLoadForecaster, metadata, allocation.clusterInfo(), rn);
                 nodes.put(rn.nodeId(), node);
                 for (ShardRouting shard : rn) {
                     assert rn.nodeId().equals(shard.currentNodeId());
@@ -1145,6 +1291,8 @@ public class BalancedShardsAllocator implements ShardsAllocator {
     }
 
     static class ModelNode implements Iterable<ModelIndex> {
+        /* the position of this node in the model, used to look up weights that are computed ahead of sorting the nodes */
+        private final int ordinal;
         private int numShards = 0;
         private double writeLoad = 0.0;
         private double diskUsageInBytes = 0.0;
@@ -1154,7 +1302,14 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private final RoutingNode routingNode;
         private final Map<String, ModelIndex> indices;
 
-        ModelNode(WriteLoadForecaster writeLoadForecaster, Metadata metadata, ClusterInfo clusterInfo, RoutingNode routingNode) {
+        ModelNode(
+            int ordinal,
+            WriteLoadForecaster writeLoadForecaster,
+            Metadata metadata,
+            ClusterInfo clusterInfo,
+            RoutingNode routingNode
+        ) {
+            this.ordinal = ordinal;
             this.writeLoadForecaster = writeLoadForecaster;
             this.metadata = metadata;
             this.clusterInfo = clusterInfo;
@@ -1318,6 +1473,18 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             reset(index, 0, modelNodes.length);
         }
 
+        /**
+         * Like {@link #reset(String)}, but takes the weight of each node from {@code nodeWeights} at {@code offset} plus the node's
+         * ordinal instead of computing it.
+         */
+        void reset(String index, float[] nodeWeights, int offset) {
+            this.index = index;
+            for (int i = 0; i < modelNodes.length; i++) {
+                weights[i] = nodeWeights[offset + modelNodes[i].ordinal];
+            }
+            sort(0, modelNodes.length);
+        }
+
         public float weight(ModelNode node) {
             return function.weight(balancer, node, index);
         }
@@ -12,7 +12,12 @@ package org.elasticsearch.cluster.routing.allocation.allocator;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.cluster.ClusterInfo;
 import org.elasticsearch.cluster.ClusterInfoSimulator;
+import org.elasticsearch.cluster.RestoreInProgress;
+import org.elasticsearch.cluster.SnapshotsInProgress;
+import org.elasticsearch.cluster.metadata.SingleNodeShutdownMetadata;
+import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.RoutingNodes;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.UnassignedInfo;
@@ -22,11 +27,14 @@ import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.TimeProvider;
 import org.elasticsearch.common.util.Maps;
 import org.elasticsearch.core.Strings;
 import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.snapshots.SnapshotShardSizeInfo;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -34,6 +42,7 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
@@ -70,8 +79,26 @@ public class DesiredBalanceComputer {
         Setting.Property.NodeScope
     );
 
+    /**
+     * In incremental mode a computation that starts from the desired balance of the previous, converged, computation and whose inputs
+     * other than the routing table did not change (nodes, cluster info, cluster and index settings, node shutdowns, ongoing snapshots and
+     * restores) reuses that desired balance instead of simulating the allocation again, if all shards are found at their desired
+     * locations once the ongoing recoveries and relocations are assumed to complete. This skips most of the rounds that are restarted
+     * while the cluster converges towards the desired balance.
+     */
+    public static final Setting<Boolean> INCREMENTAL_COMPUTATION_SETTING = Setting.boolSetting(
+        "cluster.routing.allocation.desired_balance.incremental_computation",
+        false,
+        Setting.Property.Dynamic,
+        Setting.Property.NodeScope
+    );
+
     private TimeValue progressLogInterval;
     private long maxBalanceComputationTimeDuringIndexCreationMillis;
+    private boolean incrementalComputation;
+
+    // the inputs of the last computation if it converged, only accessed by the (single) computation thread
+    private ComputationInputs lastConvergedInputs;
 
     public DesiredBalanceComputer(ClusterSettings clusterSettings, TimeProvider timeProvider, ShardsAllocator delegateAllocator) {
         this.delegateAllocator = delegateAllocator;
@@ -81,6 +108,7 @@ public class DesiredBalanceComputer {
             MAX_BALANCE_COMPUTATION_TIME_DURING_INDEX_CREATION_SETTING,
             value -> this.maxBalanceComputationTimeDuringIndexCreationMillis = value.millis()
         );
+        clusterSettings.initializeAndWatch(INCREMENTAL_COMPUTATION_SETTING, value -> this.incrementalComputation = value);
     }
 
     public DesiredBalance compute(
@@ -110,6 +138,10 @@ public class DesiredBalanceComputer {
         final var clusterInfoSimulator = new ClusterInfoSimulator(routingAllocation);
         DesiredBalance.ComputationFinishReason finishReason = DesiredBalance.ComputationFinishReason.CONVERGED;
 
+        final var computationInputs = incrementalComputation ? ComputationInputs.of(routingAllocation) : null;
+        final var lastConvergedInputs = this.lastConvergedInputs;
+        this.lastConvergedInputs = null;
+
         if (routingNodes.size() == 0) {
             return new DesiredBalance(desiredBalanceInput.index(), Map.of(), Map.of(), finishReason);
         }
@@ -255,8 +287,10 @@ public class DesiredBalanceComputer {
             }
         }
 
+        boolean appliedMoveCommands = false;
         List<MoveAllocationCommand> commands;
         while ((commands = pendingDesiredBalanceMoves.poll()) != null) {
+            appliedMoveCommands |= commands.isEmpty() == false;
             for (MoveAllocationCommand command : commands) {
                 try {
                     command.execute(routingAllocation, false);
@@ -273,6 +307,27 @@ public class DesiredBalanceComputer {
             }
         }
 
+        if (computationInputs != null
+            && appliedMoveCommands == false
+            && lastConvergedInputs != null
+            && lastConvergedInputs.desiredBalance() == previousDesiredBalance
+            && lastConvergedInputs.hasSameInputs(computationInputs)
+            && isAtDesiredBalance(previousDesiredBalance, routingNodes)) {
+            logger.debug(
+                "Desired balance computation for [{}] reused the desired balance for [{}] as its inputs did not change",
+                desiredBalanceInput.index(),
+                previousDesiredBalance.lastConvergedIndex()
+            );
+            final var desiredBalance = new DesiredBalance(
+                desiredBalanceInput.index(),
+                previousDesiredBalance.assignments(),
+                previousDesiredBalance.weightsPerNode(),
+                DesiredBalance.ComputationFinishReason.CONVERGED
+            );
+            this.lastConvergedInputs = computationInputs.withDesiredBalance(desiredBalance);
+            return desiredBalance;
+        }
+
         final int iterationCountReportInterval = computeIterationCountReportInterval(routingAllocation);
         final long timeWarningInterval = progressLogInterval.millis();
         final long computationStartedTime = timeProvider.relativeTimeInMillis();
@@ -406,7 +461,115 @@ public class DesiredBalanceComputer {
         }
 
         long lastConvergedIndex = hasChanges ? previousDesiredBalance.lastConvergedIndex() : desiredBalanceInput.index();
-        return new DesiredBalance(lastConvergedIndex, assignments, routingNodes.getBalanceWeightStatsPerNode(), finishReason);
+        final var desiredBalance = new DesiredBalance(
+            lastConvergedIndex,
+            assignments,
+            routingNodes.getBalanceWeightStatsPerNode(),
+            finishReason
+        );
+        if (computationInputs != null && hasChanges == false && finishReason == DesiredBalance.ComputationFinishReason.CONVERGED) {
+            this.lastConvergedInputs = computationInputs.withDesiredBalance(desiredBalance);
+        }
+        return desiredBalance;
+    }
+
+    /**
+     * @return whether every shard copy is at the location given by the desired balance, and every shard copy that the desired balance
+     * leaves unassigned is unassigned.
+     */
+    private static boolean isAtDesiredBalance(DesiredBalance desiredBalance, RoutingNodes routingNodes) {
+        final var assignedShards = routingNodes.getAssignedShards();
+        final var shardIds = new HashSet<ShardId>(assignedShards.keySet());
+        for (final var shardRouting : routingNodes.unassigned()) {
+            shardIds.add(shardRouting.shardId());
+        }
+        for (final var shardRouting : routingNodes.unassigned().ignored()) {
+            shardIds.add(shardRouting.shardId());
+        }
+        if (shardIds.size() != desiredBalance.assignments().size()) {
+            return false;
+        }
+        for (final var shardId : shardIds) {
+            final var assignment = desiredBalance.getAssignment(shardId);
+            if (assignment == null) {
+                return false;
+            }
+            final var shardRoutings = assignedShards.getOrDefault(shardId, List.of());
+            if (shardRoutings.size() != assignment.assigned()) {
+                return false;
+            }
+            for (final var shardRouting : shardRoutings) {
+                if (shardRouting.started() == false || assignment.nodeIds().contains(shardRouting.currentNodeId()) == false) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The inputs of a computation, apart from the routing table, that the allocation deciders and the delegate allocator depend on.
+     * Cluster info and snapshot shard sizes are compared by identity since they are replaced whenever they are refreshed.
+     */
+    private record ComputationInputs(
+        DesiredBalance desiredBalance,
+        Set<String> nodeEphemeralIds,
+        ClusterInfo clusterInfo,
+        SnapshotShardSizeInfo snapshotShardSizeInfo,
+        Settings clusterSettings,
+        Map<String, SingleNodeShutdownMetadata> nodeShutdowns,
+        Map<Index, Long> indexSettingsVersions,
+        RestoreInProgress restoreInProgress,
+        SnapshotsInProgress snapshotsInProgress
+    ) {
+
+        static ComputationInputs of(RoutingAllocation allocation) {
+            final var metadata = allocation.metadata();
+            final Map<Index, Long> indexSettingsVersions = Maps.newHashMapWithExpectedSize(metadata.indices().size());
+            for (final var indexMetadata : metadata) {
+                indexSettingsVersions.put(indexMetadata.getIndex(), indexMetadata.getSettingsVersion());
+            }
+            final Set<String> nodeEphemeralIds = new HashSet<>();
+            for (final DiscoveryNode node : allocation.nodes()) {
+                nodeEphemeralIds.add(node.getEphemeralId());
+            }
+            return new ComputationInputs(
+                null,
+                nodeEphemeralIds,
+                allocation.clusterInfo(),
+                allocation.snapshotShardSizeInfo(),
+                metadata.settings(),
+                metadata.nodeShutdowns().getAll(),
+                indexSettingsVersions,
+                allocation.getClusterState().custom(RestoreInProgress.TYPE, RestoreInProgress.EMPTY),
+                SnapshotsInProgress.get(allocation.getClusterState())
+            );
+        }
+
+        ComputationInputs withDesiredBalance(DesiredBalance desiredBalance) {
+            return new ComputationInputs(
+                desiredBalance,
+                nodeEphemeralIds,
+                clusterInfo,
+                snapshotShardSizeInfo,
+                clusterSettings,
+                nodeShutdowns,
+                indexSettingsVersions,
+                restoreInProgress,
+                snapshotsInProgress
+            );
+        }
+
+        boolean hasSameInputs(ComputationInputs other) {
+            return clusterInfo == other.clusterInfo
+                && snapshotShardSizeInfo == other.snapshotShardSizeInfo
+                && nodeEphemeralIds.equals(other.nodeEphemeralIds)
+                && clusterSettings.equals(other.clusterSettings)
+                && nodeShutdowns.equals(other.nodeShutdowns)
+                && indexSettingsVersions.equals(other.indexSettingsVersions)
+                && Objects.equals(restoreInProgress, other.restoreInProgress)
+                && Objects.equals(snapshotsInProgress, other.snapshotsInProgress);
+        }
     }
 
     // visible for testing
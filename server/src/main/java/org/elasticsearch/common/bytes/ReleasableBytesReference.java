@@ -85,6 +85,16 @@ public final class ReleasableBytesReference implements RefCounted, Releasable, B
         return new ReleasableBytesReference(slice, refCounted);
     }
 
+    /**
+     * Returns a slice that shares the reference count of this instance without incrementing it. Unlike {@link #retainedSlice} the
+     * returned slice must not be closed, it is only valid for as long as this instance is. Consumers that need the bytes for longer,
+     * e.g. to write them to the network without copying them, can {@link #tryIncRef()} the slice to keep the underlying bytes alive.
+     */
+    public ReleasableBytesReference sharedSlice(int from, int length) {
+        assert hasReferences();
+        return new ReleasableBytesReference(delegate.slice(from, length), refCounted);
+    }
+
     @Override
     public void close() {
         refCounted.decRef();
@@ -9,18 +9,16 @@
 
 package org.elasticsearch.common.collect;
 
-import com.carrotsearch.hppc.ObjectCollection;
-import com.carrotsearch.hppc.ObjectObjectHashMap;
-import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
-import com.carrotsearch.hppc.procedures.ObjectObjectProcedure;
-import com.carrotsearch.hppc.procedures.ObjectProcedure;
-
 import java.util.AbstractCollection;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.Spliterator;
@@ -30,36 +28,43 @@ import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 
 /**
- * An immutable map implementation based on open hash map.
+ * An immutable map implementation based on a persistent hash array mapped trie.
  * <p>
  * Can be constructed using a {@link #builder()}, or using {@link #builder(Map)} (which is an optimized
- * option to copy over existing content and modify it).
+ * option to copy over existing content and modify it). A builder that starts from an existing map shares all of its nodes and only
+ * copies the nodes on the paths to the keys that it modifies, so changing a single key of a large map, such as the indices of the
+ * cluster metadata, costs {@code O(log n)} time and memory rather than a copy of the whole map.
+ * <p>
+ * The shape of the trie only depends on the keys it contains, which allows {@link #equals} and {@link #diff} to skip the subtrees that
+ * two maps derived from each other still share.
  */
 public final class ImmutableOpenMap<KType, VType> extends AbstractMap<KType, VType> {
 
-    private final ObjectObjectHashMap<KType, VType> map;
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+    private static final BitmapNode EMPTY_NODE = new BitmapNode(null, 0, new Object[0]);
+
+    private final BitmapNode root;
+    private final int size;
 
     /**
      * Holds cached entrySet().
      */
     private Set<Map.Entry<KType, VType>> entrySet;
 
-    private ImmutableOpenMap(ObjectObjectHashMap<KType, VType> map) {
-        this.map = map;
+    private ImmutableOpenMap(BitmapNode root, int size) {
+        this.root = root;
+        this.size = size;
     }
 
     /**
-     * @return Returns the value associated with the given key or the default value
-     * for the key type, if the key is not associated with any value.
-     * <p>
-     * <b>Important note:</b> For primitive type values, the value returned for a non-existing
-     * key may not be the default value of the primitive type (it may be any value previously
-     * assigned to that slot).
+     * @return Returns the value associated with the given key or {@code null} if the key is not associated with any value.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public VType get(Object key) {
-        return map.get((KType) key);
+        final Entry<KType, VType> entry = findEntry(root, key);
+        return entry == null ? null : entry.value;
     }
 
     /**
@@ -67,9 +72,9 @@ public final class ImmutableOpenMap<KType, VType> extends AbstractMap<KType, VTy
      * key is not associated with any value.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public VType getOrDefault(Object key, VType defaultValue) {
-        return map.getOrDefault((KType) key, defaultValue);
+        final Entry<KType, VType> entry = findEntry(root, key);
+        return entry == null ? defaultValue : entry.value;
     }
 
     /**
@@ -77,15 +82,19 @@ public final class ImmutableOpenMap<KType, VType> extends AbstractMap<KType, VTy
      * the given key.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public boolean containsKey(Object key) {
-        return map.containsKey((KType) key);
+        return findEntry(root, key) != null;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public boolean containsValue(Object value) {
-        return map.values().contains((VType) value);
+        final Iterator<Map.Entry<KType, VType>> iterator = new EntryIterator<>(root);
+        while (iterator.hasNext()) {
+            if (Objects.equals(iterator.next().getValue(), value)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -95,18 +104,18 @@ public final class ImmutableOpenMap<KType, VType> extends AbstractMap<KType, VTy
 
     @Override
     public int size() {
-        return map.size();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        return map.isEmpty();
+        return size == 0;
     }
 
     @Override
     public Set<Map.Entry<KType, VType>> entrySet() {
         Set<Map.Entry<KType, VType>> es;
-        return (es = entrySet) == null ? (entrySet = new EntrySet<>(map)) : es;
+        return (es = entrySet) == null ? (entrySet = new EntrySet<>(this)) : es;
     }
 
     @Override
@@ -115,7 +124,7 @@ public final class ImmutableOpenMap<KType, VType> extends AbstractMap<KType, VTy
             return true;
         }
         if (o instanceof ImmutableOpenMap<?, ?> immutableOpenMap) {
-            return map.equals(immutableOpenMap.map);
+            return size == immutableOpenMap.size && nodesEqual(root, immutableOpenMap.root);
         }
         return super.equals(o);
     }
@@ -126,154 +135,156 @@ public final class ImmutableOpenMap<KType, VType> extends AbstractMap<KType, VTy
         return super.hashCode();
     }
 
+    /**
+     * Calls the given consumer with each pair of entries of the two given maps that have the same key but are not the same entry, with
+     * {@code null} in place of the entry that is missing from one of the maps. The subtrees that both maps share are skipped, so if the
+     * maps are derived from each other this takes time proportional to the number of changed keys rather than to the size of the maps.
+     * Note that the values of the reported entries may still be equal.
+     */
+    public static <KType, VType> void diff(
+        ImmutableOpenMap<KType, VType> before,
+        ImmutableOpenMap<KType, VType> after,
+        BiConsumer<Map.Entry<KType, VType>, Map.Entry<KType, VType>> consumer
+    ) {
+        diffNodes(before.root, after.root, consumer);
+    }
+
     private static class EntrySet<KType, VType> extends AbstractSet<Map.Entry<KType, VType>> {
-        private final ObjectObjectHashMap<KType, VType> map;
+        private final ImmutableOpenMap<KType, VType> map;
 
-        private EntrySet(ObjectObjectHashMap<KType, VType> map) {
+        private EntrySet(ImmutableOpenMap<KType, VType> map) {
             this.map = map;
         }
 
         @Override
         public int size() {
-            return map.size();
+            return map.size;
         }
 
         @Override
         public boolean isEmpty() {
-            return map.isEmpty();
+            return map.size == 0;
         }
 
         @Override
         public Iterator<Map.Entry<KType, VType>> iterator() {
-            return Iterators.map(map.iterator(), c -> new AbstractMap.SimpleImmutableEntry<>(c.key, c.value));
+            return new EntryIterator<>(map.root);
         }
 
         @Override
         public Spliterator<Map.Entry<KType, VType>> spliterator() {
-            return Spliterators.spliterator(iterator(), size(), Spliterator.IMMUTABLE);
+            return Spliterators.spliterator(iterator(), size(), Spliterator.IMMUTABLE | Spliterator.DISTINCT | Spliterator.NONNULL);
         }
 
         @Override
         public void forEach(Consumer<? super Map.Entry<KType, VType>> action) {
-            map.forEach(
-                (Consumer<ObjectObjectCursor<KType, VType>>) c -> action.accept(new AbstractMap.SimpleImmutableEntry<>(c.key, c.value))
-            );
+            ImmutableOpenMap.<KType, VType>forEachEntry(map.root, action);
         }
 
-        @SuppressWarnings("unchecked")
         @Override
         public boolean contains(Object o) {
             if (o instanceof Map.Entry<?, ?> == false) {
                 return false;
             }
             Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
-            Object key = e.getKey();
-            Object v = map.get((KType) key);
-            if (v == null && map.containsKey((KType) key) == false) {
-                return false;
-            }
-            return Objects.equals(v, e.getValue());
-        }
-
-        @Override
-        public String toString() {
-            return map.toString();
+            final Entry<KType, VType> entry = findEntry(map.root, e.getKey());
+            return entry != null && Objects.equals(entry.value, e.getValue());
         }
     }
 
-    private static class MapObjectCollection<Type> extends AbstractCollection<Type> {
-        private final ObjectCollection<Type> collection;
+    private static class KeySet<KType, VType> extends AbstractSet<KType> {
+        private final ImmutableOpenMap<KType, VType> map;
 
-        private MapObjectCollection(ObjectCollection<Type> collection) {
-            this.collection = collection;
+        private KeySet(ImmutableOpenMap<KType, VType> map) {
+            this.map = map;
         }
 
         @Override
         public int size() {
-            return collection.size();
+            return map.size;
         }
 
         @Override
         public boolean isEmpty() {
-            return collection.isEmpty();
+            return map.size == 0;
         }
 
         @Override
-        public Iterator<Type> iterator() {
-            return Iterators.map(collection.iterator(), c -> c.value);
+        public Iterator<KType> iterator() {
+            return Iterators.map(new EntryIterator<KType, VType>(map.root), Map.Entry::getKey);
         }
 
         @Override
-        public Spliterator<Type> spliterator() {
-            return Spliterators.spliterator(iterator(), size(), Spliterator.IMMUTABLE);
+        public Spliterator<KType> spliterator() {
+            return Spliterators.spliterator(iterator(), size(), Spliterator.IMMUTABLE | Spliterator.DISTINCT);
         }
 
         @Override
-        public void forEach(Consumer<? super Type> action) {
-            collection.forEach((ObjectProcedure<Type>) action::accept);
+        public void forEach(Consumer<? super KType> action) {
+            ImmutableOpenMap.<KType, VType>forEachEntry(map.root, e -> action.accept(e.key));
         }
 
         @Override
-        @SuppressWarnings("unchecked")
         public boolean contains(Object o) {
-            return collection.contains((Type) o);
+            return map.containsKey(o);
+        }
+    }
+
+    private static class Values<KType, VType> extends AbstractCollection<VType> {
+        private final ImmutableOpenMap<KType, VType> map;
+
+        private Values(ImmutableOpenMap<KType, VType> map) {
+            this.map = map;
         }
 
         @Override
-        public boolean equals(Object obj) {
-            return collection.equals(obj);
+        public int size() {
+            return map.size;
         }
 
         @Override
-        public int hashCode() {
-            return collection.hashCode();
+        public boolean isEmpty() {
+            return map.size == 0;
         }
 
         @Override
-        public String toString() {
-            return collection.toString();
+        public Iterator<VType> iterator() {
+            return Iterators.map(new EntryIterator<KType, VType>(map.root), Map.Entry::getValue);
         }
 
         @Override
-        public Object[] toArray() {
-            return collection.toArray();
+        public Spliterator<VType> spliterator() {
+            return Spliterators.spliterator(iterator(), size(), Spliterator.IMMUTABLE);
         }
 
         @Override
-        @SuppressWarnings("unchecked")
-        public <T> T[] toArray(T[] a) {
-            return a.length == 0 ? (T[]) collection.toArray(a.getClass().getComponentType()) : super.toArray(a);
+        public void forEach(Consumer<? super VType> action) {
+            ImmutableOpenMap.<KType, VType>forEachEntry(map.root, e -> action.accept(e.value));
         }
-    }
 
-    private static class KeySet<KType, VType> extends MapObjectCollection<KType> implements Set<KType> {
-        private KeySet(ObjectObjectHashMap<KType, VType>.KeysContainer keys) {
-            super(keys);
+        @Override
+        public boolean contains(Object o) {
+            return map.containsValue(o);
         }
-    };
+    }
 
     @Override
     public Set<KType> keySet() {
-        return new KeySet<>(map.keys());
+        return new KeySet<>(this);
     }
 
     @Override
     public Collection<VType> values() {
-        return new MapObjectCollection<>(map.values());
+        return new Values<>(this);
     }
 
     @Override
     public void forEach(BiConsumer<? super KType, ? super VType> action) {
-        map.forEach((ObjectObjectProcedure<KType, VType>) action::accept);
-    }
-
-    @Override
-    public String toString() {
-        return map.toString();
+        ImmutableOpenMap.<KType, VType>forEachEntry(root, e -> action.accept(e.key, e.value));
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
-    private static final ImmutableOpenMap EMPTY = new ImmutableOpenMap(new ObjectObjectHashMap());
+    private static final ImmutableOpenMap EMPTY = new ImmutableOpenMap(EMPTY_NODE, 0);
 
     @SuppressWarnings("unchecked")
     public static <KType, VType> ImmutableOpenMap<KType, VType> of() {
@@ -299,31 +310,18 @@ public final class ImmutableOpenMap<KType, VType> extends AbstractMap<KType, VTy
 
     public static class Builder<KType, VType> {
 
-        // if the Builder was constructed with a reference to an existing ImmutableOpenMap, then this will be non-null
-        // (at least until the point where the builder has been used to actually make some changes to the map that is
-        // being built -- see maybeCloneMap)
-        private ImmutableOpenMap<KType, VType> reference;
+        // the map this builder was created from, returned as-is from build() if the builder did not make any changes to it
+        private final ImmutableOpenMap<KType, VType> reference;
 
-        // if the Builder was constructed with a size (only), then this will be non-null (and reference will be null)
-        private ObjectObjectHashMap<KType, VType> mutableMap;
+        // nodes that were created by this builder carry this token and are modified in place rather than copied, it is replaced
+        // whenever the current nodes are exposed outside this builder, which freezes them
+        private Object owner = new Object();
 
-        // n.b. a constructor can either set reference or it can set mutableMap, but it must not set both.
+        private BitmapNode root;
+        private int size;
 
-        /**
-         * This method must be called before reading or writing via the {@code mutableMap} -- so every method
-         * of builder should call this as the first thing it does. If {@code reference} is not null, it will be used to
-         * populate {@code mutableMap} as a clone of the {@code reference} ImmutableOpenMap. It will then null out
-         * {@code reference}.
-         *
-         * If {@code reference} is already null (and by extension, {@code mutableMap} is already *not* null),
-         * then this method is a no-op.
-         */
-        private void maybeCloneMap() {
-            if (reference != null) {
-                this.mutableMap = reference.map.clone(); // make a mutable clone of the reference ImmutableOpenMap
-                this.reference = null; // and throw away the reference, we now rely on mutableMap
-            }
-        }
+        // the entry that was replaced or removed by the last modification, if any
+        private Entry<KType, VType> previous;
 
         @SuppressWarnings("unchecked")
         public Builder() {
@@ -331,34 +329,34 @@ public final class ImmutableOpenMap<KType, VType> extends AbstractMap<KType, VTy
         }
 
         public Builder(int size) {
-            this.mutableMap = new ObjectObjectHashMap<>(size);
+            // the trie does not need to be pre-sized
+            this();
         }
 
         public Builder(ImmutableOpenMap<KType, VType> immutableOpenMap) {
             this.reference = Objects.requireNonNull(immutableOpenMap);
+            this.root = immutableOpenMap.root;
+            this.size = immutableOpenMap.size;
         }
 
         /**
          * Builds a new ImmutableOpenMap from this builder.
          */
         public ImmutableOpenMap<KType, VType> build() {
-            if (reference != null) {
-                ImmutableOpenMap<KType, VType> reference = this.reference;
-                this.reference = null; // null out the reference so that you can't reuse this builder
+            final BitmapNode root = Objects.requireNonNull(this.root, "map has already been built");
+            this.root = null; // null out the root so that you can't reuse this builder
+            this.owner = null;
+            if (root == reference.root) {
                 return reference;
-            } else {
-                ObjectObjectHashMap<KType, VType> mutableMap = this.mutableMap;
-                this.mutableMap = null; // null out the map so that you can't reuse this builder
-                return mutableMap.isEmpty() ? of() : new ImmutableOpenMap<>(mutableMap);
             }
+            return size == 0 ? of() : new ImmutableOpenMap<>(root, size);
         }
 
         /**
          * Puts all the entries in the map to the builder.
          */
         public Builder<KType, VType> putAllFromMap(Map<KType, VType> map) {
-            maybeCloneMap();
-            map.forEach(mutableMap::put);
+            map.forEach(this::put);
             return this;
         }
 
@@ -366,55 +364,540 @@ public final class ImmutableOpenMap<KType, VType> extends AbstractMap<KType, VTy
          * A put operation that can be used in the fluent pattern.
          */
         public Builder<KType, VType> fPut(KType key, VType value) {
-            maybeCloneMap();
-            mutableMap.put(key, value);
+            put(key, value);
             return this;
         }
 
         public VType put(KType key, VType value) {
-            maybeCloneMap();
-            return mutableMap.put(key, value);
+            previous = null;
+            root = root.put(owner, 0, new Entry<>(hash(key), key, value), this);
+            return previousValue();
         }
 
         public VType get(KType key) {
-            maybeCloneMap();
-            return mutableMap.get(key);
+            final Entry<KType, VType> entry = findEntry(root, key);
+            return entry == null ? null : entry.value;
         }
 
         public VType getOrDefault(KType kType, VType vType) {
-            maybeCloneMap();
-            return mutableMap.getOrDefault(kType, vType);
+            final Entry<KType, VType> entry = findEntry(root, kType);
+            return entry == null ? vType : entry.value;
         }
 
         public VType remove(KType key) {
-            maybeCloneMap();
-            return mutableMap.remove(key);
+            previous = null;
+            final Object node = root.remove(owner, 0, hash(key), key, this);
+            if (node == null) {
+                root = EMPTY_NODE;
+            } else if (node instanceof Entry<?, ?> entry) {
+                // the root is the only node that may hold a single entry
+                root = new BitmapNode(owner, bit(entry.hash, 0), new Object[] { entry });
+            } else {
+                root = (BitmapNode) node;
+            }
+            return previousValue();
         }
 
         public boolean containsKey(KType key) {
-            maybeCloneMap();
-            return mutableMap.containsKey(key);
+            return findEntry(root, key) != null;
         }
 
         public int size() {
-            maybeCloneMap();
-            return mutableMap.size();
+            return size;
         }
 
         public void clear() {
-            maybeCloneMap();
-            mutableMap.clear();
+            root = EMPTY_NODE;
+            size = 0;
         }
 
+        /**
+         * Returns the keys of the map as it is now, later modifications of this builder are not reflected in the returned set.
+         */
         public Set<KType> keys() {
-            maybeCloneMap();
-            return new KeySet<>(mutableMap.keys());
+            return snapshot().keySet();
         }
 
         public int removeAll(BiPredicate<? super KType, ? super VType> predicate) {
-            maybeCloneMap();
-            return mutableMap.removeAll(predicate::test);
+            final List<KType> toRemove = new ArrayList<>();
+            ImmutableOpenMap.<KType, VType>forEachEntry(root, e -> {
+                if (predicate.test(e.key, e.value)) {
+                    toRemove.add(e.key);
+                }
+            });
+            for (KType key : toRemove) {
+                remove(key);
+            }
+            return toRemove.size();
+        }
+
+        private ImmutableOpenMap<KType, VType> snapshot() {
+            // the current nodes become shared with the snapshot, so stop modifying them in place
+            owner = new Object();
+            return new ImmutableOpenMap<>(root, size);
+        }
+
+        private VType previousValue() {
+            final Entry<KType, VType> previous = this.previous;
+            this.previous = null;
+            return previous == null ? null : previous.value;
+        }
+    }
+
+    private static int hash(Object key) {
+        final int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & LEVEL_MASK);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <KType, VType> Entry<KType, VType> findEntry(BitmapNode root, Object key) {
+        final int hash = hash(key);
+        Object node = root;
+        int shift = 0;
+        while (true) {
+            if (node instanceof BitmapNode bitmapNode) {
+                final int bit = bit(hash, shift);
+                if ((bitmapNode.bitmap & bit) == 0) {
+                    return null;
+                }
+                node = bitmapNode.slots[bitmapNode.index(bit)];
+                shift += BITS_PER_LEVEL;
+            } else if (node instanceof Entry<?, ?> entry) {
+                return entry.hash == hash && Objects.equals(entry.key, key) ? (Entry<KType, VType>) entry : null;
+            } else {
+                return ((CollisionNode) node).find(hash, key);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <KType, VType> void forEachEntry(Object node, Consumer<? super Entry<KType, VType>> action) {
+        if (node instanceof Entry<?, ?> entry) {
+            action.accept((Entry<KType, VType>) entry);
+        } else {
+            for (Object slot : slots(node)) {
+                forEachEntry(slot, action);
+            }
+        }
+    }
+
+    private static Object[] slots(Object node) {
+        return node instanceof BitmapNode bitmapNode ? bitmapNode.slots : ((CollisionNode) node).entries;
+    }
+
+    private static boolean nodesEqual(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a instanceof Entry<?, ?> entryA && b instanceof Entry<?, ?> entryB) {
+            return entryA.hash == entryB.hash && Objects.equals(entryA.key, entryB.key) && Objects.equals(entryA.value, entryB.value);
+        }
+        if (a instanceof BitmapNode nodeA && b instanceof BitmapNode nodeB) {
+            if (nodeA.bitmap != nodeB.bitmap) {
+                return false;
+            }
+            for (int i = 0; i < nodeA.slots.length; i++) {
+                if (nodesEqual(nodeA.slots[i], nodeB.slots[i]) == false) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof CollisionNode nodeA && b instanceof CollisionNode nodeB) {
+            if (nodeA.entries.length != nodeB.entries.length) {
+                return false;
+            }
+            for (Object entry : nodeA.entries) {
+                final Entry<?, ?> other = nodeB.find(nodeB.hash, ((Entry<?, ?>) entry).key);
+                if (other == null || Objects.equals(((Entry<?, ?>) entry).value, other.value) == false) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        // the shape of the trie only depends on its keys, so differently shaped subtrees cannot hold the same entries
+        return false;
+    }
+
+    private static <KType, VType> void diffNodes(
+        Object before,
+        Object after,
+        BiConsumer<Map.Entry<KType, VType>, Map.Entry<KType, VType>> consumer
+    ) {
+        if (before == after) {
+            return;
+        }
+        if (before instanceof BitmapNode nodeBefore && after instanceof BitmapNode nodeAfter) {
+            int bitmap = nodeBefore.bitmap | nodeAfter.bitmap;
+            while (bitmap != 0) {
+                final int bit = Integer.lowestOneBit(bitmap);
+                bitmap &= ~bit;
+                diffNodes(
+                    (nodeBefore.bitmap & bit) == 0 ? null : nodeBefore.slots[nodeBefore.index(bit)],
+                    (nodeAfter.bitmap & bit) == 0 ? null : nodeAfter.slots[nodeAfter.index(bit)],
+                    consumer
+                );
+            }
+            return;
+        }
+        if (before == null) {
+            ImmutableOpenMap.<KType, VType>forEachEntry(after, e -> consumer.accept(null, e));
+            return;
+        }
+        if (after == null) {
+            ImmutableOpenMap.<KType, VType>forEachEntry(before, e -> consumer.accept(e, null));
+            return;
+        }
+        // at least one side is a single entry or both sides are collision nodes, so there are few entries to match up on one side
+        final List<Entry<KType, VType>> entriesBefore = new ArrayList<>();
+        ImmutableOpenMap.<KType, VType>forEachEntry(before, entriesBefore::add);
+        final boolean[] matched = new boolean[entriesBefore.size()];
+        ImmutableOpenMap.<KType, VType>forEachEntry(after, entryAfter -> {
+            for (int i = 0; i < matched.length; i++) {
+                final Entry<KType, VType> entryBefore = entriesBefore.get(i);
+                if (matched[i] == false && entryBefore.hash == entryAfter.hash && Objects.equals(entryBefore.key, entryAfter.key)) {
+                    matched[i] = true;
+                    if (entryBefore != entryAfter) {
+                        consumer.accept(entryBefore, entryAfter);
+                    }
+                    return;
+                }
+            }
+            consumer.accept(null, entryAfter);
+        });
+        for (int i = 0; i < matched.length; i++) {
+            if (matched[i] == false) {
+                consumer.accept(entriesBefore.get(i), null);
+            }
+        }
+    }
+
+    /**
+     * Creates the subtree that holds two entries whose hashes are equal up to the given shift.
+     */
+    private static Object merge(Object owner, int shift, Entry<?, ?> a, Entry<?, ?> b) {
+        if (shift >= Integer.SIZE) {
+            assert a.hash == b.hash;
+            return new CollisionNode(owner, a.hash, new Object[] { a, b });
+        }
+        final int bitA = bit(a.hash, shift);
+        final int bitB = bit(b.hash, shift);
+        if (bitA == bitB) {
+            return new BitmapNode(owner, bitA, new Object[] { merge(owner, shift + BITS_PER_LEVEL, a, b) });
+        }
+        return new BitmapNode(owner, bitA | bitB, Integer.compareUnsigned(bitA, bitB) < 0 ? new Object[] { a, b } : new Object[] { b, a });
+    }
+
+    /**
+     * Puts the given entry into the given child node, which is either a {@link BitmapNode} or a {@link CollisionNode}.
+     */
+    private static Object putInto(Object owner, Object node, int shift, Entry<?, ?> entry, Builder<?, ?> builder) {
+        return node instanceof BitmapNode bitmapNode
+            ? bitmapNode.put(owner, shift, entry, builder)
+            : ((CollisionNode) node).put(owner, entry, builder);
+    }
+
+    /**
+     * Removes the given key from the given child node, which is either a {@link BitmapNode} or a {@link CollisionNode}.
+     */
+    private static Object removeFrom(Object owner, Object node, int shift, int hash, Object key, Builder<?, ?> builder) {
+        return node instanceof BitmapNode bitmapNode
+            ? bitmapNode.remove(owner, shift, hash, key, builder)
+            : ((CollisionNode) node).remove(owner, key, builder);
+    }
+
+    private static final class Entry<KType, VType> implements Map.Entry<KType, VType> {
+        private final int hash;
+        private final KType key;
+        private final VType value;
+
+        private Entry(int hash, KType key, VType value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public KType getKey() {
+            return key;
+        }
+
+        @Override
+        public VType getValue() {
+            return value;
+        }
+
+        @Override
+        public VType setValue(VType value) {
+            throw new UnsupportedOperationException("modification is not supported");
         }
 
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> e && Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * A node of the trie that holds up to 32 slots, one for each value of the bits of the hash that belong to its level. Each slot is
+     * either an {@link Entry}, if it is the only entry with these bits, or a child node. Apart from the root, a node never holds a single
+     * entry since such an entry is held directly by its parent.
+     */
+    private static final class BitmapNode {
+        private final Object owner;
+        private int bitmap;
+        private Object[] slots;
+
+        private BitmapNode(Object owner, int bitmap, Object[] slots) {
+            this.owner = owner;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private BitmapNode put(Object owner, int shift, Entry<?, ?> entry, Builder<?, ?> builder) {
+            final int bit = bit(entry.hash, shift);
+            final int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                builder.size++;
+                final Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = entry;
+                System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+                return update(owner, bitmap | bit, newSlots);
+            }
+            final Object slot = slots[index];
+            final Object newSlot;
+            if (slot instanceof Entry<?, ?> existing) {
+                if (existing.hash == entry.hash && Objects.equals(existing.key, entry.key)) {
+                    setPrevious(builder, existing);
+                    if (existing.value == entry.value) {
+                        return this;
+                    }
+                    newSlot = entry;
+                } else {
+                    builder.size++;
+                    newSlot = merge(owner, shift + BITS_PER_LEVEL, existing, entry);
+                }
+            } else {
+                newSlot = putInto(owner, slot, shift + BITS_PER_LEVEL, entry, builder);
+                if (newSlot == slot) {
+                    return this;
+                }
+            }
+            return withSlot(owner, index, newSlot);
+        }
+
+        /**
+         * @return this node if it did not contain the key, {@code null} if it is empty after removing the key, the only remaining entry
+         * if there is just one left, or else the node without the key
+         */
+        private Object remove(Object owner, int shift, int hash, Object key, Builder<?, ?> builder) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            final int index = index(bit);
+            final Object slot = slots[index];
+            final Object newSlot;
+            if (slot instanceof Entry<?, ?> existing) {
+                if (existing.hash != hash || Objects.equals(existing.key, key) == false) {
+                    return this;
+                }
+                setPrevious(builder, existing);
+                builder.size--;
+                newSlot = null;
+            } else {
+                newSlot = removeFrom(owner, slot, shift + BITS_PER_LEVEL, hash, key, builder);
+                if (newSlot == slot) {
+                    return this;
+                }
+            }
+            if (newSlot == null) {
+                if (slots.length == 1) {
+                    return null;
+                }
+                if (slots.length == 2 && slots[1 - index] instanceof Entry<?, ?> remaining) {
+                    return remaining;
+                }
+                final Object[] newSlots = new Object[slots.length - 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                System.arraycopy(slots, index + 1, newSlots, index, slots.length - index - 1);
+                return update(owner, bitmap & ~bit, newSlots);
+            }
+            if (slots.length == 1 && newSlot instanceof Entry<?, ?>) {
+                return newSlot;
+            }
+            return withSlot(owner, index, newSlot);
+        }
+
+        private BitmapNode withSlot(Object owner, int index, Object newSlot) {
+            if (isEditable(owner)) {
+                slots[index] = newSlot;
+                return this;
+            }
+            final Object[] newSlots = slots.clone();
+            newSlots[index] = newSlot;
+            return new BitmapNode(owner, bitmap, newSlots);
+        }
+
+        private BitmapNode update(Object owner, int newBitmap, Object[] newSlots) {
+            if (isEditable(owner)) {
+                bitmap = newBitmap;
+                slots = newSlots;
+                return this;
+            }
+            return new BitmapNode(owner, newBitmap, newSlots);
+        }
+
+        private boolean isEditable(Object owner) {
+            return owner != null && this.owner == owner;
+        }
+    }
+
+    /**
+     * A node that holds the entries whose keys have the same hash, it only occurs below the levels that consume all bits of the hash.
+     */
+    private static final class CollisionNode {
+        private final Object owner;
+        private final int hash;
+        private Object[] entries;
+
+        private CollisionNode(Object owner, int hash, Object[] entries) {
+            this.owner = owner;
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <KType, VType> Entry<KType, VType> find(int hash, Object key) {
+            if (hash != this.hash) {
+                return null;
+            }
+            for (Object entry : entries) {
+                if (Objects.equals(((Entry<?, ?>) entry).key, key)) {
+                    return (Entry<KType, VType>) entry;
+                }
+            }
+            return null;
+        }
+
+        private CollisionNode put(Object owner, Entry<?, ?> entry, Builder<?, ?> builder) {
+            assert entry.hash == hash;
+            for (int i = 0; i < entries.length; i++) {
+                final Entry<?, ?> existing = (Entry<?, ?>) entries[i];
+                if (Objects.equals(existing.key, entry.key)) {
+                    setPrevious(builder, existing);
+                    if (existing.value == entry.value) {
+                        return this;
+                    }
+                    final Object[] newEntries = entries.clone();
+                    newEntries[i] = entry;
+                    return update(owner, newEntries);
+                }
+            }
+            builder.size++;
+            final Object[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+            newEntries[entries.length] = entry;
+            return update(owner, newEntries);
+        }
+
+        private Object remove(Object owner, Object key, Builder<?, ?> builder) {
+            for (int i = 0; i < entries.length; i++) {
+                final Entry<?, ?> existing = (Entry<?, ?>) entries[i];
+                if (Objects.equals(existing.key, key)) {
+                    setPrevious(builder, existing);
+                    builder.size--;
+                    if (entries.length == 2) {
+                        return entries[1 - i];
+                    }
+                    final Object[] newEntries = new Object[entries.length - 1];
+                    System.arraycopy(entries, 0, newEntries, 0, i);
+                    System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+                    return update(owner, newEntries);
+                }
+            }
+            return this;
+        }
+
+        private CollisionNode update(Object owner, Object[] newEntries) {
+            if (owner != null && this.owner == owner) {
+                entries = newEntries;
+                return this;
+            }
+            return new CollisionNode(owner, hash, newEntries);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <KType, VType> void setPrevious(Builder<KType, VType> builder, Entry<?, ?> entry) {
+        builder.previous = (Entry<KType, VType>) entry;
+    }
+
+    /**
+     * Iterates over the entries of a subtree in the order of their slots.
+     */
+    private static final class EntryIterator<KType, VType> implements Iterator<Map.Entry<KType, VType>> {
+        // the trie is at most 8 levels deep including the collision nodes
+        private final Object[][] stack = new Object[Integer.SIZE / BITS_PER_LEVEL + 2][];
+        private final int[] positions = new int[stack.length];
+        private int depth;
+        private Entry<KType, VType> next;
+
+        private EntryIterator(Object node) {
+            stack[0] = node instanceof Entry<?, ?> ? new Object[] { node } : slots(node);
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                if (positions[depth] == stack[depth].length) {
+                    depth--;
+                    continue;
+                }
+                final Object slot = stack[depth][positions[depth]++];
+                if (slot instanceof Entry<?, ?> entry) {
+                    next = (Entry<KType, VType>) entry;
+                    return;
+                }
+                depth++;
+                stack[depth] = slots(slot);
+                positions[depth] = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<KType, VType> next() {
+            final Entry<KType, VType> current = next;
+            if (current == null) {
+                throw new NoSuchElementException();
+            }
+            advance();
+            return current;
+        }
     }
 }
@@ -53,6 +53,7 @@ public class ScriptScoreQuery extends Query {
     private final String indexName;
     private final int shardId;
     private final IndexVersion indexVersion;
+    private final boolean batchScoring;
 
     public ScriptScoreQuery(
         Query subQuery,
@@ -63,6 +64,23 @@ public class ScriptScoreQuery extends Query {
         String indexName,
         int shardId,
         IndexVersion indexVersion
+    ) {
+        this(subQuery, script, scriptBuilder, lookup, minScore, indexName, shardId, indexVersion, false);
+    }
+
+    /**
+     * @param batchScoring whether to score the matches in batches through {@link ScoreScript#executeBatch}
+     */
+    public ScriptScoreQuery(
+        Query subQuery,
+        Script script,
+        ScoreScript.LeafFactory scriptBuilder,
+        SearchLookup lookup,
+        Float minScore,
+        String indexName,
+        int shardId,
+        IndexVersion indexVersion,
+        boolean batchScoring
     ) {
         this.subQuery = subQuery;
         this.script = script;
@@ -72,6 +90,7 @@ public class ScriptScoreQuery extends Query {
         this.indexName = indexName;
         this.shardId = shardId;
         this.indexVersion = indexVersion;
+        this.batchScoring = batchScoring;
     }
 
     public Query getSubQuery() {
@@ -82,7 +101,7 @@ public class ScriptScoreQuery extends Query {
     public Query rewrite(IndexSearcher searcher) throws IOException {
         Query newQ = subQuery.rewrite(searcher);
         if (newQ != subQuery) {
-            return new ScriptScoreQuery(newQ, script, scriptBuilder, lookup, minScore, indexName, shardId, indexVersion);
+            return new ScriptScoreQuery(newQ, script, scriptBuilder, lookup, minScore, indexName, shardId, indexVersion, batchScoring);
         }
         return super.rewrite(searcher);
     }
@@ -129,7 +148,13 @@ public class ScriptScoreQuery extends Query {
                     public BulkScorer bulkScorer() throws IOException {
                         if (minScore == null) {
                             final BulkScorer subQueryBulkScorer = subQueryScorerSupplier.bulkScorer();
-                            return new ScriptScoreBulkScorer(subQueryBulkScorer, subQueryScoreMode, makeScoreScript(context), boost);
+                            return new ScriptScoreBulkScorer(
+                                subQueryBulkScorer,
+                                subQueryScoreMode,
+                                makeScoreScript(context),
+                                boost,
+                                batchScoring
+                            );
                         } else {
                             return super.bulkScorer();
                         }
@@ -227,12 +252,13 @@ public class ScriptScoreQuery extends Query {
             && script.equals(that.script)
             && Objects.equals(minScore, that.minScore)
             && indexName.equals(that.indexName)
-            && indexVersion.equals(that.indexVersion);
+            && indexVersion.equals(that.indexVersion)
+            && batchScoring == that.batchScoring;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(classHash(), subQuery, script, minScore, indexName, shardId, indexVersion);
+        return Objects.hash(classHash(), subQuery, script, minScore, indexName, shardId, indexVersion, batchScoring);
     }
 
     private static class ScriptScorer extends Scorer {
@@ -261,18 +287,7 @@ public class ScriptScoreQuery extends Query {
         public float score() throws IOException {
             int docId = docID();
             scoreScript.setDocument(docId);
-            float score = (float) scoreScript.execute(explanation);
-            if (score < 0f || Float.isNaN(score)) {
-                throw new IllegalArgumentException(
-                    "script_score script returned an invalid score ["
-                        + score
-                        + "] "
-                        + "for doc ["
-                        + docId
-                        + "]. Must be a non-negative score!"
-                );
-            }
-            return score * boost;
+            return checkScore((float) scoreScript.execute(explanation), docId) * boost;
         }
 
         @Override
@@ -323,42 +338,59 @@ public class ScriptScoreQuery extends Query {
         public float score() throws IOException {
             int docId = docIDSupplier.getAsInt();
             scoreScript.setDocument(docId);
-            float score = (float) scoreScript.execute(null);
-            if (score < 0f || Float.isNaN(score)) {
-                throw new IllegalArgumentException(
-                    "script_score script returned an invalid score ["
-                        + score
-                        + "] "
-                        + "for doc ["
-                        + docId
-                        + "]. Must be a non-negative score!"
-                );
-            }
-            return score * boost;
+            return checkScore((float) scoreScript.execute(null), docId) * boost;
         }
 
     }
 
+    private static float checkScore(float score, int docId) {
+        if (score < 0f || Float.isNaN(score)) {
+            throw new IllegalArgumentException(
+                "script_score script returned an invalid score [" + score + "] for doc [" + docId + "]. Must be a non-negative score!"
+            );
+        }
+        return score;
+    }
+
     /**
      * Use the {@link BulkScorer} of the sub-query,
-     * as it may be significantly faster (e.g. BooleanScorer) than iterating over the scorer
+     * as it may be significantly faster (e.g. BooleanScorer) than iterating over the scorer.
+     * With batch scoring the matching documents are scored in batches through {@link ScoreScript#executeBatch}.
      */
     private static class ScriptScoreBulkScorer extends BulkScorer {
+        /** The maximum number of documents that are scored at once */
+        static final int BATCH_SIZE = 64;
+
         private final BulkScorer subQueryBulkScorer;
         private final ScoreMode subQueryScoreMode;
         private final ScoreScript scoreScript;
         private final float boost;
+        private final boolean batchScoring;
 
-        ScriptScoreBulkScorer(BulkScorer subQueryBulkScorer, ScoreMode subQueryScoreMode, ScoreScript scoreScript, float boost) {
+        ScriptScoreBulkScorer(
+            BulkScorer subQueryBulkScorer,
+            ScoreMode subQueryScoreMode,
+            ScoreScript scoreScript,
+            float boost,
+            boolean batchScoring
+        ) {
             this.subQueryBulkScorer = subQueryBulkScorer;
             this.subQueryScoreMode = subQueryScoreMode;
             this.scoreScript = scoreScript;
             this.boost = boost;
+            this.batchScoring = batchScoring;
         }
 
         @Override
         public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
-            return subQueryBulkScorer.score(wrapCollector(collector), acceptDocs, min, max);
+            // collectors that skip non-competitive documents expect to see the matches as the sub-query finds them
+            if (batchScoring == false || collector.competitiveIterator() != null) {
+                return subQueryBulkScorer.score(wrapCollector(collector), acceptDocs, min, max);
+            }
+            BatchingLeafCollector batchingCollector = new BatchingLeafCollector(collector);
+            int next = subQueryBulkScorer.score(batchingCollector, acceptDocs, min, max);
+            batchingCollector.flush();
+            return next;
         }
 
         private LeafCollector wrapCollector(LeafCollector collector) {
@@ -379,6 +411,63 @@ public class ScriptScoreQuery extends Query {
             };
         }
 
+        /**
+         * Buffers the documents that the sub-query matches and passes them on to the wrapped collector once the buffer is full. The
+         * buffered documents are scored together when the wrapped collector asks for the score of any of them, so that scripts only
+         * run if scores are actually used.
+         */
+        private class BatchingLeafCollector extends FilterLeafCollector {
+            private final int[] docIds = new int[BATCH_SIZE];
+            private final float[] subQueryScores;
+            private final double[] scores = new double[BATCH_SIZE];
+            private Scorable subQueryScorer;
+            private int count;
+            private int current;
+            private boolean scored;
+
+            BatchingLeafCollector(LeafCollector in) {
+                super(in);
+                this.subQueryScores = subQueryScoreMode == ScoreMode.COMPLETE ? new float[BATCH_SIZE] : null;
+            }
+
+            @Override
+            public void setScorer(Scorable scorer) throws IOException {
+                this.subQueryScorer = scorer;
+                in.setScorer(new Scorable() {
+                    @Override
+                    public float score() {
+                        if (scored == false) {
+                            scoreScript.executeBatch(docIds, subQueryScores, count, scores);
+                            scored = true;
+                        }
+                        return checkScore((float) scores[current], docIds[current]) * boost;
+                    }
+                });
+            }
+
+            @Override
+            public void collect(int doc) throws IOException {
+                docIds[count] = doc;
+                if (subQueryScores != null) {
+                    subQueryScores[count] = subQueryScorer.score();
+                }
+                if (++count == BATCH_SIZE) {
+                    flush();
+                }
+            }
+
+            void flush() throws IOException {
+                scored = false;
+                try {
+                    for (current = 0; current < count; current++) {
+                        in.collect(docIds[current]);
+                    }
+                } finally {
+                    count = 0;
+                }
+            }
+        }
+
         @Override
         public long cost() {
             return subQueryBulkScorer.cost();
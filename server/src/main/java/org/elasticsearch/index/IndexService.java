@@ -54,6 +54,7 @@ import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsAccounting;
+import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperMetrics;
@@ -837,7 +838,12 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
 
     public void updateMapping(final IndexMetadata currentIndexMetadata, final IndexMetadata newIndexMetadata) {
         if (mapperService != null) {
+            final DocumentMapper previousMapper = mapperService.documentMapper();
             mapperService.updateMapping(currentIndexMetadata, newIndexMetadata);
+            if (previousMapper != null && mapperService.documentMapper() != previousMapper) {
+                // cached runtime field values are keyed by the field types of the previous mapping, which new searches don't use
+                indexFieldData.clearCacheVariants();
+            }
         }
     }
 
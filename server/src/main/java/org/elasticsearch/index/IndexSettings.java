@@ -205,6 +205,18 @@ public final class IndexSettings {
         Property.IndexScope
     );
 
+    /**
+     * Index setting to score the matches of {@code script_score} queries in batches, see
+     * {@link org.elasticsearch.script.ScoreScript#executeBatch}. Only scripts that implement batches benefit from it, all other
+     * scripts pay for buffering the matches, which is why it is disabled by default.
+     */
+    public static final Setting<Boolean> SCRIPT_SCORE_BATCH_SCORING_ENABLED_SETTING = Setting.boolSetting(
+        "index.search.script_score.batch_scoring.enabled",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+
     /**
      * Index setting describing the maximum number of terms that can be used in Terms Query.
      * The default maximum of 65536 terms is defensive, as extra processing and memory is involved
@@ -809,6 +821,7 @@ public final class IndexSettings {
     private volatile TimeValue searchIdleAfter;
     private volatile int maxAnalyzedOffset;
     private volatile boolean weightMatchesEnabled;
+    private volatile boolean scriptScoreBatchScoringEnabled;
     private volatile int maxTermsCount;
     private volatile String defaultPipeline;
     private volatile String requiredPipeline;
@@ -966,6 +979,7 @@ public final class IndexSettings {
         maxSlicesPerScroll = scopedSettings.get(MAX_SLICES_PER_SCROLL);
         maxAnalyzedOffset = scopedSettings.get(MAX_ANALYZED_OFFSET_SETTING);
         weightMatchesEnabled = scopedSettings.get(WEIGHT_MATCHES_MODE_ENABLED_SETTING);
+        scriptScoreBatchScoringEnabled = scopedSettings.get(SCRIPT_SCORE_BATCH_SCORING_ENABLED_SETTING);
         maxTermsCount = scopedSettings.get(MAX_TERMS_COUNT_SETTING);
         maxRegexLength = scopedSettings.get(MAX_REGEX_LENGTH_SETTING);
         this.mergePolicyConfig = new MergePolicyConfig(logger, this);
@@ -1048,6 +1062,7 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(MAX_REFRESH_LISTENERS_PER_SHARD, this::setMaxRefreshListeners);
         scopedSettings.addSettingsUpdateConsumer(MAX_ANALYZED_OFFSET_SETTING, this::setHighlightMaxAnalyzedOffset);
         scopedSettings.addSettingsUpdateConsumer(WEIGHT_MATCHES_MODE_ENABLED_SETTING, this::setWeightMatchesEnabled);
+        scopedSettings.addSettingsUpdateConsumer(SCRIPT_SCORE_BATCH_SCORING_ENABLED_SETTING, this::setScriptScoreBatchScoringEnabled);
         scopedSettings.addSettingsUpdateConsumer(MAX_TERMS_COUNT_SETTING, this::setMaxTermsCount);
         scopedSettings.addSettingsUpdateConsumer(MAX_SLICES_PER_SCROLL, this::setMaxSlicesPerScroll);
         scopedSettings.addSettingsUpdateConsumer(DEFAULT_FIELD_SETTING, this::setDefaultFields);
@@ -1449,6 +1464,17 @@ public final class IndexSettings {
         this.weightMatchesEnabled = value;
     }
 
+    /**
+     * Returns whether the matches of {@code script_score} queries are scored in batches.
+     */
+    public boolean isScriptScoreBatchScoringEnabled() {
+        return this.scriptScoreBatchScoringEnabled;
+    }
+
+    private void setScriptScoreBatchScoringEnabled(boolean value) {
+        this.scriptScoreBatchScoringEnabled = value;
+    }
+
     /**
      *  Returns the maximum number of terms that can be used in a Terms Query request
      */
@@ -32,6 +32,7 @@ import java.util.stream.Collectors;
 public class CodecService implements CodecProvider {
 
     public static final FeatureFlag ZSTD_STORED_FIELDS_FEATURE_FLAG = new FeatureFlag("zstd_stored_fields");
+    public static final FeatureFlag ZSTD_STORED_FIELDS_DICTIONARY_FEATURE_FLAG = new FeatureFlag("zstd_stored_fields_dictionary");
 
     private final Map<String, Codec> codecs;
 
@@ -39,6 +40,7 @@ public class CodecService implements CodecProvider {
     public static final String LEGACY_DEFAULT_CODEC = "legacy_default"; // escape hatch
     public static final String BEST_COMPRESSION_CODEC = "best_compression";
     public static final String LEGACY_BEST_COMPRESSION_CODEC = "legacy_best_compression"; // escape hatch
+    public static final String BEST_COMPRESSION_DICTIONARY_CODEC = "best_compression_dictionary";
 
     /** the raw unfiltered lucene default. useful for testing */
     public static final String LUCENE_DEFAULT_CODEC = "lucene_default";
@@ -60,6 +62,12 @@ public class CodecService implements CodecProvider {
         );
         Codec legacyBestCompressionCodec = new LegacyPerFieldMapperCodec(Lucene100Codec.Mode.BEST_COMPRESSION, mapperService, bigArrays);
         codecs.put(LEGACY_BEST_COMPRESSION_CODEC, legacyBestCompressionCodec);
+        if (ZSTD_STORED_FIELDS_DICTIONARY_FEATURE_FLAG.isEnabled()) {
+            codecs.put(
+                BEST_COMPRESSION_DICTIONARY_CODEC,
+                new PerFieldMapperCodec(Zstd814StoredFieldsFormat.Mode.BEST_COMPRESSION_DICTIONARY, mapperService, bigArrays)
+            );
+        }
 
         codecs.put(LUCENE_DEFAULT_CODEC, Codec.getDefault());
         for (String codec : Codec.availableCodecs()) {
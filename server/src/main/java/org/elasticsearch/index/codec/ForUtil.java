@@ -11,6 +11,7 @@ package org.elasticsearch.index.codec;
 
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.IndexInput;
 
 import java.io.IOException;
 
@@ -199,6 +200,49 @@ public final class ForUtil {
         return bitsPerValue << (BLOCK_SIZE_LOG2 - 3);
     }
 
+    /**
+     * Decode the integer at {@code index} out of 128 integers that have been encoded with {@link #encode}, without decoding
+     * the other integers of the block. {@code in} must be positioned at the start of the encoded integers and is positioned
+     * right after them on return.
+     */
+    public static long decodeSingle(int bitsPerValue, IndexInput in, int index) throws IOException {
+        assert bitsPerValue > 0 && bitsPerValue <= 32 : bitsPerValue;
+        assert index >= 0 && index < BLOCK_SIZE : index;
+        final long start = in.getFilePointer();
+        final int nextPrimitive = bitsPerValue <= 8 ? 8 : bitsPerValue <= 16 ? 16 : 32;
+        final int numLongs = BLOCK_SIZE * nextPrimitive / Long.SIZE;
+        final int numLongsPerShift = bitsPerValue * 2;
+        // values are first collapsed so that long i holds values i, numLongs + i, 2 * numLongs + i, ... from its most
+        // significant bits to its least significant bits, each of them in a lane of nextPrimitive bits
+        final int collapsedIdx = index % numLongs;
+        final int laneShift = Long.SIZE - nextPrimitive * (index / numLongs + 1);
+        final int numShifts = nextPrimitive / bitsPerValue;
+        long value;
+        if (collapsedIdx < numShifts * numLongsPerShift) {
+            // the value is stored as a whole at a fixed shift within its lane
+            final int shift = nextPrimitive - bitsPerValue * (collapsedIdx / numLongsPerShift + 1);
+            in.seek(start + (long) (collapsedIdx % numLongsPerShift) * Long.BYTES);
+            value = (in.readLong() >>> (laneShift + shift)) & ((1L << bitsPerValue) - 1);
+        } else {
+            // the value is split, most significant bits first, across the remaining low-order bits of the lanes
+            final int remainingBitsPerLong = nextPrimitive - numShifts * bitsPerValue;
+            int bitOffset = (collapsedIdx - numShifts * numLongsPerShift) * bitsPerValue;
+            int remainingBits = bitsPerValue;
+            value = 0;
+            while (remainingBits > 0) {
+                final int offsetInLong = bitOffset % remainingBitsPerLong;
+                final int numBits = Math.min(remainingBits, remainingBitsPerLong - offsetInLong);
+                in.seek(start + (long) (bitOffset / remainingBitsPerLong) * Long.BYTES);
+                final long bits = in.readLong() >>> (laneShift + remainingBitsPerLong - offsetInLong - numBits);
+                value = (value << numBits) | (bits & ((1L << numBits) - 1));
+                bitOffset += numBits;
+                remainingBits -= numBits;
+            }
+        }
+        in.seek(start + numBytes(bitsPerValue));
+        return value;
+    }
+
     private static void decodeSlow(int bitsPerValue, DataInput in, long[] tmp, long[] longs) throws IOException {
         final int numLongs = bitsPerValue << 1;
         in.readLongs(tmp, 0, numLongs);
@@ -369,6 +369,19 @@ public final class ES812PostingsFormat extends PostingsFormat {
      */
     static final int MAX_SKIP_LEVELS = 10;
 
+    /** Number of skip entries of a level that are summarized by a single skip entry of the next level. */
+    static final int SKIP_MULTIPLIER = 8;
+
+    /**
+     * Skip multiplier of terms whose doc freq is at least the dense skip data threshold. Smaller multipliers produce more
+     * levels whose block-max impacts cover fewer documents, which helps dynamic pruning skip non-competitive documents of
+     * long posting lists at the cost of slightly larger skip data.
+     */
+    static final int DENSE_SKIP_MULTIPLIER = 4;
+
+    /** Default doc freq above which terms get dense skip data. */
+    public static final int DEFAULT_DENSE_SKIP_MIN_DOC_FREQ = 64 * BLOCK_SIZE;
+
     static final String CODEC_NAME = "ES812Postings";
     static final String TERMS_CODEC = "ES812PostingsWriterTerms";
     static final String DOC_CODEC = "ES812PostingsWriterDoc";
@@ -377,11 +390,27 @@ public final class ES812PostingsFormat extends PostingsFormat {
 
     // Increment version to change it
     static final int VERSION_START = 0;
-    static final int VERSION_CURRENT = VERSION_START;
+    /** Version that writes dense skip data for high frequency terms. */
+    static final int VERSION_DENSE_SKIP_DATA = 1;
+    static final int VERSION_CURRENT = VERSION_DENSE_SKIP_DATA;
+
+    private final int denseSkipMinDocFreq;
 
-    /** Creates read-only {@code ES812PostingsFormat}. */
+    /** Creates {@code ES812PostingsFormat} with default settings. */
     public ES812PostingsFormat() {
+        this(DEFAULT_DENSE_SKIP_MIN_DOC_FREQ);
+    }
+
+    /**
+     * Creates {@code ES812PostingsFormat} that writes dense skip data for terms whose doc freq is at least
+     * {@code denseSkipMinDocFreq}. Use {@link Integer#MAX_VALUE} to disable dense skip data.
+     */
+    public ES812PostingsFormat(int denseSkipMinDocFreq) {
         super(CODEC_NAME);
+        if (denseSkipMinDocFreq <= BLOCK_SIZE) {
+            throw new IllegalArgumentException("denseSkipMinDocFreq must be greater than " + BLOCK_SIZE + ", got " + denseSkipMinDocFreq);
+        }
+        this.denseSkipMinDocFreq = denseSkipMinDocFreq;
     }
 
     @Override
@@ -391,7 +420,7 @@ public final class ES812PostingsFormat extends PostingsFormat {
 
     @Override
     public FieldsConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
-        PostingsWriterBase postingsWriter = new ES812PostingsWriter(state);
+        PostingsWriterBase postingsWriter = new ES812PostingsWriter(state, denseSkipMinDocFreq);
         boolean success = false;
         try {
             FieldsConsumer ret = new Lucene90BlockTreeTermsWriter(
@@ -43,12 +43,15 @@ import java.io.IOException;
 import java.util.Arrays;
 
 import static org.elasticsearch.index.codec.ForUtil.BLOCK_SIZE;
+import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.DENSE_SKIP_MULTIPLIER;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.DOC_CODEC;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.MAX_SKIP_LEVELS;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.PAY_CODEC;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.POS_CODEC;
+import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.SKIP_MULTIPLIER;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.TERMS_CODEC;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.VERSION_CURRENT;
+import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.VERSION_DENSE_SKIP_DATA;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.VERSION_START;
 
 /**
@@ -61,6 +64,9 @@ final class ES812PostingsReader extends PostingsReaderBase {
     private final IndexInput posIn;
     private final IndexInput payIn;
 
+    // terms with at least this many docs have been written with dense skip data, see ES812PostingsFormat
+    private int denseSkipMinDocFreq = Integer.MAX_VALUE;
+
     /** Sole constructor. */
     ES812PostingsReader(SegmentReadState state) throws IOException {
         boolean success = false;
@@ -122,11 +128,26 @@ final class ES812PostingsReader extends PostingsReaderBase {
     @Override
     public void init(IndexInput termsIn, SegmentReadState state) throws IOException {
         // Make sure we are talking to the matching postings writer
-        CodecUtil.checkIndexHeader(termsIn, TERMS_CODEC, VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+        final int version = CodecUtil.checkIndexHeader(
+            termsIn,
+            TERMS_CODEC,
+            VERSION_START,
+            VERSION_CURRENT,
+            state.segmentInfo.getId(),
+            state.segmentSuffix
+        );
         final int indexBlockSize = termsIn.readVInt();
         if (indexBlockSize != BLOCK_SIZE) {
             throw new IllegalStateException("index-time BLOCK_SIZE (" + indexBlockSize + ") != read-time BLOCK_SIZE (" + BLOCK_SIZE + ")");
         }
+        if (version >= VERSION_DENSE_SKIP_DATA) {
+            denseSkipMinDocFreq = termsIn.readVInt();
+        }
+    }
+
+    /** Returns the multiplier of the skip data that has been written for a term with the given doc freq. */
+    private int skipMultiplier(int docFreq) {
+        return docFreq >= denseSkipMinDocFreq ? DENSE_SKIP_MULTIPLIER : SKIP_MULTIPLIER;
     }
 
     /** Read values that have been written using variable-length encoding instead of bit-packing. */
@@ -455,9 +476,17 @@ final class ES812PostingsReader extends PostingsReaderBase {
             // we don't need to skip if target is buffered already
             if (docFreq > BLOCK_SIZE && target > nextSkipDoc) {
 
-                if (skipper == null) {
-                    // Lazy init: first time this enum has ever been used for skipping
-                    skipper = new ES812SkipReader(docIn.clone(), MAX_SKIP_LEVELS, indexHasPos, indexHasOffsets, indexHasPayloads);
+                if (skipper == null || skipper.getSkipMultiplier() != skipMultiplier(docFreq)) {
+                    // Lazy init: first time this enum has ever been used for skipping, or the skip data of this term has a
+                    // different layout than the one of the previous term
+                    skipper = new ES812SkipReader(
+                        docIn.clone(),
+                        MAX_SKIP_LEVELS,
+                        skipMultiplier(docFreq),
+                        indexHasPos,
+                        indexHasOffsets,
+                        indexHasPayloads
+                    );
                 }
 
                 if (skipped == false) {
@@ -808,9 +837,17 @@ final class ES812PostingsReader extends PostingsReaderBase {
         @Override
         public int advance(int target) throws IOException {
             if (target > nextSkipDoc) {
-                if (skipper == null) {
-                    // Lazy init: first time this enum has ever been used for skipping
-                    skipper = new ES812SkipReader(docIn.clone(), MAX_SKIP_LEVELS, true, indexHasOffsets, indexHasPayloads);
+                if (skipper == null || skipper.getSkipMultiplier() != skipMultiplier(docFreq)) {
+                    // Lazy init: first time this enum has ever been used for skipping, or the skip data of this term has a
+                    // different layout than the one of the previous term
+                    skipper = new ES812SkipReader(
+                        docIn.clone(),
+                        MAX_SKIP_LEVELS,
+                        skipMultiplier(docFreq),
+                        true,
+                        indexHasOffsets,
+                        indexHasPayloads
+                    );
                 }
 
                 if (skipped == false) {
@@ -1029,7 +1066,14 @@ final class ES812PostingsReader extends PostingsReaderBase {
             blockUpto = 0;
             docBufferUpto = BLOCK_SIZE;
 
-            skipper = new ES812ScoreSkipReader(docIn.clone(), MAX_SKIP_LEVELS, indexHasPositions, indexHasOffsets, indexHasPayloads);
+            skipper = new ES812ScoreSkipReader(
+                docIn.clone(),
+                MAX_SKIP_LEVELS,
+                skipMultiplier(docFreq),
+                indexHasPositions,
+                indexHasOffsets,
+                indexHasPayloads
+            );
             skipper.init(
                 termState.docStartFP + termState.skipOffset,
                 termState.docStartFP,
@@ -1257,7 +1301,14 @@ final class ES812PostingsReader extends PostingsReaderBase {
             docUpto = 0;
             docBufferUpto = BLOCK_SIZE;
 
-            skipper = new ES812ScoreSkipReader(docIn.clone(), MAX_SKIP_LEVELS, true, indexHasOffsets, indexHasPayloads);
+            skipper = new ES812ScoreSkipReader(
+                docIn.clone(),
+                MAX_SKIP_LEVELS,
+                skipMultiplier(docFreq),
+                true,
+                indexHasOffsets,
+                indexHasPayloads
+            );
             skipper.init(docTermStartFP + termState.skipOffset, docTermStartFP, posTermStartFP, payTermStartFP, docFreq);
         }
 
@@ -1589,7 +1640,14 @@ final class ES812PostingsReader extends PostingsReaderBase {
             isFreqsRead = true;
             docBufferUpto = BLOCK_SIZE;
 
-            skipper = new ES812ScoreSkipReader(docIn.clone(), MAX_SKIP_LEVELS, indexHasPos, indexHasOffsets, indexHasPayloads);
+            skipper = new ES812ScoreSkipReader(
+                docIn.clone(),
+                MAX_SKIP_LEVELS,
+                skipMultiplier(docFreq),
+                indexHasPos,
+                indexHasOffsets,
+                indexHasPayloads
+            );
             skipper.init(
                 termState.docStartFP + termState.skipOffset,
                 termState.docStartFP,
@@ -40,10 +40,12 @@ import org.elasticsearch.index.codec.postings.ES812PostingsFormat.IntBlockTermSt
 import java.io.IOException;
 
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.BLOCK_SIZE;
+import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.DENSE_SKIP_MULTIPLIER;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.DOC_CODEC;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.MAX_SKIP_LEVELS;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.PAY_CODEC;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.POS_CODEC;
+import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.SKIP_MULTIPLIER;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.TERMS_CODEC;
 import static org.elasticsearch.index.codec.postings.ES812PostingsFormat.VERSION_CURRENT;
 
@@ -94,13 +96,16 @@ final class ES812PostingsWriter extends PushPostingsWriterBase {
 
     private final PForUtil pforUtil;
     private final ES812SkipWriter skipWriter;
+    // skip data of terms whose doc freq is at least denseSkipMinDocFreq, null if dense skip data is disabled
+    private final ES812SkipWriter denseSkipWriter;
+    private final int denseSkipMinDocFreq;
 
     private boolean fieldHasNorms;
     private NumericDocValues norms;
     private final CompetitiveImpactAccumulator competitiveFreqNormAccumulator = new CompetitiveImpactAccumulator();
 
     /** Creates a postings writer */
-    ES812PostingsWriter(SegmentWriteState state) throws IOException {
+    ES812PostingsWriter(SegmentWriteState state, int denseSkipMinDocFreq) throws IOException {
 
         String docFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, ES812PostingsFormat.DOC_EXTENSION);
         docOut = state.directory.createOutput(docFileName, state.context);
@@ -165,7 +170,16 @@ final class ES812PostingsWriter extends PushPostingsWriterBase {
         freqBuffer = new long[BLOCK_SIZE];
 
         // TODO: should we try skipping every 2/4 blocks...?
-        skipWriter = new ES812SkipWriter(MAX_SKIP_LEVELS, BLOCK_SIZE, state.segmentInfo.maxDoc(), docOut, posOut, payOut);
+        final int maxDoc = state.segmentInfo.maxDoc();
+        skipWriter = new ES812SkipWriter(MAX_SKIP_LEVELS, SKIP_MULTIPLIER, BLOCK_SIZE, maxDoc, docOut, posOut, payOut);
+        // the doc freq of a term is only known once all its docs have been written, so skip data is buffered in both
+        // layouts for segments that may contain terms with dense skip data
+        this.denseSkipMinDocFreq = denseSkipMinDocFreq;
+        if (maxDoc >= denseSkipMinDocFreq) {
+            denseSkipWriter = new ES812SkipWriter(MAX_SKIP_LEVELS, DENSE_SKIP_MULTIPLIER, BLOCK_SIZE, maxDoc, docOut, posOut, payOut);
+        } else {
+            denseSkipWriter = null;
+        }
     }
 
     @Override
@@ -177,12 +191,16 @@ final class ES812PostingsWriter extends PushPostingsWriterBase {
     public void init(IndexOutput termsOut, SegmentWriteState state) throws IOException {
         CodecUtil.writeIndexHeader(termsOut, TERMS_CODEC, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
         termsOut.writeVInt(BLOCK_SIZE);
+        termsOut.writeVInt(denseSkipMinDocFreq);
     }
 
     @Override
     public void setField(FieldInfo fieldInfo) {
         super.setField(fieldInfo);
         skipWriter.setField(writePositions, writeOffsets, writePayloads);
+        if (denseSkipWriter != null) {
+            denseSkipWriter.setField(writePositions, writeOffsets, writePayloads);
+        }
         lastState = emptyState;
         fieldHasNorms = fieldInfo.hasNorms();
     }
@@ -199,6 +217,9 @@ final class ES812PostingsWriter extends PushPostingsWriterBase {
         lastDocID = 0;
         lastBlockDocID = -1;
         skipWriter.resetSkip();
+        if (denseSkipWriter != null) {
+            denseSkipWriter.resetSkip();
+        }
         this.norms = norms;
         competitiveFreqNormAccumulator.clear();
     }
@@ -218,6 +239,17 @@ final class ES812PostingsWriter extends PushPostingsWriterBase {
                 lastBlockPosBufferUpto,
                 lastBlockPayloadByteUpto
             );
+            if (denseSkipWriter != null) {
+                denseSkipWriter.bufferSkip(
+                    lastBlockDocID,
+                    competitiveFreqNormAccumulator,
+                    docCount,
+                    lastBlockPosFP,
+                    lastBlockPayFP,
+                    lastBlockPosBufferUpto,
+                    lastBlockPayloadByteUpto
+                );
+            }
             competitiveFreqNormAccumulator.clear();
         }
 
@@ -439,7 +471,8 @@ final class ES812PostingsWriter extends PushPostingsWriterBase {
 
         long skipOffset;
         if (docCount > BLOCK_SIZE) {
-            skipOffset = skipWriter.writeSkip(docOut) - docStartFP;
+            final ES812SkipWriter termSkipWriter = docCount >= denseSkipMinDocFreq ? denseSkipWriter : skipWriter;
+            skipOffset = termSkipWriter.writeSkip(docOut) - docStartFP;
         } else {
             skipOffset = -1;
         }
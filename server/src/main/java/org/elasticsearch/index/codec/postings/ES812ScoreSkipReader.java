@@ -40,8 +40,15 @@ final class ES812ScoreSkipReader extends ES812SkipReader {
     private int numLevels = 1;
     private final MutableImpactList[] perLevelImpacts;
 
-    ES812ScoreSkipReader(IndexInput skipStream, int maxSkipLevels, boolean hasPos, boolean hasOffsets, boolean hasPayloads) {
-        super(skipStream, maxSkipLevels, hasPos, hasOffsets, hasPayloads);
+    ES812ScoreSkipReader(
+        IndexInput skipStream,
+        int maxSkipLevels,
+        int skipMultiplier,
+        boolean hasPos,
+        boolean hasOffsets,
+        boolean hasPayloads
+    ) {
+        super(skipStream, maxSkipLevels, skipMultiplier, hasPos, hasOffsets, hasPayloads);
         this.impactData = new byte[maxSkipLevels][];
         Arrays.fill(impactData, new byte[0]);
         this.impactDataLength = new int[maxSkipLevels];
@@ -66,8 +66,18 @@ class ES812SkipReader extends MultiLevelSkipListReader {
     private long lastDocPointer;
     private int lastPosBufferUpto;
 
-    ES812SkipReader(IndexInput skipStream, int maxSkipLevels, boolean hasPos, boolean hasOffsets, boolean hasPayloads) {
-        super(skipStream, maxSkipLevels, ForUtil.BLOCK_SIZE, 8);
+    private final int skipMultiplier;
+
+    ES812SkipReader(
+        IndexInput skipStream,
+        int maxSkipLevels,
+        int skipMultiplier,
+        boolean hasPos,
+        boolean hasOffsets,
+        boolean hasPayloads
+    ) {
+        super(skipStream, maxSkipLevels, ForUtil.BLOCK_SIZE, skipMultiplier);
+        this.skipMultiplier = skipMultiplier;
         docPointer = new long[maxSkipLevels];
         if (hasPos) {
             posPointer = new long[maxSkipLevels];
@@ -87,6 +97,10 @@ class ES812SkipReader extends MultiLevelSkipListReader {
         }
     }
 
+    int getSkipMultiplier() {
+        return skipMultiplier;
+    }
+
     /**
      * Trim original docFreq to tell skipReader read proper number of skip points.
      *
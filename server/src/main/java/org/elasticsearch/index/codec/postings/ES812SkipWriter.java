@@ -71,8 +71,16 @@ final class ES812SkipWriter extends MultiLevelSkipListWriter {
     private boolean fieldHasOffsets;
     private boolean fieldHasPayloads;
 
-    ES812SkipWriter(int maxSkipLevels, int blockSize, int docCount, IndexOutput docOut, IndexOutput posOut, IndexOutput payOut) {
-        super(blockSize, 8, maxSkipLevels, docCount);
+    ES812SkipWriter(
+        int maxSkipLevels,
+        int skipMultiplier,
+        int blockSize,
+        int docCount,
+        IndexOutput docOut,
+        IndexOutput posOut,
+        IndexOutput payOut
+    ) {
+        super(blockSize, skipMultiplier, maxSkipLevels, docCount);
         this.docOut = docOut;
         this.posOut = posOut;
         this.payOut = payOut;
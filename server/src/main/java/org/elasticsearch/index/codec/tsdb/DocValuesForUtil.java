@@ -11,6 +11,7 @@ package org.elasticsearch.index.codec.tsdb;
 
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.IndexInput;
 import org.elasticsearch.common.util.ByteUtils;
 import org.elasticsearch.index.codec.ForUtil;
 
@@ -83,6 +84,43 @@ public class DocValuesForUtil {
         }
     }
 
+    /**
+     * Decode the value at {@code index} of a block that has been encoded with {@link #encode}, without decoding the other
+     * values of the block. {@code in} must be positioned at the start of the encoded block and is positioned right after it
+     * on return.
+     */
+    public long decodeSingle(int bitsPerValue, final IndexInput in, int index) throws IOException {
+        if (bitsPerValue <= 24) {
+            return ForUtil.decodeSingle(bitsPerValue, in, index);
+        }
+        final long start = in.getFilePointer();
+        final long value;
+        final long end;
+        if (bitsPerValue <= 32) {
+            // see collapse32: values [0..63] are in the high-order bits and values [64..127] in the low-order bits
+            in.seek(start + (long) (index % (blockSize / 2)) * Long.BYTES);
+            final long l = in.readLong();
+            value = index < blockSize / 2 ? l >>> 32 : l & 0xFFFFFFFFL;
+            end = start + (long) (blockSize / 2) * Long.BYTES;
+        } else if (bitsPerValue == BITS_IN_FIVE_BYTES || bitsPerValue == BITS_IN_SIX_BYTES || bitsPerValue == BITS_IN_SEVEN_BYTES) {
+            final int bytesPerValue = bitsPerValue / Byte.SIZE;
+            in.seek(start + (long) index * bytesPerValue);
+            long l = 0;
+            for (int i = 0; i < bytesPerValue; ++i) {
+                l |= (in.readByte() & 0xFFL) << (i * Byte.SIZE);
+            }
+            value = l;
+            end = start + (long) bytesPerValue * blockSize;
+        } else {
+            assert bitsPerValue > 56 : "bitsPerValue must be greater than 56 but was [" + bitsPerValue + "]";
+            in.seek(start + (long) index * Long.BYTES);
+            value = in.readLong();
+            end = start + (long) blockSize * Long.BYTES;
+        }
+        in.seek(end);
+        return value;
+    }
+
     private void decodeFiveSixOrSevenBytesPerValue(int bitsPerValue, final DataInput in, long[] out) throws IOException {
         // NOTE: we expect multibyte values to be written "least significant byte" first
         int bytesPerValue = bitsPerValue / Byte.SIZE;
@@ -41,6 +41,7 @@ import org.apache.lucene.util.compress.LZ4;
 import org.apache.lucene.util.packed.DirectMonotonicReader;
 import org.apache.lucene.util.packed.PackedInts;
 import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.index.mapper.BlockLoader;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -1075,74 +1076,15 @@ public class ES87TSDBDocValuesProducer extends DocValuesProducer {
             }
         }
 
-        // NOTE: we could make this a bit simpler by reusing #getValues but this
-        // makes things slower.
-
         final RandomAccessInput indexSlice = data.randomAccessSlice(entry.indexOffset, entry.indexLength);
         final DirectMonotonicReader indexReader = DirectMonotonicReader.getInstance(entry.indexMeta, indexSlice);
         final IndexInput valuesData = data.slice("values", entry.valuesOffset, entry.valuesLength);
 
         final int bitsPerOrd = maxOrd >= 0 ? PackedInts.bitsRequired(maxOrd - 1) : -1;
+        final NumericBlockReader values = new NumericBlockReader(valuesData, indexReader, bitsPerOrd);
         if (entry.docsWithFieldOffset == -1) {
             // dense
-            return new NumericDocValues() {
-
-                private final int maxDoc = ES87TSDBDocValuesProducer.this.maxDoc;
-                private int doc = -1;
-                private final TSDBDocValuesEncoder decoder = new TSDBDocValuesEncoder(ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SIZE);
-                private long currentBlockIndex = -1;
-                private final long[] currentBlock = new long[ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SIZE];
-
-                @Override
-                public int docID() {
-                    return doc;
-                }
-
-                @Override
-                public int nextDoc() throws IOException {
-                    return advance(doc + 1);
-                }
-
-                @Override
-                public int advance(int target) throws IOException {
-                    if (target >= maxDoc) {
-                        return doc = NO_MORE_DOCS;
-                    }
-                    return doc = target;
-                }
-
-                @Override
-                public boolean advanceExact(int target) {
-                    doc = target;
-                    return true;
-                }
-
-                @Override
-                public long cost() {
-                    return maxDoc;
-                }
-
-                @Override
-                public long longValue() throws IOException {
-                    final int index = doc;
-                    final int blockIndex = index >>> ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SHIFT;
-                    final int blockInIndex = index & ES87TSDBDocValuesFormat.NUMERIC_BLOCK_MASK;
-                    if (blockIndex != currentBlockIndex) {
-                        assert blockIndex > currentBlockIndex : blockIndex + " < " + currentBlockIndex;
-                        // no need to seek if the loading block is the next block
-                        if (currentBlockIndex + 1 != blockIndex) {
-                            valuesData.seek(indexReader.get(blockIndex));
-                        }
-                        currentBlockIndex = blockIndex;
-                        if (maxOrd >= 0) {
-                            decoder.decodeOrdinals(valuesData, currentBlock, bitsPerOrd);
-                        } else {
-                            decoder.decode(valuesData, currentBlock);
-                        }
-                    }
-                    return currentBlock[blockInIndex];
-                }
-            };
+            return new DenseNumericDocValues(maxDoc, values);
         } else {
             final IndexedDISI disi = new IndexedDISI(
                 data,
@@ -1154,10 +1096,6 @@ public class ES87TSDBDocValuesProducer extends DocValuesProducer {
             );
             return new NumericDocValues() {
 
-                private final TSDBDocValuesEncoder decoder = new TSDBDocValuesEncoder(ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SIZE);
-                private long currentBlockIndex = -1;
-                private final long[] currentBlock = new long[ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SIZE];
-
                 @Override
                 public int advance(int target) throws IOException {
                     return disi.advance(target);
@@ -1185,23 +1123,7 @@ public class ES87TSDBDocValuesProducer extends DocValuesProducer {
 
                 @Override
                 public long longValue() throws IOException {
-                    final int index = disi.index();
-                    final int blockIndex = index >>> ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SHIFT;
-                    final int blockInIndex = index & ES87TSDBDocValuesFormat.NUMERIC_BLOCK_MASK;
-                    if (blockIndex != currentBlockIndex) {
-                        assert blockIndex > currentBlockIndex : blockIndex + "<=" + currentBlockIndex;
-                        // no need to seek if the loading block is the next block
-                        if (currentBlockIndex + 1 != blockIndex) {
-                            valuesData.seek(indexReader.get(blockIndex));
-                        }
-                        currentBlockIndex = blockIndex;
-                        if (maxOrd >= 0) {
-                            decoder.decodeOrdinals(valuesData, currentBlock, bitsPerOrd);
-                        } else {
-                            decoder.decode(valuesData, currentBlock);
-                        }
-                    }
-                    return currentBlock[blockInIndex];
+                    return values.advance(disi.index());
                 }
             };
         }
@@ -1214,31 +1136,182 @@ public class ES87TSDBDocValuesProducer extends DocValuesProducer {
 
         final IndexInput valuesData = data.slice("values", entry.valuesOffset, entry.valuesLength);
         final int bitsPerOrd = maxOrd >= 0 ? PackedInts.bitsRequired(maxOrd - 1) : -1;
-        return new NumericValues() {
+        return new NumericBlockReader(valuesData, indexReader, bitsPerOrd);
+    }
 
-            private final TSDBDocValuesEncoder decoder = new TSDBDocValuesEncoder(ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SIZE);
-            private long currentBlockIndex = -1;
-            private final long[] currentBlock = new long[ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SIZE];
+    /**
+     * Reads values out of the blocks of a numeric field. A block is fully decoded as soon as a second value is read from it,
+     * but as long as only a single value is read per block, which is typical for queries that match few documents, values
+     * are extracted one at a time from their packed representation instead.
+     */
+    private static final class NumericBlockReader extends NumericValues {
+
+        private final IndexInput valuesData;
+        private final DirectMonotonicReader indexReader;
+        private final int bitsPerOrd;
+        private final TSDBDocValuesEncoder decoder = new TSDBDocValuesEncoder(ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SIZE);
+        private final long[] currentBlock = new long[ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SIZE];
+        // the block that is fully decoded in currentBlock
+        private long currentBlockIndex = -1;
+        // the block whose start valuesData is positioned at, or -1 if unknown
+        private long nextBlockIndex = 0;
+        // the block the last value was read from and how many values were read from it
+        private long lastBlockIndex = -1;
+        private int lastBlockReads = 1;
+        private boolean sparse;
+
+        NumericBlockReader(IndexInput valuesData, DirectMonotonicReader indexReader, int bitsPerOrd) {
+            this.valuesData = valuesData;
+            this.indexReader = indexReader;
+            this.bitsPerOrd = bitsPerOrd;
+        }
 
-            @Override
-            long advance(long index) throws IOException {
-                final long blockIndex = index >>> ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SHIFT;
-                final int blockInIndex = (int) (index & ES87TSDBDocValuesFormat.NUMERIC_BLOCK_MASK);
-                if (blockIndex != currentBlockIndex) {
-                    // no need to seek if the loading block is the next block
-                    if (currentBlockIndex + 1 != blockIndex) {
-                        valuesData.seek(indexReader.get(blockIndex));
-                    }
-                    currentBlockIndex = blockIndex;
-                    if (bitsPerOrd >= 0) {
-                        decoder.decodeOrdinals(valuesData, currentBlock, bitsPerOrd);
-                    } else {
-                        decoder.decode(valuesData, currentBlock);
+        @Override
+        long advance(long index) throws IOException {
+            final long blockIndex = index >>> ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SHIFT;
+            final int blockInIndex = (int) (index & ES87TSDBDocValuesFormat.NUMERIC_BLOCK_MASK);
+            onRead(blockIndex, 1);
+            if (blockIndex == currentBlockIndex) {
+                return currentBlock[blockInIndex];
+            }
+            if (sparse && lastBlockReads == 1) {
+                // no need to seek if the loading block is the next block
+                if (nextBlockIndex != blockIndex) {
+                    valuesData.seek(indexReader.get(blockIndex));
+                }
+                // delta-encoded blocks are still fully decoded into currentBlock
+                currentBlockIndex = -1;
+                nextBlockIndex = -1;
+                if (bitsPerOrd >= 0) {
+                    return decoder.decodeOrdinalSingle(valuesData, blockInIndex, bitsPerOrd);
+                } else {
+                    return decoder.decodeSingle(valuesData, blockInIndex, currentBlock);
+                }
+            }
+            decodeBlock(blockIndex);
+            return currentBlock[blockInIndex];
+        }
+
+        /**
+         * Reads the values of the given documents of a field that has a value for every document, so that the index of
+         * the value of a document is its doc id. Runs of consecutive documents are copied out of the decoded blocks at once.
+         * Returns {@code false} if the documents are not in order.
+         */
+        boolean readDense(BlockLoader.Docs docs, long[] values) throws IOException {
+            final int count = docs.count();
+            int lastDoc = -1;
+            int i = 0;
+            while (i < count) {
+                final int doc = docs.get(i);
+                if (doc < lastDoc) {
+                    return false;
+                }
+                final int blockInIndex = doc & ES87TSDBDocValuesFormat.NUMERIC_BLOCK_MASK;
+                int runLength = 1;
+                while (i + runLength < count
+                    && blockInIndex + runLength < ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SIZE
+                    && docs.get(i + runLength) == doc + runLength) {
+                    runLength++;
+                }
+                if (runLength == 1) {
+                    values[i] = advance(doc);
+                } else {
+                    final long blockIndex = doc >>> ES87TSDBDocValuesFormat.NUMERIC_BLOCK_SHIFT;
+                    onRead(blockIndex, runLength);
+                    if (blockIndex != currentBlockIndex) {
+                        decodeBlock(blockIndex);
                     }
+                    System.arraycopy(currentBlock, blockInIndex, values, i, runLength);
                 }
-                return currentBlock[blockInIndex];
+                lastDoc = doc + runLength - 1;
+                i += runLength;
             }
-        };
+            return true;
+        }
+
+        private void onRead(long blockIndex, int numValues) {
+            if (blockIndex != lastBlockIndex) {
+                // expect the same access pattern as for the previous block
+                sparse = lastBlockReads == 1;
+                lastBlockIndex = blockIndex;
+                lastBlockReads = 0;
+            }
+            lastBlockReads += numValues;
+        }
+
+        private void decodeBlock(long blockIndex) throws IOException {
+            // no need to seek if the loading block is the next block
+            if (nextBlockIndex != blockIndex) {
+                valuesData.seek(indexReader.get(blockIndex));
+            }
+            currentBlockIndex = blockIndex;
+            nextBlockIndex = blockIndex + 1;
+            if (bitsPerOrd >= 0) {
+                decoder.decodeOrdinals(valuesData, currentBlock, bitsPerOrd);
+            } else {
+                decoder.decode(valuesData, currentBlock);
+            }
+        }
+    }
+
+    /**
+     * Numeric doc values of a field that has a value for every document.
+     */
+    private static final class DenseNumericDocValues extends NumericDocValues implements BlockLoader.BulkNumericReader {
+
+        private final int maxDoc;
+        private final NumericBlockReader values;
+        private int doc = -1;
+
+        DenseNumericDocValues(int maxDoc, NumericBlockReader values) {
+            this.maxDoc = maxDoc;
+            this.values = values;
+        }
+
+        @Override
+        public int docID() {
+            return doc;
+        }
+
+        @Override
+        public int nextDoc() throws IOException {
+            return advance(doc + 1);
+        }
+
+        @Override
+        public int advance(int target) throws IOException {
+            if (target >= maxDoc) {
+                return doc = NO_MORE_DOCS;
+            }
+            return doc = target;
+        }
+
+        @Override
+        public boolean advanceExact(int target) {
+            doc = target;
+            return true;
+        }
+
+        @Override
+        public long cost() {
+            return maxDoc;
+        }
+
+        @Override
+        public long longValue() throws IOException {
+            return values.advance(doc);
+        }
+
+        @Override
+        public boolean tryRead(BlockLoader.Docs docs, long[] values) throws IOException {
+            if (this.values.readDense(docs, values) == false) {
+                return false;
+            }
+            if (docs.count() > 0) {
+                doc = docs.get(docs.count() - 1);
+            }
+            return true;
+        }
     }
 
     private SortedNumericDocValues getSortedNumeric(SortedNumericEntry entry, long maxOrd) throws IOException {
@@ -11,6 +11,7 @@ package org.elasticsearch.index.codec.tsdb;
 
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.MathUtil;
 import org.apache.lucene.util.packed.PackedInts;
 
@@ -331,6 +332,62 @@ public class TSDBDocValuesEncoder {
         }
     }
 
+    /**
+     * Decode the value at {@code index} of a block that has been encoded with {@link #encode}. Values of bit-packed, offset and
+     * GCD encoded blocks are extracted directly from their packed representation. Delta-encoded blocks need a prefix sum over
+     * all values up to {@code index}, so they are fully decoded into {@code scratch}. {@code in} must be positioned at the start
+     * of the block and its position is undefined on return.
+     */
+    long decodeSingle(IndexInput in, int index, long[] scratch) throws IOException {
+        final long blockStart = in.getFilePointer();
+        final int token = in.readVInt();
+        if ((token & 0x04) != 0) {
+            in.seek(blockStart);
+            decode(in, scratch);
+            return scratch[index];
+        }
+
+        final int bitsPerValue = token >>> 3;
+        long value = bitsPerValue == 0 ? 0L : forUtil.decodeSingle(bitsPerValue, in, index);
+        if ((token & 0x01) != 0) {
+            value *= 2 + in.readVLong();
+        }
+        if ((token & 0x02) != 0) {
+            value += in.readZLong();
+        }
+        return value;
+    }
+
+    /**
+     * Decode the ordinal at {@code index} of a block that has been encoded with {@link #encodeOrdinals}, without decoding
+     * the other ordinals of the block. {@code in} must be positioned at the start of the block and its position is undefined
+     * on return.
+     */
+    long decodeOrdinalSingle(IndexInput in, int index, int bitsPerOrd) throws IOException {
+        long v1 = in.readVLong();
+        int encoding = Long.numberOfTrailingZeros(~v1);
+        v1 >>>= encoding + 1;
+        if (encoding == 0) {
+            // single run
+            return v1;
+        } else if (encoding == 1) {
+            // two runs
+            int runLen = in.readVInt();
+            return index < runLen ? v1 : v1 + in.readZLong();
+        } else if (encoding == 2) {
+            // bit-packed
+            return forUtil.decodeSingle(bitsPerOrd, in, index);
+        } else {
+            assert encoding == 3 : encoding;
+            // cycle encoding
+            int cycleIndex = index % (int) v1;
+            for (int i = 0; i < cycleIndex; i++) {
+                in.readVLong();
+            }
+            return in.readVLong();
+        }
+    }
+
     // this loop should auto-vectorize
     private void mul(long[] arr, long m) {
         for (int i = 0; i < numericBlockSize; ++i) {
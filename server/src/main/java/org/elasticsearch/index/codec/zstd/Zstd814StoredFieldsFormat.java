@@ -9,13 +9,16 @@
 
 package org.elasticsearch.index.codec.zstd;
 
+import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.StoredFieldsWriter;
 import org.apache.lucene.codecs.compressing.CompressionMode;
 import org.apache.lucene.codecs.compressing.Compressor;
 import org.apache.lucene.codecs.compressing.Decompressor;
 import org.apache.lucene.codecs.lucene90.compressing.Lucene90CompressingStoredFieldsFormat;
 import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.store.ByteBuffersDataInput;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
@@ -23,6 +26,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.nativeaccess.CloseableByteBuffer;
 import org.elasticsearch.nativeaccess.NativeAccess;
 import org.elasticsearch.nativeaccess.Zstd;
@@ -32,10 +36,13 @@ import java.io.IOException;
 /**
  * {@link org.apache.lucene.codecs.StoredFieldsFormat} that compresses blocks of data using ZStandard.
  *
- * Unlike Lucene's default stored fields format, this format does not make use of dictionaries (even though ZStandard has great support for
- * dictionaries!). This is mostly due to the fact that LZ4/DEFLATE have short sliding windows that they can use to find duplicate strings
- * (64kB and 32kB respectively). In contrast, ZSTD doesn't have such a limitation and can better take advantage of large compression
- * buffers.
+ * Unlike Lucene's default stored fields format, the {@link Mode#BEST_SPEED} and {@link Mode#BEST_COMPRESSION} modes do not make use of
+ * dictionaries (even though ZStandard has great support for dictionaries!). This is mostly due to the fact that LZ4/DEFLATE have short
+ * sliding windows that they can use to find duplicate strings (64kB and 32kB respectively). In contrast, ZSTD doesn't have such a
+ * limitation and can better take advantage of large compression buffers.
+ *
+ * The {@link Mode#BEST_COMPRESSION_DICTIONARY} mode trains a dictionary per segment instead, see {@link ZstdDictionaryCompressionMode}.
+ * This gives good compression ratios on small, repetitive documents with small blocks, which keeps retrieving a single document cheap.
  */
 public final class Zstd814StoredFieldsFormat extends Lucene90CompressingStoredFieldsFormat {
 
@@ -48,16 +55,19 @@ public final class Zstd814StoredFieldsFormat extends Lucene90CompressingStoredFi
     public static final String MODE_KEY = Zstd814StoredFieldsFormat.class.getSimpleName() + ".mode";
 
     public enum Mode {
-        BEST_SPEED(0, BEST_SPEED_BLOCK_SIZE, 128),
-        BEST_COMPRESSION(3, BEST_COMPRESSION_BLOCK_SIZE, 2048);
+        BEST_SPEED(0, BEST_SPEED_BLOCK_SIZE, 128, false),
+        BEST_COMPRESSION(3, BEST_COMPRESSION_BLOCK_SIZE, 2048, false),
+        BEST_COMPRESSION_DICTIONARY(3, BEST_SPEED_BLOCK_SIZE, 128, true);
 
         final int level, blockSizeInBytes, blockDocCount;
+        final boolean dictionary;
         final Zstd814StoredFieldsFormat format;
 
-        Mode(int level, int blockSizeInBytes, int blockDocCount) {
+        Mode(int level, int blockSizeInBytes, int blockDocCount, boolean dictionary) {
             this.level = level;
             this.blockSizeInBytes = blockSizeInBytes;
             this.blockDocCount = blockDocCount;
+            this.dictionary = dictionary;
             this.format = new Zstd814StoredFieldsFormat(this);
         }
 
@@ -68,27 +78,114 @@ public final class Zstd814StoredFieldsFormat extends Lucene90CompressingStoredFi
 
     private final Mode mode;
 
+    private static final String FORMAT_NAME = "ZstdStoredFields814";
+    private static final int BLOCK_SHIFT = 10;
+
     private Zstd814StoredFieldsFormat(Mode mode) {
-        super("ZstdStoredFields814", new ZstdCompressionMode(mode.level), mode.blockSizeInBytes, mode.blockDocCount, 10);
+        super(FORMAT_NAME, new ZstdCompressionMode(mode.level), mode.blockSizeInBytes, mode.blockDocCount, BLOCK_SHIFT);
         this.mode = mode;
     }
 
+    @Override
+    public StoredFieldsReader fieldsReader(Directory directory, SegmentInfo si, FieldInfos fn, IOContext context) throws IOException {
+        // The BEST_SPEED and BEST_COMPRESSION modes are compatible, only segments that have a dictionary need to be read differently.
+        if (Mode.BEST_COMPRESSION_DICTIONARY.name().equals(si.getAttribute(MODE_KEY))) {
+            ZstdDictionaryCompressionMode compressionMode = ZstdDictionaryCompressionMode.forReading(directory, si);
+            boolean success = false;
+            try {
+                StoredFieldsReader reader = segmentFormat(compressionMode).fieldsReader(directory, si, fn, context);
+                success = true;
+                return new DictionaryStoredFieldsReader(reader, compressionMode);
+            } finally {
+                if (success == false) {
+                    IOUtils.closeWhileHandlingException(compressionMode);
+                }
+            }
+        }
+        return super.fieldsReader(directory, si, fn, context);
+    }
+
     @Override
     public StoredFieldsWriter fieldsWriter(Directory directory, SegmentInfo si, IOContext context) throws IOException {
-        // Both modes are compatible, we only put an attribute for debug purposes.
         String previous = si.putAttribute(MODE_KEY, mode.name());
         if (previous != null && previous.equals(mode.name()) == false) {
             throw new IllegalStateException(
                 "found existing value for " + MODE_KEY + " for segment: " + si.name + "old=" + previous + ", new=" + mode.name()
             );
         }
+        if (mode.dictionary) {
+            // Every segment gets its own compression mode, which also prevents merges from bulk-copying blocks that were compressed
+            // against the dictionary of another segment.
+            ZstdDictionaryCompressionMode compressionMode = ZstdDictionaryCompressionMode.forWriting(mode.level, directory, si, context);
+            return segmentFormat(compressionMode).fieldsWriter(directory, si, context);
+        }
         return super.fieldsWriter(directory, si, context);
     }
 
+    private Lucene90CompressingStoredFieldsFormat segmentFormat(CompressionMode compressionMode) {
+        return new Lucene90CompressingStoredFieldsFormat(
+            FORMAT_NAME,
+            compressionMode,
+            mode.blockSizeInBytes,
+            mode.blockDocCount,
+            BLOCK_SHIFT
+        );
+    }
+
     public Mode getMode() {
         return mode;
     }
 
+    /**
+     * Releases the dictionary of the segment when the stored fields reader is closed. Clones and merge instances share the dictionary of
+     * the reader they were created from, and are never closed.
+     */
+    private static final class DictionaryStoredFieldsReader extends StoredFieldsReader {
+
+        private final StoredFieldsReader in;
+        private final ZstdDictionaryCompressionMode compressionMode;
+
+        DictionaryStoredFieldsReader(StoredFieldsReader in, ZstdDictionaryCompressionMode compressionMode) {
+            this.in = in;
+            this.compressionMode = compressionMode;
+        }
+
+        @Override
+        public void document(int docID, StoredFieldVisitor visitor) throws IOException {
+            in.document(docID, visitor);
+        }
+
+        @Override
+        public void prefetch(int docID) throws IOException {
+            in.prefetch(docID);
+        }
+
+        @Override
+        public StoredFieldsReader clone() {
+            return in.clone();
+        }
+
+        @Override
+        public StoredFieldsReader getMergeInstance() {
+            return in.getMergeInstance();
+        }
+
+        @Override
+        public void checkIntegrity() throws IOException {
+            in.checkIntegrity();
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(in, compressionMode);
+        }
+
+        @Override
+        public String toString() {
+            return in.toString();
+        }
+    }
+
     private static class ZstdCompressionMode extends CompressionMode {
         private final int level;
 
@@ -0,0 +1,364 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.codec.zstd;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.store.ByteBuffersDataInput;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+import org.elasticsearch.nativeaccess.NativeAccess;
+import org.elasticsearch.nativeaccess.Zstd;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A {@link CompressionMode} that compresses blocks of stored fields with ZStandard against a dictionary that is shared by all blocks of a
+ * segment. The dictionary is trained from the first {@link #SAMPLE_BUFFER_SIZE} bytes of documents that are written to the segment, which
+ * for merged segments means that every merge trains a fresh dictionary. Blocks that are written before enough samples have been collected
+ * are compressed without the dictionary. The dictionary is stored in its own segment file, which is loaded once when the segment is opened.
+ * Writers and readers digest the dictionary once and reuse it for all blocks of the segment, so modes that were opened for reading need to
+ * be closed together with the stored fields reader in order to release the native memory of the digested dictionary.
+ * <p>
+ * Small repetitive documents like log lines share most of their field names and many of their values, so compressing them against a
+ * dictionary gives good compression ratios even with small blocks, which in turn keeps the amount of data that needs to be decompressed to
+ * retrieve a single document low.
+ */
+final class ZstdDictionaryCompressionMode extends CompressionMode implements Closeable {
+
+    static final String DICTIONARY_EXTENSION = "zsd";
+    static final String DICTIONARY_CODEC = "ZstdStoredFieldsDictionary";
+    static final int VERSION_START = 0;
+    static final int VERSION_CURRENT = VERSION_START;
+
+    // Blocks are flagged so that blocks that were compressed before the dictionary was trained can still be decompressed.
+    private static final byte NO_DICTIONARY = 0;
+    private static final byte WITH_DICTIONARY = 1;
+
+    // ZSTD recommends to train dictionaries on roughly 100x more data than the size of the dictionary. We use a smaller ratio in order to
+    // keep the heap usage of writers and the delay until the dictionary kicks in low.
+    static final int MAX_DICTIONARY_SIZE = 8 * 1024;
+    static final int SAMPLE_BUFFER_SIZE = 256 * 1024;
+    // Compressed blocks don't carry document boundaries, so samples are cut at a fixed size that is typical of a log document.
+    static final int SAMPLE_SIZE = 1024;
+
+    private final int level;
+    private final boolean readable;
+    // null if the segment is too small to have a dictionary
+    private final Zstd.DecompressionDictionary dictionary;
+    private final Directory directory;
+    private final SegmentInfo segmentInfo;
+    private final IOContext context;
+
+    private ZstdDictionaryCompressionMode(
+        int level,
+        boolean readable,
+        Zstd.DecompressionDictionary dictionary,
+        Directory directory,
+        SegmentInfo segmentInfo,
+        IOContext context
+    ) {
+        this.level = level;
+        this.readable = readable;
+        this.dictionary = dictionary;
+        this.directory = directory;
+        this.segmentInfo = segmentInfo;
+        this.context = context;
+    }
+
+    /**
+     * Create a compression mode for writing the given segment. The dictionary is trained while the segment is being written.
+     */
+    static ZstdDictionaryCompressionMode forWriting(int level, Directory directory, SegmentInfo segmentInfo, IOContext context) {
+        return new ZstdDictionaryCompressionMode(level, false, null, directory, segmentInfo, context);
+    }
+
+    /**
+     * Create a compression mode for reading the given segment, loading its dictionary from the segment files.
+     */
+    static ZstdDictionaryCompressionMode forReading(Directory directory, SegmentInfo segmentInfo) throws IOException {
+        final String fileName = dictionaryFileName(segmentInfo);
+        try (ChecksumIndexInput in = directory.openChecksumInput(fileName)) {
+            byte[] dictionary = null;
+            Exception priorException = null;
+            try {
+                CodecUtil.checkIndexHeader(in, DICTIONARY_CODEC, VERSION_START, VERSION_CURRENT, segmentInfo.getId(), "");
+                final int length = in.readVInt();
+                if (length < 0 || length > MAX_DICTIONARY_SIZE) {
+                    throw new CorruptIndexException("Invalid dictionary length: " + length, in);
+                }
+                dictionary = new byte[length];
+                in.readBytes(dictionary, 0, length);
+            } catch (IOException | RuntimeException exception) {
+                priorException = exception;
+            } finally {
+                CodecUtil.checkFooter(in, priorException);
+            }
+            return new ZstdDictionaryCompressionMode(-1, true, newDecompressionDictionary(dictionary), null, segmentInfo, null);
+        }
+    }
+
+    private static Zstd.DecompressionDictionary newDecompressionDictionary(byte[] dictionary) {
+        if (dictionary.length == 0) {
+            return null;
+        }
+        final NativeAccess nativeAccess = NativeAccess.instance();
+        try (CloseableByteBuffer dict = nativeAccess.newBuffer(dictionary.length)) {
+            dict.buffer().put(0, dictionary);
+            return nativeAccess.getZstd().newDecompressionDictionary(dict);
+        }
+    }
+
+    static String dictionaryFileName(SegmentInfo segmentInfo) {
+        return IndexFileNames.segmentFileName(segmentInfo.name, "", DICTIONARY_EXTENSION);
+    }
+
+    @Override
+    public Compressor newCompressor() {
+        if (directory == null) {
+            throw new IllegalStateException("Cannot compress with a compression mode that was opened for reading");
+        }
+        return new DictionaryCompressor(level, directory, segmentInfo, context);
+    }
+
+    @Override
+    public Decompressor newDecompressor() {
+        if (readable == false) {
+            throw new IllegalStateException("Cannot decompress with a compression mode that was opened for writing");
+        }
+        return new DictionaryDecompressor(dictionary);
+    }
+
+    /**
+     * Release the digested dictionary of a compression mode that was opened for reading. Decompressors must not be used anymore after the
+     * compression mode was closed.
+     */
+    @Override
+    public void close() {
+        if (dictionary != null) {
+            dictionary.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ZSTD_DICTIONARY(level=" + level + ")";
+    }
+
+    private static final class DictionaryDecompressor extends Decompressor {
+
+        // Buffer for copying between the DataInput and native memory. No hard science behind this number, it just tries to be high enough
+        // to benefit from bulk copying and low enough to keep heap usage under control.
+        final byte[] copyBuffer = new byte[4096];
+        final Zstd.DecompressionDictionary dictionary;
+
+        DictionaryDecompressor(Zstd.DecompressionDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException {
+            if (originalLength == 0) {
+                bytes.offset = 0;
+                bytes.length = 0;
+                return;
+            }
+
+            final NativeAccess nativeAccess = NativeAccess.instance();
+            final Zstd zstd = nativeAccess.getZstd();
+
+            final byte flag = in.readByte();
+            if (flag != NO_DICTIONARY && flag != WITH_DICTIONARY) {
+                throw new CorruptIndexException("Unexpected block flag: " + flag, in);
+            }
+            final int compressedLength = in.readVInt();
+
+            try (
+                CloseableByteBuffer src = nativeAccess.newBuffer(compressedLength);
+                CloseableByteBuffer dest = nativeAccess.newBuffer(originalLength)
+            ) {
+
+                while (src.buffer().position() < compressedLength) {
+                    final int numBytes = Math.min(copyBuffer.length, compressedLength - src.buffer().position());
+                    in.readBytes(copyBuffer, 0, numBytes);
+                    src.buffer().put(copyBuffer, 0, numBytes);
+                }
+                src.buffer().flip();
+
+                final int decompressedLen;
+                if (flag == WITH_DICTIONARY) {
+                    if (dictionary == null) {
+                        throw new CorruptIndexException("Block was compressed with a dictionary but the segment has none", in);
+                    }
+                    decompressedLen = zstd.decompress(dest, src, dictionary);
+                } else {
+                    decompressedLen = zstd.decompress(dest, src);
+                }
+                if (decompressedLen != originalLength) {
+                    throw new CorruptIndexException("Expected " + originalLength + " decompressed bytes, got " + decompressedLen, in);
+                }
+
+                bytes.bytes = ArrayUtil.growNoCopy(bytes.bytes, length);
+                dest.buffer().get(offset, bytes.bytes, 0, length);
+                bytes.offset = 0;
+                bytes.length = length;
+            }
+        }
+
+        @Override
+        public Decompressor clone() {
+            return new DictionaryDecompressor(dictionary);
+        }
+    }
+
+    private static final class DictionaryCompressor extends Compressor {
+
+        final int level;
+        final Directory directory;
+        final SegmentInfo segmentInfo;
+        final IOContext context;
+        // Buffer for copying between the DataInput and native memory. No hard science behind this number, it just tries to be high enough
+        // to benefit from bulk copying and low enough to keep heap usage under control.
+        final byte[] copyBuffer = new byte[4096];
+
+        byte[] samples = new byte[SAMPLE_BUFFER_SIZE];
+        int samplesLength;
+        byte[] dictionary;
+        // digested once the dictionary is trained, null if the trained dictionary is empty
+        Zstd.CompressionDictionary compressionDictionary;
+        boolean closed;
+
+        DictionaryCompressor(int level, Directory directory, SegmentInfo segmentInfo, IOContext context) {
+            this.level = level;
+            this.directory = directory;
+            this.segmentInfo = segmentInfo;
+            this.context = context;
+        }
+
+        @Override
+        public void compress(ByteBuffersDataInput buffersInput, DataOutput out) throws IOException {
+            final NativeAccess nativeAccess = NativeAccess.instance();
+            final Zstd zstd = nativeAccess.getZstd();
+
+            final int srcLen = Math.toIntExact(buffersInput.length());
+            if (srcLen == 0) {
+                return;
+            }
+
+            final int compressBound = zstd.compressBound(srcLen);
+
+            try (
+                CloseableByteBuffer src = nativeAccess.newBuffer(srcLen);
+                CloseableByteBuffer dest = nativeAccess.newBuffer(compressBound)
+            ) {
+
+                while (buffersInput.position() < buffersInput.length()) {
+                    final int numBytes = Math.min(copyBuffer.length, (int) (buffersInput.length() - buffersInput.position()));
+                    buffersInput.readBytes(copyBuffer, 0, numBytes);
+                    src.buffer().put(copyBuffer, 0, numBytes);
+                }
+                src.buffer().flip();
+
+                if (dictionary == null) {
+                    final int numBytes = Math.min(srcLen, SAMPLE_BUFFER_SIZE - samplesLength);
+                    src.buffer().get(0, samples, samplesLength, numBytes);
+                    samplesLength += numBytes;
+                    if (samplesLength == SAMPLE_BUFFER_SIZE) {
+                        dictionary = trainDictionary(nativeAccess, zstd, samples, samplesLength);
+                        samples = null;
+                        if (dictionary.length > 0) {
+                            try (CloseableByteBuffer dict = nativeAccess.newBuffer(dictionary.length)) {
+                                dict.buffer().put(0, dictionary);
+                                compressionDictionary = zstd.newCompressionDictionary(dict, level);
+                            }
+                        }
+                    }
+                }
+
+                final int compressedLen;
+                if (compressionDictionary != null) {
+                    out.writeByte(WITH_DICTIONARY);
+                    compressedLen = zstd.compress(dest, src, compressionDictionary);
+                } else {
+                    out.writeByte(NO_DICTIONARY);
+                    compressedLen = zstd.compress(dest, src, level);
+                }
+                out.writeVInt(compressedLen);
+
+                for (int written = 0; written < compressedLen;) {
+                    final int numBytes = Math.min(copyBuffer.length, compressedLen - written);
+                    dest.buffer().get(copyBuffer, 0, numBytes);
+                    out.writeBytes(copyBuffer, 0, numBytes);
+                    written += numBytes;
+                    assert written == dest.buffer().position();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Segments that are too small to train a dictionary still get an empty dictionary file, so that readers don't need to
+            // distinguish between the two cases.
+            final byte[] dict = dictionary == null ? new byte[0] : dictionary;
+            samples = null;
+            try (
+                Closeable ignored = compressionDictionary;
+                IndexOutput out = directory.createOutput(dictionaryFileName(segmentInfo), context)
+            ) {
+                CodecUtil.writeIndexHeader(out, DICTIONARY_CODEC, VERSION_CURRENT, segmentInfo.getId(), "");
+                out.writeVInt(dict.length);
+                out.writeBytes(dict, 0, dict.length);
+                CodecUtil.writeFooter(out);
+            }
+        }
+    }
+
+    static byte[] trainDictionary(NativeAccess nativeAccess, Zstd zstd, byte[] samples, int samplesLength) {
+        final int[] sampleSizes = new int[(samplesLength + SAMPLE_SIZE - 1) / SAMPLE_SIZE];
+        for (int i = 0; i < sampleSizes.length; i++) {
+            sampleSizes[i] = Math.min(SAMPLE_SIZE, samplesLength - i * SAMPLE_SIZE);
+        }
+        try (
+            CloseableByteBuffer samplesBuffer = nativeAccess.newBuffer(samplesLength);
+            CloseableByteBuffer dict = nativeAccess.newBuffer(MAX_DICTIONARY_SIZE)
+        ) {
+            samplesBuffer.buffer().put(0, samples, 0, samplesLength);
+            final int dictLength;
+            try {
+                dictLength = zstd.trainDictionary(dict, samplesBuffer, sampleSizes);
+            } catch (IllegalArgumentException e) {
+                // Training fails when the samples are not diverse enough, in which case the most recent content makes a good raw content
+                // dictionary.
+                return Arrays.copyOfRange(samples, samplesLength - Math.min(samplesLength, MAX_DICTIONARY_SIZE), samplesLength);
+            }
+            final byte[] dictionary = new byte[dictLength];
+            dict.buffer().get(0, dictionary);
+            return dictionary;
+        }
+    }
+}
@@ -109,6 +109,13 @@ public final class EngineConfig {
             case CodecService.LEGACY_BEST_COMPRESSION_CODEC:
             case CodecService.LUCENE_DEFAULT_CODEC:
                 return s;
+            case CodecService.BEST_COMPRESSION_DICTIONARY_CODEC:
+                if (CodecService.ZSTD_STORED_FIELDS_DICTIONARY_FEATURE_FLAG.isEnabled()) {
+                    return s;
+                }
+                throw new IllegalArgumentException(
+                    "unknown value for [index.codec] must be one of [default, best_compression] but was: " + s
+                );
             default:
                 if (Codec.availableCodecs().contains(s) == false) { // we don't error message the not officially supported ones
                     throw new IllegalArgumentException(
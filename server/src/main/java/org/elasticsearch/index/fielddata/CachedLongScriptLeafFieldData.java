@@ -0,0 +1,153 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.fielddata;
+
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.packed.PackedInts;
+import org.apache.lucene.util.packed.PackedLongValues;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.index.fielddata.plain.LeafLongFieldData;
+import org.elasticsearch.script.AbstractLongFieldScript;
+import org.elasticsearch.script.field.DocValuesScriptFieldFactory;
+import org.elasticsearch.script.field.ToScriptFieldFactory;
+
+import java.util.Arrays;
+
+/**
+ * The values that a long or date runtime field emits for every document of a segment, computed once so that they can be kept in the
+ * {@link IndexFieldDataCache} rather than running the script again for every search that reads the field. The values are stored like
+ * doc values: the sorted values of all documents one after the other, and the offset of the first value of each document.
+ */
+final class CachedLongScriptLeafFieldData extends LeafLongFieldData {
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(CachedLongScriptLeafFieldData.class);
+
+    /**
+     * Cached in place of the values of a segment when the script failed on one of its documents, so that later searches don't try to
+     * compute them again. It holds no values, and {@link LongScriptFieldData} and {@link DateScriptFieldData} never return it to a search.
+     */
+    static final Failed FAILED = new Failed();
+
+    static final class Failed implements LeafNumericFieldData {
+
+        private Failed() {}
+
+        @Override
+        public SortedNumericDocValues getLongValues() {
+            throw failure();
+        }
+
+        @Override
+        public SortedNumericDoubleValues getDoubleValues() {
+            throw failure();
+        }
+
+        @Override
+        public SortedBinaryDocValues getBytesValues() {
+            throw failure();
+        }
+
+        @Override
+        public DocValuesScriptFieldFactory getScriptFieldFactory(String name) {
+            throw failure();
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return 0;
+        }
+
+        private static IllegalStateException failure() {
+            return new IllegalStateException("the values of the segment could not be computed");
+        }
+    }
+
+    private final PackedLongValues docStarts;
+    private final PackedLongValues values;
+    private final ToScriptFieldFactory<SortedNumericDocValues> toScriptFieldFactory;
+
+    private CachedLongScriptLeafFieldData(
+        PackedLongValues docStarts,
+        PackedLongValues values,
+        ToScriptFieldFactory<SortedNumericDocValues> toScriptFieldFactory
+    ) {
+        super(BASE_RAM_BYTES_USED + docStarts.ramBytesUsed() + values.ramBytesUsed());
+        this.docStarts = docStarts;
+        this.values = values;
+        this.toScriptFieldFactory = toScriptFieldFactory;
+    }
+
+    /**
+     * Runs the script for all documents of the segment. The memory for one value per document is reserved on the field data breaker
+     * before running the script and adjusted to the actual size afterwards. The cache releases it again when the values are evicted.
+     */
+    static CachedLongScriptLeafFieldData compute(
+        AbstractLongFieldScript fieldScript,
+        int maxDoc,
+        CircuitBreaker breaker,
+        String fieldName,
+        ToScriptFieldFactory<SortedNumericDocValues> toScriptFieldFactory
+    ) {
+        final long estimate = (long) maxDoc * Long.BYTES;
+        breaker.addEstimateBytesAndMaybeBreak(estimate, fieldName);
+        CachedLongScriptLeafFieldData data = null;
+        try {
+            PackedLongValues.Builder docStarts = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+            PackedLongValues.Builder values = PackedLongValues.deltaPackedBuilder(PackedInts.COMPACT);
+            docStarts.add(0);
+            for (int docId = 0; docId < maxDoc; docId++) {
+                fieldScript.runForDoc(docId);
+                long[] docValues = fieldScript.values();
+                int count = fieldScript.count();
+                Arrays.sort(docValues, 0, count);
+                for (int i = 0; i < count; i++) {
+                    values.add(docValues[i]);
+                }
+                docStarts.add(values.size());
+            }
+            data = new CachedLongScriptLeafFieldData(docStarts.build(), values.build(), toScriptFieldFactory);
+            return data;
+        } finally {
+            breaker.addWithoutBreaking((data == null ? 0 : data.ramBytesUsed()) - estimate);
+        }
+    }
+
+    @Override
+    public SortedNumericDocValues getLongValues() {
+        // the values are shared by all searches on the segment, so every consumer needs its own cursor
+        return new AbstractSortedNumericDocValues() {
+            private long cursor;
+            private int count;
+
+            @Override
+            public boolean advanceExact(int docId) {
+                cursor = docStarts.get(docId);
+                count = (int) (docStarts.get(docId + 1) - cursor);
+                return count > 0;
+            }
+
+            @Override
+            public long nextValue() {
+                return values.get(cursor++);
+            }
+
+            @Override
+            public int docValueCount() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public DocValuesScriptFieldFactory getScriptFieldFactory(String name) {
+        return toScriptFieldFactory.getScriptFieldFactory(getLongValues(), name);
+    }
+}
@@ -9,9 +9,13 @@
 
 package org.elasticsearch.index.fielddata;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SortedNumericDocValues;
-import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.fielddata.plain.LeafLongFieldData;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.script.DateFieldScript;
@@ -22,39 +26,70 @@ import org.elasticsearch.search.aggregations.support.ValuesSourceType;
 
 public final class DateScriptFieldData extends IndexNumericFieldData {
 
+    private static final Logger logger = LogManager.getLogger(DateScriptFieldData.class);
+
     public static class Builder implements IndexFieldData.Builder {
         private final String name;
         private final DateFieldScript.LeafFactory leafFactory;
         protected final ToScriptFieldFactory<SortedNumericDocValues> toScriptFieldFactory;
+        private final Object cacheVariant;
 
         public Builder(
             String name,
             DateFieldScript.LeafFactory leafFactory,
             ToScriptFieldFactory<SortedNumericDocValues> toScriptFieldFactory
+        ) {
+            this(name, leafFactory, toScriptFieldFactory, null);
+        }
+
+        /**
+         * @param cacheVariant the key to keep the values of the runtime field under in the field data cache, {@code null} if they may
+         *                     not be cached
+         */
+        public Builder(
+            String name,
+            DateFieldScript.LeafFactory leafFactory,
+            ToScriptFieldFactory<SortedNumericDocValues> toScriptFieldFactory,
+            @Nullable Object cacheVariant
         ) {
             this.name = name;
             this.leafFactory = leafFactory;
             this.toScriptFieldFactory = toScriptFieldFactory;
+            this.cacheVariant = cacheVariant;
+        }
+
+        @Override
+        public Object cacheVariant() {
+            return cacheVariant;
         }
 
         @Override
         public DateScriptFieldData build(IndexFieldDataCache cache, CircuitBreakerService breakerService) {
-            return new DateScriptFieldData(name, leafFactory, toScriptFieldFactory);
+            if (cacheVariant != null && cache != null && cache instanceof IndexFieldDataCache.None == false) {
+                return new DateScriptFieldData(name, leafFactory, toScriptFieldFactory, cache, breakerService);
+            }
+            return new DateScriptFieldData(name, leafFactory, toScriptFieldFactory, null, null);
         }
     }
 
     private final String fieldName;
     private final DateFieldScript.LeafFactory leafFactory;
     protected final ToScriptFieldFactory<SortedNumericDocValues> toScriptFieldFactory;
+    private final IndexFieldDataCache cache;
+    private final CircuitBreakerService breakerService;
 
     private DateScriptFieldData(
         String fieldName,
         DateFieldScript.LeafFactory leafFactory,
-        ToScriptFieldFactory<SortedNumericDocValues> toScriptFieldFactory
+        ToScriptFieldFactory<SortedNumericDocValues> toScriptFieldFactory,
+        @Nullable IndexFieldDataCache cache,
+        @Nullable CircuitBreakerService breakerService
     ) {
         this.fieldName = fieldName;
         this.leafFactory = leafFactory;
         this.toScriptFieldFactory = toScriptFieldFactory;
+        this.cache = cache;
+        this.breakerService = breakerService;
     }
 
     @Override
@@ -68,16 +103,47 @@ public final class DateScriptFieldData extends IndexNumericFieldData {
     }
 
     @Override
-    public DateScriptLeafFieldData load(LeafReaderContext context) {
-        try {
-            return loadDirect(context);
-        } catch (Exception e) {
-            throw ExceptionsHelper.convertToElastic(e);
+    public LeafLongFieldData load(LeafReaderContext context) {
+        if (cache != null) {
+            // the cache is keyed by the field type, see Builder#cacheVariant, so cached values were computed by this field's script
+            // against the same mapping
+            try {
+                if (cache.load(context, this) instanceof CachedLongScriptLeafFieldData cached) {
+                    return cached;
+                }
+            } catch (Exception e) {
+                logger.debug(() -> "failed to load the cached values of runtime field [" + fieldName + "]", e);
+            }
         }
+        return loadLazily(context);
     }
 
     @Override
-    public DateScriptLeafFieldData loadDirect(LeafReaderContext context) {
+    public LeafNumericFieldData loadDirect(LeafReaderContext context) {
+        if (cache != null) {
+            try {
+                return CachedLongScriptLeafFieldData.compute(
+                    leafFactory.newInstance(context),
+                    context.reader().maxDoc(),
+                    breakerService.getBreaker(CircuitBreaker.FIELDDATA),
+                    fieldName,
+                    toScriptFieldFactory
+                );
+            } catch (CircuitBreakingException e) {
+                // not cached, so that a later search computes the values once there is enough memory
+                throw e;
+            } catch (Exception e) {
+                // the script is deterministic, so it would fail on the same document of the segment again: the failure is cached in
+                // place of the values so that searches on the segment read the values per document like for uncached fields, and only
+                // searches that read the failing document fail
+                logger.debug(() -> "failed to cache the values of runtime field [" + fieldName + "]", e);
+                return CachedLongScriptLeafFieldData.FAILED;
+            }
+        }
+        return loadLazily(context);
+    }
+
+    private DateScriptLeafFieldData loadLazily(LeafReaderContext context) {
         return new DateScriptLeafFieldData(new LongScriptDocValues(leafFactory.newInstance(context)), toScriptFieldFactory);
     }
 
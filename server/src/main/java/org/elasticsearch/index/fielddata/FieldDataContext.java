@@ -24,15 +24,28 @@ import java.util.function.Supplier;
  * @param lookupSupplier a supplier for a SearchLookup to be used by runtime scripts
  * @param sourcePathsLookup a function to get source paths for a specific field
  * @param fielddataOperation the operation used to determine data structures to generate fielddata from
+ * @param hasRuntimeMappings whether the search defines runtime fields of its own, which runtime scripts may read instead of the fields
+ *                           of the mappings
  */
 public record FieldDataContext(
     String fullyQualifiedIndexName,
     IndexSettings indexSettings,
     Supplier<SearchLookup> lookupSupplier,
     Function<String, Set<String>> sourcePathsLookup,
-    MappedFieldType.FielddataOperation fielddataOperation
+    MappedFieldType.FielddataOperation fielddataOperation,
+    boolean hasRuntimeMappings
 ) {
 
+    public FieldDataContext(
+        String fullyQualifiedIndexName,
+        IndexSettings indexSettings,
+        Supplier<SearchLookup> lookupSupplier,
+        Function<String, Set<String>> sourcePathsLookup,
+        MappedFieldType.FielddataOperation fielddataOperation
+    ) {
+        this(fullyQualifiedIndexName, indexSettings, lookupSupplier, sourcePathsLookup, fielddataOperation, false);
+    }
+
     /**
      * A context to use when runtime fields are not available
      *
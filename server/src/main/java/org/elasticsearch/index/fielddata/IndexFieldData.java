@@ -244,6 +244,14 @@ public interface IndexFieldData<FD extends LeafFieldData> {
     interface Builder {
 
         IndexFieldData<?> build(IndexFieldDataCache cache, CircuitBreakerService breakerService);
+
+        /**
+         * Field data of the same field that is built with different cache variants doesn't share cached values. Runtime fields use
+         * their field type, so that values that were computed against another mapping are never read.
+         */
+        default Object cacheVariant() {
+            return null;
+        }
     }
 
     interface Global<FD extends LeafFieldData> extends IndexFieldData<FD> {
@@ -23,6 +23,7 @@ import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -43,7 +44,7 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
 
     private final IndicesFieldDataCache indicesFieldDataCache;
     // the below map needs to be modified under a lock
-    private final Map<String, IndexFieldDataCache> fieldDataCaches = new HashMap<>();
+    private final Map<CacheKey, IndexFieldDataCache> fieldDataCaches = new HashMap<>();
     private static final IndexFieldDataCache.Listener DEFAULT_NOOP_LISTENER = new IndexFieldDataCache.Listener() {
     };
     private volatile IndexFieldDataCache.Listener listener = DEFAULT_NOOP_LISTENER;
@@ -74,12 +75,35 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
 
     public synchronized void clearField(final String fieldName) {
         List<Exception> exceptions = new ArrayList<>(0);
-        final IndexFieldDataCache cache = fieldDataCaches.remove(fieldName);
-        if (cache != null) {
-            try {
-                cache.clear(fieldName);
-            } catch (Exception e) {
-                exceptions.add(e);
+        for (Iterator<Map.Entry<CacheKey, IndexFieldDataCache>> it = fieldDataCaches.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<CacheKey, IndexFieldDataCache> entry = it.next();
+            if (entry.getKey().fieldName().equals(fieldName)) {
+                it.remove();
+                try {
+                    entry.getValue().clear(fieldName);
+                } catch (Exception e) {
+                    exceptions.add(e);
+                }
+            }
+        }
+        ExceptionsHelper.maybeThrowRuntimeAndSuppress(exceptions);
+    }
+
+    /**
+     * Clears the caches of the field data that was built with a {@link IndexFieldData.Builder#cacheVariant() cache variant}. Runtime
+     * fields use their field type as the variant, so after a mapping update no search reads these caches anymore.
+     */
+    public synchronized void clearCacheVariants() {
+        List<Exception> exceptions = new ArrayList<>(0);
+        for (Iterator<Map.Entry<CacheKey, IndexFieldDataCache>> it = fieldDataCaches.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<CacheKey, IndexFieldDataCache> entry = it.next();
+            if (entry.getKey().variant() != null) {
+                it.remove();
+                try {
+                    entry.getValue().clear(entry.getKey().fieldName());
+                } catch (Exception e) {
+                    exceptions.add(e);
+                }
             }
         }
         ExceptionsHelper.maybeThrowRuntimeAndSuppress(exceptions);
@@ -96,9 +120,10 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
     @SuppressWarnings("unchecked")
     public <IFD extends IndexFieldData<?>> IFD getFromBuilder(MappedFieldType fieldType, IndexFieldData.Builder builder) {
         final String fieldName = fieldType.name();
+        final CacheKey cacheKey = new CacheKey(fieldName, builder.cacheVariant());
         IndexFieldDataCache cache;
         synchronized (this) {
-            cache = fieldDataCaches.get(fieldName);
+            cache = fieldDataCaches.get(cacheKey);
             if (cache == null) {
                 String cacheType = indexSettings.getValue(INDEX_FIELDDATA_CACHE_KEY);
                 if (FIELDDATA_CACHE_VALUE_NODE.equals(cacheType)) {
@@ -108,7 +133,7 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
                 } else {
                     throw new IllegalArgumentException("cache type not supported [" + cacheType + "] for field [" + fieldName + "]");
                 }
-                fieldDataCaches.put(fieldName, cache);
+                fieldDataCaches.put(cacheKey, cache);
             }
         }
 
@@ -135,4 +160,6 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
     public void close() {
         clear();
     }
+
+    private record CacheKey(String fieldName, Object variant) {}
 }
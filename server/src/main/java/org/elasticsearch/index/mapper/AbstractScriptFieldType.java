@@ -17,14 +17,18 @@ import org.apache.lucene.search.MultiTermQuery;
 import org.apache.lucene.search.Query;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.common.geo.ShapeRelation;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.time.DateMathParser;
 import org.elasticsearch.common.unit.Fuzziness;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexVersion;
+import org.elasticsearch.index.fielddata.FieldDataContext;
 import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.script.CompositeFieldScript;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptContext;
+import org.elasticsearch.script.ScriptType;
 import org.elasticsearch.search.fetch.StoredFieldsSpec;
 import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.xcontent.XContentBuilder;
@@ -45,6 +49,19 @@ import static org.elasticsearch.search.SearchService.ALLOW_EXPENSIVE_QUERIES;
  */
 public abstract class AbstractScriptFieldType<LeafFactory> extends MappedFieldType {
 
+    /**
+     * Whether runtime fields keep the values that their scripts compute for a segment in the field data cache, so that aggregations,
+     * sorting and fetching only run the script once per segment rather than once per search. Only fields whose values are
+     * deterministic and that have an inline script of their own are cached, and searches that define runtime fields of their own neither
+     * read nor populate the cache.
+     */
+    public static final Setting<Boolean> CACHE_VALUES_SETTING = Setting.boolSetting(
+        "index.runtime_fields.cache_values",
+        false,
+        Setting.Property.IndexScope,
+        Setting.Property.Dynamic
+    );
+
     protected final Script script;
     private final Function<SearchLookup, LeafFactory> factory;
     private final boolean isResultDeterministic;
@@ -186,6 +203,30 @@ public abstract class AbstractScriptFieldType<LeafFactory> extends MappedFieldTy
         );
     }
 
+    /**
+     * Returns the key to keep the values of this field under in the field data cache if they may be cached, see
+     * {@link #CACHE_VALUES_SETTING}, or {@code null} if they may not. Values are never cached for searches that define runtime fields
+     * of their own, since the script may read fields that the search redefines.
+     * <p>
+     * The key is this field type rather than its script, since the script may read other runtime fields whose scripts change. Every
+     * mapping update creates new field types for all runtime fields, so values computed against an earlier mapping are never read, and
+     * {@link org.elasticsearch.index.IndexService#updateMapping} drops them.
+     */
+    @Nullable
+    protected final Object cacheVariant(FieldDataContext fieldDataContext) {
+        if (isResultDeterministic == false || script == DEFAULT_SCRIPT || script.getType() != ScriptType.INLINE) {
+            return null;
+        }
+        if (fieldDataContext.hasRuntimeMappings()) {
+            return null;
+        }
+        IndexSettings indexSettings = fieldDataContext.indexSettings();
+        if (indexSettings == null || indexSettings.getValue(CACHE_VALUES_SETTING) == false) {
+            return null;
+        }
+        return this;
+    }
+
     /**
      * Create a script leaf factory.
      */
@@ -121,6 +121,12 @@ public abstract class BlockDocValuesReader implements BlockLoader.AllReader {
 
         @Override
         public BlockLoader.Block read(BlockFactory factory, Docs docs) throws IOException {
+            if (numericDocValues instanceof BlockLoader.BulkNumericReader bulkReader) {
+                long[] values = new long[docs.count()];
+                if (bulkReader.tryRead(docs, values)) {
+                    return factory.denseLongs(values, values.length);
+                }
+            }
             try (BlockLoader.LongBuilder builder = factory.longsFromDocValues(docs.count())) {
                 int lastDoc = -1;
                 for (int i = 0; i < docs.count(); i++) {
@@ -405,6 +411,17 @@ public abstract class BlockDocValuesReader implements BlockLoader.AllReader {
 
         @Override
         public BlockLoader.Block read(BlockFactory factory, Docs docs) throws IOException {
+            if (docValues instanceof BlockLoader.BulkNumericReader bulkReader && docs.count() > 0) {
+                long[] values = new long[docs.count()];
+                if (bulkReader.tryRead(docs, values)) {
+                    double[] doubles = new double[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        doubles[i] = toDouble.convert(values[i]);
+                    }
+                    this.docID = docs.get(docs.count() - 1);
+                    return factory.denseDoubles(doubles, doubles.length);
+                }
+            }
             try (BlockLoader.DoubleBuilder builder = factory.doublesFromDocValues(docs.count())) {
                 int lastDoc = -1;
                 for (int i = 0; i < docs.count(); i++) {
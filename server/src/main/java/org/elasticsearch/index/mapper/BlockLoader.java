@@ -333,6 +333,21 @@ public interface BlockLoader {
         int get(int i);
     }
 
+    /**
+     * Implemented by numeric doc values that can read the values of many documents
+     * in one call, like dense doc values of the time series and logs index modes.
+     * This saves a virtual call per document and lets the doc values decode their
+     * storage blocks straight into the destination array.
+     */
+    interface BulkNumericReader {
+        /**
+         * Read the values of {@code docs} into {@code values} if all of them have
+         * exactly one value. Returns {@code false} if they can't be read in bulk,
+         * in which case they must be read one document at a time.
+         */
+        boolean tryRead(Docs docs, long[] values) throws IOException;
+    }
+
     /**
      * Builds block "builders" for loading data into blocks for the compute engine.
      * It's important for performance that this only have one implementation in
@@ -395,6 +410,18 @@ public interface BlockLoader {
          */
         LongBuilder longs(int expectedCount);
 
+        /**
+         * Build a block with exactly one value per position out of the first
+         * {@code count} {@code values}. The block takes ownership of the array.
+         */
+        Block denseLongs(long[] values, int count);
+
+        /**
+         * Build a block with exactly one value per position out of the first
+         * {@code count} {@code values}. The block takes ownership of the array.
+         */
+        Block denseDoubles(double[] values, int count);
+
         /**
          * Build a builder to load only {@code null}s.
          */
@@ -190,7 +190,8 @@ public class DateScriptFieldType extends AbstractScriptFieldType<DateFieldScript
         return new DateScriptFieldData.Builder(
             name(),
             leafFactory(fieldDataContext.lookupSupplier().get()),
-            Resolution.MILLISECONDS.getDefaultToScriptFieldFactory()
+            Resolution.MILLISECONDS.getDefaultToScriptFieldFactory(),
+            cacheVariant(fieldDataContext)
         );
     }
 
@@ -113,7 +113,12 @@ public final class LongScriptFieldType extends AbstractScriptFieldType<LongField
 
     @Override
     public LongScriptFieldData.Builder fielddataBuilder(FieldDataContext fieldDataContext) {
-        return new LongScriptFieldData.Builder(name(), leafFactory(fieldDataContext.lookupSupplier().get()), LongDocValuesField::new);
+        return new LongScriptFieldData.Builder(
+            name(),
+            leafFactory(fieldDataContext.lookupSupplier().get()),
+            LongDocValuesField::new,
+            cacheVariant(fieldDataContext)
+        );
     }
 
     @Override
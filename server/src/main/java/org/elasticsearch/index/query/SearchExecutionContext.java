@@ -343,7 +343,8 @@ public class SearchExecutionContext extends QueryRewriteContext {
                 getIndexSettings(),
                 () -> this.lookup().forkAndTrackFieldReferences(fieldType.name()),
                 this::sourcePath,
-                fielddataOperation
+                fielddataOperation,
+                runtimeMappings.isEmpty() == false
             )
         );
     }
@@ -523,7 +524,8 @@ public class SearchExecutionContext extends QueryRewriteContext {
                     getIndexSettings(),
                     searchLookup,
                     this::sourcePath,
-                    fielddataOperation
+                    fielddataOperation,
+                    runtimeMappings.isEmpty() == false
                 )
             ),
             sourceProvider,
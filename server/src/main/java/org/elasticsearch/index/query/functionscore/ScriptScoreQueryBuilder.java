@@ -176,7 +176,8 @@ public class ScriptScoreQueryBuilder extends AbstractQueryBuilder<ScriptScoreQue
             minScore,
             context.index().getName(),
             context.getShardId(),
-            context.indexVersionCreated()
+            context.indexVersionCreated(),
+            context.getIndexSettings().isScriptScoreBatchScoringEnabled()
         );
     }
 
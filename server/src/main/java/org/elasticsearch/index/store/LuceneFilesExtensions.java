@@ -83,7 +83,9 @@ public enum LuceneFilesExtensions {
     VEMQ("vemq", "Scalar Quantized Vector Metadata", true, false),
     VEQ("veq", "Scalar Quantized Vector Data", false, true),
     VEMB("vemb", "Binarized Vector Metadata", true, false),
-    VEB("veb", "Binarized Vector Data", false, true);
+    VEB("veb", "Binarized Vector Data", false, true),
+    // Dictionary of zstd-compressed stored fields, which is small and read fully when the segment is opened
+    ZSD("zsd", "Zstd Dictionary", true, false);
 
     /**
      * Allow plugin developers of custom codecs to opt out of the assertion in {@link #fromExtension}
@@ -15,6 +15,8 @@ import org.elasticsearch.core.Tuple;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.BiConsumer;
 import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
@@ -39,6 +41,7 @@ public class CompoundProcessor implements Processor {
     private final List<Tuple<Processor, IngestMetric>> processorsWithMetrics;
     private final LongSupplier relativeTimeProvider;
     private final boolean isAsync;
+    private final boolean supportsBatchExecution;
 
     public CompoundProcessor(Processor... processors) {
         this(false, List.of(processors), List.of());
@@ -62,6 +65,7 @@ public class CompoundProcessor implements Processor {
         this.relativeTimeProvider = relativeTimeProvider;
         this.processorsWithMetrics = List.copyOf(processors.stream().map(p -> new Tuple<>(p, new IngestMetric())).toList());
         this.isAsync = flattenProcessors().stream().anyMatch(Processor::isAsync);
+        this.supportsBatchExecution = processors.stream().anyMatch(Processor::supportsBatchExecution);
     }
 
     List<Tuple<Processor, IngestMetric>> getProcessorsWithMetrics() {
@@ -123,6 +127,11 @@ public class CompoundProcessor implements Processor {
         return isAsync;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return supportsBatchExecution;
+    }
+
     @Override
     public IngestDocument execute(IngestDocument document) throws Exception {
         assert isAsync == false; // must not be executed if there are async processors
@@ -220,6 +229,164 @@ public class CompoundProcessor implements Processor {
         }
     }
 
+    /**
+     * Executes the processors on a batch of documents. Processors that support batches receive all documents of the batch that are still
+     * being processed at once, documents that are dropped, that fail or that stop the pipeline leave the batch and complete on their own.
+     */
+    @Override
+    public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+        final int[] slots = new int[ingestDocuments.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = i;
+        }
+        innerExecuteBatch(0, ingestDocuments, slots, handler);
+    }
+
+    void innerExecuteBatch(int currentProcessor, List<IngestDocument> ingestDocuments, int[] slots, BatchHandler handler) {
+        assert currentProcessor <= processorsWithMetrics.size();
+        final List<IngestDocument> batch = new ArrayList<>(ingestDocuments.size());
+        final int[] batchSlots = new int[ingestDocuments.size()];
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            if (currentProcessor == processorsWithMetrics.size() || ingestDocument.isReroute() || ingestDocument.isTerminate()) {
+                handler.accept(slots[i], ingestDocument, null);
+            } else {
+                batchSlots[batch.size()] = slots[i];
+                batch.add(ingestDocument);
+            }
+        }
+        if (batch.isEmpty() == false) {
+            new BatchExecution(currentProcessor, batch, batchSlots, handler).run();
+        }
+    }
+
+    /**
+     * The execution of a single processor on a batch of documents.
+     */
+    private final class BatchExecution {
+        private final int currentProcessor;
+        private final Processor processor;
+        private final IngestMetric metric;
+        private final List<IngestDocument> batch;
+        private final int[] slots;
+        private final BatchHandler handler;
+        private final IngestDocument[] results;
+        private final Exception[] failures;
+        private final long[] ingestTimesInNanos;
+        private final AtomicIntegerArray completed;
+        private final AtomicInteger remaining;
+
+        BatchExecution(int currentProcessor, List<IngestDocument> batch, int[] slots, BatchHandler handler) {
+            this.currentProcessor = currentProcessor;
+            this.processor = processorsWithMetrics.get(currentProcessor).v1();
+            this.metric = processorsWithMetrics.get(currentProcessor).v2();
+            this.batch = batch;
+            this.slots = slots;
+            this.handler = handler;
+            this.results = new IngestDocument[batch.size()];
+            this.failures = new Exception[batch.size()];
+            this.ingestTimesInNanos = new long[batch.size()];
+            this.completed = new AtomicIntegerArray(batch.size());
+            this.remaining = new AtomicInteger(batch.size());
+        }
+
+        void run() {
+            for (int i = 0; i < batch.size(); i++) {
+                metric.preIngest();
+            }
+            if (processor.supportsBatchExecution()) {
+                final long startTimeInNanos = relativeTimeProvider.getAsLong();
+                try {
+                    processor.executeBatch(batch, (slot, result, e) -> {
+                        final boolean firstCompletion = complete(slot, result, e, relativeTimeProvider.getAsLong() - startTimeInNanos);
+                        assert firstCompletion : "processor [" + processor.getType() + "] completed document [" + slot + "] more than once";
+                    });
+                } catch (Exception e) {
+                    final long ingestTimeInNanos = relativeTimeProvider.getAsLong() - startTimeInNanos;
+                    for (int i = 0; i < batch.size(); i++) {
+                        complete(i, null, e, ingestTimeInNanos);
+                    }
+                }
+            } else {
+                for (int i = 0; i < batch.size(); i++) {
+                    executeDocument(i);
+                }
+            }
+        }
+
+        /**
+         * Executes the processor on a single document of the batch, for processors that do not support batches.
+         */
+        private void executeDocument(int slot) {
+            final long startTimeInNanos = relativeTimeProvider.getAsLong();
+            if (processor.isAsync()) {
+                try {
+                    processor.execute(
+                        batch.get(slot),
+                        (result, e) -> complete(slot, result, e, relativeTimeProvider.getAsLong() - startTimeInNanos)
+                    );
+                } catch (Exception e) {
+                    complete(slot, null, e, relativeTimeProvider.getAsLong() - startTimeInNanos);
+                }
+            } else {
+                IngestDocument result = null;
+                Exception failure = null;
+                try {
+                    result = processor.execute(batch.get(slot));
+                } catch (Exception e) {
+                    failure = e;
+                }
+                complete(slot, result, failure, relativeTimeProvider.getAsLong() - startTimeInNanos);
+            }
+        }
+
+        private boolean complete(int slot, IngestDocument result, Exception e, long ingestTimeInNanos) {
+            if (completed.compareAndSet(slot, 0, 1) == false) {
+                return false;
+            }
+            results[slot] = result;
+            failures[slot] = e;
+            ingestTimesInNanos[slot] = ingestTimeInNanos;
+            if (remaining.decrementAndGet() == 0) {
+                onBatchCompleted();
+            }
+            return true;
+        }
+
+        private void onBatchCompleted() {
+            final List<IngestDocument> next = new ArrayList<>(batch.size());
+            final int[] nextSlots = new int[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                metric.postIngest(ingestTimesInNanos[i]);
+                final int slot = slots[i];
+                if (failures[i] != null) {
+                    if (ignoreFailure) {
+                        metric.ingestFailed();
+                        nextSlots[next.size()] = slot;
+                        next.add(batch.get(i));
+                    } else {
+                        executeOnFailureOuter(
+                            currentProcessor,
+                            batch.get(i),
+                            (result, e) -> handler.accept(slot, result, e),
+                            processor,
+                            metric,
+                            failures[i]
+                        );
+                    }
+                } else if (results[i] == null) {
+                    handler.accept(slot, null, null);
+                } else {
+                    nextSlots[next.size()] = slot;
+                    next.add(results[i]);
+                }
+            }
+            if (next.isEmpty() == false) {
+                innerExecuteBatch(currentProcessor + 1, next, nextSlots, handler);
+            }
+        }
+    }
+
     private void executeOnFailureOuter(
         int currentProcessor,
         IngestDocument ingestDocument,
@@ -12,6 +12,7 @@ package org.elasticsearch.ingest;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.util.CollectionUtils;
 import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.mapper.IdFieldMapper;
@@ -56,6 +57,8 @@ public final class IngestDocument {
     public static final int MAX_PIPELINES = Integer.parseInt(System.getProperty("es.ingest.max_pipelines", "100"));
 
     private final IngestCtxMap ctxMap;
+    // whether the source may have been changed since this document was created, see #isSourceModified()
+    private boolean sourceModified;
     private final Map<String, Object> ingestMetadata;
 
     /**
@@ -115,6 +118,7 @@ public final class IngestDocument {
          * complicated, we're just copying this over here since it does no harm.
          */
         this.executedPipelines.addAll(other.executedPipelines);
+        this.sourceModified = other.sourceModified;
     }
 
     /**
@@ -186,8 +190,8 @@ public final class IngestDocument {
      * or if the field that is found at the provided path is not of the expected type.
      */
     public <T> T getFieldValue(String path, Class<T> clazz, boolean ignoreMissing) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
+        FieldPath fieldPath = FieldPath.of(path);
+        Object context = fieldPath.initialContext(this);
         for (String pathElement : fieldPath.pathElements) {
             ResolveResult result = resolve(pathElement, path, context);
             if (result.wasSuccessful) {
@@ -198,6 +202,10 @@ public final class IngestDocument {
                 throw new IllegalArgumentException(result.errorMessage);
             }
         }
+        if (fieldPath.useIngestContext == false && isImmutable(context) == false) {
+            // the caller may modify the returned object, and with it the source
+            sourceModified = true;
+        }
         return cast(path, context, clazz);
     }
 
@@ -257,8 +265,8 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty or invalid.
      */
     public boolean hasField(String path, boolean failOutOfRange) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
+        FieldPath fieldPath = FieldPath.of(path);
+        Object context = fieldPath.initialContext(this);
         for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
             String pathElement = fieldPath.pathElements[i];
             if (context == null) {
@@ -325,8 +333,9 @@ public final class IngestDocument {
      * @throws IllegalArgumentException if the path is null, empty, invalid or if the field doesn't exist.
      */
     public void removeField(String path) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
+        FieldPath fieldPath = FieldPath.of(path);
+        onWrite(fieldPath);
+        Object context = fieldPath.initialContext(this);
         for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
             ResolveResult result = resolve(fieldPath.pathElements[i], path, context);
             if (result.wasSuccessful) {
@@ -536,8 +545,9 @@ public final class IngestDocument {
     }
 
     private void setFieldValue(String path, Object value, boolean append, boolean allowDuplicates) {
-        FieldPath fieldPath = new FieldPath(path);
-        Object context = fieldPath.initialContext;
+        FieldPath fieldPath = FieldPath.of(path);
+        onWrite(fieldPath);
+        Object context = fieldPath.initialContext(this);
         for (int i = 0; i < fieldPath.pathElements.length - 1; i++) {
             String pathElement = fieldPath.pathElements[i];
             if (context == null) {
@@ -724,6 +734,7 @@ public final class IngestDocument {
      * Get source and metadata map
      */
     public Map<String, Object> getSourceAndMetadata() {
+        sourceModified = true;
         return ctxMap;
     }
 
@@ -731,6 +742,7 @@ public final class IngestDocument {
      * Get the CtxMap
      */
     public CtxMap<?> getCtxMap() {
+        sourceModified = true;
         return ctxMap;
     }
 
@@ -745,6 +757,7 @@ public final class IngestDocument {
      * Get all source values in a Map
      */
     public Map<String, Object> getSource() {
+        sourceModified = true;
         return ctxMap.getSource();
     }
 
@@ -861,6 +874,57 @@ public final class IngestDocument {
         }
     }
 
+    /**
+     * Executes the given pipeline for a batch of documents, see {@link #executePipeline(Pipeline, BiConsumer)}. Documents that cannot
+     * run the pipeline complete straight away, all others execute the pipeline together.
+     *
+     * @param pipeline the pipeline to execute
+     * @param ingestDocuments the documents to execute the pipeline for
+     * @param handler handles the result or failure of each document, identified by its position in {@code ingestDocuments}
+     */
+    public static void executePipeline(Pipeline pipeline, List<IngestDocument> ingestDocuments, Processor.BatchHandler handler) {
+        // shortcut if the pipeline is empty
+        if (pipeline.getProcessors().isEmpty()) {
+            for (int i = 0; i < ingestDocuments.size(); i++) {
+                handler.accept(i, ingestDocuments.get(i), null);
+            }
+            return;
+        }
+
+        final List<IngestDocument> batch = new ArrayList<>(ingestDocuments.size());
+        final int[] slots = new int[ingestDocuments.size()];
+        final Object[] previousPipelines = new Object[ingestDocuments.size()];
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            if (ingestDocument.executedPipelines.size() >= MAX_PIPELINES) {
+                handler.accept(
+                    i,
+                    null,
+                    new GraphStructureException("Too many nested pipelines. Cannot have more than " + MAX_PIPELINES + " nested pipelines")
+                );
+            } else if (ingestDocument.executedPipelines.add(pipeline.getId())) {
+                previousPipelines[batch.size()] = ingestDocument.ingestMetadata.put("pipeline", pipeline.getId());
+                slots[batch.size()] = i;
+                batch.add(ingestDocument);
+            } else {
+                handler.accept(i, null, new GraphStructureException(PIPELINE_CYCLE_ERROR_MESSAGE + pipeline.getId()));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        pipeline.executeBatch(batch, (slot, result, e) -> {
+            final IngestDocument ingestDocument = batch.get(slot);
+            ingestDocument.executedPipelines.remove(pipeline.getId());
+            if (previousPipelines[slot] != null) {
+                ingestDocument.ingestMetadata.put("pipeline", previousPipelines[slot]);
+            } else {
+                ingestDocument.ingestMetadata.remove("pipeline");
+            }
+            handler.accept(slots[slot], result, e);
+        });
+    }
+
     /**
      * @return a pipeline stack; all pipelines that are in execution by this document in reverse order
      */
@@ -888,6 +952,39 @@ public final class IngestDocument {
         return Collections.unmodifiableSet(indexHistory);
     }
 
+    /**
+     * Whether the source of this document may have been changed since it was created. This is conservative: it is set as soon as a
+     * field of the source is written or removed, or as soon as a mutable part of the source is handed out, e.g. through
+     * {@link #getSource()} or when reading an object or array field. Reading single values and writing metadata or ingest metadata
+     * fields keeps the source unmodified, so that its original bytes can be indexed as they are.
+     */
+    boolean isSourceModified() {
+        return sourceModified;
+    }
+
+    /**
+     * Read-only access to the source and metadata for callers that never modify them and never hand them out, such as conditionals
+     * which wrap them into an unmodifiable view. Unlike {@link #getSourceAndMetadata()} this does not mark the source as modified.
+     */
+    Map<String, Object> getSourceAndMetadataForReading() {
+        return ctxMap;
+    }
+
+    private void onWrite(FieldPath fieldPath) {
+        if (fieldPath.useIngestContext == false
+            && (fieldPath.pathElements.length > 1 || ctxMap.getMetadata().isAvailable(fieldPath.pathElements[0]) == false)) {
+            sourceModified = true;
+        }
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value == null
+            || value instanceof String
+            || value instanceof Number
+            || value instanceof Boolean
+            || value instanceof Character;
+    }
+
     /**
      * @return Whether a self referencing check should be performed
      */
@@ -987,21 +1084,53 @@ public final class IngestDocument {
         }
     }
 
-    private class FieldPath {
+    /**
+     * A parsed field path. Processors access the same few paths for every document, so parsed paths are cached and shared across
+     * documents rather than split on every access.
+     */
+    static final class FieldPath {
 
-        private final String[] pathElements;
-        private final Object initialContext;
+        // package-private for testing
+        static final int MAX_CACHE_SIZE = 512;
+        private static final Map<String, FieldPath> CACHE = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-        private FieldPath(String path) {
+        static FieldPath of(String path) {
             if (Strings.isEmpty(path)) {
                 throw new IllegalArgumentException("path cannot be null nor empty");
             }
+            FieldPath fieldPath = CACHE.get(path);
+            if (fieldPath == null) {
+                fieldPath = new FieldPath(path);
+                // paths are usually a small fixed set per pipeline, so once some producer generates many of them the paths that are
+                // already cached are kept and only the new ones are parsed on every access, rather than starting over and parsing the
+                // frequently used paths again
+                if (CACHE.size() < MAX_CACHE_SIZE) {
+                    CACHE.putIfAbsent(path, fieldPath);
+                }
+            }
+            return fieldPath;
+        }
+
+        // package-private for testing
+        static int cacheSize() {
+            return CACHE.size();
+        }
+
+        // package-private for testing
+        static void clearCache() {
+            CACHE.clear();
+        }
+
+        private final String[] pathElements;
+        private final boolean useIngestContext;
+
+        private FieldPath(String path) {
             String newPath;
             if (path.startsWith(INGEST_KEY_PREFIX)) {
-                initialContext = ingestMetadata;
+                useIngestContext = true;
                 newPath = path.substring(INGEST_KEY_PREFIX.length());
             } else {
-                initialContext = ctxMap;
+                useIngestContext = false;
                 if (path.startsWith(SOURCE_PREFIX)) {
                     newPath = path.substring(SOURCE_PREFIX.length());
                 } else {
@@ -1014,6 +1143,9 @@ public final class IngestDocument {
             }
         }
 
+        Object initialContext(IngestDocument document) {
+            return useIngestContext ? document.ingestMetadata : document.ctxMap;
+        }
     }
 
     private static class ResolveResult {
@@ -80,6 +80,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -91,6 +92,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -781,6 +783,7 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
             protected void doRun() {
                 final Thread originalThread = Thread.currentThread();
                 try (var refs = new RefCountingRunnable(() -> onCompletion.accept(originalThread, null))) {
+                    final PipelineBatches batches = new PipelineBatches();
                     int i = 0;
                     for (DocWriteRequest<?> actionRequest : actionRequests) {
                         IndexRequest indexRequest = TransportBulkAction.getIndexWriteRequest(actionRequest);
@@ -844,11 +847,13 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                             }
                         );
 
-                        executePipelines(pipelines, indexRequest, ingestDocument, resolveFailureStore, documentListener);
+                        executePipelines(pipelines, indexRequest, ingestDocument, resolveFailureStore, documentListener, batches);
                         assert actionRequest.index() != null;
 
                         i++;
                     }
+                    // run the pipelines of the remaining documents while we still hold the ref, so that completion waits for them
+                    batches.flushAll();
                 }
             }
         });
@@ -935,7 +940,8 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         final IndexRequest indexRequest,
         final IngestDocument ingestDocument,
         final Function<String, Boolean> resolveFailureStore,
-        final ActionListener<IngestPipelinesExecutionResult> listener
+        final ActionListener<IngestPipelinesExecutionResult> listener,
+        @Nullable final PipelineBatches batches
     ) {
         assert pipelines.hasNext();
         PipelineSlot slot = pipelines.next();
@@ -972,7 +978,7 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                 throw new IllegalArgumentException("pipeline with id [" + pipelineId + "] does not exist");
             }
             indexRequest.addPipeline(pipelineId);
-            executePipeline(ingestDocument, pipeline, (keep, e) -> {
+            final BiConsumer<Boolean, Exception> pipelineHandler = (keep, e) -> {
                 assert keep != null;
 
                 if (e != null) {
@@ -1095,14 +1101,20 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                 }
 
                 if (newPipelines.hasNext()) {
-                    executePipelines(newPipelines, indexRequest, ingestDocument, resolveFailureStore, listener);
+                    // only the first pipeline of a bulk request is batched, subsequent ones complete at different times per document
+                    executePipelines(newPipelines, indexRequest, ingestDocument, resolveFailureStore, listener, null);
                 } else {
                     // update the index request's source and (potentially) cache the timestamp for TSDB
                     updateIndexRequestSource(indexRequest, ingestDocument);
                     cacheRawTimestamp(indexRequest, ingestDocument);
                     listener.onResponse(IngestPipelinesExecutionResult.SUCCESSFUL_RESULT); // document succeeded!
                 }
-            });
+            };
+            if (batches != null && pipeline.getCompoundProcessor().supportsBatchExecution()) {
+                batches.add(pipeline, ingestDocument, pipelineHandler);
+            } else {
+                executePipeline(ingestDocument, pipeline, pipelineHandler);
+            }
         } catch (Exception e) {
             logger.debug(
                 () -> format("failed to execute pipeline [%s] for document [%s/%s]", pipelineId, indexRequest.index(), indexRequest.id()),
@@ -1129,6 +1141,66 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         });
     }
 
+    /**
+     * Collects the documents of a bulk request that start with the same pipeline, so that the pipeline and its processors can execute
+     * them as a batch, see {@link Processor#executeBatch}. Batches are bounded so that a large bulk request does not hold on to all its
+     * documents before any of them starts executing.
+     */
+    private static final class PipelineBatches {
+
+        static final int MAX_BATCH_SIZE = 128;
+
+        private final Map<Pipeline, PipelineBatch> batches = new IdentityHashMap<>();
+
+        void add(Pipeline pipeline, IngestDocument ingestDocument, BiConsumer<Boolean, Exception> handler) {
+            final PipelineBatch batch = batches.computeIfAbsent(pipeline, p -> new PipelineBatch(new ArrayList<>(), new ArrayList<>()));
+            batch.documents().add(ingestDocument);
+            batch.handlers().add(handler);
+            if (batch.documents().size() >= MAX_BATCH_SIZE) {
+                batches.remove(pipeline);
+                executeBatch(pipeline, batch);
+            }
+        }
+
+        void flushAll() {
+            final List<Map.Entry<Pipeline, PipelineBatch>> remaining = new ArrayList<>(batches.entrySet());
+            batches.clear();
+            for (Map.Entry<Pipeline, PipelineBatch> entry : remaining) {
+                executeBatch(entry.getKey(), entry.getValue());
+            }
+        }
+
+        private static void executeBatch(Pipeline pipeline, PipelineBatch batch) {
+            final List<BiConsumer<Boolean, Exception>> handlers = batch.handlers();
+            final AtomicIntegerArray completed = new AtomicIntegerArray(handlers.size());
+            try {
+                // adapt the per-document {@code BiConsumer<Boolean, Exception>} handlers like executePipeline does
+                IngestDocument.executePipeline(pipeline, batch.documents(), (slot, result, e) -> {
+                    if (completed.compareAndSet(slot, 0, 1)) {
+                        complete(handlers.get(slot), e != null || result != null, e);
+                    }
+                });
+            } catch (Exception e) {
+                for (int i = 0; i < handlers.size(); i++) {
+                    if (completed.compareAndSet(i, 0, 1)) {
+                        complete(handlers.get(i), true, e);
+                    }
+                }
+            }
+        }
+
+        private static void complete(BiConsumer<Boolean, Exception> handler, boolean keep, Exception e) {
+            try {
+                handler.accept(keep, e);
+            } catch (Exception ex) {
+                // the document failed after its pipeline completed, just like executePipelines handles it when not batching
+                handler.accept(true, ex);
+            }
+        }
+
+        private record PipelineBatch(List<IngestDocument> documents, List<BiConsumer<Boolean, Exception>> handlers) {}
+    }
+
     public IngestStats stats() {
         IngestStats.Builder statsBuilder = new IngestStats.Builder();
         statsBuilder.addTotalMetrics(totalMetrics);
@@ -1230,6 +1302,10 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         // we already check for self references elsewhere (and clear the bit), so this should always be false,
         // keeping the check and assert as a guard against extraordinarily surprising circumstances
         assert ensureNoSelfReferences == false;
+        if (document.isSourceModified() == false) {
+            // the pipelines left the source as it was, so there is no need to serialize it again
+            return;
+        }
         request.source(document.getSource(), request.getContentType(), ensureNoSelfReferences);
     }
 
@@ -140,6 +140,27 @@ public final class Pipeline {
         });
     }
 
+    /**
+     * Modifies a batch of documents based on the processors this pipeline holds, see {@link #execute(IngestDocument, BiConsumer)}.
+     * The handler is invoked once for every document of the batch.
+     */
+    public void executeBatch(List<IngestDocument> ingestDocuments, Processor.BatchHandler handler) {
+        final long startTimeInNanos = relativeTimeProvider.getAsLong();
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            metrics.preIngest();
+        }
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            // each document spends the time until it completes in this pipeline, just like when it is executed on its own
+            long ingestTimeInNanos = relativeTimeProvider.getAsLong() - startTimeInNanos;
+            metrics.postIngest(ingestTimeInNanos);
+            if (e != null) {
+                metrics.ingestFailed();
+            }
+            ingestDocuments.get(slot).resetTerminate();
+            handler.accept(slot, result, e);
+        });
+    }
+
     /**
      * The unique id of this pipeline
      */
@@ -17,6 +17,7 @@ import org.elasticsearch.index.analysis.AnalysisRegistry;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.threadpool.Scheduler;
 
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -60,6 +61,38 @@ public interface Processor {
         return ingestDocument;
     }
 
+    /**
+     * Introspect and potentially modify a batch of documents, e.g. all documents of a bulk request that run the same pipeline.
+     * The handler must be invoked exactly once for every document of the batch, with the position of the document in the batch and
+     * either the resulting document ({@code null} if the document should be dropped) or the exception that processing it failed with.
+     *
+     * Expert method: processors that look up data for each document, e.g. in an index or from a remote service, can override this
+     * method to look up the data for the whole batch at once, together with {@link #supportsBatchExecution()}. The default
+     * implementation executes each document on its own.
+     */
+    default void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+        for (int slot = 0; slot < ingestDocuments.size(); slot++) {
+            final int finalSlot = slot;
+            final IngestDocument ingestDocument = ingestDocuments.get(slot);
+            if (isAsync()) {
+                try {
+                    execute(ingestDocument, (result, e) -> handler.accept(finalSlot, result, e));
+                } catch (Exception e) {
+                    handler.accept(slot, null, e);
+                }
+            } else {
+                final IngestDocument result;
+                try {
+                    result = execute(ingestDocument);
+                } catch (Exception e) {
+                    handler.accept(slot, null, e);
+                    continue;
+                }
+                handler.accept(slot, result, null);
+            }
+        }
+    }
+
     /**
      * Gets the type of a processor
      */
@@ -79,6 +112,14 @@ public interface Processor {
         return false;
     }
 
+    /**
+     * Whether this processor benefits from receiving documents in batches through {@link #executeBatch(List, BatchHandler)}. Documents
+     * are only collected into batches for pipelines that contain such processors, all other processors execute them one by one.
+     */
+    default boolean supportsBatchExecution() {
+        return false;
+    }
+
     /**
      * Validate a processor after it has been constructed by a factory.
      *
@@ -93,6 +134,20 @@ public interface Processor {
      */
     default void extraValidation() throws Exception {}
 
+    /**
+     * Receives the outcome of processing a single document of a batch, see {@link #executeBatch(List, BatchHandler)}.
+     */
+    @FunctionalInterface
+    interface BatchHandler {
+
+        /**
+         * @param slot the position of the document in the batch
+         * @param result the resulting document, or {@code null} if the document should be dropped or processing it failed
+         * @param e the exception that processing the document failed with, or {@code null}
+         */
+        void accept(int slot, IngestDocument result, Exception e);
+    }
+
     /**
      * A factory that knows how to construct a processor based on a map of maps.
      */
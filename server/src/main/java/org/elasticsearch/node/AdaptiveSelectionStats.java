@@ -9,6 +9,7 @@
 
 package org.elasticsearch.node;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -27,30 +28,56 @@ import java.util.stream.Collectors;
 /**
  * Class representing statistics about adaptive replica selection. This includes
  * EWMA of queue size, service time, and response time, as well as outgoing
- * searches to each node and the "rank" based on the ARS formula.
+ * searches to each node and the "rank" based on the ARS formula. It also includes
+ * the number of shard-level search requests that were hedged to each node because
+ * the node that was picked first did not respond in time.
  */
 public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
 
     private final Map<String, Long> clientOutgoingConnections;
     private final Map<String, ResponseCollectorService.ComputedNodeStats> nodeComputedStats;
+    private final Map<String, Long> hedgedSearches;
+    private final Map<String, Long> hedgedSearchesWon;
 
     public AdaptiveSelectionStats(
         Map<String, Long> clientConnections,
         Map<String, ResponseCollectorService.ComputedNodeStats> nodeComputedStats
+    ) {
+        this(clientConnections, nodeComputedStats, Map.of(), Map.of());
+    }
+
+    public AdaptiveSelectionStats(
+        Map<String, Long> clientConnections,
+        Map<String, ResponseCollectorService.ComputedNodeStats> nodeComputedStats,
+        Map<String, Long> hedgedSearches,
+        Map<String, Long> hedgedSearchesWon
     ) {
         this.clientOutgoingConnections = clientConnections;
         this.nodeComputedStats = nodeComputedStats;
+        this.hedgedSearches = hedgedSearches;
+        this.hedgedSearchesWon = hedgedSearchesWon;
     }
 
     public AdaptiveSelectionStats(StreamInput in) throws IOException {
         this.clientOutgoingConnections = in.readMap(StreamInput::readLong);
         this.nodeComputedStats = in.readMap(ResponseCollectorService.ComputedNodeStats::new);
+        if (in.getTransportVersion().onOrAfter(TransportVersions.HEDGED_SEARCH_STATS)) {
+            this.hedgedSearches = in.readMap(StreamInput::readVLong);
+            this.hedgedSearchesWon = in.readMap(StreamInput::readVLong);
+        } else {
+            this.hedgedSearches = Map.of();
+            this.hedgedSearchesWon = Map.of();
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeMap(this.clientOutgoingConnections, StreamOutput::writeLong);
         out.writeMap(this.nodeComputedStats, StreamOutput::writeWriteable);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.HEDGED_SEARCH_STATS)) {
+            out.writeMap(this.hedgedSearches, StreamOutput::writeVLong);
+            out.writeMap(this.hedgedSearchesWon, StreamOutput::writeVLong);
+        }
     }
 
     @Override
@@ -73,6 +100,8 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
                 }
                 builder.field("avg_response_time_ns", (long) stats.responseTime);
                 builder.field("rank", String.format(Locale.ROOT, "%.1f", stats.rank(outgoingSearches)));
+                builder.field("hedged_searches", hedgedSearches.getOrDefault(nodeId, 0L));
+                builder.field("hedged_searches_won", hedgedSearchesWon.getOrDefault(nodeId, 0L));
             }
             builder.endObject();
         }
@@ -94,6 +123,21 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
         return nodeComputedStats;
     }
 
+    /**
+     * Returns a map of node id to the number of shard-level search requests that were hedged to that node
+     */
+    public Map<String, Long> getHedgedSearches() {
+        return hedgedSearches;
+    }
+
+    /**
+     * Returns a map of node id to the number of shard-level search requests hedged to that node that responded before the original
+     * request
+     */
+    public Map<String, Long> getHedgedSearchesWon() {
+        return hedgedSearchesWon;
+    }
+
     /**
      * Returns a map of node id to the ranking of the nodes based on the adaptive replica formula
      */
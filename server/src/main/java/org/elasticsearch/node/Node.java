@@ -429,6 +429,14 @@ public class Node implements Closeable {
         injector.getInstance(IndicesMetrics.class).start();
         injector.getInstance(HealthPeriodicLogger.class).start();
 
+        if (ScriptService.SCRIPT_CACHE_PERSIST_SETTING.get(settings()) && nodeEnvironment.hasNodeFile()) {
+            injector.getInstance(ScriptService.class)
+                .precompilePersistedScripts(
+                    ScriptService.persistedScriptsFile(nodeEnvironment.nodeDataPaths()[0]),
+                    injector.getInstance(ThreadPool.class).generic()
+                );
+        }
+
         logger.info("started {}", transportService.getLocalNode());
 
         pluginsService.filterPlugins(ClusterPlugin.class).forEach(ClusterPlugin::onNodeStarted);
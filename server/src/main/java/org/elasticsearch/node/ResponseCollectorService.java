@@ -25,6 +25,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Collects statistics about queue size, response time, and service time of
@@ -39,6 +40,9 @@ public final class ResponseCollectorService implements ClusterStateListener {
     public static final double ALPHA = 0.3;
 
     private final ConcurrentMap<String, NodeStatistics> nodeIdToStats = ConcurrentCollections.newConcurrentMap();
+    // shard-level search requests that were hedged to each node, and how many of them responded before the original request
+    private final ConcurrentMap<String, LongAdder> nodeIdToHedgedRequests = ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<String, LongAdder> nodeIdToHedgedRequestsWon = ConcurrentCollections.newConcurrentMap();
 
     public ResponseCollectorService(ClusterService clusterService) {
         clusterService.addListener(this);
@@ -55,6 +59,22 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
     void removeNode(String nodeId) {
         nodeIdToStats.remove(nodeId);
+        nodeIdToHedgedRequests.remove(nodeId);
+        nodeIdToHedgedRequestsWon.remove(nodeId);
+    }
+
+    /**
+     * Records that a shard-level search request was hedged to the given node.
+     */
+    public void onHedgedRequest(String nodeId) {
+        nodeIdToHedgedRequests.computeIfAbsent(nodeId, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records that a shard-level search request that was hedged to the given node responded before the original request.
+     */
+    public void onHedgedRequestWon(String nodeId) {
+        nodeIdToHedgedRequestsWon.computeIfAbsent(nodeId, k -> new LongAdder()).increment();
     }
 
     public void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos) {
@@ -81,7 +101,18 @@ public final class ResponseCollectorService implements ClusterStateListener {
     }
 
     public AdaptiveSelectionStats getAdaptiveStats(Map<String, Long> clientSearchConnections) {
-        return new AdaptiveSelectionStats(clientSearchConnections, getAllNodeStatistics());
+        return new AdaptiveSelectionStats(
+            clientSearchConnections,
+            getAllNodeStatistics(),
+            sums(nodeIdToHedgedRequests),
+            sums(nodeIdToHedgedRequestsWon)
+        );
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = Maps.newMapWithExpectedSize(counters.size());
+        counters.forEach((nodeId, counter) -> sums.put(nodeId, counter.sum()));
+        return sums;
     }
 
     /**
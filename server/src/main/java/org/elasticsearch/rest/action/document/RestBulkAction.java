@@ -19,7 +19,6 @@ import org.elasticsearch.action.bulk.IncrementalBulkService;
 import org.elasticsearch.action.support.ActiveShardCount;
 import org.elasticsearch.client.internal.node.NodeClient;
 import org.elasticsearch.cluster.metadata.DataStream;
-import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.settings.Settings;
@@ -192,27 +191,29 @@ public class RestBulkAction extends BaseRestHandler {
                 return;
             }
 
-            final BytesReference data;
+            final ReleasableBytesReference data;
             int bytesConsumed;
             if (chunk.length() == 0) {
                 chunk.close();
                 bytesConsumed = 0;
+                data = null;
             } else {
+                unParsedChunks.add(chunk);
+                if (unParsedChunks.size() > 1) {
+                    // The composite retains the chunks it is made of, so that the document sources that are sliced from it keep the
+                    // chunks alive until the items are released and can be forwarded to the shards without copying them.
+                    data = retainedComposite(unParsedChunks);
+                } else {
+                    data = chunk.retain();
+                }
                 try {
-                    unParsedChunks.add(chunk);
-
-                    if (unParsedChunks.size() > 1) {
-                        data = CompositeBytesReference.of(unParsedChunks.toArray(new ReleasableBytesReference[0]));
-                    } else {
-                        data = chunk;
-                    }
-
                     // TODO: Check that the behavior here vs. globalRouting, globalPipeline, globalRequireAlias, globalRequireDatsStream in
                     // BulkRequest#add is fine
                     bytesConsumed = parser.parse(data, isLast);
                     bytesParsed += bytesConsumed;
 
                 } catch (Exception e) {
+                    data.close();
                     shortCircuit();
                     new RestToXContentListener<>(channel).onFailure(parseFailureException(e));
                     return;
@@ -220,6 +221,9 @@ public class RestBulkAction extends BaseRestHandler {
             }
 
             final ArrayList<Releasable> releasables = accountParsing(bytesConsumed);
+            if (data != null) {
+                releasables.add(data);
+            }
             if (isLast) {
                 assert unParsedChunks.isEmpty();
                 if (bytesParsed == 0) {
@@ -254,6 +258,18 @@ public class RestBulkAction extends BaseRestHandler {
             unParsedChunks.clear();
         }
 
+        private static ReleasableBytesReference retainedComposite(ArrayDeque<ReleasableBytesReference> chunks) {
+            final ReleasableBytesReference[] references = new ReleasableBytesReference[chunks.size()];
+            int index = 0;
+            for (ReleasableBytesReference chunk : chunks) {
+                references[index++] = chunk.retain();
+            }
+            return new ReleasableBytesReference(
+                CompositeBytesReference.of(references),
+                () -> Releasables.closeExpectNoException(references)
+            );
+        }
+
         private ArrayList<Releasable> accountParsing(int bytesConsumed) {
             ArrayList<Releasable> releasables = new ArrayList<>(unParsedChunks.size());
             while (bytesConsumed > 0) {
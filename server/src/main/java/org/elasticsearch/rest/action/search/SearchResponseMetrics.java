@@ -40,9 +40,13 @@ public class SearchResponseMetrics {
 
     public static final String TOOK_DURATION_TOTAL_HISTOGRAM_NAME = "es.search_response.took_durations.histogram";
     public static final String RESPONSE_COUNT_TOTAL_COUNTER_NAME = "es.search_response.response_count.total";
+    public static final String HEDGED_SHARD_REQUESTS_TOTAL_COUNTER_NAME = "es.search_response.hedged_shard_requests.total";
+    public static final String HEDGED_SHARD_REQUESTS_WON_TOTAL_COUNTER_NAME = "es.search_response.hedged_shard_requests_won.total";
 
     private final LongHistogram tookDurationTotalMillisHistogram;
     private final LongCounter responseCountTotalCounter;
+    private final LongCounter hedgedShardRequestsTotalCounter;
+    private final LongCounter hedgedShardRequestsWonTotalCounter;
 
     public SearchResponseMetrics(MeterRegistry meterRegistry) {
         this(
@@ -57,13 +61,31 @@ public class SearchResponseMetrics {
                     + "success, partial failure, or failure, expressed as a single total counter and individual "
                     + "attribute counters",
                 "count"
+            ),
+            meterRegistry.registerLongCounter(
+                HEDGED_SHARD_REQUESTS_TOTAL_COUNTER_NAME,
+                "The cumulative total of shard-level search requests that were duplicated to another copy of the shard "
+                    + "because the first copy did not respond in time",
+                "count"
+            ),
+            meterRegistry.registerLongCounter(
+                HEDGED_SHARD_REQUESTS_WON_TOTAL_COUNTER_NAME,
+                "The cumulative total of hedged shard-level search requests that responded before the original request",
+                "count"
             )
         );
     }
 
-    private SearchResponseMetrics(LongHistogram tookDurationTotalMillisHistogram, LongCounter responseCountTotalCounter) {
+    private SearchResponseMetrics(
+        LongHistogram tookDurationTotalMillisHistogram,
+        LongCounter responseCountTotalCounter,
+        LongCounter hedgedShardRequestsTotalCounter,
+        LongCounter hedgedShardRequestsWonTotalCounter
+    ) {
         this.tookDurationTotalMillisHistogram = tookDurationTotalMillisHistogram;
         this.responseCountTotalCounter = responseCountTotalCounter;
+        this.hedgedShardRequestsTotalCounter = hedgedShardRequestsTotalCounter;
+        this.hedgedShardRequestsWonTotalCounter = hedgedShardRequestsWonTotalCounter;
     }
 
     public long recordTookTime(long tookTime) {
@@ -77,4 +99,12 @@ public class SearchResponseMetrics {
             Map.of(RESPONSE_COUNT_TOTAL_STATUS_ATTRIBUTE_NAME, responseCountTotalStatus.getDisplayName())
         );
     }
+
+    public void incrementHedgedShardRequestCount() {
+        hedgedShardRequestsTotalCounter.increment();
+    }
+
+    public void incrementHedgedShardRequestWonCount() {
+        hedgedShardRequestsWonTotalCounter.increment();
+    }
 }
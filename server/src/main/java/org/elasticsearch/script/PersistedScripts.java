@@ -0,0 +1,130 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.script;
+
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentFactory;
+import org.elasticsearch.xcontent.XContentParser;
+import org.elasticsearch.xcontent.XContentParserConfiguration;
+import org.elasticsearch.xcontent.json.JsonXContent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the file in which a node keeps the scripts of its script caches across restarts. The file holds the sources of the
+ * scripts rather than compiled classes: the classes that script engines generate are bound to objects that only exist at runtime, such
+ * as the whitelists that Painless scripts are compiled against, and compiling the sources again validates the scripts against the
+ * engines and whitelists of the restarted node.
+ */
+final class PersistedScripts {
+
+    static final String FILE_NAME = "cached_scripts.json";
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * A script that was in a script cache.
+     *
+     * @param lang    the language of the script
+     * @param context the name of the {@link ScriptContext} that the script was compiled for
+     * @param id      the name that the script was compiled under, which is the id for stored scripts and the source otherwise
+     * @param source  the source of the script
+     * @param options the compiler options of the script
+     */
+    record Entry(String lang, String context, String id, String source, Map<String, String> options) {}
+
+    private PersistedScripts() {}
+
+    static void write(Path file, Collection<Entry> entries) throws IOException {
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmpFile); XContentBuilder builder = XContentFactory.jsonBuilder(out)) {
+            builder.startObject();
+            builder.field("version", FORMAT_VERSION);
+            builder.startArray("scripts");
+            for (Entry entry : entries) {
+                builder.startObject();
+                builder.field("lang", entry.lang());
+                builder.field("context", entry.context());
+                builder.field("id", entry.id());
+                builder.field("source", entry.source());
+                builder.field("options", entry.options());
+                builder.endObject();
+            }
+            builder.endArray();
+            builder.endObject();
+        }
+        Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the scripts from the given file, or returns an empty list if there is no such file or if it was written in a different
+     * format. Scripts that miss any of their fields or have fields of the wrong type are skipped.
+     */
+    static List<Entry> read(Path file) throws IOException {
+        if (Files.exists(file) == false) {
+            return List.of();
+        }
+        final Map<String, Object> content;
+        try (
+            InputStream in = Files.newInputStream(file);
+            XContentParser parser = JsonXContent.jsonXContent.createParser(XContentParserConfiguration.EMPTY, in)
+        ) {
+            content = parser.map();
+        }
+        if (content.get("version") instanceof Integer version == false || version != FORMAT_VERSION) {
+            return List.of();
+        }
+        if (content.get("scripts") instanceof List<?> scripts == false) {
+            return List.of();
+        }
+        List<Entry> entries = new ArrayList<>(scripts.size());
+        for (Object script : scripts) {
+            Entry entry = parseEntry(script);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private static Entry parseEntry(Object script) {
+        if (script instanceof Map<?, ?> fields == false
+            || fields.get("lang") instanceof String lang == false
+            || fields.get("context") instanceof String context == false
+            || fields.get("id") instanceof String id == false
+            || fields.get("source") instanceof String source == false) {
+            return null;
+        }
+        Map<String, String> options = new HashMap<>();
+        Object rawOptions = fields.get("options");
+        if (rawOptions != null) {
+            if (rawOptions instanceof Map<?, ?> optionsMap == false) {
+                return null;
+            }
+            for (Map.Entry<?, ?> option : optionsMap.entrySet()) {
+                if (option.getKey() instanceof String key == false || option.getValue() instanceof String value == false) {
+                    return null;
+                }
+                options.put(key, value);
+            }
+        }
+        return new Entry(lang, context, id, source, Map.copyOf(options));
+    }
+}
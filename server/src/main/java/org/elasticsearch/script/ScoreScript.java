@@ -77,6 +77,7 @@ public abstract class ScoreScript extends DocBasedScript {
     private final Map<String, Object> params;
 
     private DoubleSupplier scoreSupplier = () -> 0.0;
+    private double batchSubQueryScore;
 
     private final int docBase;
     private int docId;
@@ -105,6 +106,35 @@ public abstract class ScoreScript extends DocBasedScript {
 
     public abstract double execute(ExplanationHolder explanation);
 
+    /**
+     * Scores {@code count} documents of the segment at once. The documents are in increasing order. If the script
+     * {@link LeafFactory#needs_score() needs the score} of the inner query, {@code subQueryScores} holds it for each document and is
+     * {@code null} otherwise. The default implementation runs {@link #execute(ExplanationHolder)} for one document after the other.
+     * Scripts that can load the values that they need for all documents at once and compute the scores in a loop over these values
+     * should override it.
+     * <p>
+     * Only {@code script_score} queries on indices with
+     * {@link org.elasticsearch.index.IndexSettings#SCRIPT_SCORE_BATCH_SCORING_ENABLED_SETTING batch scoring} enabled call this
+     * method. A script instance then only sees increasing document ids, also across batches.
+     */
+    public void executeBatch(int[] docIds, float[] subQueryScores, int count, double[] scores) {
+        final DoubleSupplier scoreSupplier = this.scoreSupplier;
+        if (subQueryScores != null) {
+            this.scoreSupplier = () -> batchSubQueryScore;
+        }
+        try {
+            for (int i = 0; i < count; i++) {
+                if (subQueryScores != null) {
+                    batchSubQueryScore = subQueryScores[i];
+                }
+                setDocument(docIds[i]);
+                scores[i] = execute(null);
+            }
+        } finally {
+            this.scoreSupplier = scoreSupplier;
+        }
+    }
+
     /** Return the parameters for this script. */
     public Map<String, Object> getParams() {
         return params;
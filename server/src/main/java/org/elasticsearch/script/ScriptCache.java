@@ -20,6 +20,8 @@ import org.elasticsearch.common.cache.RemovalNotification;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.Tuple;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
@@ -82,9 +84,38 @@ public class ScriptCache {
         String idOrCode,
         ScriptType type,
         Map<String, String> options
+    ) {
+        return compile(context, scriptEngine, id, idOrCode, type, options, context.compilationRateLimited, false);
+    }
+
+    /**
+     * Compiles a script that was cached before the node restarted, see {@link PersistedScripts}. Such scripts were already subject to
+     * the compilation rate limit when they were compiled the first time, so they do not count against it again. They are counted as
+     * precompilations rather than compilations so that the compilations stat keeps reflecting the scripts that requests compiled.
+     */
+    <FactoryType> FactoryType precompile(
+        ScriptContext<FactoryType> context,
+        ScriptEngine scriptEngine,
+        String id,
+        String idOrCode,
+        Map<String, String> options
+    ) {
+        ScriptType type = id.equals(idOrCode) ? ScriptType.INLINE : ScriptType.STORED;
+        return compile(context, scriptEngine, id, idOrCode, type, options, false, true);
+    }
+
+    private <FactoryType> FactoryType compile(
+        ScriptContext<FactoryType> context,
+        ScriptEngine scriptEngine,
+        String id,
+        String idOrCode,
+        ScriptType type,
+        Map<String, String> options,
+        boolean compilationRateLimited,
+        boolean precompilation
     ) {
         String lang = scriptEngine.getType();
-        CacheKey cacheKey = new CacheKey(lang, idOrCode, context.name, options);
+        CacheKey cacheKey = new CacheKey(lang, id, idOrCode, context.name, options);
 
         // Relying on computeIfAbsent to avoid multiple threads from compiling the same script
         try {
@@ -102,14 +133,18 @@ public class ScriptCache {
                         options
                     );
                 }
-                if (context.compilationRateLimited) {
+                if (compilationRateLimited) {
                     // Check whether too many compilations have happened
                     checkCompilationLimit();
                 }
                 Object compiledScript = scriptEngine.compile(id, idOrCode, context, options);
                 // Since the cache key is the script content itself we don't need to
                 // invalidate/check the cache if an indexed script changes.
-                scriptMetrics.onCompilation();
+                if (precompilation) {
+                    scriptMetrics.onPrecompilation();
+                } else {
+                    scriptMetrics.onCompilation();
+                }
                 return compiledScript;
             }));
         } catch (ExecutionException executionException) {
@@ -135,6 +170,17 @@ public class ScriptCache {
         return scriptMetrics.stats();
     }
 
+    /**
+     * Returns the scripts that are currently in this cache.
+     */
+    List<PersistedScripts.Entry> cachedScripts() {
+        List<PersistedScripts.Entry> entries = new ArrayList<>();
+        for (CacheKey key : cache.keys()) {
+            entries.add(new PersistedScripts.Entry(key.lang, key.context, key.id, key.idOrCode, key.options));
+        }
+        return entries;
+    }
+
     public ScriptContextStats stats(String context) {
         return scriptMetrics.stats(context);
     }
@@ -204,12 +250,15 @@ public class ScriptCache {
 
     private static final class CacheKey {
         final String lang;
+        // the name that the script was compiled under, which is not part of the key since it does not affect the compiled script
+        final String id;
         final String idOrCode;
         final String context;
         final Map<String, String> options;
 
-        private CacheKey(String lang, String idOrCode, String context, Map<String, String> options) {
+        private CacheKey(String lang, String id, String idOrCode, String context, Map<String, String> options) {
             this.lang = lang;
+            this.id = id;
             this.idOrCode = idOrCode;
             this.context = context;
             this.options = options;
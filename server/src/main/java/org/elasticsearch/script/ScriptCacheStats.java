@@ -114,12 +114,14 @@ public record ScriptCacheStats(Map<String, ScriptStats> context, ScriptStats gen
         long compilations = 0;
         long cacheEvictions = 0;
         long compilationLimitTriggered = 0;
+        long precompilations = 0;
         for (ScriptStats stat : context.values()) {
             compilations += stat.getCompilations();
             cacheEvictions += stat.getCacheEvictions();
             compilationLimitTriggered += stat.getCompilationLimitTriggered();
+            precompilations += stat.getPrecompilations();
         }
-        return new ScriptStats(compilations, cacheEvictions, compilationLimitTriggered, null, null);
+        return new ScriptStats(compilations, cacheEvictions, compilationLimitTriggered, null, null, precompilations);
     }
 
     static final class Fields {
@@ -28,6 +28,7 @@ import java.util.Objects;
  * @param cacheEvictions             Total of evictions.
  * @param cacheEvictionsHistory      Historical information of the evictions of scripts in timeseries format.
  * @param compilationLimitTriggered  Total times that a limit of compilations that have reached the limit.
+ * @param precompilations            Total number of scripts compiled from the persisted script cache when the node started.
  */
 public record ScriptContextStats(
     String context,
@@ -35,7 +36,8 @@ public record ScriptContextStats(
     TimeSeries compilationsHistory,
     long cacheEvictions,
     TimeSeries cacheEvictionsHistory,
-    long compilationLimitTriggered
+    long compilationLimitTriggered,
+    long precompilations
 ) implements Writeable, ToXContentFragment, Comparable<ScriptContextStats> {
 
     public ScriptContextStats(
@@ -43,6 +45,16 @@ public record ScriptContextStats(
         long compilationLimitTriggered,
         TimeSeries compilationsHistory,
         TimeSeries cacheEvictionsHistory
+    ) {
+        this(context, compilationLimitTriggered, compilationsHistory, cacheEvictionsHistory, 0);
+    }
+
+    public ScriptContextStats(
+        String context,
+        long compilationLimitTriggered,
+        TimeSeries compilationsHistory,
+        TimeSeries cacheEvictionsHistory,
+        long precompilations
     ) {
         this(
             Objects.requireNonNull(context),
@@ -50,7 +62,8 @@ public record ScriptContextStats(
             compilationsHistory,
             cacheEvictionsHistory.total,
             cacheEvictionsHistory,
-            compilationLimitTriggered
+            compilationLimitTriggered,
+            precompilations
         );
     }
 
@@ -71,13 +84,15 @@ public record ScriptContextStats(
             compilationsHistory = new TimeSeries(compilations);
             cacheEvictionsHistory = new TimeSeries(cacheEvictions);
         }
+        var precompilations = in.getTransportVersion().onOrAfter(TransportVersions.SCRIPT_PRECOMPILATION_STATS) ? in.readVLong() : 0L;
         return new ScriptContextStats(
             context,
             compilations,
             compilationsHistory,
             cacheEvictions,
             cacheEvictionsHistory,
-            compilationLimitTriggered
+            compilationLimitTriggered,
+            precompilations
         );
     }
 
@@ -89,7 +104,8 @@ public record ScriptContextStats(
             TimeSeries.merge(first.compilationsHistory, second.compilationsHistory),
             first.cacheEvictions + second.cacheEvictions,
             TimeSeries.merge(first.cacheEvictionsHistory, second.cacheEvictionsHistory),
-            first.compilationLimitTriggered + second.compilationLimitTriggered
+            first.compilationLimitTriggered + second.compilationLimitTriggered,
+            first.precompilations + second.precompilations
         );
     }
 
@@ -103,6 +119,9 @@ public record ScriptContextStats(
             compilationsHistory.writeTo(out);
             cacheEvictionsHistory.writeTo(out);
         }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.SCRIPT_PRECOMPILATION_STATS)) {
+            out.writeVLong(precompilations);
+        }
     }
 
     public String getContext() {
@@ -129,6 +148,10 @@ public record ScriptContextStats(
         return compilationLimitTriggered;
     }
 
+    public long getPrecompilations() {
+        return precompilations;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject();
@@ -151,6 +174,7 @@ public record ScriptContextStats(
         }
 
         builder.field(Fields.COMPILATION_LIMIT_TRIGGERED, getCompilationLimitTriggered());
+        builder.field(Fields.PRECOMPILATIONS, getPrecompilations());
         builder.endObject();
         return builder;
     }
@@ -167,6 +191,7 @@ public record ScriptContextStats(
         static final String CACHE_EVICTIONS = "cache_evictions";
         static final String CACHE_EVICTIONS_HISTORY = "cache_evictions_history";
         static final String COMPILATION_LIMIT_TRIGGERED = "compilation_limit_triggered";
+        static final String PRECOMPILATIONS = "precompilations";
         static final String FIVE_MINUTES = "5m";
         static final String FIFTEEN_MINUTES = "15m";
         static final String TWENTY_FOUR_HOURS = "24h";
@@ -15,6 +15,7 @@ import java.util.function.LongSupplier;
 
 public class ScriptMetrics {
     final CounterMetric compilationLimitTriggered = new CounterMetric();
+    final CounterMetric precompilations = new CounterMetric();
     final TimeSeriesCounter compilations;
     final TimeSeriesCounter cacheEvictions;
 
@@ -27,6 +28,10 @@ public class ScriptMetrics {
         compilations.inc();
     }
 
+    public void onPrecompilation() {
+        precompilations.inc();
+    }
+
     public void onCacheEviction() {
         cacheEvictions.inc();
     }
@@ -43,13 +48,20 @@ public class ScriptMetrics {
             cacheEvictionsTimeSeries.total,
             compilationLimitTriggered.count(),
             compilationsTimeSeries,
-            cacheEvictionsTimeSeries
+            cacheEvictionsTimeSeries,
+            precompilations.count()
         );
     }
 
     public ScriptContextStats stats(String context) {
         TimeSeries compilationsTimeSeries = compilations.timeSeries();
         TimeSeries cacheEvictionsTimeSeries = cacheEvictions.timeSeries();
-        return new ScriptContextStats(context, compilationLimitTriggered.count(), compilationsTimeSeries, cacheEvictionsTimeSeries);
+        return new ScriptContextStats(
+            context,
+            compilationLimitTriggered.count(),
+            compilationsTimeSeries,
+            cacheEvictionsTimeSeries,
+            precompilations.count()
+        );
     }
 }
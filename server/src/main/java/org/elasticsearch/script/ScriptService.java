@@ -32,6 +32,7 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.SuppressForbidden;
@@ -40,6 +41,7 @@ import org.elasticsearch.core.TimeValue;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -50,6 +52,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
@@ -161,6 +164,16 @@ public class ScriptService implements Closeable, ClusterStateApplier, ScriptComp
         Property.NodeScope
     );
 
+    /**
+     * Whether the scripts in the script caches are written to the data path when the node closes and compiled again when it starts, so
+     * that a restarted node does not need to compile the scripts it ran before, and does not hit the compilation rate limit doing so.
+     */
+    public static final Setting<Boolean> SCRIPT_CACHE_PERSIST_SETTING = Setting.boolSetting(
+        "script.cache.persist",
+        false,
+        Property.NodeScope
+    );
+
     public static final String ALLOW_NONE = "none";
 
     public static final Setting<List<String>> TYPES_ALLOWED_SETTING = Setting.stringListSetting(
@@ -186,6 +199,8 @@ public class ScriptService implements Closeable, ClusterStateApplier, ScriptComp
     // package private for tests
     final AtomicReference<CacheHolder> cacheHolder = new AtomicReference<>();
 
+    private volatile Path persistedScriptsFile;
+
     @SuppressWarnings("this-escape")
     public ScriptService(
         Settings settings,
@@ -527,9 +542,90 @@ public class ScriptService implements Closeable, ClusterStateApplier, ScriptComp
 
     @Override
     public void close() throws IOException {
+        Path file = persistedScriptsFile;
+        if (file != null) {
+            try {
+                PersistedScripts.write(file, cacheHolder.get().cachedScripts());
+            } catch (IOException e) {
+                logger.warn(() -> "failed to persist cached scripts to [" + file + "]", e);
+            }
+        }
         IOUtils.close(engines.values());
     }
 
+    /**
+     * Returns the file in the given data path that {@link #precompilePersistedScripts} reads the cached scripts from.
+     */
+    public static Path persistedScriptsFile(Path dataPath) {
+        return dataPath.resolve(PersistedScripts.FILE_NAME);
+    }
+
+    /**
+     * Compiles the scripts that were in the script caches when the node last closed into the script caches on the given executor, see
+     * {@link #precompilePersistedScripts(Path)}. Compiling many scripts takes a while, so nodes do this in the background once they
+     * have started.
+     */
+    public void precompilePersistedScripts(Path file, Executor executor) {
+        executor.execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() {
+                precompilePersistedScripts(file);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                logger.warn(() -> "failed to compile cached scripts from [" + file + "]", e);
+            }
+        });
+    }
+
+    /**
+     * Compiles the scripts that were in the script caches when the node last closed into the script caches, without counting them
+     * against the compilation rate limit, and persists the script caches to the same file when this service closes. Scripts whose
+     * language or context no longer exists, is not allowed, or that fail to compile are skipped. If this service closes before the
+     * scripts were compiled, the file is left as it is.
+     *
+     * @return the number of scripts that were compiled
+     */
+    public int precompilePersistedScripts(Path file) {
+        final List<PersistedScripts.Entry> entries;
+        try {
+            entries = PersistedScripts.read(file);
+        } catch (Exception e) {
+            logger.warn(() -> "failed to read cached scripts from [" + file + "]", e);
+            persistedScriptsFile = file;
+            return 0;
+        }
+        int compiled = 0;
+        for (PersistedScripts.Entry entry : entries) {
+            ScriptEngine scriptEngine = engines.get(entry.lang());
+            ScriptContext<?> context = contexts.get(entry.context());
+            if (scriptEngine == null || context == null || isContextEnabled(context) == false) {
+                continue;
+            }
+            ScriptType type = entry.id().equals(entry.source()) ? ScriptType.INLINE : ScriptType.STORED;
+            if (isTypeEnabled(type) == false) {
+                continue;
+            }
+            ScriptCache scriptCache = cacheHolder.get().get(context.name);
+            if (scriptCache == null) {
+                continue;
+            }
+            try {
+                scriptCache.precompile(context, scriptEngine, entry.id(), entry.source(), entry.options());
+                compiled++;
+            } catch (Exception e) {
+                logger.debug(() -> "failed to compile cached script [" + entry.id() + "] for context [" + entry.context() + "]", e);
+            }
+        }
+        if (entries.isEmpty() == false) {
+            logger.info("compiled [{}] of [{}] cached scripts from [{}]", compiled, entries.size(), file);
+        }
+        // the caches now hold the persisted scripts, so the file can be replaced with them from now on
+        persistedScriptsFile = file;
+        return compiled;
+    }
+
     /**
      * @return an unmodifiable {@link Map} of available script context names to {@link ScriptContext}s
      */
@@ -960,6 +1056,17 @@ public class ScriptService implements Closeable, ClusterStateApplier, ScriptComp
             return new ScriptCacheStats(context);
         }
 
+        List<PersistedScripts.Entry> cachedScripts() {
+            if (general != null) {
+                return general.cachedScripts();
+            }
+            List<PersistedScripts.Entry> entries = new ArrayList<>();
+            for (AtomicReference<ScriptCache> ref : contextCache.values()) {
+                entries.addAll(ref.get().cachedScripts());
+            }
+            return entries;
+        }
+
         /**
          * Update a single context cache if we're in the context cache mode otherwise no-op.
          */
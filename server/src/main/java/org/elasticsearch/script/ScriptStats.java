@@ -30,6 +30,7 @@ import static org.elasticsearch.script.ScriptStats.Fields.CACHE_EVICTIONS;
 import static org.elasticsearch.script.ScriptStats.Fields.COMPILATIONS;
 import static org.elasticsearch.script.ScriptStats.Fields.COMPILATION_LIMIT_TRIGGERED;
 import static org.elasticsearch.script.ScriptStats.Fields.CONTEXTS;
+import static org.elasticsearch.script.ScriptStats.Fields.PRECOMPILATIONS;
 import static org.elasticsearch.script.ScriptStats.Fields.SCRIPT_STATS;
 
 /**
@@ -41,6 +42,7 @@ import static org.elasticsearch.script.ScriptStats.Fields.SCRIPT_STATS;
  * @param compilationLimitTriggered  Total number of times that the compilation time has been reached.
  * @param compilationsHistory        Historical information of the compilations in timeseries format.
  * @param cacheEvictionsHistory      Historical information of the evictions in timeseries format.
+ * @param precompilations            Total number of scripts compiled from the persisted script cache when the node started.
  */
 public record ScriptStats(
     List<ScriptContextStats> contextStats,
@@ -48,17 +50,40 @@ public record ScriptStats(
     long cacheEvictions,
     long compilationLimitTriggered,
     TimeSeries compilationsHistory,
-    TimeSeries cacheEvictionsHistory
+    TimeSeries cacheEvictionsHistory,
+    long precompilations
 ) implements Writeable, ChunkedToXContent {
 
     public static final ScriptStats IDENTITY = new ScriptStats(0, 0, 0, new TimeSeries(0), new TimeSeries(0));
 
     public ScriptStats(
+        List<ScriptContextStats> contextStats,
         long compilations,
         long cacheEvictions,
         long compilationLimitTriggered,
         TimeSeries compilationsHistory,
         TimeSeries cacheEvictionsHistory
+    ) {
+        this(contextStats, compilations, cacheEvictions, compilationLimitTriggered, compilationsHistory, cacheEvictionsHistory, 0);
+    }
+
+    public ScriptStats(
+        long compilations,
+        long cacheEvictions,
+        long compilationLimitTriggered,
+        TimeSeries compilationsHistory,
+        TimeSeries cacheEvictionsHistory
+    ) {
+        this(compilations, cacheEvictions, compilationLimitTriggered, compilationsHistory, cacheEvictionsHistory, 0);
+    }
+
+    public ScriptStats(
+        long compilations,
+        long cacheEvictions,
+        long compilationLimitTriggered,
+        TimeSeries compilationsHistory,
+        TimeSeries cacheEvictionsHistory,
+        long precompilations
     ) {
         this(
             List.of(),
@@ -66,7 +91,8 @@ public record ScriptStats(
             cacheEvictions,
             compilationLimitTriggered,
             Objects.requireNonNullElseGet(compilationsHistory, () -> new TimeSeries(compilations)),
-            Objects.requireNonNullElseGet(cacheEvictionsHistory, () -> new TimeSeries(cacheEvictions))
+            Objects.requireNonNullElseGet(cacheEvictionsHistory, () -> new TimeSeries(cacheEvictions)),
+            precompilations
         );
     }
 
@@ -88,7 +114,8 @@ public record ScriptStats(
             first.cacheEvictions + second.cacheEvictions,
             first.compilationLimitTriggered + second.compilationLimitTriggered,
             TimeSeries.merge(first.compilationsHistory, second.compilationsHistory),
-            TimeSeries.merge(first.cacheEvictionsHistory, second.cacheEvictionsHistory)
+            TimeSeries.merge(first.cacheEvictionsHistory, second.cacheEvictionsHistory),
+            first.precompilations + second.precompilations
         );
     }
 
@@ -96,10 +123,12 @@ public record ScriptStats(
         long compilations = 0;
         long cacheEvictions = 0;
         long compilationLimitTriggered = 0;
+        long precompilations = 0;
         for (var stats : contextStats) {
             compilations += stats.getCompilations();
             cacheEvictions += stats.getCacheEvictions();
             compilationLimitTriggered += stats.getCompilationLimitTriggered();
+            precompilations += stats.getPrecompilations();
         }
         return new ScriptStats(
             contextStats.stream().sorted(ScriptContextStats::compareTo).toList(),
@@ -107,7 +136,8 @@ public record ScriptStats(
             cacheEvictions,
             compilationLimitTriggered,
             new TimeSeries(compilations),
-            new TimeSeries(cacheEvictions)
+            new TimeSeries(cacheEvictions),
+            precompilations
         );
     }
 
@@ -117,7 +147,8 @@ public record ScriptStats(
             context.getCacheEvictions(),
             context.getCompilationLimitTriggered(),
             context.getCompilationsHistory(),
-            context.getCacheEvictionsHistory()
+            context.getCacheEvictionsHistory(),
+            context.getPrecompilations()
         );
     }
 
@@ -139,13 +170,15 @@ public record ScriptStats(
         }
         var compilationLimitTriggered = in.readVLong();
         var contextStats = in.readCollectionAsList(ScriptContextStats::read);
+        var precompilations = in.getTransportVersion().onOrAfter(TransportVersions.SCRIPT_PRECOMPILATION_STATS) ? in.readVLong() : 0L;
         return new ScriptStats(
             contextStats,
             compilations,
             cacheEvictions,
             compilationLimitTriggered,
             compilationsHistory,
-            cacheEvictionsHistory
+            cacheEvictionsHistory,
+            precompilations
         );
     }
 
@@ -160,6 +193,9 @@ public record ScriptStats(
         }
         out.writeVLong(compilationLimitTriggered);
         out.writeCollection(contextStats);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.SCRIPT_PRECOMPILATION_STATS)) {
+            out.writeVLong(precompilations);
+        }
     }
 
     public List<ScriptContextStats> getContextStats() {
@@ -178,6 +214,10 @@ public record ScriptStats(
         return compilationLimitTriggered;
     }
 
+    public long getPrecompilations() {
+        return precompilations;
+    }
+
     public ScriptCacheStats toScriptCacheStats() {
         if (contextStats.isEmpty()) {
             return new ScriptCacheStats(this);
@@ -195,6 +235,7 @@ public record ScriptStats(
             ob.field(COMPILATIONS, compilations);
             ob.field(CACHE_EVICTIONS, cacheEvictions);
             ob.field(COMPILATION_LIMIT_TRIGGERED, compilationLimitTriggered);
+            ob.field(PRECOMPILATIONS, precompilations);
             if (compilationsHistory != null && compilationsHistory.areTimingsEmpty() == false) {
                 ob.xContentObject(COMPILATIONS_HISTORY, compilationsHistory);
             }
@@ -211,5 +252,6 @@ public record ScriptStats(
         static final String COMPILATIONS = "compilations";
         static final String CACHE_EVICTIONS = "cache_evictions";
         static final String COMPILATION_LIMIT_TRIGGERED = "compilation_limit_triggered";
+        static final String PRECOMPILATIONS = "precompilations";
     }
 }
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -37,6 +38,8 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
 
     public static final String VECTOR_OPERATIONS_COUNT = "vector_operations_count";
 
+    public static final String VECTOR_SEARCH_DEBUG = "vector_search_debug";
+
     private final List<ProfileResult> queryProfileResults;
 
     private final CollectorResult profileCollector;
@@ -45,17 +48,30 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
 
     private final Long vectorOperationsCount;
 
+    private final Map<String, Object> vectorSearchDebug;
+
     public QueryProfileShardResult(
         List<ProfileResult> queryProfileResults,
         long rewriteTime,
         CollectorResult profileCollector,
         @Nullable Long vectorOperationsCount
+    ) {
+        this(queryProfileResults, rewriteTime, profileCollector, vectorOperationsCount, Map.of());
+    }
+
+    public QueryProfileShardResult(
+        List<ProfileResult> queryProfileResults,
+        long rewriteTime,
+        CollectorResult profileCollector,
+        @Nullable Long vectorOperationsCount,
+        Map<String, Object> vectorSearchDebug
     ) {
         assert (profileCollector != null);
         this.queryProfileResults = queryProfileResults;
         this.profileCollector = profileCollector;
         this.rewriteTime = rewriteTime;
         this.vectorOperationsCount = vectorOperationsCount;
+        this.vectorSearchDebug = vectorSearchDebug == null ? Map.of() : vectorSearchDebug;
     }
 
     /**
@@ -71,6 +87,9 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         profileCollector = new CollectorResult(in);
         rewriteTime = in.readLong();
         vectorOperationsCount = (in.getTransportVersion().onOrAfter(TransportVersions.V_8_12_0)) ? in.readOptionalLong() : null;
+        vectorSearchDebug = in.getTransportVersion().onOrAfter(TransportVersions.KNN_PROFILE_VECTOR_SEARCH_DEBUG)
+            ? in.readGenericMap()
+            : Map.of();
     }
 
     @Override
@@ -84,6 +103,9 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         if (out.getTransportVersion().onOrAfter(TransportVersions.V_8_12_0)) {
             out.writeOptionalLong(vectorOperationsCount);
         }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.KNN_PROFILE_VECTOR_SEARCH_DEBUG)) {
+            out.writeGenericMap(vectorSearchDebug);
+        }
     }
 
     public List<ProfileResult> getQueryResults() {
@@ -98,12 +120,23 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         return profileCollector;
     }
 
+    /**
+     * Debugging information about how the vector search was executed, e.g. how many segments
+     * were searched exactly and how many through the vector graph.
+     */
+    public Map<String, Object> getVectorSearchDebug() {
+        return vectorSearchDebug;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject();
         if (vectorOperationsCount != null) {
             builder.field(VECTOR_OPERATIONS_COUNT, vectorOperationsCount);
         }
+        if (vectorSearchDebug.isEmpty() == false) {
+            builder.field(VECTOR_SEARCH_DEBUG, vectorSearchDebug);
+        }
         builder.startArray(QUERY_ARRAY);
         for (ProfileResult p : queryProfileResults) {
             p.toXContent(builder, params);
@@ -125,12 +158,13 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         QueryProfileShardResult other = (QueryProfileShardResult) obj;
         return queryProfileResults.equals(other.queryProfileResults)
             && profileCollector.equals(other.profileCollector)
-            && rewriteTime == other.rewriteTime;
+            && rewriteTime == other.rewriteTime
+            && vectorSearchDebug.equals(other.vectorSearchDebug);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(queryProfileResults, profileCollector, rewriteTime);
+        return Objects.hash(queryProfileResults, profileCollector, rewriteTime, vectorSearchDebug);
     }
 
     @Override
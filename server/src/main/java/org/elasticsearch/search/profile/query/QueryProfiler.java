@@ -13,6 +13,10 @@ import org.apache.lucene.search.Query;
 import org.elasticsearch.search.profile.AbstractProfiler;
 import org.elasticsearch.search.profile.Timer;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -35,6 +39,8 @@ public final class QueryProfiler extends AbstractProfiler<QueryProfileBreakdown,
 
     private long vectorOpsCount;
 
+    private final Map<String, Object> vectorSearchDebug = new TreeMap<>();
+
     public QueryProfiler() {
         super(new InternalQueryProfileTree());
     }
@@ -47,6 +53,18 @@ public final class QueryProfiler extends AbstractProfiler<QueryProfileBreakdown,
         return this.vectorOpsCount;
     }
 
+    /**
+     * Record debugging information about how a vector search was executed, e.g. the
+     * search strategy that was picked for each segment.
+     */
+    public void addVectorSearchDebug(String key, Object value) {
+        vectorSearchDebug.put(key, value);
+    }
+
+    public Map<String, Object> getVectorSearchDebug() {
+        return Collections.unmodifiableMap(vectorSearchDebug);
+    }
+
     /** Set the collector result that is associated with this profiler. */
     public void setCollectorResult(CollectorResult collectorResult) {
         if (this.collectorResult != null) {
@@ -0,0 +1,104 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.vectors;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.search.join.BitSetProducer;
+import org.apache.lucene.util.BitSet;
+import org.apache.lucene.util.BitSetIterator;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * A filter for kNN queries that is materialized once per segment through the
+ * {@link org.elasticsearch.index.cache.bitset.BitsetFilterCache} and then reused by every
+ * subsequent kNN query with the same filter, e.g. a filter on a tenant id that is sent with
+ * every request. Deleted documents are not part of the cached bit set, they are excluded by
+ * the kNN query itself.
+ */
+final class CachedBitSetFilterQuery extends Query {
+
+    private final Query filter;
+    private final BitSetProducer bitSetProducer;
+
+    CachedBitSetFilterQuery(Query filter, BitSetProducer bitSetProducer) {
+        this.filter = Objects.requireNonNull(filter);
+        this.bitSetProducer = Objects.requireNonNull(bitSetProducer);
+    }
+
+    Query getFilter() {
+        return filter;
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        return new ConstantScoreWeight(this, boost) {
+            @Override
+            public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+                final BitSet bitSet = bitSetProducer.getBitSet(context);
+                if (bitSet == null) {
+                    return null;
+                }
+                final int cost = bitSet.approximateCardinality();
+                return new ScorerSupplier() {
+                    @Override
+                    public Scorer get(long leadCost) {
+                        return new ConstantScoreScorer(score(), scoreMode, new BitSetIterator(bitSet, cost));
+                    }
+
+                    @Override
+                    public long cost() {
+                        return cost;
+                    }
+                };
+            }
+
+            @Override
+            public boolean isCacheable(LeafReaderContext ctx) {
+                // the bit set is already cached per segment
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        filter.visit(visitor.getSubVisitor(BooleanClause.Occur.FILTER, this));
+    }
+
+    @Override
+    public String toString(String field) {
+        return "CachedBitSetFilter(" + filter.toString(field) + ")";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (sameClassAs(o) == false) {
+            return false;
+        }
+        return filter.equals(((CachedBitSetFilterQuery) o).filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * classHash() + filter.hashCode();
+    }
+}
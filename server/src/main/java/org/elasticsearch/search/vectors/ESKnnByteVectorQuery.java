@@ -9,13 +9,24 @@
 
 package org.elasticsearch.search.vectors;
 
+import org.apache.lucene.index.ByteVectorValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.QueryTimeout;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.KnnByteVectorQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.knn.KnnCollectorManager;
+import org.apache.lucene.util.BitSet;
+import org.apache.lucene.util.BitSetIterator;
+import org.apache.lucene.util.Bits;
 import org.elasticsearch.search.profile.query.QueryProfiler;
 
+import java.io.IOException;
+
 public class ESKnnByteVectorQuery extends KnnByteVectorQuery implements ProfilingQuery {
     private final Integer kParam;
+    private final FilteredKnnSearchStrategy searchStrategy = new FilteredKnnSearchStrategy();
     private long vectorOpsCount;
 
     public ESKnnByteVectorQuery(String field, byte[] target, Integer k, int numCands, Query filter) {
@@ -23,6 +34,37 @@ public class ESKnnByteVectorQuery extends KnnByteVectorQuery implements Profilin
         this.kParam = k;
     }
 
+    @Override
+    protected TopDocs approximateSearch(
+        LeafReaderContext context,
+        Bits acceptDocs,
+        int visitedLimit,
+        KnnCollectorManager knnCollectorManager
+    ) throws IOException {
+        QueryTimeout queryTimeout = FilteredKnnSearchStrategy.queryTimeout(knnCollectorManager);
+        if (filter != null && acceptDocs instanceof BitSet filterBits) {
+            // with a filter the visited limit is the number of documents accepted by the filter plus one
+            int filterCardinality = visitedLimit - 1;
+            ByteVectorValues vectorValues = context.reader().getByteVectorValues(field);
+            if (vectorValues != null && searchStrategy.chooseExactSearch(filterCardinality, vectorValues.size(), k)) {
+                return exactSearch(context, new BitSetIterator(filterBits, filterCardinality), queryTimeout);
+            }
+        }
+        TopDocs results = super.approximateSearch(context, acceptDocs, visitedLimit, knnCollectorManager);
+        // a segment whose filtered graph search is followed by an exact search is counted by the exact search only
+        if (filter == null || FilteredKnnSearchStrategy.keepsApproximateResults(results, k, queryTimeout)) {
+            searchStrategy.onApproximateSearch();
+        }
+        return results;
+    }
+
+    @Override
+    protected TopDocs exactSearch(LeafReaderContext context, DocIdSetIterator acceptIterator, QueryTimeout queryTimeout)
+        throws IOException {
+        searchStrategy.onExactSearch();
+        return super.exactSearch(context, acceptIterator, queryTimeout);
+    }
+
     @Override
     protected TopDocs mergeLeafResults(TopDocs[] perLeafResults) {
         // if k param is set, we get only top k results from each shard
@@ -34,5 +76,6 @@ public class ESKnnByteVectorQuery extends KnnByteVectorQuery implements Profilin
     @Override
     public void profile(QueryProfiler queryProfiler) {
         queryProfiler.setVectorOpsCount(vectorOpsCount);
+        searchStrategy.profile(queryProfiler);
     }
 }
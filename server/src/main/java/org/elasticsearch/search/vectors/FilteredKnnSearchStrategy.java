@@ -0,0 +1,113 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.vectors;
+
+import org.apache.lucene.index.QueryTimeout;
+import org.apache.lucene.search.TimeLimitingKnnCollectorManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.knn.KnnCollectorManager;
+import org.elasticsearch.search.profile.query.QueryProfiler;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chooses, per segment, between scoring every document accepted by a kNN filter exactly and searching the
+ * vector graph, based on the measured selectivity of the filter and the number of vectors in the segment.
+ * Also keeps track of the choices made, and of the filter selectivity and cost estimates they were based on, so that they can be
+ * reported when the query is profiled.
+ */
+final class FilteredKnnSearchStrategy {
+
+    static final String EXACT_SEARCH_SEGMENTS = "exact_search_segments";
+    static final String APPROXIMATE_SEARCH_SEGMENTS = "approximate_search_segments";
+    static final String FILTER_CARDINALITY = "filter_cardinality";
+    static final String FILTERED_VECTOR_COUNT = "filtered_vector_count";
+    static final String FILTER_SELECTIVITY = "filter_selectivity";
+    static final String ESTIMATED_GRAPH_SEARCH_COST = "estimated_graph_search_cost";
+
+    private final LongAdder exactSearches = new LongAdder();
+    private final LongAdder approximateSearches = new LongAdder();
+    // the inputs of the choices between exact and graph search, summed over the segments that searched with a filter
+    private final LongAdder filterCardinality = new LongAdder();
+    private final LongAdder filteredVectorCount = new LongAdder();
+    private final DoubleAdder estimatedGraphSearchCost = new DoubleAdder();
+
+    /**
+     * Returns {@code true} if scoring all {@code filterCardinality} documents is expected to be cheaper than a
+     * graph search. A filtered graph search needs to visit roughly {@code 1 / selectivity} nodes for every candidate
+     * it collects, so it is estimated at {@code numCands * log2(vectorCount) / selectivity} vector comparisons, while
+     * an exact search performs exactly one comparison per document accepted by the filter.
+     */
+    static boolean preferExactSearch(int filterCardinality, int vectorCount, int numCands) {
+        if (vectorCount <= 0 || filterCardinality <= numCands) {
+            return true;
+        }
+        return filterCardinality <= estimatedGraphSearchCost(filterCardinality, vectorCount, numCands);
+    }
+
+    private static double estimatedGraphSearchCost(int filterCardinality, int vectorCount, int numCands) {
+        double selectivity = Math.min(1d, (double) filterCardinality / vectorCount);
+        return numCands * Math.max(1d, Math.log(vectorCount) / Math.log(2)) / selectivity;
+    }
+
+    /**
+     * Like {@link #preferExactSearch}, but also keeps track of the inputs of the choice so that they can be reported when the query
+     * is profiled.
+     */
+    boolean chooseExactSearch(int filterCardinality, int vectorCount, int numCands) {
+        this.filterCardinality.add(filterCardinality);
+        this.filteredVectorCount.add(vectorCount);
+        if (filterCardinality > 0 && vectorCount > 0) {
+            this.estimatedGraphSearchCost.add(estimatedGraphSearchCost(filterCardinality, vectorCount, numCands));
+        }
+        return preferExactSearch(filterCardinality, vectorCount, numCands);
+    }
+
+    /**
+     * Returns the timeout of the search that the graph search of a segment runs with, so that an exact search chosen in its place
+     * stops at the same time.
+     */
+    static QueryTimeout queryTimeout(KnnCollectorManager knnCollectorManager) {
+        return knnCollectorManager instanceof TimeLimitingKnnCollectorManager manager ? manager.getQueryTimeout() : null;
+    }
+
+    /**
+     * Returns {@code true} if the results of a filtered graph search are used as they are. Otherwise, i.e. if the graph search
+     * reached its visited limit or collected fewer than {@code k} results, Lucene searches the segment exactly instead. Partial
+     * results of a timed out search are used as they are.
+     */
+    static boolean keepsApproximateResults(TopDocs results, int k, QueryTimeout queryTimeout) {
+        return (results.totalHits.relation() == TotalHits.Relation.EQUAL_TO && results.scoreDocs.length >= k)
+            || (queryTimeout != null && queryTimeout.shouldExit());
+    }
+
+    void onExactSearch() {
+        exactSearches.increment();
+    }
+
+    void onApproximateSearch() {
+        approximateSearches.increment();
+    }
+
+    void profile(QueryProfiler queryProfiler) {
+        queryProfiler.addVectorSearchDebug(EXACT_SEARCH_SEGMENTS, exactSearches.sum());
+        queryProfiler.addVectorSearchDebug(APPROXIMATE_SEARCH_SEGMENTS, approximateSearches.sum());
+        long vectorCount = filteredVectorCount.sum();
+        if (vectorCount > 0) {
+            long cardinality = filterCardinality.sum();
+            queryProfiler.addVectorSearchDebug(FILTER_CARDINALITY, cardinality);
+            queryProfiler.addVectorSearchDebug(FILTERED_VECTOR_COUNT, vectorCount);
+            queryProfiler.addVectorSearchDebug(FILTER_SELECTIVITY, (double) cardinality / vectorCount);
+            queryProfiler.addVectorSearchDebug(ESTIMATED_GRAPH_SEARCH_COST, Math.round(estimatedGraphSearchCost.sum()));
+        }
+    }
+}
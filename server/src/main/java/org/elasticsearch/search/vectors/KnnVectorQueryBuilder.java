@@ -21,6 +21,7 @@ import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lucene.search.Queries;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.features.NodeFeature;
 import org.elasticsearch.index.mapper.MappedFieldType;
@@ -58,6 +59,20 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
     public static final NodeFeature K_PARAM_SUPPORTED = new NodeFeature("search.vectors.k_param_supported");
 
     public static final String NAME = "knn";
+
+    /**
+     * When enabled, the filter of a kNN query is materialized per segment through the
+     * {@link org.elasticsearch.index.cache.bitset.BitsetFilterCache} and reused across queries. This is
+     * meant for filters that are repeated on every request, like a tenant id, since cached bit sets are
+     * only released when the segment they belong to is closed.
+     */
+    public static final Setting<Boolean> INDEX_KNN_FILTER_BITSET_CACHE_SETTING = Setting.boolSetting(
+        "index.knn.filter_bitset_cache.enabled",
+        false,
+        Setting.Property.IndexScope,
+        Setting.Property.Dynamic
+    );
+
     private static final int NUM_CANDS_LIMIT = 10_000;
     private static final float NUM_CANDS_MULTIPLICATIVE_FACTOR = 1.5f;
 
@@ -493,6 +508,9 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
             }
             return vectorFieldType.createKnnQuery(queryVector, k, adjustedNumCands, filterQuery, vectorSimilarity, parentBitSet);
         }
+        if (filterQuery != null && context.getIndexSettings().getValue(INDEX_KNN_FILTER_BITSET_CACHE_SETTING)) {
+            filterQuery = new CachedBitSetFilterQuery(filterQuery, context.bitsetFilter(filterQuery));
+        }
         return vectorFieldType.createKnnQuery(queryVector, k, adjustedNumCands, filterQuery, vectorSimilarity, null);
     }
 
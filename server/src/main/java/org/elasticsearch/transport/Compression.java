@@ -19,6 +19,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.core.Booleans;
 import org.elasticsearch.lz4.ESLZ4Compressor;
 import org.elasticsearch.lz4.ESLZ4Decompressor;
+import org.elasticsearch.nativeaccess.NativeAccess;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -27,12 +28,15 @@ public class Compression {
 
     public enum Scheme {
         LZ4,
-        DEFLATE;
+        DEFLATE,
+        ZSTD;
 
         static final TransportVersion LZ4_VERSION = TransportVersions.V_7_14_0;
+        static final TransportVersion ZSTD_VERSION = TransportVersions.ZSTD_TRANSPORT_COMPRESSION;
         static final int HEADER_LENGTH = 4;
         private static final byte[] DEFLATE_HEADER = new byte[] { 'D', 'F', 'L', '\0' };
         private static final byte[] LZ4_HEADER = new byte[] { 'L', 'Z', '4', '\0' };
+        private static final byte[] ZSTD_HEADER = new byte[] { 'Z', 'S', 'T', '\0' };
         private static final int LZ4_BLOCK_SIZE;
         private static final boolean USE_FORKED_LZ4;
 
@@ -69,6 +73,15 @@ public class Compression {
             }
         }
 
+        public static boolean isZstd(BytesReference bytes) {
+            byte firstByte = bytes.get(0);
+            if (firstByte != Scheme.ZSTD_HEADER[0]) {
+                return false;
+            } else {
+                return validateHeader(bytes, ZSTD_HEADER);
+            }
+        }
+
         private static boolean validateHeader(BytesReference bytes, byte[] header) {
             for (int i = 1; i < Compression.Scheme.HEADER_LENGTH; ++i) {
                 if (bytes.get(i) != header[i]) {
@@ -96,6 +109,36 @@ public class Compression {
             }
             return new ReuseBuffersLZ4BlockOutputStream(outputStream, LZ4_BLOCK_SIZE, lz4Compressor);
         }
+
+        public static OutputStream zstdOutputStream(OutputStream outputStream) throws IOException {
+            outputStream.write(ZSTD_HEADER);
+            return new ZstdTransportOutputStream(outputStream);
+        }
+
+        /**
+         * Returns whether the native zstd library is available on this node, which it needs both to compress and to decompress zstd.
+         * Nodes tell each other during the transport handshake, see {@link TcpTransport.HandshakeResult#zstdSupported()}.
+         */
+        static boolean isZstdAvailable() {
+            return ZstdAvailability.AVAILABLE;
+        }
+
+        private static final class ZstdAvailability {
+            private static final boolean AVAILABLE = NativeAccess.instance().getZstd() != null;
+        }
+
+        /**
+         * Returns the scheme to use to compress a message for a node on the given transport version, which may not support the
+         * requested scheme yet, or {@code null} if the message should not be compressed. Zstandard falls back to LZ4 for nodes that
+         * do not know about it, or if the native library is not available on this node. Whether the receiving node has the native
+         * library is checked by the connection, see {@link TcpTransport.HandshakeResult#zstdSupported()}.
+         */
+        static Scheme adjustForVersion(TransportVersion version, Scheme compressionScheme) {
+            if (compressionScheme == ZSTD && (version.before(ZSTD_VERSION) || isZstdAvailable() == false)) {
+                compressionScheme = LZ4;
+            }
+            return compressionScheme == LZ4 && version.before(LZ4_VERSION) ? null : compressionScheme;
+        }
     }
 
     public enum Enabled {
@@ -32,6 +32,7 @@ import org.elasticsearch.common.network.NetworkAddress;
 import org.elasticsearch.common.network.NetworkService;
 import org.elasticsearch.common.network.NetworkUtils;
 import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.BoundTransportAddress;
@@ -60,10 +61,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -114,6 +117,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     protected final NetworkService networkService;
     protected final Set<ProfileSettings> profileSettingsSet;
     protected final boolean rstOnClose;
+    private final List<ActionCompressionScheme> compressionSchemeByAction;
     private final TransportVersion version;
     private final CircuitBreakerService circuitBreakerService;
 
@@ -155,6 +159,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         String nodeName = Node.NODE_NAME_SETTING.get(settings);
 
         this.rstOnClose = TransportSettings.RST_ON_CLOSE.get(settings);
+        this.compressionSchemeByAction = compressionSchemeByAction(settings);
 
         this.recycler = createRecycler(settings, pageCacheRecycler);
         this.outboundHandler = new OutboundHandler(
@@ -242,14 +247,10 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         private final TransportVersion version;
         private final Compression.Enabled compress;
         private final Compression.Scheme compressionScheme;
+        private final boolean zstdSupported;
         private final AtomicBoolean isClosing = new AtomicBoolean(false);
 
-        NodeChannels(
-            DiscoveryNode node,
-            List<TcpChannel> channels,
-            ConnectionProfile connectionProfile,
-            TransportVersion handshakeVersion
-        ) {
+        NodeChannels(DiscoveryNode node, List<TcpChannel> channels, ConnectionProfile connectionProfile, HandshakeResult handshakeResult) {
             this.node = node;
             this.channels = Collections.unmodifiableList(channels);
             assert channels.size() == connectionProfile.getNumConnections()
@@ -260,7 +261,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                     typeMapping.put(type, handle);
                 }
             }
-            version = handshakeVersion;
+            version = handshakeResult.transportVersion();
+            zstdSupported = handshakeResult.zstdSupported();
             compress = connectionProfile.getCompressionEnabled();
             compressionScheme = connectionProfile.getCompressionScheme();
         }
@@ -316,14 +318,14 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                 wrapped = request;
             }
 
-            final Compression.Scheme schemeToUse = getCompressionScheme(wrapped);
+            final Compression.Scheme schemeToUse = getCompressionScheme(action, wrapped);
             assert false == RemoteClusterService.REMOTE_CLUSTER_HANDSHAKE_ACTION_NAME.equals(action)
                 || REMOTE_CLUSTER_PROFILE.equals(channel.getProfile())
                 : "remote cluster handshake can only be sent through RCS remote cluster connection";
             outboundHandler.sendRequest(node, channel, requestId, action, request, options, getTransportVersion(), schemeToUse, false);
         }
 
-        private Compression.Scheme getCompressionScheme(TransportRequest request) {
+        private Compression.Scheme getCompressionScheme(String action, TransportRequest request) {
             // We compress if total transport compression is enabled or if indexing_data transport compression
             // is enabled and the request is a RawIndexingDataTransportRequest which indicates it should be
             // compressed.
@@ -331,7 +333,18 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                 || (compress == Compression.Enabled.INDEXING_DATA
                     && request instanceof RawIndexingDataTransportRequest
                     && ((RawIndexingDataTransportRequest) request).isRawIndexingData());
-            return shouldCompress ? compressionScheme : null;
+            if (shouldCompress == false) {
+                return null;
+            }
+            Compression.Scheme scheme = compressionScheme;
+            for (ActionCompressionScheme actionScheme : compressionSchemeByAction) {
+                if (Regex.simpleMatch(actionScheme.pattern(), action)) {
+                    scheme = actionScheme.scheme();
+                    break;
+                }
+            }
+            // only send zstd to nodes that said in the handshake that they can decompress it
+            return scheme == Compression.Scheme.ZSTD && zstdSupported == false ? Compression.Scheme.LZ4 : scheme;
         }
 
         @Override
@@ -947,11 +960,17 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         }
     }
 
+    /**
+     * The outcome of the transport-level handshake with a node: the transport version to use on the connection and whether the node
+     * can decompress messages compressed with {@link Compression.Scheme#ZSTD}.
+     */
+    public record HandshakeResult(TransportVersion transportVersion, boolean zstdSupported) {}
+
     public void executeHandshake(
         DiscoveryNode node,
         TcpChannel channel,
         ConnectionProfile profile,
-        ActionListener<TransportVersion> listener
+        ActionListener<HandshakeResult> listener
     ) {
         long requestId = responseHandlers.newRequestId();
         handshaker.sendHandshake(requestId, node, channel, profile.getHandshakeTimeout(), listener);
@@ -1008,6 +1027,67 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         );
     }
 
+    /**
+     * An action name pattern configured with {@link TransportSettings#TRANSPORT_COMPRESSION_SCHEME_BY_ACTION} and the scheme it picks.
+     */
+    record ActionCompressionScheme(String pattern, Compression.Scheme scheme) {}
+
+    /**
+     * Returns the action patterns configured with {@link TransportSettings#TRANSPORT_COMPRESSION_SCHEME_BY_ACTION} in the order in which
+     * they are matched, so that the first pattern that matches an action picks its scheme. If an action matches patterns of several
+     * schemes then the most specific pattern wins, i.e. the one with the most characters other than wildcards. Equally specific patterns
+     * are ordered by the pattern itself. A pattern may only be configured for one scheme.
+     */
+    static List<ActionCompressionScheme> compressionSchemeByAction(Settings settings) {
+        final Map<String, Compression.Scheme> schemeByPattern = new HashMap<>();
+        final Setting.AffixSetting<List<String>> setting = TransportSettings.TRANSPORT_COMPRESSION_SCHEME_BY_ACTION;
+        for (String namespace : setting.getNamespaces(settings)) {
+            final Compression.Scheme scheme;
+            try {
+                scheme = Compression.Scheme.valueOf(namespace.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                    "unknown compression scheme ["
+                        + namespace
+                        + "] in setting ["
+                        + setting.getConcreteSettingForNamespace(namespace).getKey()
+                        + "], expected one of "
+                        + Arrays.toString(Compression.Scheme.values()).toLowerCase(Locale.ROOT),
+                    e
+                );
+            }
+            for (String pattern : setting.getConcreteSettingForNamespace(namespace).get(settings)) {
+                final Compression.Scheme previous = schemeByPattern.putIfAbsent(pattern, scheme);
+                if (previous != null && previous != scheme) {
+                    throw new IllegalArgumentException(
+                        "action pattern ["
+                            + pattern
+                            + "] is configured for both compression schemes ["
+                            + previous.name().toLowerCase(Locale.ROOT)
+                            + "] and ["
+                            + namespace
+                            + "] in setting ["
+                            + setting.getKey()
+                            + "]"
+                    );
+                }
+            }
+        }
+        return schemeByPattern.entrySet()
+            .stream()
+            .map(entry -> new ActionCompressionScheme(entry.getKey(), entry.getValue()))
+            .sorted(
+                Comparator.comparingLong((ActionCompressionScheme actionScheme) -> literalLength(actionScheme.pattern()))
+                    .reversed()
+                    .thenComparing(ActionCompressionScheme::pattern)
+            )
+            .toList();
+    }
+
+    private static long literalLength(String pattern) {
+        return pattern.chars().filter(c -> c != '*').count();
+    }
+
     /**
      * Returns all profile settings for the given settings object
      */
@@ -1113,10 +1193,10 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             if (countDown.countDown()) {
                 final TcpChannel handshakeChannel = channels.get(0);
                 try {
-                    executeHandshake(node, handshakeChannel, connectionProfile, ActionListener.wrap(responseVersion -> {
+                    executeHandshake(node, handshakeChannel, connectionProfile, ActionListener.wrap(handshakeResult -> {
                         final long connectionId = outboundConnectionCount.incrementAndGet();
                         logger.debug("opened transport connection [{}] to [{}] using channels [{}]", connectionId, node, channels);
-                        NodeChannels nodeChannels = new NodeChannels(node, channels, connectionProfile, responseVersion);
+                        NodeChannels nodeChannels = new NodeChannels(node, channels, connectionProfile, handshakeResult);
                         long relativeMillisTime = threadPool.relativeTimeInMillis();
                         nodeChannels.channels.forEach(ch -> {
                             // Mark the channel init time
@@ -18,6 +18,7 @@ import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -37,9 +38,9 @@ final class TransportHandshaker {
 
     /*
      * The transport-level handshake allows the node that opened the connection to determine the newest protocol version with which it can
-     * communicate with the remote node. Each node sends its maximum acceptable protocol version to the other, but the responding node
-     * ignores the body of the request. After the handshake, the OutboundHandler uses the min(local,remote) protocol version for all later
-     * messages.
+     * communicate with the remote node. Each node sends its maximum acceptable protocol version to the other, but the responding node only
+     * uses the body of the request to decide whether its response says if it can decompress zstd. After the handshake, the OutboundHandler
+     * uses the min(local,remote) protocol version for all later messages.
      *
      * This version supports two handshake protocols, v6080099 and v7170099, which respectively have the same message structure as the
      * transport protocols of v6.8.0 and v7.17.0. This node only sends v7170099 requests, but it can send a valid response to any v6080099
@@ -109,11 +110,14 @@ final class TransportHandshaker {
      *       00                         -- no request headers [1]
      *       00                         -- no response headers [1]
      *    c3 f9 eb 03                   -- max acceptable protocol version (vInt: 00000011 11101011 11111001 11000011 == 8060099)
+     *    01                            -- whether the responding node can decompress zstd [4]
      *
      * [1] Thread context headers should be empty; see org.elasticsearch.common.util.concurrent.ThreadContext.ThreadContextStruct.writeTo
      *     for their structure.
      * [2] A list of strings, which can safely be ignored
      * [3] Parent task ID should be empty; see org.elasticsearch.tasks.TaskId.writeTo for its structure.
+     * [4] Only present if the protocol versions of both nodes are on or after ZSTD_TRANSPORT_COMPRESSION. The responding node reads the
+     *     version from the request to decide whether to write it, and the requesting node the version from the response to read it.
      */
 
     static final TransportVersion EARLIEST_HANDSHAKE_VERSION = TransportVersion.fromId(6080099);
@@ -146,7 +150,7 @@ final class TransportHandshaker {
         DiscoveryNode node,
         TcpChannel channel,
         TimeValue timeout,
-        ActionListener<TransportVersion> listener
+        ActionListener<TcpTransport.HandshakeResult> listener
     ) {
         numHandshakes.inc();
         final HandshakeResponseHandler handler = new HandshakeResponseHandler(requestId, listener);
@@ -175,9 +179,10 @@ final class TransportHandshaker {
     }
 
     void handleHandshake(TransportChannel channel, long requestId, StreamInput stream) throws IOException {
+        final HandshakeRequest request;
         try {
             // Must read the handshake request to exhaust the stream
-            new HandshakeRequest(stream);
+            request = new HandshakeRequest(stream);
         } catch (Exception e) {
             assert ignoreDeserializationErrors : e;
             throw e;
@@ -196,7 +201,7 @@ final class TransportHandshaker {
             assert ignoreDeserializationErrors : exception;
             throw exception;
         }
-        channel.sendResponse(new HandshakeResponse(this.version));
+        channel.sendResponse(new HandshakeResponse(this.version, request.version, Compression.Scheme.isZstdAvailable()));
     }
 
     TransportResponseHandler<HandshakeResponse> removeHandlerForHandshake(long requestId) {
@@ -214,17 +219,17 @@ final class TransportHandshaker {
     private class HandshakeResponseHandler implements TransportResponseHandler<HandshakeResponse> {
 
         private final long requestId;
-        private final ActionListener<TransportVersion> listener;
+        private final ActionListener<TcpTransport.HandshakeResult> listener;
         private final AtomicBoolean isDone = new AtomicBoolean(false);
 
-        private HandshakeResponseHandler(long requestId, ActionListener<TransportVersion> listener) {
+        private HandshakeResponseHandler(long requestId, ActionListener<TcpTransport.HandshakeResult> listener) {
             this.requestId = requestId;
             this.listener = listener;
         }
 
         @Override
         public HandshakeResponse read(StreamInput in) throws IOException {
-            return new HandshakeResponse(in);
+            return new HandshakeResponse(in, version);
         }
 
         @Override
@@ -247,7 +252,7 @@ final class TransportHandshaker {
                         )
                     );
                 } else {
-                    listener.onResponse(responseVersion);
+                    listener.onResponse(new TcpTransport.HandshakeResult(responseVersion, response.zstdSupported));
                 }
             }
         }
@@ -306,25 +311,48 @@ final class TransportHandshaker {
     static final class HandshakeResponse extends TransportResponse {
 
         private final TransportVersion responseVersion;
+        // the version of the node that sent the request, null if the request did not carry one or was not read by this node
+        @Nullable
+        private final TransportVersion requestVersion;
+        private final boolean zstdSupported;
 
         HandshakeResponse(TransportVersion responseVersion) {
+            this(responseVersion, null, false);
+        }
+
+        HandshakeResponse(TransportVersion responseVersion, @Nullable TransportVersion requestVersion, boolean zstdSupported) {
             this.responseVersion = responseVersion;
+            this.requestVersion = requestVersion;
+            this.zstdSupported = zstdSupported;
         }
 
-        private HandshakeResponse(StreamInput in) throws IOException {
+        HandshakeResponse(StreamInput in, TransportVersion localVersion) throws IOException {
             super(in);
             responseVersion = TransportVersion.readVersion(in);
+            requestVersion = localVersion;
+            zstdSupported = supportsZstdFlag(responseVersion, localVersion) && in.readBoolean();
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             assert responseVersion != null;
             TransportVersion.writeVersion(responseVersion, out);
+            if (requestVersion != null && supportsZstdFlag(responseVersion, requestVersion)) {
+                out.writeBoolean(zstdSupported);
+            }
+        }
+
+        private static boolean supportsZstdFlag(TransportVersion responseVersion, TransportVersion requestVersion) {
+            return responseVersion.onOrAfter(Compression.Scheme.ZSTD_VERSION) && requestVersion.onOrAfter(Compression.Scheme.ZSTD_VERSION);
         }
 
         TransportVersion getResponseVersion() {
             return responseVersion;
         }
+
+        boolean isZstdSupported() {
+            return zstdSupported;
+        }
     }
 
     @FunctionalInterface
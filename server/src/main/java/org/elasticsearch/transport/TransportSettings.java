@@ -78,6 +78,16 @@ public final class TransportSettings {
         Compression.Scheme.LZ4,
         Setting.Property.NodeScope
     );
+    /**
+     * Action name patterns whose messages use the compression scheme named by the setting's namespace rather than
+     * {@link #TRANSPORT_COMPRESSION_SCHEME}, e.g. {@code transport.compression_scheme_by_action.zstd: ["indices:data/write/bulk[s]"]}.
+     * These only pick the scheme, whether a message is compressed at all is still governed by {@link #TRANSPORT_COMPRESS}. If an action
+     * matches patterns of several schemes, the pattern with the most characters other than wildcards wins.
+     */
+    public static final Setting.AffixSetting<List<String>> TRANSPORT_COMPRESSION_SCHEME_BY_ACTION = Setting.prefixKeySetting(
+        "transport.compression_scheme_by_action.",
+        key -> stringListSetting(key, Setting.Property.NodeScope)
+    );
     // the scheduled internal ping interval setting, defaults to disabled (-1)
     public static final Setting<TimeValue> PING_SCHEDULE = timeSetting(
         "transport.ping_schedule",
@@ -0,0 +1,99 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.transport;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasables;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link RecyclerBytesStreamOutput} for outbound messages that does not copy large {@link ReleasableBytesReference}s, such as the
+ * sources of the documents of a bulk request that were sliced from the buffers they were received in, into its pages. It retains them
+ * instead and splices them in between its pages in {@link #bytes()} so that they are written to the channel by reference with a
+ * gathering write. The references are released when this stream is closed, which happens once the message has been written.
+ *
+ * {@link #position()} and {@link #seek} only account for the bytes that have been copied into the pages of this stream, so callers
+ * may only seek back to overwrite bytes that were written before the first retained reference, like the transport header.
+ */
+final class ZeroCopyBytesStreamOutput extends RecyclerBytesStreamOutput {
+
+    /**
+     * References smaller than this are copied, since copying them is cheaper than an additional buffer in the gathering write.
+     */
+    static final int MIN_ZERO_COPY_LENGTH = 2048;
+
+    private final List<RetainedReference> retainedReferences = new ArrayList<>();
+
+    private record RetainedReference(int position, ReleasableBytesReference bytes) {}
+
+    ZeroCopyBytesStreamOutput(Recycler<BytesRef> recycler) {
+        super(recycler);
+    }
+
+    @Override
+    public void writeBytesReference(@Nullable BytesReference bytes) throws IOException {
+        if (bytes instanceof ReleasableBytesReference releasable && bytes.length() >= MIN_ZERO_COPY_LENGTH && releasable.tryIncRef()) {
+            writeVInt(bytes.length());
+            retainedReferences.add(new RetainedReference(size(), releasable));
+        } else {
+            super.writeBytesReference(bytes);
+        }
+    }
+
+    /**
+     * Number of references that have been retained rather than copied.
+     */
+    int retainedReferences() {
+        return retainedReferences.size();
+    }
+
+    @Override
+    public BytesReference bytes() {
+        final BytesReference pages = super.bytes();
+        if (retainedReferences.isEmpty()) {
+            return pages;
+        }
+        final List<BytesReference> parts = new ArrayList<>(2 * retainedReferences.size() + 1);
+        int from = 0;
+        for (RetainedReference retained : retainedReferences) {
+            assert retained.position() <= pages.length() : "cannot seek back past a retained reference";
+            if (retained.position() > from) {
+                parts.add(pages.slice(from, retained.position() - from));
+            }
+            parts.add(retained.bytes());
+            from = retained.position();
+        }
+        if (pages.length() > from) {
+            parts.add(pages.slice(from, pages.length() - from));
+        }
+        return CompositeBytesReference.of(parts.toArray(BytesReference[]::new));
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            for (RetainedReference retained : retainedReferences) {
+                Releasables.closeExpectNoException(retained.bytes());
+            }
+            retainedReferences.clear();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.transport;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+import org.elasticsearch.nativeaccess.NativeAccess;
+import org.elasticsearch.nativeaccess.Zstd;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Decompresses a stream of blocks written by {@link ZstdTransportOutputStream}. Blocks are decompressed as soon as they have been fully
+ * received so that decompressed pages can be handed over to the inbound pipeline while the rest of the message is still on the wire.
+ */
+public class ZstdTransportDecompressor extends TransportDecompressor {
+
+    static final int BLOCK_HEADER_LENGTH = 2 * Integer.BYTES;
+
+    private enum State {
+        INIT_BLOCK,
+        DECOMPRESS_DATA,
+        FINISHED,
+        CORRUPTED
+    }
+
+    private final NativeAccess nativeAccess = NativeAccess.instance();
+    private final Zstd zstd = nativeAccess.getZstd();
+
+    private State currentState = State.INIT_BLOCK;
+    private int compressedLength;
+    private int decompressedLength;
+    private CloseableByteBuffer src;
+    private CloseableByteBuffer dest;
+
+    public ZstdTransportDecompressor(Recycler<BytesRef> recycler) {
+        super(recycler);
+        if (zstd == null) {
+            throw new IllegalStateException("received a zstd compressed message but zstd is not available on this platform");
+        }
+    }
+
+    @Override
+    public Compression.Scheme getScheme() {
+        return Compression.Scheme.ZSTD;
+    }
+
+    @Override
+    public int decompress(BytesReference bytesReference) throws IOException {
+        int bytesConsumed = 0;
+        if (hasSkippedHeader == false) {
+            hasSkippedHeader = true;
+            int esHeaderLength = Compression.Scheme.HEADER_LENGTH;
+            bytesReference = bytesReference.slice(esHeaderLength, bytesReference.length() - esHeaderLength);
+            bytesConsumed += esHeaderLength;
+        }
+
+        while (true) {
+            int consumed = decodeBlock(bytesReference);
+            bytesConsumed += consumed;
+            int newLength = bytesReference.length() - consumed;
+            if (consumed > 0 && newLength > 0) {
+                bytesReference = bytesReference.slice(consumed, newLength);
+            } else {
+                break;
+            }
+        }
+
+        return bytesConsumed;
+    }
+
+    private int decodeBlock(BytesReference reference) throws IOException {
+        try {
+            switch (currentState) {
+                case INIT_BLOCK:
+                    if (reference.length() < BLOCK_HEADER_LENGTH) {
+                        return 0;
+                    }
+                    final int compressedLength = reference.getInt(0);
+                    final int decompressedLength = reference.getInt(Integer.BYTES);
+                    final int maxCompressedLength = zstd.compressBound(ZstdTransportOutputStream.BLOCK_SIZE);
+                    if (compressedLength < 0 || compressedLength > maxCompressedLength) {
+                        throw new IllegalStateException(
+                            String.format(
+                                Locale.ROOT,
+                                "invalid compressedLength: %d (expected: 0-%d)",
+                                compressedLength,
+                                maxCompressedLength
+                            )
+                        );
+                    }
+                    if (decompressedLength < 0 || decompressedLength > ZstdTransportOutputStream.BLOCK_SIZE) {
+                        throw new IllegalStateException(
+                            String.format(
+                                Locale.ROOT,
+                                "invalid decompressedLength: %d (expected: 0-%d)",
+                                decompressedLength,
+                                ZstdTransportOutputStream.BLOCK_SIZE
+                            )
+                        );
+                    }
+                    if ((decompressedLength == 0) != (compressedLength == 0)) {
+                        throw new IllegalStateException(
+                            String.format(
+                                Locale.ROOT,
+                                "stream corrupted: compressedLength(%d) and decompressedLength(%d) mismatch",
+                                compressedLength,
+                                decompressedLength
+                            )
+                        );
+                    }
+                    if (decompressedLength == 0) {
+                        currentState = State.FINISHED;
+                        releaseBuffers();
+                    } else {
+                        this.compressedLength = compressedLength;
+                        this.decompressedLength = decompressedLength;
+                        currentState = State.DECOMPRESS_DATA;
+                    }
+                    return BLOCK_HEADER_LENGTH;
+                case DECOMPRESS_DATA:
+                    if (reference.length() < this.compressedLength) {
+                        return 0;
+                    }
+                    decompressBlock(reference);
+                    currentState = State.INIT_BLOCK;
+                    return this.compressedLength;
+                case FINISHED:
+                    return 0;
+                case CORRUPTED:
+                    throw new IllegalStateException("zstd stream corrupted.");
+                default:
+                    throw new IllegalStateException();
+            }
+        } catch (IOException | RuntimeException e) {
+            currentState = State.CORRUPTED;
+            throw e;
+        }
+    }
+
+    private void decompressBlock(BytesReference reference) throws IOException {
+        if (src == null || src.buffer().capacity() < compressedLength) {
+            Releasables.close(src);
+            src = null;
+            src = nativeAccess.newBuffer(compressedLength);
+        }
+        if (dest == null || dest.buffer().capacity() < decompressedLength) {
+            Releasables.close(dest);
+            dest = null;
+            dest = nativeAccess.newBuffer(decompressedLength);
+        }
+
+        src.buffer().clear();
+        final BytesRefIterator iterator = reference.slice(0, compressedLength).iterator();
+        BytesRef ref;
+        while ((ref = iterator.next()) != null) {
+            src.buffer().put(ref.bytes, ref.offset, ref.length);
+        }
+        src.buffer().flip();
+        dest.buffer().clear();
+        dest.buffer().limit(decompressedLength);
+
+        final int decompressed;
+        try {
+            decompressed = zstd.decompress(dest, src);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(e);
+        }
+        if (decompressed != decompressedLength) {
+            throw new IllegalStateException(
+                String.format(Locale.ROOT, "stream corrupted: expected %d decompressed bytes, got %d", decompressedLength, decompressed)
+            );
+        }
+
+        int bytesToCopy = decompressedLength;
+        int uncompressedOffset = 0;
+        while (bytesToCopy > 0) {
+            maybeAddNewPage();
+            final Recycler.V<BytesRef> page = pages.getLast();
+            int toCopy = Math.min(bytesToCopy, pageLength - pageOffset);
+            dest.buffer().get(uncompressedOffset, page.v().bytes, page.v().offset + pageOffset, toCopy);
+            pageOffset += toCopy;
+            bytesToCopy -= toCopy;
+            uncompressedOffset += toCopy;
+        }
+    }
+
+    private void releaseBuffers() {
+        Releasables.close(src, dest);
+        src = null;
+        dest = null;
+    }
+
+    /**
+     * Returns {@code true} if and only if the end of the compressed stream
+     * has been reached.
+     */
+    public boolean isClosed() {
+        return currentState == State.FINISHED;
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            releaseBuffers();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.transport;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+import org.elasticsearch.nativeaccess.NativeAccess;
+import org.elasticsearch.nativeaccess.Zstd;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses a transport message with Zstandard. The message is split into blocks of at most {@link #BLOCK_SIZE} bytes that are
+ * compressed independently, so that {@link ZstdTransportDecompressor} can decompress them as they arrive on the wire. Each block is
+ * written as its compressed length and decompressed length, both as big-endian ints, followed by the compressed bytes. The stream is
+ * terminated by a block whose lengths are both zero.
+ *
+ * Like {@link ReuseBuffersLZ4BlockOutputStream}, a single thread is expected to write the whole stream in one go since the buffer that
+ * collects uncompressed bytes is thread local.
+ */
+class ZstdTransportOutputStream extends FilterOutputStream {
+
+    static final int BLOCK_SIZE = 256 * 1024;
+    static final int COMPRESSION_LEVEL = 3;
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> BytesRef.EMPTY_BYTES);
+
+    private final NativeAccess nativeAccess = NativeAccess.instance();
+    private final Zstd zstd = nativeAccess.getZstd();
+    private final byte[] buffer;
+    private final byte[] header = new byte[2 * Integer.BYTES];
+    private CloseableByteBuffer src;
+    private CloseableByteBuffer dest;
+    private int count;
+    private boolean finished;
+
+    ZstdTransportOutputStream(OutputStream out) {
+        super(out);
+        if (zstd == null) {
+            throw new IllegalStateException("zstd compression is not available on this platform");
+        }
+        byte[] buffer = BUFFER.get();
+        if (buffer.length < BLOCK_SIZE) {
+            buffer = new byte[BLOCK_SIZE];
+            BUFFER.set(buffer);
+        }
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureNotFinished();
+        if (count == BLOCK_SIZE) {
+            flushBlock();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureNotFinished();
+        while (len > 0) {
+            if (count == BLOCK_SIZE) {
+                flushBlock();
+            }
+            final int toCopy = Math.min(len, BLOCK_SIZE - count);
+            System.arraycopy(b, off, buffer, count, toCopy);
+            count += toCopy;
+            off += toCopy;
+            len -= toCopy;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (finished == false) {
+            flushBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (finished == false) {
+                flushBlock();
+                writeBlockHeader(0, 0);
+                finished = true;
+            }
+            out.close();
+        } finally {
+            Releasables.close(src, dest);
+            src = null;
+            dest = null;
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        if (src == null || src.buffer().capacity() < count) {
+            Releasables.close(src, dest);
+            src = null;
+            dest = null;
+            src = nativeAccess.newBuffer(count);
+            dest = nativeAccess.newBuffer(zstd.compressBound(count));
+        }
+        src.buffer().clear();
+        src.buffer().put(buffer, 0, count);
+        src.buffer().flip();
+
+        final int compressedLength = zstd.compress(dest, src, COMPRESSION_LEVEL);
+        writeBlockHeader(compressedLength, count);
+        // the uncompressed bytes have been consumed, so the block buffer can be reused to copy the compressed bytes out of native memory
+        for (int written = 0; written < compressedLength;) {
+            final int numBytes = Math.min(buffer.length, compressedLength - written);
+            dest.buffer().get(written, buffer, 0, numBytes);
+            out.write(buffer, 0, numBytes);
+            written += numBytes;
+        }
+        count = 0;
+    }
+
+    private void writeBlockHeader(int compressedLength, int decompressedLength) throws IOException {
+        writeInt(header, 0, compressedLength);
+        writeInt(header, Integer.BYTES, decompressedLength);
+        out.write(header, 0, header.length);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private void ensureNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("This stream is already closed");
+        }
+    }
+}
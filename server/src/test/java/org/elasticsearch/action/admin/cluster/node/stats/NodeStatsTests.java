@@ -450,6 +450,8 @@ public class NodeStatsTests extends ESTestCase {
                 } else {
                     assertEquals(adaptiveStats.getOutgoingConnections(), deserializedAdaptiveStats.getOutgoingConnections());
                     assertEquals(adaptiveStats.getRanks(), deserializedAdaptiveStats.getRanks());
+                    assertEquals(adaptiveStats.getHedgedSearches(), deserializedAdaptiveStats.getHedgedSearches());
+                    assertEquals(adaptiveStats.getHedgedSearchesWon(), deserializedAdaptiveStats.getHedgedSearchesWon());
                     adaptiveStats.getComputedStats().forEach((k, v) -> {
                         ResponseCollectorService.ComputedNodeStats aStats = adaptiveStats.getComputedStats().get(k);
                         ResponseCollectorService.ComputedNodeStats bStats = deserializedAdaptiveStats.getComputedStats().get(k);
@@ -934,6 +936,8 @@ public class NodeStatsTests extends ESTestCase {
                             randomNonNegativeLong(),
                             randomNonNegativeLong(),
                             randomNonNegativeLong(),
+                            randomNonNegativeLong(),
+                            randomNonNegativeLong(),
                             randomNonNegativeLong()
                         )
                     )
@@ -1013,6 +1017,8 @@ public class NodeStatsTests extends ESTestCase {
             int numNodes = randomIntBetween(0, 10);
             Map<String, Long> nodeConnections = new HashMap<>();
             Map<String, ResponseCollectorService.ComputedNodeStats> nodeStats = new HashMap<>();
+            Map<String, Long> hedgedSearches = new HashMap<>();
+            Map<String, Long> hedgedSearchesWon = new HashMap<>();
             for (int i = 0; i < numNodes; i++) {
                 String nodeId = randomAlphaOfLengthBetween(3, 10);
                 // add outgoing connection info
@@ -1030,8 +1036,14 @@ public class NodeStatsTests extends ESTestCase {
                     );
                     nodeStats.put(nodeId, stats);
                 }
+                // add hedged requests
+                if (rarely()) {
+                    long hedged = randomLongBetween(0, 100);
+                    hedgedSearches.put(nodeId, hedged);
+                    hedgedSearchesWon.put(nodeId, randomLongBetween(0, hedged));
+                }
             }
-            adaptiveSelectionStats = new AdaptiveSelectionStats(nodeConnections, nodeStats);
+            adaptiveSelectionStats = new AdaptiveSelectionStats(nodeConnections, nodeStats, hedgedSearches, hedgedSearchesWon);
         }
         ScriptCacheStats scriptCacheStats = scriptStats != null ? scriptStats.toScriptCacheStats() : null;
         IndexingPressureStats indexingPressureStats = null;
@@ -12,6 +12,8 @@ package org.elasticsearch.action.bulk;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.core.UpdateForV10;
 import org.elasticsearch.test.ESTestCase;
@@ -148,6 +150,43 @@ public class BulkRequestParserTests extends ESTestCase {
         }, req -> fail(), req -> fail());
     }
 
+    public void testIndexRequestSourceSharesReleasableData() throws IOException {
+        final AtomicBoolean released = new AtomicBoolean();
+        final ReleasableBytesReference request = new ReleasableBytesReference(new BytesArray("""
+            { "index":{ "_id": "bar" } }
+            { "field": "value" }
+            """), () -> released.set(true));
+        final List<IndexRequest> indexRequests = new ArrayList<>();
+        BulkRequestParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current());
+        parser.parse(
+            request,
+            "foo",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            false,
+            XContentType.JSON,
+            (indexRequest, type) -> indexRequests.add(indexRequest),
+            req -> fail(),
+            req -> fail()
+        );
+        assertThat(indexRequests, Matchers.hasSize(1));
+        final BytesReference source = indexRequests.get(0).source();
+        assertEquals(new BytesArray("{ \"field\": \"value\" }"), source);
+        assertThat(source, Matchers.instanceOf(ReleasableBytesReference.class));
+
+        // the source can retain the request body it has been sliced from
+        final ReleasableBytesReference releasableSource = (ReleasableBytesReference) source;
+        assertTrue(releasableSource.tryIncRef());
+        request.close();
+        assertFalse(released.get());
+        releasableSource.close();
+        assertTrue(released.get());
+    }
+
     public void testDeleteRequest() throws IOException {
         BytesArray request = new BytesArray("""
             { "delete":{ "_id": "bar" } }
@@ -0,0 +1,225 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexingPressure;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.client.NoOpClient;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class IncrementalBulkServiceTests extends ESTestCase {
+
+    private static final ShardId SHARD_ID = new ShardId("index", "_na_", 0);
+
+    private TestThreadPool threadPool;
+    private RecordingBulkClient client;
+    private IndexingPressure indexingPressure;
+    private IncrementalBulkService service;
+    private final AtomicInteger released = new AtomicInteger();
+    private final AtomicInteger nextItemsRequested = new AtomicInteger();
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = createThreadPool();
+        client = new RecordingBulkClient(threadPool);
+        indexingPressure = new IndexingPressure(Settings.EMPTY);
+        // every item is larger than the dispatch size, so that each addition reaches it
+        Settings settings = Settings.builder().put(IncrementalBulkService.INCREMENTAL_BULK_DISPATCH_SIZE.getKey(), "1kb").build();
+        service = new IncrementalBulkService(client, indexingPressure, settings);
+        released.set(0);
+        nextItemsRequested.set(0);
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        threadPool.close();
+        super.tearDown();
+    }
+
+    public void testBulksAreDispatchedInOrderOneAtATime() {
+        PlainActionFuture<BulkResponse> future = new PlainActionFuture<>();
+        try (IncrementalBulkService.Handler handler = service.newBulkRequest()) {
+            // the first items reach the dispatch size, so they are dispatched and reading continues
+            handler.addItems(items("1"), this::onRelease, nextItemsRequested::incrementAndGet);
+            assertThat(client.bulks, hasSize(1));
+            assertThat(ids(client.request(0)), contains("1"));
+            assertThat(nextItemsRequested.get(), equalTo(1));
+
+            // the next items wait for the bulk in flight, and reading pauses
+            handler.addItems(items("2", "3"), this::onRelease, nextItemsRequested::incrementAndGet);
+            assertThat(client.bulks, hasSize(1));
+            assertThat(nextItemsRequested.get(), equalTo(1));
+
+            // once the bulk in flight completes the buffered items are dispatched with its shard level failures, and reading resumes
+            Map<ShardId, Exception> shardLevelFailures = Map.of(SHARD_ID, new ElasticsearchException("shard failure"));
+            client.respond(0, shardLevelFailures);
+            assertThat(released.get(), equalTo(1));
+            assertThat(client.bulks, hasSize(2));
+            assertThat(ids(client.request(1)), contains("2", "3"));
+            assertThat(client.request(1).incrementalState().shardLevelFailures(), equalTo(shardLevelFailures));
+            assertThat(nextItemsRequested.get(), equalTo(2));
+
+            // the last items also wait for the bulk in flight
+            handler.lastItems(items("4"), this::onRelease, future);
+            assertThat(client.bulks, hasSize(2));
+            client.respond(1, Map.of());
+            assertThat(released.get(), equalTo(2));
+            assertThat(client.bulks, hasSize(3));
+            assertThat(ids(client.request(2)), contains("4"));
+            assertFalse(future.isDone());
+
+            client.respond(2, Map.of());
+            BulkResponse response = safeGet(future);
+            assertFalse(response.hasFailures());
+            assertThat(Arrays.stream(response.getItems()).map(BulkItemResponse::getId).toList(), contains("1", "2", "3", "4"));
+        }
+        assertThat(released.get(), equalTo(3));
+        assertThat(indexingPressure.stats().getCurrentCoordinatingBytes(), equalTo(0L));
+    }
+
+    public void testFailureOfPartiallyDispatchedRequest() {
+        PlainActionFuture<BulkResponse> future = new PlainActionFuture<>();
+        ElasticsearchException failure = new ElasticsearchException("bulk failed");
+        try (IncrementalBulkService.Handler handler = service.newBulkRequest()) {
+            handler.addItems(items("1"), this::onRelease, nextItemsRequested::incrementAndGet);
+            handler.addItems(items("2"), this::onRelease, nextItemsRequested::incrementAndGet);
+            client.respond(0, Map.of());
+            assertThat(client.bulks, hasSize(2));
+            handler.addItems(items("3"), this::onRelease, nextItemsRequested::incrementAndGet);
+            assertThat(nextItemsRequested.get(), equalTo(2));
+
+            // the items buffered behind the failed bulk are failed with it and released, and reading resumes
+            client.fail(1, failure);
+            assertThat(released.get(), equalTo(3));
+            assertThat(nextItemsRequested.get(), equalTo(3));
+
+            // the items that arrive after the failure are failed without being dispatched
+            handler.addItems(items("4"), this::onRelease, nextItemsRequested::incrementAndGet);
+            assertThat(released.get(), equalTo(4));
+            assertThat(nextItemsRequested.get(), equalTo(4));
+            handler.lastItems(items("5"), this::onRelease, future);
+            assertThat(client.bulks, hasSize(2));
+
+            BulkResponse response = safeGet(future);
+            BulkItemResponse[] items = response.getItems();
+            assertThat(Arrays.stream(items).map(BulkItemResponse::getId).toList(), contains("1", "2", "3", "4", "5"));
+            assertFalse(items[0].isFailed());
+            for (int i = 1; i < items.length; i++) {
+                assertTrue(items[i].isFailed());
+                assertThat(items[i].getFailure().getCause(), sameInstance(failure));
+            }
+        }
+        assertThat(released.get(), equalTo(5));
+        assertThat(indexingPressure.stats().getCurrentCoordinatingBytes(), equalTo(0L));
+    }
+
+    public void testFailureOfFirstBulkFailsRequest() {
+        AtomicReference<BulkResponse> response = new AtomicReference<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ElasticsearchException exception = new ElasticsearchException("bulk failed");
+        try (IncrementalBulkService.Handler handler = service.newBulkRequest()) {
+            handler.addItems(items("1"), this::onRelease, nextItemsRequested::incrementAndGet);
+            handler.lastItems(items("2"), this::onRelease, ActionListener.wrap(response::set, failure::set));
+            assertThat(client.bulks, hasSize(1));
+
+            client.fail(0, exception);
+            assertThat(response.get(), nullValue());
+            assertThat(failure.get(), sameInstance(exception));
+            assertThat(client.bulks, hasSize(1));
+        }
+        assertThat(released.get(), equalTo(2));
+        assertThat(indexingPressure.stats().getCurrentCoordinatingBytes(), equalTo(0L));
+    }
+
+    private void onRelease() {
+        released.incrementAndGet();
+    }
+
+    private static List<DocWriteRequest<?>> items(String... ids) {
+        List<DocWriteRequest<?>> items = new ArrayList<>(ids.length);
+        for (String id : ids) {
+            items.add(new IndexRequest(SHARD_ID.getIndexName()).id(id).source(Map.of("field", randomAlphaOfLength(2048))));
+        }
+        return items;
+    }
+
+    private static List<String> ids(BulkRequest request) {
+        return request.requests().stream().map(DocWriteRequest::id).toList();
+    }
+
+    private static class RecordingBulkClient extends NoOpClient {
+
+        private final List<BulkRequest> bulks = new ArrayList<>();
+        private final List<ActionListener<BulkResponse>> listeners = new ArrayList<>();
+
+        private RecordingBulkClient(ThreadPool threadPool) {
+            super(threadPool);
+        }
+
+        @Override
+        public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+            assertThat("only one bulk may be in flight", listeners.stream().filter(Objects::nonNull).count(), equalTo(0L));
+            bulks.add(request);
+            listeners.add(listener);
+        }
+
+        BulkRequest request(int bulk) {
+            return bulks.get(bulk);
+        }
+
+        void respond(int bulk, Map<ShardId, Exception> shardLevelFailures) {
+            List<DocWriteRequest<?>> requests = bulks.get(bulk).requests();
+            BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+            for (int i = 0; i < items.length; i++) {
+                IndexResponse indexResponse = new IndexResponse(SHARD_ID, requests.get(i).id(), i, 1, 1, true);
+                items[i] = BulkItemResponse.success(i, DocWriteRequest.OpType.INDEX, indexResponse);
+            }
+            complete(bulk).onResponse(new BulkResponse(items, 1, 0, new BulkRequest.IncrementalState(shardLevelFailures, true)));
+        }
+
+        void fail(int bulk, Exception e) {
+            complete(bulk).onFailure(e);
+        }
+
+        private ActionListener<BulkResponse> complete(int bulk) {
+            ActionListener<BulkResponse> listener = listeners.set(bulk, null);
+            assertNotNull("bulk completed twice", listener);
+            return listener;
+        }
+    }
+}
@@ -8,6 +8,7 @@
  */
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.TransportVersion;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.OriginalIndices;
@@ -19,14 +20,27 @@ import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.UnassignedInfo;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.AdaptiveSelectionStats;
+import org.elasticsearch.node.ResponseCollectorService;
+import org.elasticsearch.rest.action.search.SearchResponseMetrics;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.ShardSearchContextId;
+import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.telemetry.InstrumentType;
+import org.elasticsearch.telemetry.RecordingMeterRegistry;
+import org.elasticsearch.test.ClusterServiceUtils;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.Transport;
 import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportRequest;
@@ -51,8 +65,10 @@ import java.util.concurrent.atomic.AtomicReference;
 import static org.elasticsearch.common.util.concurrent.ConcurrentCollections.newConcurrentMap;
 import static org.elasticsearch.common.util.concurrent.ConcurrentCollections.newConcurrentSet;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
 
 public class SearchAsyncActionTests extends ESTestCase {
 
@@ -697,6 +713,294 @@ public class SearchAsyncActionTests extends ESTestCase {
         assertThat(searchResponse.get().getSuccessfulShards(), equalTo(shardsIter.size()));
     }
 
+    public void testHedgesSlowShardRequests() throws InterruptedException {
+        SearchRequest request = new SearchRequest();
+        request.allowPartialSearchResults(false);
+        int numShards = randomIntBetween(1, 10);
+
+        AtomicReference<SearchResponse> searchResponse = new AtomicReference<>();
+        ActionListener<SearchResponse> responseListener = ActionTestUtils.assertNoFailureListener(searchResponse::set);
+        DiscoveryNode slowNode = DiscoveryNodeUtils.create("node_1");
+        DiscoveryNode fastNode = DiscoveryNodeUtils.create("node_2");
+        GroupShardsIterator<SearchShardIterator> shardsIter = getShardsIter(
+            "idx",
+            new OriginalIndices(new String[] { "idx" }, SearchRequest.DEFAULT_INDICES_OPTIONS),
+            numShards,
+            true,
+            slowNode,
+            fastNode
+        );
+        Map<String, Transport.Connection> lookup = Map.of(
+            slowNode.getId(),
+            new MockConnection(slowNode),
+            fastNode.getId(),
+            new MockConnection(fastNode)
+        );
+
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try (ClusterService clusterService = ClusterServiceUtils.createClusterService(threadPool)) {
+            ResponseCollectorService responseCollectorService = new ResponseCollectorService(clusterService);
+            responseCollectorService.addNodeStatistics(slowNode.getId(), 1, TimeValue.timeValueMillis(1).nanos(), 0);
+            RecordingMeterRegistry meterRegistry = new RecordingMeterRegistry();
+            ShardRequestHedging hedging = new ShardRequestHedging(
+                threadPool,
+                responseCollectorService,
+                new SearchResponseMetrics(meterRegistry),
+                new ClusterSettings(
+                    Settings.builder().put(TransportSearchAction.HEDGING_ENABLED_SETTING.getKey(), true).build(),
+                    Set.of(
+                        TransportSearchAction.HEDGING_ENABLED_SETTING,
+                        TransportSearchAction.HEDGING_PERCENTILE_SETTING,
+                        TransportSearchAction.HEDGING_MIN_DELAY_SETTING
+                    )
+                )
+            );
+
+            // requests to the slow node only complete once they are cancelled
+            Map<TransportRequest, SearchActionListener<TestSearchPhaseResult>> slowRequests = newConcurrentMap();
+            Set<TransportRequest> cancelledRequests = newConcurrentSet();
+            SearchTransportService transportService = new SearchTransportService(null, null, null) {
+                @Override
+                public void cancelChildRequest(Transport.Connection connection, TransportRequest request, String reason) {
+                    assertThat(connection.getNode(), equalTo(slowNode));
+                    assertTrue(cancelledRequests.add(request));
+                    slowRequests.remove(request).onFailure(new TaskCancelledException(reason));
+                }
+            };
+            AtomicInteger contextIdGenerator = new AtomicInteger(0);
+            CountDownLatch latch = new CountDownLatch(1);
+            AbstractSearchAsyncAction<TestSearchPhaseResult> asyncAction = new AbstractSearchAsyncAction<>(
+                "test",
+                logger,
+                null,
+                transportService,
+                (cluster, node) -> {
+                    assert cluster == null : "cluster was not null: " + cluster;
+                    return lookup.get(node);
+                },
+                Map.of("_na_", AliasFilter.EMPTY),
+                Collections.emptyMap(),
+                threadPool.generic(),
+                request,
+                responseListener,
+                shardsIter,
+                new TransportSearchAction.SearchTimeProvider(0, 0, () -> 0),
+                ClusterState.EMPTY_STATE,
+                null,
+                new ArraySearchPhaseResults<>(shardsIter.size()),
+                request.getMaxConcurrentShardRequests(),
+                SearchResponse.Clusters.EMPTY
+            ) {
+
+                @Override
+                ShardRequestHedging shardRequestHedging() {
+                    return hedging;
+                }
+
+                @Override
+                protected void executePhaseOnShard(
+                    SearchShardIterator shardIt,
+                    Transport.Connection connection,
+                    SearchActionListener<TestSearchPhaseResult> listener
+                ) {
+                    TransportRequest shardRequest = new TransportRequest() {
+                    };
+                    if (connection.getNode().equals(slowNode)) {
+                        slowRequests.put(shardRequest, listener);
+                    } else {
+                        new Thread(
+                            () -> listener.onResponse(
+                                new TestSearchPhaseResult(
+                                    new ShardSearchContextId(UUIDs.randomBase64UUID(), contextIdGenerator.incrementAndGet()),
+                                    connection.getNode()
+                                )
+                            )
+                        ).start();
+                    }
+                    listener.onRequestSent(shardRequest);
+                }
+
+                @Override
+                protected SearchPhase getNextPhase() {
+                    return new SearchPhase("test") {
+                        @Override
+                        public void run() {
+                            for (TestSearchPhaseResult result : results.getAtomicArray().asList()) {
+                                assertThat(result.node, equalTo(fastNode));
+                            }
+                            latch.countDown();
+                        }
+                    };
+                }
+            };
+            asyncAction.start();
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertThat(slowRequests.keySet(), empty());
+
+            asyncAction.sendSearchResponse(SearchResponseSections.EMPTY_WITH_TOTAL_HITS, null);
+            assertNotNull(searchResponse.get());
+            assertThat(searchResponse.get().getFailedShards(), equalTo(0));
+            assertThat(searchResponse.get().getSuccessfulShards(), equalTo(numShards));
+
+            // every request to the slow node was hedged, won by the hedge and then cancelled
+            int numHedged = cancelledRequests.size();
+            assertThat(
+                meterRegistry.getRecorder()
+                    .getMeasurements(InstrumentType.LONG_COUNTER, SearchResponseMetrics.HEDGED_SHARD_REQUESTS_TOTAL_COUNTER_NAME)
+                    .size(),
+                equalTo(numHedged)
+            );
+            assertThat(
+                meterRegistry.getRecorder()
+                    .getMeasurements(InstrumentType.LONG_COUNTER, SearchResponseMetrics.HEDGED_SHARD_REQUESTS_WON_TOTAL_COUNTER_NAME)
+                    .size(),
+                equalTo(numHedged)
+            );
+            // the hedges are also counted in the adaptive selection stats of the node that they were sent to
+            AdaptiveSelectionStats adaptiveStats = responseCollectorService.getAdaptiveStats(Map.of());
+            assertThat(adaptiveStats.getHedgedSearches().getOrDefault(fastNode.getId(), 0L), equalTo((long) numHedged));
+            assertThat(adaptiveStats.getHedgedSearchesWon().getOrDefault(fastNode.getId(), 0L), equalTo((long) numHedged));
+            assertThat(adaptiveStats.getHedgedSearches().get(slowNode.getId()), nullValue());
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    public void testHedgeFailureRacingWithWinningResponse() throws InterruptedException {
+        SearchRequest request = new SearchRequest();
+        request.allowPartialSearchResults(false);
+        int numShards = randomIntBetween(1, 20);
+
+        AtomicReference<SearchResponse> searchResponse = new AtomicReference<>();
+        ActionListener<SearchResponse> responseListener = ActionTestUtils.assertNoFailureListener(searchResponse::set);
+        DiscoveryNode slowNode = DiscoveryNodeUtils.create("node_1");
+        DiscoveryNode fastNode = DiscoveryNodeUtils.create("node_2");
+        GroupShardsIterator<SearchShardIterator> shardsIter = getShardsIter(
+            "idx",
+            new OriginalIndices(new String[] { "idx" }, SearchRequest.DEFAULT_INDICES_OPTIONS),
+            numShards,
+            true,
+            slowNode,
+            fastNode
+        );
+        Map<String, Transport.Connection> lookup = Map.of(
+            slowNode.getId(),
+            new MockConnection(slowNode),
+            fastNode.getId(),
+            new MockConnection(fastNode)
+        );
+
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try (ClusterService clusterService = ClusterServiceUtils.createClusterService(threadPool)) {
+            ResponseCollectorService responseCollectorService = new ResponseCollectorService(clusterService);
+            responseCollectorService.addNodeStatistics(slowNode.getId(), 1, TimeValue.timeValueMillis(1).nanos(), 0);
+            ShardRequestHedging hedging = new ShardRequestHedging(
+                threadPool,
+                responseCollectorService,
+                new SearchResponseMetrics(new RecordingMeterRegistry()),
+                new ClusterSettings(
+                    Settings.builder().put(TransportSearchAction.HEDGING_ENABLED_SETTING.getKey(), true).build(),
+                    Set.of(
+                        TransportSearchAction.HEDGING_ENABLED_SETTING,
+                        TransportSearchAction.HEDGING_PERCENTILE_SETTING,
+                        TransportSearchAction.HEDGING_MIN_DELAY_SETTING
+                    )
+                )
+            );
+
+            // requests to the slow node fail at the same time as the hedged request to the fast node responds
+            Map<ShardId, SearchActionListener<TestSearchPhaseResult>> slowRequests = newConcurrentMap();
+            Map<TransportRequest, ShardId> slowShards = newConcurrentMap();
+            SearchTransportService transportService = new SearchTransportService(null, null, null) {
+                @Override
+                public void cancelChildRequest(Transport.Connection connection, TransportRequest request, String reason) {
+                    SearchActionListener<TestSearchPhaseResult> listener = slowRequests.remove(slowShards.get(request));
+                    if (listener != null) {
+                        listener.onFailure(new TaskCancelledException(reason));
+                    }
+                }
+            };
+            AtomicInteger contextIdGenerator = new AtomicInteger(0);
+            CountDownLatch latch = new CountDownLatch(1);
+            AbstractSearchAsyncAction<TestSearchPhaseResult> asyncAction = new AbstractSearchAsyncAction<>(
+                "test",
+                logger,
+                null,
+                transportService,
+                (cluster, node) -> lookup.get(node),
+                Map.of("_na_", AliasFilter.EMPTY),
+                Collections.emptyMap(),
+                threadPool.generic(),
+                request,
+                responseListener,
+                shardsIter,
+                new TransportSearchAction.SearchTimeProvider(0, 0, () -> 0),
+                ClusterState.EMPTY_STATE,
+                null,
+                new ArraySearchPhaseResults<>(shardsIter.size()),
+                request.getMaxConcurrentShardRequests(),
+                SearchResponse.Clusters.EMPTY
+            ) {
+
+                @Override
+                ShardRequestHedging shardRequestHedging() {
+                    return hedging;
+                }
+
+                @Override
+                protected void executePhaseOnShard(
+                    SearchShardIterator shardIt,
+                    Transport.Connection connection,
+                    SearchActionListener<TestSearchPhaseResult> listener
+                ) {
+                    TransportRequest shardRequest = new TransportRequest() {
+                    };
+                    if (connection.getNode().equals(slowNode)) {
+                        slowShards.put(shardRequest, shardIt.shardId());
+                        slowRequests.put(shardIt.shardId(), listener);
+                    } else {
+                        TestSearchPhaseResult result = new TestSearchPhaseResult(
+                            new ShardSearchContextId(UUIDs.randomBase64UUID(), contextIdGenerator.incrementAndGet()),
+                            connection.getNode()
+                        );
+                        new Thread(() -> startInParallel(2, i -> {
+                            if (i == 0) {
+                                SearchActionListener<TestSearchPhaseResult> slowListener = slowRequests.remove(shardIt.shardId());
+                                if (slowListener != null) {
+                                    slowListener.onFailure(new ElasticsearchException("simulated failure"));
+                                }
+                            } else {
+                                listener.onResponse(result);
+                            }
+                        })).start();
+                    }
+                    listener.onRequestSent(shardRequest);
+                }
+
+                @Override
+                protected SearchPhase getNextPhase() {
+                    return new SearchPhase("test") {
+                        @Override
+                        public void run() {
+                            latch.countDown();
+                        }
+                    };
+                }
+            };
+            asyncAction.start();
+            // the phase completes whichever of the failure and the response is processed first
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+            asyncAction.sendSearchResponse(SearchResponseSections.EMPTY_WITH_TOTAL_HITS, null);
+            assertNotNull(searchResponse.get());
+            assertThat(searchResponse.get().getFailedShards(), equalTo(0));
+            assertThat(searchResponse.get().getShardFailures().length, equalTo(0));
+            assertThat(searchResponse.get().getSuccessfulShards(), equalTo(numShards));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
     static GroupShardsIterator<SearchShardIterator> getShardsIter(
         String index,
         OriginalIndices originalIndices,
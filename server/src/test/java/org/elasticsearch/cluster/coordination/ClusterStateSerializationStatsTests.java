@@ -0,0 +1,70 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.cluster.coordination;
+
+import org.elasticsearch.TransportVersion;
+import org.elasticsearch.TransportVersions;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class ClusterStateSerializationStatsTests extends ESTestCase {
+
+    public void testSerialization() throws IOException {
+        final ClusterStateSerializationStats stats = randomStats();
+        final TransportVersion version = TransportVersionUtils.randomVersionBetween(
+            random(),
+            TransportVersions.CLUSTER_STATE_SERIALIZATION_TIME_STATS,
+            TransportVersion.current()
+        );
+        final ClusterStateSerializationStats copy = copyWriteable(stats, writableRegistry(), ClusterStateSerializationStats::new, version);
+        assertCountsAndSizes(stats, copy);
+        assertThat(copy.getTotalFullStateSerializationTimeMillis(), equalTo(stats.getTotalFullStateSerializationTimeMillis()));
+        assertThat(copy.getTotalDiffSerializationTimeMillis(), equalTo(stats.getTotalDiffSerializationTimeMillis()));
+    }
+
+    public void testSerializationBeforeTimeStats() throws IOException {
+        final ClusterStateSerializationStats stats = randomStats();
+        final TransportVersion version = TransportVersionUtils.randomVersionBetween(
+            random(),
+            TransportVersions.V_8_0_0,
+            TransportVersionUtils.getPreviousVersion(TransportVersions.CLUSTER_STATE_SERIALIZATION_TIME_STATS)
+        );
+        final ClusterStateSerializationStats copy = copyWriteable(stats, writableRegistry(), ClusterStateSerializationStats::new, version);
+        assertCountsAndSizes(stats, copy);
+        assertThat(copy.getTotalFullStateSerializationTimeMillis(), equalTo(0L));
+        assertThat(copy.getTotalDiffSerializationTimeMillis(), equalTo(0L));
+    }
+
+    private static ClusterStateSerializationStats randomStats() {
+        return new ClusterStateSerializationStats(
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong()
+        );
+    }
+
+    private static void assertCountsAndSizes(ClusterStateSerializationStats expected, ClusterStateSerializationStats actual) {
+        assertThat(actual.getFullStateCount(), equalTo(expected.getFullStateCount()));
+        assertThat(actual.getTotalUncompressedFullStateBytes(), equalTo(expected.getTotalUncompressedFullStateBytes()));
+        assertThat(actual.getTotalCompressedFullStateBytes(), equalTo(expected.getTotalCompressedFullStateBytes()));
+        assertThat(actual.getDiffCount(), equalTo(expected.getDiffCount()));
+        assertThat(actual.getTotalUncompressedDiffBytes(), equalTo(expected.getTotalUncompressedDiffBytes()));
+        assertThat(actual.getTotalCompressedDiffBytes(), equalTo(expected.getTotalCompressedDiffBytes()));
+    }
+}
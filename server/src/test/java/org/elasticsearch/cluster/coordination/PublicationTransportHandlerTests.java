@@ -35,8 +35,11 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.MockPageCacheRecycler;
 import org.elasticsearch.common.util.concurrent.DeterministicTaskQueue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.core.CheckedRunnable;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.IndexVersions;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.tasks.TaskId;
@@ -57,8 +60,10 @@ import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -72,7 +77,9 @@ import java.util.concurrent.atomic.AtomicReference;
 import static java.util.Collections.emptyMap;
 import static org.elasticsearch.cluster.service.MasterService.STATE_UPDATE_ACTION_NAME;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -140,6 +147,220 @@ public class PublicationTransportHandlerTests extends ESTestCase {
         assertThat(e.getCause().getMessage(), containsString("Simulated failure of diff serialization"));
     }
 
+    public void testSerializesFullStateAndDiffForJoiningNode() {
+        final ThreadPool threadPool = new TestThreadPool("test");
+        try {
+            final DiscoveryNode localNode = DiscoveryNodeUtils.create("localNode");
+            final DiscoveryNode otherNode = DiscoveryNodeUtils.create("otherNode");
+            final DiscoveryNode joiningNode = DiscoveryNodeUtils.create("joiningNode");
+
+            final TransportService transportService = mock(TransportService.class);
+            final BytesRefRecycler recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
+            when(transportService.newNetworkBytesStream()).then(invocation -> new RecyclerBytesStreamOutput(recycler));
+            Transport.Connection connection = mock(Transport.Connection.class);
+            when(connection.getTransportVersion()).thenReturn(TransportVersion.current());
+            when(transportService.getConnection(any())).thenReturn(connection);
+            when(transportService.getLocalNode()).thenReturn(localNode);
+            when(transportService.getThreadPool()).thenReturn(threadPool);
+
+            final PublicationTransportHandler handler = new PublicationTransportHandler(transportService, writableRegistry(), pu -> null);
+            handler.newPublicationContext(joiningNodePublicationEvent(1L, localNode, otherNode, joiningNode)).decRef();
+
+            final ClusterStateSerializationStats serializationStats = handler.stats().getClusterStateSerializationStats();
+            assertThat(serializationStats.getFullStateCount(), equalTo(1L));
+            assertThat(serializationStats.getTotalUncompressedFullStateBytes(), greaterThan(0L));
+            assertThat(serializationStats.getDiffCount(), equalTo(1L));
+            assertThat(serializationStats.getTotalUncompressedDiffBytes(), greaterThan(0L));
+        } finally {
+            assertTrue(ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS));
+        }
+    }
+
+    public void testAccumulatesSerializationTime() {
+        final DiscoveryNode localNode = DiscoveryNodeUtils.create("localNode");
+        final DiscoveryNode otherNode = DiscoveryNodeUtils.create("otherNode");
+        final DiscoveryNode joiningNode = DiscoveryNodeUtils.create("joiningNode");
+
+        // each serialization reads the clock before and after it runs, and with a direct executor the full state for the joining node
+        // is always serialized before the diff for the other node
+        final Deque<Long> clock = new ArrayDeque<>();
+        final ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.generic()).thenReturn(EsExecutors.DIRECT_EXECUTOR_SERVICE);
+        when(threadPool.rawRelativeTimeInMillis()).then(invocation -> clock.removeFirst());
+
+        final TransportService transportService = mock(TransportService.class);
+        final BytesRefRecycler recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
+        when(transportService.newNetworkBytesStream()).then(invocation -> new RecyclerBytesStreamOutput(recycler));
+        Transport.Connection connection = mock(Transport.Connection.class);
+        when(connection.getTransportVersion()).thenReturn(TransportVersion.current());
+        when(transportService.getConnection(any())).thenReturn(connection);
+        when(transportService.getLocalNode()).thenReturn(localNode);
+        when(transportService.getThreadPool()).thenReturn(threadPool);
+
+        final PublicationTransportHandler handler = new PublicationTransportHandler(transportService, writableRegistry(), pu -> null);
+
+        final int publications = between(1, 5);
+        long now = randomLongBetween(0L, 1_000_000L);
+        long expectedFullStateMillis = 0L;
+        long expectedDiffMillis = 0L;
+        for (int i = 0; i < publications; i++) {
+            final long fullStateMillis = randomLongBetween(0L, 1000L);
+            final long diffMillis = randomLongBetween(0L, 1000L);
+            clock.add(now);
+            now += fullStateMillis;
+            clock.add(now);
+            now += randomLongBetween(0L, 1000L);
+            clock.add(now);
+            now += diffMillis;
+            clock.add(now);
+            expectedFullStateMillis += fullStateMillis;
+            expectedDiffMillis += diffMillis;
+
+            handler.newPublicationContext(joiningNodePublicationEvent(i + 1, localNode, otherNode, joiningNode)).decRef();
+            assertThat(clock, empty());
+
+            final ClusterStateSerializationStats serializationStats = handler.stats().getClusterStateSerializationStats();
+            assertThat(serializationStats.getFullStateCount(), equalTo(i + 1L));
+            assertThat(serializationStats.getDiffCount(), equalTo(i + 1L));
+            assertThat(serializationStats.getTotalFullStateSerializationTimeMillis(), equalTo(expectedFullStateMillis));
+            assertThat(serializationStats.getTotalDiffSerializationTimeMillis(), equalTo(expectedDiffMillis));
+        }
+    }
+
+    private static ClusterStatePublicationEvent joiningNodePublicationEvent(
+        long previousVersion,
+        DiscoveryNode localNode,
+        DiscoveryNode otherNode,
+        DiscoveryNode joiningNode
+    ) {
+        final ClusterState previousState = CoordinationStateTests.clusterState(
+            1L,
+            previousVersion,
+            DiscoveryNodes.builder().add(localNode).add(otherNode).localNodeId(localNode.getId()).build(),
+            VotingConfiguration.EMPTY_CONFIG,
+            VotingConfiguration.EMPTY_CONFIG,
+            0L
+        );
+        final ClusterState newState = CoordinationStateTests.clusterState(
+            1L,
+            previousVersion + 1,
+            DiscoveryNodes.builder().add(localNode).add(otherNode).add(joiningNode).localNodeId(localNode.getId()).build(),
+            VotingConfiguration.EMPTY_CONFIG,
+            VotingConfiguration.EMPTY_CONFIG,
+            0L
+        );
+        return new ClusterStatePublicationEvent(
+            new BatchSummary(() -> "test"),
+            previousState,
+            newState,
+            new Task(randomNonNegativeLong(), "test", STATE_UPDATE_ACTION_NAME, "", TaskId.EMPTY_TASK_ID, emptyMap()),
+            0L,
+            0L
+        );
+    }
+
+    public void testSerializationTimesOut() throws Exception {
+        final ThreadPool threadPool = new TestThreadPool("test");
+        final BytesRefRecycler recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
+        final CountDownLatch forkedSerializationStarted = new CountDownLatch(1);
+        final CountDownLatch releaseForkedSerialization = new CountDownLatch(1);
+        try {
+            final DiscoveryNode localNode = DiscoveryNodeUtils.create("localNode");
+            final DiscoveryNode otherNode = DiscoveryNodeUtils.create("otherNode");
+            final DiscoveryNode joiningNode = DiscoveryNodeUtils.create("joiningNode");
+
+            final TransportService transportService = mock(TransportService.class);
+            when(transportService.newNetworkBytesStream()).then(invocation -> new RecyclerBytesStreamOutput(recycler));
+            Transport.Connection connection = mock(Transport.Connection.class);
+            when(connection.getTransportVersion()).thenReturn(TransportVersion.current());
+            when(transportService.getConnection(any())).thenReturn(connection);
+            when(transportService.getLocalNode()).thenReturn(localNode);
+            when(transportService.getThreadPool()).thenReturn(threadPool);
+
+            final PublicationTransportHandler handler = new PublicationTransportHandler(
+                transportService,
+                writableRegistry(),
+                pu -> null,
+                TimeValue.timeValueMillis(between(1, 100))
+            );
+
+            final ClusterState previousState = CoordinationStateTests.clusterState(
+                1L,
+                1L,
+                DiscoveryNodes.builder().add(localNode).add(otherNode).localNodeId(localNode.getId()).build(),
+                VotingConfiguration.EMPTY_CONFIG,
+                VotingConfiguration.EMPTY_CONFIG,
+                0L
+            );
+            final ClusterState state = CoordinationStateTests.clusterState(
+                1L,
+                2L,
+                DiscoveryNodes.builder().add(localNode).add(otherNode).add(joiningNode).localNodeId(localNode.getId()).build(),
+                VotingConfiguration.EMPTY_CONFIG,
+                VotingConfiguration.EMPTY_CONFIG,
+                0L
+            );
+            final Thread testThread = Thread.currentThread();
+            // the master serializes one of the full state for the joining node and the diff for the other node, and only completes once
+            // the generic pool started the other one, which gets stuck
+            final CheckedRunnable<IOException> serializing = () -> {
+                try {
+                    if (Thread.currentThread() == testThread) {
+                        assertTrue(forkedSerializationStarted.await(10, TimeUnit.SECONDS));
+                    } else {
+                        forkedSerializationStarted.countDown();
+                        assertTrue(releaseForkedSerialization.await(10, TimeUnit.SECONDS));
+                    }
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            };
+            final ClusterState newState = new ClusterState(state.version(), state.stateUUID(), state) {
+                @Override
+                public void writeTo(StreamOutput out) throws IOException {
+                    serializing.run();
+                    super.writeTo(out);
+                }
+
+                @Override
+                public Diff<ClusterState> diff(ClusterState previousState) {
+                    final Diff<ClusterState> diff = super.diff(previousState);
+                    return new Diff<>() {
+                        @Override
+                        public ClusterState apply(ClusterState part) {
+                            return diff.apply(part);
+                        }
+
+                        @Override
+                        public void writeTo(StreamOutput out) throws IOException {
+                            serializing.run();
+                            diff.writeTo(out);
+                        }
+                    };
+                }
+            };
+
+            final ElasticsearchException e = expectThrows(
+                ElasticsearchException.class,
+                () -> handler.newPublicationContext(
+                    new ClusterStatePublicationEvent(
+                        new BatchSummary(() -> "test"),
+                        previousState,
+                        newState,
+                        new Task(randomNonNegativeLong(), "test", STATE_UPDATE_ACTION_NAME, "", TaskId.EMPTY_TASK_ID, emptyMap()),
+                        0L,
+                        0L
+                    )
+                )
+            );
+            assertThat(e.getMessage(), containsString("to be serialized"));
+        } finally {
+            // the stuck serialization completes after the publication failed, and its bytes are released with the context
+            releaseForkedSerialization.countDown();
+            assertTrue(ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS));
+        }
+    }
+
     private static boolean isDiff(BytesTransportRequest request, TransportVersion version) {
         try {
             StreamInput in = null;
@@ -30,6 +30,7 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.allocation.AllocateUnassignedDecision;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.cluster.routing.allocation.WriteLoadForecaster;
 import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.ThrottlingAllocationDecider;
 import org.elasticsearch.common.UUIDs;
@@ -42,6 +43,7 @@ import org.elasticsearch.index.IndexVersion;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.snapshots.SnapshotShardSizeInfo;
 import org.elasticsearch.test.gateway.TestGatewayAllocator;
+import org.elasticsearch.threadpool.TestThreadPool;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -341,6 +343,69 @@ public class BalancedShardsAllocatorTests extends ESAllocationTestCase {
         }
     }
 
+    public void testParallelWeightComputationBalancesLikeSequentialComputation() {
+        var discoveryNodesBuilder = DiscoveryNodes.builder();
+        var numberOfNodes = between(2, 20);
+        for (int node = 0; node < numberOfNodes; node++) {
+            discoveryNodesBuilder.add(newNode("node-" + node));
+        }
+
+        var metadataBuilder = Metadata.builder();
+        var routingTableBuilder = RoutingTable.builder();
+        var numberOfIndices = between(1, 2000);
+        // assign shards to only some of the nodes so that many nodes have the same weight for an index
+        var numberOfNodesWithShards = between(1, numberOfNodes);
+        for (int index = 0; index < numberOfIndices; index++) {
+            var assignments = new HashMap<String, Integer>();
+            var numberOfShards = between(1, 4);
+            for (int shard = 0; shard < numberOfShards; shard++) {
+                assignments.merge("node-" + between(0, numberOfNodesWithShards - 1), 1, Integer::sum);
+            }
+            addIndex(metadataBuilder, routingTableBuilder, "index-" + index, assignments);
+        }
+
+        var clusterState = ClusterState.builder(ClusterName.DEFAULT)
+            .nodes(discoveryNodesBuilder)
+            .metadata(metadataBuilder)
+            .routingTable(routingTableBuilder)
+            .build();
+
+        var sequential = balance(clusterState, new BalancedShardsAllocator(Settings.EMPTY));
+        var threadPool = new TestThreadPool(getTestName());
+        try {
+            var parallel = balance(
+                clusterState,
+                new BalancedShardsAllocator(
+                    ClusterSettings.createBuiltInClusterSettings(
+                        Settings.builder()
+                            .put(BalancedShardsAllocator.PARALLEL_WEIGHT_COMPUTATION_MIN_INDICES_SETTING.getKey(), between(1, 1000))
+                            .build()
+                    ),
+                    WriteLoadForecaster.DEFAULT,
+                    threadPool.generic(),
+                    between(2, 8)
+                )
+            );
+            assertThat(parallel, equalTo(sequential));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    /**
+     * Balances the given cluster state and returns the (relocating) node of each shard copy.
+     */
+    private List<String> balance(ClusterState clusterState, BalancedShardsAllocator allocator) {
+        var allocation = createRoutingAllocation(clusterState);
+        allocator.allocate(allocation);
+        return allocation.routingNodes()
+            .stream()
+            .flatMap(node -> StreamSupport.stream(node.spliterator(), false))
+            .map(shard -> shard.shardId() + "[" + shard.currentNodeId() + "->" + shard.relocatingNodeId() + "]")
+            .sorted()
+            .toList();
+    }
+
     public void testGetIndexDiskUsageInBytes() {
         {
             final var indexDiskUsageInBytes = getIndexDiskUsageInBytes(
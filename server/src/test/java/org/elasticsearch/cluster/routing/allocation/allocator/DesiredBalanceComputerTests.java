@@ -83,6 +83,7 @@ import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
@@ -509,6 +510,74 @@ public class DesiredBalanceComputerTests extends ESAllocationTestCase {
         assertTrue(allocateCalled.get());
     }
 
+    public void testIncrementalComputationReusesConvergedDesiredBalance() {
+        var allocateCalls = new AtomicInteger();
+        var shardsAllocator = createShardsAllocator();
+        var desiredBalanceComputer = new DesiredBalanceComputer(
+            createBuiltInClusterSettings(
+                Settings.builder().put(DesiredBalanceComputer.INCREMENTAL_COMPUTATION_SETTING.getKey(), true).build()
+            ),
+            TimeProviderUtils.create(() -> 0L),
+            new ShardsAllocator() {
+                @Override
+                public void allocate(RoutingAllocation allocation) {
+                    allocateCalls.incrementAndGet();
+                    shardsAllocator.allocate(allocation);
+                }
+
+                @Override
+                public ShardAllocationDecision decideShardAllocation(ShardRouting shard, RoutingAllocation allocation) {
+                    throw new AssertionError("only used for allocation explain");
+                }
+            }
+        );
+        var clusterState = createInitialClusterState(3);
+        var index = clusterState.metadata().index(TEST_INDEX).getIndex();
+        var expectedAssignments = Map.of(
+            new ShardId(index, 0),
+            new ShardAssignment(Set.of("node-0", "node-1"), 2, 0, 0),
+            new ShardId(index, 1),
+            new ShardAssignment(Set.of("node-0", "node-1"), 2, 0, 0)
+        );
+
+        var desiredBalance1 = desiredBalanceComputer.compute(DesiredBalance.INITIAL, createInput(clusterState), queue(), input -> true);
+        assertDesiredAssignments(desiredBalance1, expectedAssignments);
+        var simulatedCalls = allocateCalls.get();
+        assertThat(simulatedCalls, greaterThan(0));
+
+        // nothing but the routing table changed, so the converged desired balance is reused without simulating the allocation again
+        var changes = new RoutingChangesObserver.DelegatingRoutingChangesObserver();
+        var routingNodes = clusterState.mutableRoutingNodes();
+        for (var iterator = routingNodes.unassigned().iterator(); iterator.hasNext();) {
+            var shardRouting = iterator.next();
+            iterator.initialize(shardRouting.primary() ? "node-0" : "node-1", null, 0L, changes);
+        }
+        var recoveringClusterState = ClusterState.builder(clusterState).routingTable(RoutingTable.of(routingNodes)).build();
+        var desiredBalance2 = desiredBalanceComputer.compute(desiredBalance1, createInput(recoveringClusterState), queue(), input -> true);
+        assertDesiredAssignments(desiredBalance2, expectedAssignments);
+        assertThat(desiredBalance2.finishReason(), equalTo(DesiredBalance.ComputationFinishReason.CONVERGED));
+        assertThat(allocateCalls.get(), equalTo(simulatedCalls));
+
+        // a desired balance that was not computed by this computer is never reused
+        var desiredBalance3 = desiredBalanceComputer.compute(
+            new DesiredBalance(desiredBalance2.lastConvergedIndex(), desiredBalance2.assignments()),
+            createInput(recoveringClusterState),
+            queue(),
+            input -> true
+        );
+        assertDesiredAssignments(desiredBalance3, expectedAssignments);
+        assertThat(allocateCalls.get(), greaterThan(simulatedCalls));
+        simulatedCalls = allocateCalls.get();
+
+        // a new node requires simulating the allocation again
+        var clusterStateWithNewNode = ClusterState.builder(recoveringClusterState)
+            .nodes(DiscoveryNodes.builder(recoveringClusterState.nodes()).add(newNode("node-3", Set.of(DiscoveryNodeRole.DATA_ROLE))))
+            .build();
+        var desiredBalance4 = desiredBalanceComputer.compute(desiredBalance3, createInput(clusterStateWithNewNode), queue(), input -> true);
+        assertDesiredAssignments(desiredBalance4, expectedAssignments);
+        assertThat(allocateCalls.get(), greaterThan(simulatedCalls));
+    }
+
     public void testNoDataNodes() {
         var desiredBalanceComputer = createDesiredBalanceComputer();
         var clusterState = createInitialClusterState(0);
@@ -1318,7 +1387,14 @@ public class DesiredBalanceComputerTests extends ESAllocationTestCase {
      * @return a {@link DesiredBalanceComputer} which allocates unassigned primaries to node-0 and unassigned replicas to node-1
      */
     private static DesiredBalanceComputer createDesiredBalanceComputer() {
-        return createDesiredBalanceComputer(new ShardsAllocator() {
+        return createDesiredBalanceComputer(createShardsAllocator());
+    }
+
+    /**
+     * @return a {@link ShardsAllocator} which allocates unassigned primaries to node-0 and unassigned replicas to node-1
+     */
+    private static ShardsAllocator createShardsAllocator() {
+        return new ShardsAllocator() {
             @Override
             public void allocate(RoutingAllocation allocation) {
                 final var unassignedIterator = allocation.routingNodes().unassigned().iterator();
@@ -1342,7 +1418,7 @@ public class DesiredBalanceComputerTests extends ESAllocationTestCase {
             public ShardAllocationDecision decideShardAllocation(ShardRouting shard, RoutingAllocation allocation) {
                 throw new AssertionError("only used for allocation explain");
             }
-        });
+        };
     }
 
     private static DesiredBalanceComputer createDesiredBalanceComputer(ShardsAllocator allocator) {
@@ -17,6 +17,7 @@ import org.hamcrest.Matchers;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 
@@ -73,6 +74,25 @@ public class ReleasableBytesReferenceTests extends AbstractBytesReferenceTestCas
         return ReleasableBytesReference.wrap(delegate);
     }
 
+    public void testSharedSlice() {
+        final AtomicBoolean released = new AtomicBoolean();
+        final byte[] content = randomByteArrayOfLength(between(2, 100));
+        final ReleasableBytesReference reference = new ReleasableBytesReference(new BytesArray(content), () -> released.set(true));
+        final int from = between(0, content.length - 1);
+        final int length = between(1, content.length - from);
+        final ReleasableBytesReference slice = reference.sharedSlice(from, length);
+        assertEquals(new BytesArray(content, from, length), slice);
+
+        // the slice does not hold a reference of its own, but can keep the underlying bytes alive once retained
+        assertTrue(slice.tryIncRef());
+        reference.close();
+        assertFalse(released.get());
+        assertTrue(slice.hasReferences());
+        slice.close();
+        assertTrue(released.get());
+        assertFalse(slice.tryIncRef());
+    }
+
     @Override
     public void testToBytesRefSharedPage() throws IOException {
         // CompositeBytesReference doesn't share pages
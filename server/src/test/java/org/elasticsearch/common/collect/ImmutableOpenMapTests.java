@@ -0,0 +1,180 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.common.collect;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ImmutableOpenMapTests extends ESTestCase {
+
+    /**
+     * A key with a configurable hash code so that keys can be forced to collide, partially or fully.
+     */
+    private record Key(int hash, int id) {
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static Key randomKey(int numKeys, int numHashes) {
+        final int id = between(0, numKeys - 1);
+        return new Key(id % numHashes, id);
+    }
+
+    public void testBehavesLikeAMap() {
+        final int numKeys = between(1, 2000);
+        final int numHashes = randomBoolean() ? numKeys : between(1, numKeys);
+        ImmutableOpenMap<Key, Integer> map = ImmutableOpenMap.of();
+        final Map<Key, Integer> expected = new HashMap<>();
+        for (int round = 0; round < 5; round++) {
+            final ImmutableOpenMap<Key, Integer> previousMap = map;
+            final Map<Key, Integer> previousExpected = new HashMap<>(expected);
+            final ImmutableOpenMap.Builder<Key, Integer> builder = ImmutableOpenMap.builder(map);
+            final int numOperations = between(0, 2 * numKeys);
+            for (int i = 0; i < numOperations; i++) {
+                final Key key = randomKey(numKeys, numHashes);
+                switch (between(0, 9)) {
+                    case 0, 1, 2, 3, 4, 5 -> {
+                        final Integer value = between(0, 2);
+                        assertEquals(expected.put(key, value), builder.put(key, value));
+                    }
+                    case 6, 7, 8 -> assertEquals(expected.remove(key), builder.remove(key));
+                    default -> {
+                        assertEquals(expected.containsKey(key), builder.containsKey(key));
+                        assertEquals(expected.get(key), builder.get(key));
+                    }
+                }
+                assertEquals(expected.size(), builder.size());
+            }
+            if (randomBoolean()) {
+                final Set<Key> keys = builder.keys();
+                assertThat(keys, equalTo(expected.keySet()));
+                // keys are a snapshot which does not see further modifications
+                final Key key = randomKey(numKeys, numHashes);
+                if (expected.containsKey(key)) {
+                    builder.remove(key);
+                    expected.remove(key);
+                    assertTrue(keys.contains(key));
+                    assertFalse(builder.containsKey(key));
+                }
+            }
+            map = builder.build();
+
+            assertThat(map, equalTo(expected));
+            assertThat(expected, equalTo(map));
+            assertEquals(expected.hashCode(), map.hashCode());
+            assertEquals(expected.size(), map.size());
+            assertThat(new HashSet<>(map.keySet()), equalTo(expected.keySet()));
+            assertThat(new ArrayList<>(map.values()).size(), equalTo(expected.size()));
+            final Map<Key, Integer> iterated = new HashMap<>();
+            map.forEach(iterated::put);
+            assertThat(iterated, equalTo(expected));
+
+            // the map that the builder started from is unchanged
+            assertThat(previousMap, equalTo(previousExpected));
+        }
+    }
+
+    public void testShapeOnlyDependsOnKeys() {
+        final int numKeys = between(1, 2000);
+        final int numHashes = randomBoolean() ? numKeys : between(1, numKeys);
+        final ImmutableOpenMap.Builder<Key, Integer> builder = ImmutableOpenMap.builder();
+        final Map<Key, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 3 * numKeys; i++) {
+            final Key key = randomKey(numKeys, numHashes);
+            if (randomBoolean()) {
+                builder.put(key, i);
+                expected.put(key, i);
+            } else {
+                builder.remove(key);
+                expected.remove(key);
+            }
+        }
+        final ImmutableOpenMap<Key, Integer> map = builder.build();
+
+        final List<Map.Entry<Key, Integer>> entries = new ArrayList<>(expected.entrySet());
+        Collections.shuffle(entries, random());
+        final ImmutableOpenMap.Builder<Key, Integer> other = ImmutableOpenMap.builder();
+        for (Map.Entry<Key, Integer> entry : entries) {
+            other.put(entry.getKey(), entry.getValue());
+        }
+        final ImmutableOpenMap<Key, Integer> otherMap = other.build();
+        assertEquals(map, otherMap);
+        assertEquals(otherMap, map);
+    }
+
+    public void testDiffOnlyReportsChangedEntries() {
+        final int numKeys = between(1, 2000);
+        final int numHashes = randomBoolean() ? numKeys : between(1, numKeys);
+        final ImmutableOpenMap.Builder<Key, Integer> builder = ImmutableOpenMap.builder();
+        for (int i = 0; i < numKeys; i++) {
+            final Key key = randomKey(numKeys, numHashes);
+            builder.put(key, between(0, 2));
+        }
+        final ImmutableOpenMap<Key, Integer> before = builder.build();
+
+        final ImmutableOpenMap.Builder<Key, Integer> afterBuilder = ImmutableOpenMap.builder(before);
+        final int numChanges = between(0, 10);
+        for (int i = 0; i < numChanges; i++) {
+            final Key key = randomKey(numKeys, numHashes);
+            if (randomBoolean()) {
+                afterBuilder.put(key, between(0, 2));
+            } else {
+                afterBuilder.remove(key);
+            }
+        }
+        final ImmutableOpenMap<Key, Integer> after = afterBuilder.build();
+
+        final Map<Key, Integer> applied = new HashMap<>(before);
+        final List<Key> reported = new ArrayList<>();
+        ImmutableOpenMap.diff(before, after, (previous, current) -> {
+            if (previous != null && current != null) {
+                assertEquals(previous.getKey(), current.getKey());
+            }
+            if (current == null) {
+                reported.add(previous.getKey());
+                applied.remove(previous.getKey());
+            } else {
+                reported.add(current.getKey());
+                applied.put(current.getKey(), current.getValue());
+            }
+        });
+        assertThat(applied, equalTo(after));
+        assertThat(reported.size(), equalTo(new HashSet<>(reported).size()));
+        // only the modified keys are reported since everything else is shared
+        assertTrue(reported.size() <= numChanges);
+    }
+
+    public void testUnmodifiedBuilderReturnsSameMap() {
+        final ImmutableOpenMap.Builder<String, String> builder = ImmutableOpenMap.builder();
+        final int numEntries = between(0, 100);
+        for (int i = 0; i < numEntries; i++) {
+            builder.put(randomAlphaOfLength(10), randomAlphaOfLength(10));
+        }
+        final ImmutableOpenMap<String, String> map = builder.build();
+        assertThat(ImmutableOpenMap.builder(map).build(), sameInstance(map));
+
+        // putting the same values again does not copy any nodes
+        final ImmutableOpenMap.Builder<String, String> samePuts = ImmutableOpenMap.builder(map);
+        map.forEach(samePuts::put);
+        assertThat(samePuts.build(), sameInstance(map));
+    }
+}
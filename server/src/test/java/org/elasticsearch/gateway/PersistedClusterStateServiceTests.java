@@ -1664,6 +1664,47 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
         }
     }
 
+    public void testReloadsManyIndicesWithMappings() throws IOException {
+        try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createDataPaths())) {
+            final PersistedClusterStateService persistedClusterStateService = newPersistedClusterStateService(nodeEnvironment);
+
+            final int numIndices = between(1, 300);
+            final Metadata.Builder metadata = Metadata.builder();
+            for (int i = 0; i < numIndices; i++) {
+                final MappingMetadata mapping = randomBoolean()
+                    ? randomMappingMetadataOrNull()
+                    : new MappingMetadata(
+                        MapperService.SINGLE_MAPPING_NAME,
+                        Map.of("_doc", Map.of("_routing", Map.of("required", randomBoolean()), "properties", Map.of("field" + i, "text")))
+                    );
+                metadata.put(
+                    IndexMetadata.builder("test-" + i)
+                        .putMapping(mapping)
+                        .settings(
+                            indexSettings(1, 0).put(IndexMetadata.SETTING_VERSION_CREATED, IndexVersion.current())
+                                .put(IndexMetadata.SETTING_INDEX_UUID, UUIDs.randomBase64UUID(random()))
+                        )
+                );
+            }
+            final ClusterState clusterState = ClusterState.builder(ClusterName.DEFAULT).metadata(metadata).build();
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                writer.writeFullStateAndCommit(0L, clusterState);
+            }
+
+            final ClusterState loadedState = loadPersistedClusterState(persistedClusterStateService);
+            assertThat(loadedState.metadata().indices().size(), equalTo(numIndices));
+            assertThat(loadedState.metadata().getMappingsByHash().keySet(), equalTo(clusterState.metadata().getMappingsByHash().keySet()));
+            for (IndexMetadata expected : clusterState.metadata()) {
+                final IndexMetadata actual = loadedState.metadata().index(expected.getIndex().getName());
+                assertThat(actual.getIndexUUID(), equalTo(expected.getIndexUUID()));
+                assertThat(actual.mapping(), equalTo(expected.mapping()));
+                if (expected.mapping() != null) {
+                    assertThat(actual.mapping().routingRequired(), equalTo(expected.mapping().routingRequired()));
+                }
+            }
+        }
+    }
+
     public void testDeduplicatedMappings() throws IOException {
         final Path dataPath = createTempDir();
         try (NodeEnvironment nodeEnvironment = newNodeEnvironment(new Path[] { dataPath })) {
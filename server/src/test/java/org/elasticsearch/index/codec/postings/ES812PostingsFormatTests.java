@@ -29,6 +29,9 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.Impact;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
@@ -37,6 +40,7 @@ import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.tests.analysis.MockAnalyzer;
 import org.apache.lucene.tests.index.BasePostingsFormatTestCase;
 import org.apache.lucene.tests.util.TestUtil;
+import org.apache.lucene.util.BytesRef;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -115,6 +119,59 @@ public class ES812PostingsFormatTests extends BasePostingsFormatTestCase {
         );
     }
 
+    public void testIllegalDenseSkipMinDocFreq() {
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> new ES812PostingsFormat(ES812PostingsFormat.BLOCK_SIZE)
+        );
+        assertEquals("denseSkipMinDocFreq must be greater than 128, got 128", e.getMessage());
+    }
+
+    /** Advance a reused enum over terms that have been written with dense and regular skip data. */
+    public void testAdvanceDenseAndRegularSkipData() throws IOException {
+        final int denseSkipMinDocFreq = TestUtil.nextInt(random(), 2 * ES812PostingsFormat.BLOCK_SIZE, 8 * ES812PostingsFormat.BLOCK_SIZE);
+        final IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+        iwc.setCodec(TestUtil.alwaysPostingsFormat(new ES812PostingsFormat(denseSkipMinDocFreq)));
+        final int numDocs = TestUtil.nextInt(random(), 4 * denseSkipMinDocFreq, 8 * denseSkipMinDocFreq);
+        // "a" has dense skip data, "b" has regular skip data and "c" is too short to have skip data
+        final int[] intervals = new int[] { 1, numDocs / denseSkipMinDocFreq + 1, numDocs };
+        final String[] terms = new String[] { "a", "b", "c" };
+        try (Directory d = newDirectory(); IndexWriter w = new IndexWriter(d, iwc)) {
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                for (int t = 0; t < terms.length; t++) {
+                    if (i % intervals[t] == 0) {
+                        doc.add(newTextField("field", terms[t], Field.Store.NO));
+                    }
+                }
+                w.addDocument(doc);
+            }
+            w.forceMerge(1);
+            try (DirectoryReader r = DirectoryReader.open(w)) {
+                TermsEnum termsEnum = r.leaves().get(0).reader().terms("field").iterator();
+                PostingsEnum postings = null;
+                for (int iter = 0; iter < 10; iter++) {
+                    final int t = random().nextInt(terms.length);
+                    assertTrue(termsEnum.seekExact(new BytesRef(terms[t])));
+                    if (random().nextBoolean()) {
+                        postings = termsEnum.postings(postings, PostingsEnum.NONE);
+                    } else {
+                        postings = termsEnum.impacts(PostingsEnum.FREQS);
+                    }
+                    int target = 0;
+                    while (target < numDocs) {
+                        final int expected = target % intervals[t] == 0 ? target : (target / intervals[t] + 1) * intervals[t];
+                        assertEquals(expected < numDocs ? expected : DocIdSetIterator.NO_MORE_DOCS, postings.advance(target));
+                        if (expected >= numDocs) {
+                            break;
+                        }
+                        target = expected + TestUtil.nextInt(random(), 1, 2 * ES812PostingsFormat.BLOCK_SIZE);
+                    }
+                }
+            }
+        }
+    }
+
     private void doTestImpactSerialization(List<Impact> impacts) throws IOException {
         CompetitiveImpactAccumulator acc = new CompetitiveImpactAccumulator();
         for (Impact impact : impacts) {
@@ -89,6 +89,34 @@ public class DocValuesForUtilTests extends LuceneTestCase {
         d.close();
     }
 
+    public void testDecodeSingle() throws IOException {
+        final DocValuesForUtil forUtil = new DocValuesForUtil(NUMERIC_BLOCK_SIZE);
+        try (Directory d = new ByteBuffersDirectory()) {
+            for (int bpv = 1; bpv <= 64; bpv++) {
+                final int bitsPerValue = DocValuesForUtil.roundBits(bpv);
+                final long[] values = new long[NUMERIC_BLOCK_SIZE];
+                for (int j = 0; j < NUMERIC_BLOCK_SIZE; ++j) {
+                    values[j] = bpv == 64 ? random().nextLong() : TestUtil.nextLong(random(), 0, PackedInts.maxValue(bpv));
+                }
+                final String name = "test" + bpv + ".bin";
+                try (IndexOutput out = d.createOutput(name, IOContext.DEFAULT)) {
+                    out.writeByte((byte) bitsPerValue);
+                    forUtil.encode(values.clone(), bitsPerValue, out);
+                    // trailing data that must not be read
+                    out.writeLong(random().nextLong());
+                }
+                try (IndexInput in = d.openInput(name, IOContext.DEFAULT)) {
+                    final long end = in.length() - Long.BYTES;
+                    for (int j = 0; j < NUMERIC_BLOCK_SIZE; ++j) {
+                        in.seek(1);
+                        assertEquals(values[j], forUtil.decodeSingle(bitsPerValue, in, j));
+                        assertEquals(end, in.getFilePointer());
+                    }
+                }
+            }
+        }
+    }
+
     public void testEncodeDecodeBitsPerValue() throws IOException {
         int size = 128;
         byte[] dataOutputBuffer = new byte[16 * 1024];
@@ -189,6 +189,13 @@ public class ES87TSDBDocValuesEncoderTests extends LuceneTestCase {
                 assertEquals(in.length(), in.getFilePointer());
                 assertArrayEquals(expected, decoded);
             }
+            try (IndexInput in = dir.openInput("tests.bin", IOContext.DEFAULT)) {
+                long[] scratch = new long[blockSize];
+                for (int i = 0; i < blockSize; ++i) {
+                    in.seek(0);
+                    assertEquals(expected[i], encoder.decodeSingle(in, i, scratch));
+                }
+            }
         }
     }
 
@@ -329,6 +336,12 @@ public class ES87TSDBDocValuesEncoderTests extends LuceneTestCase {
                 assertEquals(in.length(), in.getFilePointer());
                 assertArrayEquals(expected, decoded);
             }
+            try (IndexInput in = dir.openInput("tests.bin", IOContext.DEFAULT)) {
+                for (int i = 0; i < blockSize; ++i) {
+                    in.seek(0);
+                    assertEquals(expected[i], encoder.decodeOrdinalSingle(in, i, bitsPerOrd));
+                }
+            }
         }
     }
 }
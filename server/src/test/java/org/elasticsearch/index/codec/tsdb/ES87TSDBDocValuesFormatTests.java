@@ -13,6 +13,7 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
@@ -21,7 +22,9 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
@@ -33,6 +36,8 @@ import org.apache.lucene.tests.index.BaseDocValuesFormatTestCase;
 import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.apache.lucene.tests.util.TestUtil;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.mapper.BlockLoader;
+import org.elasticsearch.index.mapper.TestBlock;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -43,6 +48,7 @@ import java.util.Map;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class ES87TSDBDocValuesFormatTests extends BaseDocValuesFormatTestCase {
 
@@ -153,6 +159,45 @@ public class ES87TSDBDocValuesFormatTests extends BaseDocValuesFormatTestCase {
         }
     }
 
+    public void testBulkReadDenseNumericValues() throws Exception {
+        IndexWriterConfig config = new IndexWriterConfig();
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, config)) {
+            final int numDocs = 1000 + random().nextInt(2000);
+            final long[] expected = new long[numDocs];
+            for (int i = 0; i < numDocs; i++) {
+                expected[i] = random().nextBoolean() ? 1000L * i : random().nextLong();
+                Document d = new Document();
+                d.add(new NumericDocValuesField("dv", expected[i]));
+                writer.addDocument(d);
+            }
+            writer.forceMerge(1);
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                LeafReader leaf = reader.leaves().get(0).reader();
+                for (int iter = 0; iter < 10; iter++) {
+                    // runs of consecutive docs mixed with sparse docs
+                    int[] docs = new int[1 + random().nextInt(512)];
+                    int count = 0;
+                    int doc = random().nextInt(numDocs / 2);
+                    while (doc < numDocs && count < docs.length) {
+                        docs[count++] = doc;
+                        doc += random().nextBoolean() ? 1 : 1 + random().nextInt(300);
+                    }
+                    docs = Arrays.copyOf(docs, count);
+                    NumericDocValues dv = leaf.getNumericDocValues("dv");
+                    assertThat(dv, instanceOf(BlockLoader.BulkNumericReader.class));
+                    long[] values = new long[docs.length];
+                    assertTrue(((BlockLoader.BulkNumericReader) dv).tryRead(TestBlock.docs(docs), values));
+                    for (int i = 0; i < docs.length; i++) {
+                        assertEquals(expected[docs[i]], values[i]);
+                    }
+                    assertEquals(docs[docs.length - 1], dv.docID());
+                }
+                NumericDocValues dv = leaf.getNumericDocValues("dv");
+                assertFalse(((BlockLoader.BulkNumericReader) dv).tryRead(TestBlock.docs(5, 3), new long[2]));
+            }
+        }
+    }
+
     public void testManyDocsWithManyValues() throws Exception {
         final int numDocs = 10 + random().nextInt(20);
         final Map<String, List<String>> sortedSet = new HashMap<>(); // key -> doc-values
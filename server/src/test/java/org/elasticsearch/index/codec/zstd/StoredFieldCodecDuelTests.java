@@ -46,6 +46,16 @@ public class StoredFieldCodecDuelTests extends ESTestCase {
         doTestDuel(baseline, contender);
     }
 
+    public void testDuelBestCompressionDictionary() throws IOException {
+        var baseline = new LegacyPerFieldMapperCodec(Lucene100Codec.Mode.BEST_COMPRESSION, null, BigArrays.NON_RECYCLING_INSTANCE);
+        var contender = new PerFieldMapperCodec(
+            Zstd814StoredFieldsFormat.Mode.BEST_COMPRESSION_DICTIONARY,
+            null,
+            BigArrays.NON_RECYCLING_INSTANCE
+        );
+        doTestDuel(baseline, contender);
+    }
+
     static void doTestDuel(Codec baslineCodec, Codec contenderCodec) throws IOException {
         try (var baselineDirectory = newDirectory(); var contenderDirectory = newDirectory()) {
             int numDocs = randomIntBetween(256, 8096);
@@ -35,11 +35,20 @@ import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.geo.ShapeRelation;
 import org.elasticsearch.common.lucene.search.function.ScriptScoreQuery;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexVersion;
 import org.elasticsearch.index.fielddata.DateScriptFieldData;
+import org.elasticsearch.index.fielddata.FieldDataContext;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.elasticsearch.index.fielddata.LeafNumericFieldData;
 import org.elasticsearch.index.fielddata.ScriptDocValues;
 import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
 import org.elasticsearch.script.DateFieldScript;
 import org.elasticsearch.script.DocReader;
 import org.elasticsearch.script.ScoreScript;
@@ -47,6 +56,8 @@ import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptFactory;
 import org.elasticsearch.script.ScriptType;
 import org.elasticsearch.search.MultiValueMode;
+import org.elasticsearch.search.lookup.SearchLookup;
+import org.elasticsearch.test.IndexSettingsModule;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
@@ -64,7 +75,10 @@ import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class DateScriptFieldTypeTests extends AbstractNonTextScriptFieldTypeTestCase {
 
@@ -198,6 +212,67 @@ public class DateScriptFieldTypeTests extends AbstractNonTextScriptFieldTypeTest
         }
     }
 
+    public void testCachedDocValues() throws IOException {
+        try (Directory directory = newDirectory(); RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
+            addDocument(iw, List.of(new StoredField("_source", new BytesRef("{\"timestamp\": [1595432181354]}"))));
+            addDocument(iw, List.of(new StoredField("_source", new BytesRef("{\"timestamp\": [1595432181356, 1595432181351]}"))));
+            try (
+                DirectoryReader reader = iw.getReader();
+                IndicesFieldDataCache indicesFieldDataCache = new IndicesFieldDataCache(Settings.EMPTY, new IndexFieldDataCache.Listener() {
+                })
+            ) {
+                IndexSettings indexSettings = IndexSettingsModule.newIndexSettings(
+                    new Index("test", "_na_"),
+                    Settings.builder().put(AbstractScriptFieldType.CACHE_VALUES_SETTING.getKey(), true).build()
+                );
+                IndexFieldDataService ifdService = new IndexFieldDataService(
+                    indexSettings,
+                    indicesFieldDataCache,
+                    new NoneCircuitBreakerService()
+                );
+                SearchExecutionContext searchExecutionContext = mockContext();
+                FieldDataContext fieldDataContext = new FieldDataContext(
+                    "test",
+                    indexSettings,
+                    searchExecutionContext::lookup,
+                    searchExecutionContext::sourcePath,
+                    MappedFieldType.FielddataOperation.SEARCH
+                );
+                DateScriptFieldType ft = buildDeterministic("add_days", Map.of("days", 1));
+                DateScriptFieldData first = ifdService.getForField(ft, fieldDataContext);
+                // a later search builds its own field data that finds the values that the first search computed
+                DateScriptFieldData second = ifdService.getForField(ft, fieldDataContext);
+                // the same field with another script must not see the values of the first one
+                DateScriptFieldData other = ifdService.getForField(buildDeterministic("add_days", Map.of("days", 2)), fieldDataContext);
+                List<Long> results = new ArrayList<>();
+                List<Long> otherResults = new ArrayList<>();
+                for (LeafReaderContext context : reader.leaves()) {
+                    LeafNumericFieldData cached = first.load(context);
+                    assertThat(second.load(context), sameInstance(cached));
+                    LeafNumericFieldData otherCached = other.load(context);
+                    assertThat(otherCached, not(sameInstance(cached)));
+                    SortedNumericDocValues dv = cached.getLongValues();
+                    SortedNumericDocValues otherDv = otherCached.getLongValues();
+                    for (int doc = 0; doc < context.reader().maxDoc(); doc++) {
+                        assertTrue(dv.advanceExact(doc));
+                        assertTrue(otherDv.advanceExact(doc));
+                        long previous = Long.MIN_VALUE;
+                        for (int i = 0; i < dv.docValueCount(); i++) {
+                            long value = dv.nextValue();
+                            // cached values are sorted like doc values
+                            assertThat(value, greaterThanOrEqualTo(previous));
+                            previous = value;
+                            results.add(value);
+                            otherResults.add(otherDv.nextValue());
+                        }
+                    }
+                }
+                assertThat(results, containsInAnyOrder(1595518581354L, 1595518581351L, 1595518581356L));
+                assertThat(otherResults, containsInAnyOrder(1595604981354L, 1595604981351L, 1595604981356L));
+            }
+        }
+    }
+
     @Override
     public void testSort() throws IOException {
         try (Directory directory = newDirectory(); RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
@@ -533,6 +608,31 @@ public class DateScriptFieldTypeTests extends AbstractNonTextScriptFieldTypeTest
         return build(code, Map.of(), OnScriptError.FAIL);
     }
 
+    /**
+     * Only the values of runtime fields whose results are deterministic are cached.
+     */
+    private static DateScriptFieldType buildDeterministic(String code, Map<String, Object> params) {
+        Script script = new Script(ScriptType.INLINE, "test", code, params);
+        DateFieldScript.Factory factory = factory(script);
+        return new DateScriptFieldType("test", new DateFieldScript.Factory() {
+            @Override
+            public DateFieldScript.LeafFactory newFactory(
+                String fieldName,
+                Map<String, Object> params,
+                SearchLookup searchLookup,
+                DateFormatter formatter,
+                OnScriptError onScriptError
+            ) {
+                return factory.newFactory(fieldName, params, searchLookup, formatter, onScriptError);
+            }
+
+            @Override
+            public boolean isResultDeterministic() {
+                return true;
+            }
+        }, DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER, script, emptyMap(), OnScriptError.FAIL);
+    }
+
     protected DateScriptFieldType build(String code, Map<String, Object> params, OnScriptError onScriptError) {
         return build(new Script(ScriptType.INLINE, "test", code, params), DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER, onScriptError);
     }
@@ -29,12 +29,24 @@ import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.geo.ShapeRelation;
 import org.elasticsearch.common.lucene.search.function.ScriptScoreQuery;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexVersion;
+import org.elasticsearch.index.fielddata.FieldDataContext;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.elasticsearch.index.fielddata.LeafNumericFieldData;
 import org.elasticsearch.index.fielddata.LongScriptFieldData;
 import org.elasticsearch.index.fielddata.ScriptDocValues;
 import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
 import org.elasticsearch.script.DocReader;
 import org.elasticsearch.script.LongFieldScript;
 import org.elasticsearch.script.ScoreScript;
@@ -42,16 +54,21 @@ import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptFactory;
 import org.elasticsearch.script.ScriptType;
 import org.elasticsearch.search.MultiValueMode;
+import org.elasticsearch.search.lookup.SearchLookup;
+import org.elasticsearch.test.IndexSettingsModule;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.Collections.emptyMap;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class LongScriptFieldTypeTests extends AbstractNonTextScriptFieldTypeTestCase {
 
@@ -122,6 +139,166 @@ public class LongScriptFieldTypeTests extends AbstractNonTextScriptFieldTypeTest
         }
     }
 
+    public void testCachedDocValues() throws IOException {
+        try (Directory directory = newDirectory(); RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
+            addDocument(iw, List.of(new StoredField("_source", new BytesRef("{\"foo\": [1]}"))));
+            addDocument(iw, List.of(new StoredField("_source", new BytesRef("{\"foo\": [2, 1]}"))));
+            try (
+                DirectoryReader reader = iw.getReader();
+                IndicesFieldDataCache indicesFieldDataCache = new IndicesFieldDataCache(Settings.EMPTY, new IndexFieldDataCache.Listener() {
+                })
+            ) {
+                IndexFieldDataService ifdService = cachingFieldDataService(indicesFieldDataCache);
+                LongScriptFieldType ft = buildDeterministic("add_param", Map.of("param", 1));
+                LongScriptFieldData first = ifdService.getForField(ft, cachingFieldDataContext(false));
+                // a later search builds its own field data that finds the values that the first search computed
+                LongScriptFieldData second = ifdService.getForField(ft, cachingFieldDataContext(false));
+                // the same field with another script, like after a mapping update, must not see the values of the first one
+                LongScriptFieldData other = ifdService.getForField(
+                    buildDeterministic("add_param", Map.of("param", 2)),
+                    cachingFieldDataContext(false)
+                );
+                // neither must the same script after a mapping update, since the fields that the script reads may have changed
+                LongScriptFieldData updated = ifdService.getForField(
+                    buildDeterministic("add_param", Map.of("param", 1)),
+                    cachingFieldDataContext(false)
+                );
+                // searches that define runtime fields may redefine the fields that the script reads, so they don't use the cache
+                LongScriptFieldData withRuntimeMappings = ifdService.getForField(ft, cachingFieldDataContext(true));
+                List<Long> results = new ArrayList<>();
+                List<Long> otherResults = new ArrayList<>();
+                List<Long> runtimeMappingsResults = new ArrayList<>();
+                for (LeafReaderContext context : reader.leaves()) {
+                    LeafNumericFieldData cached = first.load(context);
+                    assertThat(second.load(context), sameInstance(cached));
+                    LeafNumericFieldData otherCached = other.load(context);
+                    assertThat(otherCached, not(sameInstance(cached)));
+                    assertThat(other.load(context), sameInstance(otherCached));
+                    assertThat(updated.load(context), not(sameInstance(cached)));
+                    LeafNumericFieldData uncached = withRuntimeMappings.load(context);
+                    assertThat(uncached, not(sameInstance(cached)));
+                    assertThat(withRuntimeMappings.load(context), not(sameInstance(uncached)));
+                    readValues(cached.getLongValues(), context.reader().maxDoc(), results);
+                    readValues(otherCached.getLongValues(), context.reader().maxDoc(), otherResults);
+                    readValues(uncached.getLongValues(), context.reader().maxDoc(), runtimeMappingsResults);
+                }
+                assertThat(results, containsInAnyOrder(2L, 2L, 3L));
+                assertThat(otherResults, containsInAnyOrder(3L, 3L, 4L));
+                assertThat(runtimeMappingsResults, containsInAnyOrder(2L, 2L, 3L));
+                assertThat(indicesFieldDataCache.getCache().count(), equalTo(3 * reader.leaves().size()));
+
+                // after a mapping update no search reads the cached values anymore
+                ifdService.clearCacheVariants();
+                assertThat(indicesFieldDataCache.getCache().count(), equalTo(0));
+            }
+        }
+    }
+
+    public void testCachedDocValuesRemembersFailures() throws IOException {
+        try (Directory directory = newDirectory(); RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
+            addDocument(iw, List.of(new StoredField("_source", new BytesRef("{\"foo\": [1]}"))));
+            try (
+                DirectoryReader reader = iw.getReader();
+                IndicesFieldDataCache indicesFieldDataCache = new IndicesFieldDataCache(Settings.EMPTY, new IndexFieldDataCache.Listener() {
+                })
+            ) {
+                IndexFieldDataService ifdService = cachingFieldDataService(indicesFieldDataCache);
+                LongScriptFieldType ft = buildDeterministic("error", Map.of());
+                for (LeafReaderContext context : reader.leaves()) {
+                    for (int i = 0; i < 3; i++) {
+                        LongScriptFieldData ifd = ifdService.getForField(ft, cachingFieldDataContext(false));
+                        // the values are read per document, so only reading a document fails
+                        SortedNumericDocValues values = ifd.load(context).getLongValues();
+                        expectThrows(RuntimeException.class, () -> values.advanceExact(0));
+                    }
+                }
+                // the segment was only computed once, later searches found the failure in the cache
+                assertThat(indicesFieldDataCache.getCache().stats().getMisses(), equalTo((long) reader.leaves().size()));
+                assertThat(indicesFieldDataCache.getCache().stats().getHits(), equalTo(2L * reader.leaves().size()));
+            }
+        }
+    }
+
+    public void testCachedDocValuesDoesNotRememberTrippedBreaker() throws IOException {
+        try (Directory directory = newDirectory(); RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
+            addDocument(iw, List.of(new StoredField("_source", new BytesRef("{\"foo\": [1]}"))));
+            try (
+                DirectoryReader reader = iw.getReader();
+                IndicesFieldDataCache indicesFieldDataCache = new IndicesFieldDataCache(Settings.EMPTY, new IndexFieldDataCache.Listener() {
+                })
+            ) {
+                AtomicBoolean trip = new AtomicBoolean(true);
+                CircuitBreaker breaker = new NoopCircuitBreaker(CircuitBreaker.FIELDDATA) {
+                    @Override
+                    public void addEstimateBytesAndMaybeBreak(long bytes, String label) {
+                        if (trip.get()) {
+                            throw new CircuitBreakingException("tripped", bytes, 0, CircuitBreaker.Durability.TRANSIENT);
+                        }
+                    }
+                };
+                IndexFieldDataService ifdService = new IndexFieldDataService(
+                    CACHING_INDEX_SETTINGS,
+                    indicesFieldDataCache,
+                    new NoneCircuitBreakerService() {
+                        @Override
+                        public CircuitBreaker getBreaker(String name) {
+                            return breaker;
+                        }
+                    }
+                );
+                LongScriptFieldType ft = buildDeterministic("add_param", Map.of("param", 1));
+                List<Long> results = new ArrayList<>();
+                for (LeafReaderContext context : reader.leaves()) {
+                    // without memory for the values the search reads them per document
+                    LeafNumericFieldData uncached = ifdService.<LongScriptFieldData>getForField(ft, cachingFieldDataContext(false))
+                        .load(context);
+                    readValues(uncached.getLongValues(), context.reader().maxDoc(), results);
+                    assertThat(indicesFieldDataCache.getCache().count(), equalTo(0));
+
+                    // a later search computes the values once there is enough memory
+                    trip.set(false);
+                    LongScriptFieldData ifd = ifdService.getForField(ft, cachingFieldDataContext(false));
+                    LeafNumericFieldData cached = ifd.load(context);
+                    assertThat(ifd.load(context), sameInstance(cached));
+                    readValues(cached.getLongValues(), context.reader().maxDoc(), results);
+                    trip.set(true);
+                }
+                assertThat(results, containsInAnyOrder(2L, 2L));
+            }
+        }
+    }
+
+    private static final IndexSettings CACHING_INDEX_SETTINGS = IndexSettingsModule.newIndexSettings(
+        new Index("test", "_na_"),
+        Settings.builder().put(AbstractScriptFieldType.CACHE_VALUES_SETTING.getKey(), true).build()
+    );
+
+    private static IndexFieldDataService cachingFieldDataService(IndicesFieldDataCache indicesFieldDataCache) {
+        return new IndexFieldDataService(CACHING_INDEX_SETTINGS, indicesFieldDataCache, new NoneCircuitBreakerService());
+    }
+
+    private static FieldDataContext cachingFieldDataContext(boolean hasRuntimeMappings) {
+        SearchExecutionContext searchExecutionContext = mockContext();
+        return new FieldDataContext(
+            "test",
+            CACHING_INDEX_SETTINGS,
+            searchExecutionContext::lookup,
+            searchExecutionContext::sourcePath,
+            MappedFieldType.FielddataOperation.SEARCH,
+            hasRuntimeMappings
+        );
+    }
+
+    private static void readValues(SortedNumericDocValues dv, int maxDoc, List<Long> results) throws IOException {
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (dv.advanceExact(doc)) {
+                for (int i = 0; i < dv.docValueCount(); i++) {
+                    results.add(dv.nextValue());
+                }
+            }
+        }
+    }
+
     @Override
     public void testSort() throws IOException {
         try (Directory directory = newDirectory(); RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
@@ -321,6 +498,30 @@ public class LongScriptFieldTypeTests extends AbstractNonTextScriptFieldTypeTest
         return "long";
     }
 
+    /**
+     * Only the values of runtime fields whose results are deterministic are cached.
+     */
+    private static LongScriptFieldType buildDeterministic(String code, Map<String, Object> params) {
+        Script script = new Script(ScriptType.INLINE, "test", code, params);
+        LongFieldScript.Factory factory = factory(script);
+        return new LongScriptFieldType("test", new LongFieldScript.Factory() {
+            @Override
+            public LongFieldScript.LeafFactory newFactory(
+                String fieldName,
+                Map<String, Object> params,
+                SearchLookup searchLookup,
+                OnScriptError onScriptError
+            ) {
+                return factory.newFactory(fieldName, params, searchLookup, onScriptError);
+            }
+
+            @Override
+            public boolean isResultDeterministic() {
+                return true;
+            }
+        }, script, emptyMap(), OnScriptError.FAIL);
+    }
+
     protected LongScriptFieldType build(String code, Map<String, Object> params, OnScriptError onScriptError) {
         Script script = new Script(ScriptType.INLINE, "test", code, params);
         return new LongScriptFieldType("test", factory(script), script, emptyMap(), onScriptError);
@@ -13,6 +13,7 @@ import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Before;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -595,6 +596,135 @@ public class CompoundProcessorTests extends ESTestCase {
         assertThat(failureProcessor2.getInvokedCounter(), equalTo(1));
     }
 
+    public void testExecuteBatch() {
+        final int numDocs = between(1, 20);
+        final List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (int i = 0; i < numDocs; i++) {
+            IngestDocument doc = TestIngestDocument.emptyIngestDocument();
+            doc.setFieldValue("fail", randomBoolean());
+            doc.setFieldValue("drop", randomBoolean());
+            ingestDocuments.add(doc);
+        }
+        final BatchRecordingProcessor first = new BatchRecordingProcessor("first");
+        final TestProcessor fail = new TestProcessor(doc -> {
+            if (doc.getFieldValue("fail", Boolean.class)) {
+                throw new RuntimeException("failed");
+            }
+        });
+        final TestProcessor drop = new TestProcessor(null, "drop", null, doc -> doc.getFieldValue("drop", Boolean.class) ? null : doc);
+        final BatchRecordingProcessor last = new BatchRecordingProcessor("last");
+        final TestProcessor onFailure = new TestProcessor(doc -> doc.setFieldValue("on_failure", true));
+        LongSupplier relativeTimeProvider = mock(LongSupplier.class);
+        when(relativeTimeProvider.getAsLong()).thenReturn(0L);
+        CompoundProcessor compoundProcessor = new CompoundProcessor(
+            false,
+            List.of(first, fail, drop, last),
+            List.of(onFailure),
+            relativeTimeProvider
+        );
+
+        final IngestDocument[] results = new IngestDocument[numDocs];
+        final boolean[] completed = new boolean[numDocs];
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            assertNull(e);
+            assertFalse(completed[slot]);
+            completed[slot] = true;
+            results[slot] = result;
+        });
+
+        int numFailed = 0;
+        int numSurvivors = 0;
+        for (int i = 0; i < numDocs; i++) {
+            assertTrue(completed[i]);
+            IngestDocument doc = ingestDocuments.get(i);
+            assertThat(doc.getFieldValue("first", Integer.class), equalTo(numDocs));
+            if (doc.getFieldValue("fail", Boolean.class)) {
+                numFailed++;
+                assertThat(results[i], sameInstance(doc));
+                assertTrue(doc.getFieldValue("on_failure", Boolean.class));
+                assertFalse(doc.hasField("last"));
+            } else if (doc.getFieldValue("drop", Boolean.class)) {
+                assertThat(results[i], nullValue());
+            } else {
+                numSurvivors++;
+                assertThat(results[i], sameInstance(doc));
+            }
+        }
+        // the surviving documents reach the last processor together
+        for (int i = 0; i < numDocs; i++) {
+            if (results[i] != null && results[i].hasField("last")) {
+                assertThat(results[i].getFieldValue("last", Integer.class), equalTo(numSurvivors));
+            }
+        }
+        assertThat(first.batchSizes, equalTo(List.of(numDocs)));
+        if (numSurvivors == 0) {
+            assertThat(last.batchSizes, hasSize(0));
+        } else {
+            assertThat(last.batchSizes, equalTo(List.of(numSurvivors)));
+        }
+        assertThat(onFailure.getInvokedCounter(), equalTo(numFailed));
+        assertStats(0, compoundProcessor, 0, numDocs, 0, 0);
+        assertStats(1, compoundProcessor, 0, numDocs, numFailed, 0);
+        assertStats(3, compoundProcessor, 0, numSurvivors, 0, 0);
+    }
+
+    public void testExecuteBatchIgnoresFailures() {
+        final int numDocs = between(1, 20);
+        final List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (int i = 0; i < numDocs; i++) {
+            ingestDocuments.add(TestIngestDocument.emptyIngestDocument());
+        }
+        final BatchRecordingProcessor failing = new BatchRecordingProcessor("failing") {
+            @Override
+            public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+                super.executeBatch(ingestDocuments, (slot, result, e) -> {});
+                throw new RuntimeException("failed");
+            }
+        };
+        final BatchRecordingProcessor last = new BatchRecordingProcessor("last");
+        LongSupplier relativeTimeProvider = mock(LongSupplier.class);
+        when(relativeTimeProvider.getAsLong()).thenReturn(0L);
+        CompoundProcessor compoundProcessor = new CompoundProcessor(true, List.of(failing, last), List.of(), relativeTimeProvider);
+
+        final List<IngestDocument> results = new ArrayList<>();
+        compoundProcessor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            assertNull(e);
+            assertThat(result, sameInstance(ingestDocuments.get(slot)));
+            results.add(result);
+        });
+        assertThat(results, hasSize(numDocs));
+        assertThat(last.batchSizes, equalTo(List.of(numDocs)));
+        assertStats(0, compoundProcessor, 0, numDocs, numDocs, 0);
+        assertStats(1, compoundProcessor, 0, numDocs, 0, 0);
+    }
+
+    /**
+     * A processor that handles all documents of a batch at once, and records the size of each batch on the documents.
+     */
+    private static class BatchRecordingProcessor extends TestProcessor {
+        private final String field;
+        private final List<Integer> batchSizes = new ArrayList<>();
+
+        BatchRecordingProcessor(String field) {
+            super(doc -> { throw new AssertionError("documents must be processed in batches"); });
+            this.field = field;
+        }
+
+        @Override
+        public boolean supportsBatchExecution() {
+            return true;
+        }
+
+        @Override
+        public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+            batchSizes.add(ingestDocuments.size());
+            for (int i = 0; i < ingestDocuments.size(); i++) {
+                ingestDocuments.get(i).setFieldValue(field, ingestDocuments.size());
+                handler.accept(i, ingestDocuments.get(i), null);
+            }
+        }
+    }
+
     private TestProcessor getTestProcessor(String tag, boolean isAsync, boolean shouldThrowException) {
         return new TestProcessor(tag, "test-processor", null, ingestDocument -> {
             if (shouldThrowException) throw new RuntimeException("Intentionally failing");
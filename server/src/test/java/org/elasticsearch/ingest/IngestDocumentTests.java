@@ -9,6 +9,7 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.index.VersionType;
 import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matchers;
 import org.junit.Before;
@@ -1128,4 +1129,72 @@ public class IngestDocumentTests extends ESTestCase {
         assertFalse(ingestDocument.updateIndexHistory(index1));
         assertThat(ingestDocument.getIndexHistory(), Matchers.contains(index1, index2));
     }
+
+    public void testFieldPathsAreCached() {
+        IngestDocument.FieldPath.clearCache();
+        String path = "cached." + randomAlphaOfLength(10) + ".field";
+        IngestDocument.FieldPath fieldPath = IngestDocument.FieldPath.of(path);
+        assertThat(IngestDocument.FieldPath.of(path), sameInstance(fieldPath));
+        IngestDocument.FieldPath ingestPath = IngestDocument.FieldPath.of("_ingest." + path);
+        assertThat(ingestPath.initialContext(ingestDocument), sameInstance(ingestDocument.getIngestMetadata()));
+        assertThat(fieldPath.initialContext(ingestDocument), sameInstance(ingestDocument.getSourceAndMetadata()));
+
+        // cached paths are shared across documents
+        ingestDocument.setFieldValue(path, "value");
+        IngestDocument other = TestIngestDocument.emptyIngestDocument();
+        assertFalse(other.hasField(path));
+        other.setFieldValue(path, "other");
+        assertThat(ingestDocument.getFieldValue(path, String.class), equalTo("value"));
+        assertThat(other.getFieldValue(path, String.class), equalTo("other"));
+
+        // invalid paths are never cached
+        expectThrows(IllegalArgumentException.class, () -> IngestDocument.FieldPath.of("_source."));
+
+        // the cache is bounded, and keeps the paths that it holds once it is full
+        for (int i = 0; i < IngestDocument.FieldPath.MAX_CACHE_SIZE * 2; i++) {
+            IngestDocument.FieldPath.of("field_" + i);
+        }
+        assertThat(IngestDocument.FieldPath.cacheSize(), lessThanOrEqualTo(IngestDocument.FieldPath.MAX_CACHE_SIZE));
+        assertThat(IngestDocument.FieldPath.of(path), sameInstance(fieldPath));
+        String uncached = "uncached." + randomAlphaOfLength(10);
+        assertThat(IngestDocument.FieldPath.of(uncached), not(sameInstance(IngestDocument.FieldPath.of(uncached))));
+    }
+
+    public void testSourceModificationTracking() {
+        Map<String, Object> source = new HashMap<>();
+        source.put("field", "value");
+        source.put("number", 1);
+        source.put("object", new HashMap<>(Map.of("inner", "value")));
+        source.put("list", new ArrayList<>(List.of("a", "b")));
+        IngestDocument document = new IngestDocument("index", "id", 1, null, VersionType.INTERNAL, source);
+
+        // reading single values, and writing metadata or ingest metadata does not modify the source
+        assertThat(document.getFieldValue("field", String.class), equalTo("value"));
+        assertThat(document.getFieldValue("object.inner", String.class), equalTo("value"));
+        assertThat(document.getFieldValue("_source.number", Integer.class), equalTo(1));
+        assertTrue(document.hasField("list.1"));
+        document.setFieldValue("_index", "other_index");
+        document.setFieldValue("_routing", "routing");
+        document.setFieldValue("_ingest.field", "value");
+        document.appendFieldValue("_ingest.list", "value");
+        document.removeField("_ingest.field");
+        document.getMetadata().setId("other_id");
+        document.getIngestMetadata();
+        assertFalse(document.isSourceModified());
+
+        IngestDocument copy = new IngestDocument(document);
+        assertFalse(copy.isSourceModified());
+
+        switch (between(0, 6)) {
+            case 0 -> document.setFieldValue(randomFrom("field", "new_field", "object.new_field", "_source.field"), "new_value");
+            case 1 -> document.appendFieldValue(randomFrom("list", "field"), "c");
+            case 2 -> document.removeField(randomFrom("field", "object.inner", "list.0"));
+            case 3 -> document.getFieldValue(randomFrom("object", "list"), Object.class).hashCode();
+            case 4 -> document.getSource();
+            case 5 -> document.getSourceAndMetadata();
+            default -> document.getCtxMap();
+        }
+        assertTrue(document.isSourceModified());
+        assertTrue(new IngestDocument(document).isSourceModified());
+    }
 }
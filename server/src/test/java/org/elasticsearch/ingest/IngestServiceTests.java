@@ -43,6 +43,7 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.cluster.service.ClusterStateTaskExecutorUtils;
 import org.elasticsearch.common.TriConsumer;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.common.util.Maps;
@@ -1397,6 +1398,106 @@ public class IngestServiceTests extends ESTestCase {
         verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
     }
 
+    public void testExecuteBulkRequestInBatches() throws Exception {
+        final List<Integer> batchSizes = new ArrayList<>();
+        final Processor processor = new TestProcessor(doc -> fail("documents must be processed in batches")) {
+            @Override
+            public boolean supportsBatchExecution() {
+                return true;
+            }
+
+            @Override
+            public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+                batchSizes.add(ingestDocuments.size());
+                for (int i = 0; i < ingestDocuments.size(); i++) {
+                    ingestDocuments.get(i).setFieldValue("batched", true);
+                    handler.accept(i, ingestDocuments.get(i), null);
+                }
+            }
+        };
+        IngestService ingestService = createWithProcessors(Map.of("mock", (factories, tag, description, config) -> processor));
+        PutPipelineRequest putRequest = putJsonPipelineRequest("_id", "{\"processors\": [{\"mock\" : {}}]}");
+        ClusterState clusterState = ClusterState.builder(new ClusterName("_name")).build(); // Start empty
+        ClusterState previousClusterState = clusterState;
+        clusterState = executePut(putRequest, clusterState);
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+
+        final int numRequests = between(1, 300);
+        final BulkRequest bulkRequest = new BulkRequest();
+        for (int i = 0; i < numRequests; i++) {
+            bulkRequest.add(
+                new IndexRequest("_index").id(Integer.toString(i)).source(Map.of()).setPipeline("_id").setFinalPipeline("_none")
+            );
+        }
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        ingestService.executeBulkRequest(
+            numRequests,
+            bulkRequest.requests(),
+            indexReq -> {},
+            (s) -> false,
+            (slot, targetIndex, e) -> fail("Should not be redirecting failures"),
+            failureHandler,
+            completionHandler,
+            EsExecutors.DIRECT_EXECUTOR_SERVICE
+        );
+        verify(failureHandler, never()).accept(any(), any());
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum(), equalTo(numRequests));
+        assertThat(batchSizes.size(), equalTo((numRequests + 127) / 128));
+        for (DocWriteRequest<?> request : bulkRequest.requests()) {
+            assertThat(((IndexRequest) request).sourceAsMap(), equalTo(Map.of("batched", true)));
+        }
+    }
+
+    public void testExecuteKeepsUnmodifiedSource() throws Exception {
+        final boolean modifySource = randomBoolean();
+        final Processor processor = new TestProcessor(doc -> {
+            doc.setFieldValue("_routing", "routing");
+            doc.setFieldValue("_ingest.seen", doc.getFieldValue("field", String.class));
+            if (modifySource) {
+                doc.setFieldValue("field", "modified");
+            }
+        });
+        IngestService ingestService = createWithProcessors(Map.of("mock", (factories, tag, description, config) -> processor));
+        PutPipelineRequest putRequest = putJsonPipelineRequest("_id", "{\"processors\": [{\"mock\" : {}}]}");
+        ClusterState clusterState = ClusterState.builder(new ClusterName("_name")).build(); // Start empty
+        ClusterState previousClusterState = clusterState;
+        clusterState = executePut(putRequest, clusterState);
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+
+        final IndexRequest indexRequest = new IndexRequest("_index").id("_id")
+            .source(Map.of("field", "value"))
+            .setPipeline("_id")
+            .setFinalPipeline("_none");
+        final BytesReference originalSource = indexRequest.source();
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked")
+        final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        ingestService.executeBulkRequest(
+            1,
+            List.of(indexRequest),
+            indexReq -> {},
+            (s) -> false,
+            (slot, targetIndex, e) -> fail("Should not be redirecting failures"),
+            failureHandler,
+            completionHandler,
+            EsExecutors.DIRECT_EXECUTOR_SERVICE
+        );
+        verify(failureHandler, never()).accept(any(), any());
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+        assertThat(indexRequest.routing(), equalTo("routing"));
+        if (modifySource) {
+            assertThat(indexRequest.sourceAsMap(), equalTo(Map.of("field", "modified")));
+        } else {
+            // the source was not serialized again
+            assertThat(indexRequest.source(), sameInstance(originalSource));
+        }
+    }
+
     public void testExecuteSuccessWithOnFailure() throws Exception {
         final Processor processor = mock(Processor.class);
         when(processor.getType()).thenReturn("mock_processor_type");
@@ -35,7 +35,8 @@ public class ScriptContextStatsTests extends ESTestCase {
                     TimeSeries.merge(first.compilationsHistory(), second.compilationsHistory()),
                     first.cacheEvictions() + second.cacheEvictions(),
                     TimeSeries.merge(first.cacheEvictionsHistory(), second.cacheEvictionsHistory()),
-                    first.compilationLimitTriggered() + second.compilationLimitTriggered()
+                    first.compilationLimitTriggered() + second.compilationLimitTriggered(),
+                    first.precompilations() + second.precompilations()
                 )
             );
         }
@@ -52,6 +53,7 @@ public class ScriptContextStatsTests extends ESTestCase {
             randomTimeseries(),
             randomLongBetween(0, 10000),
             randomTimeseries(),
+            randomLongBetween(0, 10000),
             randomLongBetween(0, 10000)
         );
     }
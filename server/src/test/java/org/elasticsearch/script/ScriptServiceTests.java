@@ -20,6 +20,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.test.ESTestCase;
@@ -28,6 +29,9 @@ import org.elasticsearch.xcontent.XContentType;
 import org.junit.Before;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -265,6 +269,80 @@ public class ScriptServiceTests extends ESTestCase {
         assertEquals(1L, scriptService.stats().getCompilations());
     }
 
+    public void testPersistedScriptsCompiledWithoutRateLimit() throws IOException {
+        buildScriptService(Settings.EMPTY);
+        ScriptContext<?> context = randomFrom(rateLimitedContexts.values());
+        int numberOfScripts = randomIntBetween(2, 10);
+        // the stored script is 1+1, so start at 2+2 to keep the scripts distinct
+        for (int i = 2; i < numberOfScripts + 2; i++) {
+            scriptService.compile(new Script(ScriptType.INLINE, "test", i + "+" + i, Collections.emptyMap()), context);
+        }
+        scriptService.compile(new Script(ScriptType.STORED, null, "script", Collections.emptyMap()), context);
+        Path file = ScriptService.persistedScriptsFile(createTempDir());
+        assertEquals(0, scriptService.precompilePersistedScripts(file));
+        scriptService.close();
+
+        buildScriptService(Settings.builder().put(SCRIPT_GENERAL_MAX_COMPILATIONS_RATE_SETTING.getKey(), "1/1m").build());
+        assertEquals(numberOfScripts + 1, scriptService.precompilePersistedScripts(file));
+        assertEquals(numberOfScripts + 1, scriptService.stats().getPrecompilations());
+        assertEquals(0L, scriptService.stats().getCompilations());
+        assertEquals(0L, scriptService.stats().getCompilationLimitTriggered());
+        // the precompiled scripts are cache hits, so compiling them neither compiles them again nor hits the rate limit
+        for (int i = 2; i < numberOfScripts + 2; i++) {
+            scriptService.compile(new Script(ScriptType.INLINE, "test", i + "+" + i, Collections.emptyMap()), context);
+        }
+        scriptService.compile(new Script(ScriptType.STORED, null, "script", Collections.emptyMap()), context);
+        assertEquals(numberOfScripts + 1, scriptService.stats().getPrecompilations());
+        assertEquals(0L, scriptService.stats().getCompilations());
+        assertEquals(0L, scriptService.stats().getCompilationLimitTriggered());
+    }
+
+    public void testMalformedPersistedScriptsAreSkipped() throws IOException {
+        buildScriptService(Settings.EMPTY);
+        ScriptContext<?> context = randomFrom(contexts.values());
+        Path file = ScriptService.persistedScriptsFile(createTempDir());
+        Files.writeString(file, """
+            {
+              "version": 1,
+              "scripts": [
+                { "lang": "test", "context": "CONTEXT", "id": "2+2", "source": "2+2", "options": {} },
+                { "lang": "test", "context": "CONTEXT", "source": "3+3" },
+                { "lang": "test", "context": "CONTEXT", "id": 4, "source": "4+4" },
+                { "context": "CONTEXT", "id": "5+5", "source": "5+5" },
+                { "lang": "test", "context": "CONTEXT", "id": "6+6", "source": "6+6", "options": { "option": 6 } },
+                { "lang": "test", "context": "CONTEXT", "id": "7+7", "source": "7+7", "options": "7" },
+                "8+8",
+                { "lang": "test", "context": "CONTEXT", "id": "9+9", "source": "9+9" }
+              ]
+            }""".replace("CONTEXT", context.name));
+        assertEquals(2, scriptService.precompilePersistedScripts(file));
+        assertEquals(2, scriptService.stats().getPrecompilations());
+    }
+
+    public void testPersistedScriptsAreKeptIfClosedBeforeRead() throws IOException {
+        buildScriptService(Settings.EMPTY);
+        ScriptContext<?> context = randomFrom(contexts.values());
+        scriptService.compile(new Script(ScriptType.INLINE, "test", "2+2", Collections.emptyMap()), context);
+        Path file = ScriptService.persistedScriptsFile(createTempDir());
+        assertEquals(0, scriptService.precompilePersistedScripts(file));
+        scriptService.close();
+        String persisted = Files.readString(file);
+
+        // the node closes before the scripts are compiled in the background, which must not replace the file with the empty caches
+        buildScriptService(Settings.EMPTY);
+        List<Runnable> pending = new ArrayList<>();
+        scriptService.precompilePersistedScripts(file, pending::add);
+        assertEquals(1, pending.size());
+        scriptService.close();
+        assertEquals(persisted, Files.readString(file));
+
+        buildScriptService(Settings.EMPTY);
+        scriptService.precompilePersistedScripts(file, EsExecutors.DIRECT_EXECUTOR_SERVICE);
+        assertEquals(1, scriptService.stats().getPrecompilations());
+        scriptService.close();
+        assertEquals(persisted, Files.readString(file));
+    }
+
     public void testContextCompilationStatsOnCacheHit() throws IOException {
         buildScriptService(Settings.builder().put(SCRIPT_GENERAL_MAX_COMPILATIONS_RATE_SETTING.getKey(), USE_CONTEXT_RATE_KEY).build());
         Script script = new Script(ScriptType.INLINE, "test", "1+1", Collections.emptyMap());
@@ -15,6 +15,7 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
 import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentFactory;
@@ -49,12 +50,14 @@ public class ScriptStatsTests extends ESTestCase {
                 "compilations" : 1100,
                 "cache_evictions" : 2211,
                 "compilation_limit_triggered" : 3322,
+                "precompilations" : 0,
                 "contexts" : [
                   {
                     "context" : "contextA",
                     "compilations" : 1000,
                     "cache_evictions" : 2010,
-                    "compilation_limit_triggered" : 3020
+                    "compilation_limit_triggered" : 3020,
+                    "precompilations" : 0
                   },
                   {
                     "context" : "contextB",
@@ -70,7 +73,8 @@ public class ScriptStatsTests extends ESTestCase {
                       "15m" : 2001,
                       "24h" : 2002
                     },
-                    "compilation_limit_triggered" : 302
+                    "compilation_limit_triggered" : 302,
+                    "precompilations" : 0
                   }
                 ]
               }
@@ -89,7 +93,8 @@ public class ScriptStatsTests extends ESTestCase {
               "context" : "c",
               "compilations" : 1111,
               "cache_evictions" : 2222,
-              "compilation_limit_triggered" : 3333
+              "compilation_limit_triggered" : 3333,
+              "precompilations" : 0
             }""";
 
         assertThat(Strings.toString(builder), equalTo(expected));
@@ -109,7 +114,8 @@ public class ScriptStatsTests extends ESTestCase {
                 "15m" : %s,
                 "24h" : %s
               },
-              "compilation_limit_triggered" : 3333
+              "compilation_limit_triggered" : 3333,
+              "precompilations" : 0
             }""";
 
         XContentBuilder builder = XContentFactory.jsonBuilder().prettyPrint();
@@ -170,6 +176,28 @@ public class ScriptStatsTests extends ESTestCase {
         assertEquals(stats, deserStats);
     }
 
+    public void testPrecompilationsSerialization() throws IOException {
+        ScriptContextStats stats = ScriptContextStatsTests.randomScriptContextStats();
+        TransportVersion previous = TransportVersionUtils.getPreviousVersion(TransportVersions.SCRIPT_PRECOMPILATION_STATS);
+
+        ScriptContextStats deserStats = serDeser(previous, previous, stats);
+        assertEquals(0L, deserStats.getPrecompilations());
+        assertEquals(stats.getCompilations(), deserStats.getCompilations());
+        assertEquals(stats.getCompilationLimitTriggered(), deserStats.getCompilationLimitTriggered());
+
+        deserStats = serDeser(TransportVersions.SCRIPT_PRECOMPILATION_STATS, TransportVersions.SCRIPT_PRECOMPILATION_STATS, stats);
+        assertEquals(stats, deserStats);
+
+        ScriptStats scriptStats = randomScriptStats();
+        ScriptStats deserScriptStats = copyWriteable(scriptStats, writableRegistry(), ScriptStats::read, previous);
+        assertEquals(0L, deserScriptStats.getPrecompilations());
+        assertEquals(scriptStats.getCompilationLimitTriggered(), deserScriptStats.getCompilationLimitTriggered());
+
+        deserScriptStats = copyWriteable(scriptStats, writableRegistry(), ScriptStats::read, TransportVersions.SCRIPT_PRECOMPILATION_STATS);
+        assertEquals(scriptStats.getPrecompilations(), deserScriptStats.getPrecompilations());
+        assertEquals(scriptStats.getContextStats(), deserScriptStats.getContextStats());
+    }
+
     public void testMerge() {
         var first = randomScriptStats();
         var second = randomScriptStats();
@@ -186,7 +214,8 @@ public class ScriptStatsTests extends ESTestCase {
                 first.cacheEvictions() + second.cacheEvictions(),
                 first.compilationLimitTriggered() + second.compilationLimitTriggered(),
                 TimeSeries.merge(first.compilationsHistory(), second.compilationsHistory()),
-                TimeSeries.merge(first.cacheEvictionsHistory(), second.cacheEvictionsHistory())
+                TimeSeries.merge(first.cacheEvictionsHistory(), second.cacheEvictionsHistory()),
+                first.precompilations() + second.precompilations()
             )
         );
     }
@@ -198,7 +227,8 @@ public class ScriptStatsTests extends ESTestCase {
             randomLongBetween(0, 10000),
             randomLongBetween(0, 10000),
             randomTimeseries(),
-            randomTimeseries()
+            randomTimeseries(),
+            randomLongBetween(0, 10000)
         );
     }
 
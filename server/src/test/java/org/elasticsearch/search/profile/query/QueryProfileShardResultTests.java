@@ -19,6 +19,7 @@ import org.elasticsearch.xcontent.XContentParser;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 
 import static org.elasticsearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
@@ -37,7 +38,18 @@ public class QueryProfileShardResultTests extends AbstractXContentSerializingTes
         }
 
         Long vectorOperationsCount = randomBoolean() ? null : randomNonNegativeLong();
-        return new QueryProfileShardResult(queryProfileResults, rewriteTime, profileCollector, vectorOperationsCount);
+        // ints and doubles are parsed back as they are, so that the parsed instance is equal to this one
+        Map<String, Object> vectorSearchDebug = randomBoolean()
+            ? Map.of()
+            : Map.of(
+                "exact_search_segments",
+                randomNonNegativeInt(),
+                "approximate_search_segments",
+                randomNonNegativeInt(),
+                "filter_selectivity",
+                randomDouble()
+            );
+        return new QueryProfileShardResult(queryProfileResults, rewriteTime, profileCollector, vectorOperationsCount, vectorSearchDebug);
     }
 
     @Override
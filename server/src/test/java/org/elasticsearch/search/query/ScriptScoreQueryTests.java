@@ -14,18 +14,23 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.lucene.search.function.ScriptScoreQuery;
 import org.elasticsearch.index.IndexVersion;
@@ -41,11 +46,15 @@ import org.junit.Before;
 import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.collection.IsArrayWithSize.arrayWithSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -139,6 +148,65 @@ public class ScriptScoreQueryTests extends ESTestCase {
         assertTrue(e.getMessage().contains("Must be a non-negative score!"));
     }
 
+    public void testScoresInBatchesWhenEnabled() throws IOException {
+        boolean batchScoring = randomBoolean();
+        try (Directory directory = newDirectory(); RandomIndexWriter writer = new RandomIndexWriter(random(), directory)) {
+            int numDocs = between(1, 500);
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                doc.add(new TextField("field", "text", Field.Store.NO));
+                writer.addDocument(doc);
+            }
+            try (IndexReader indexReader = writer.getReader()) {
+                // not a randomized searcher, which may not use the bulk scorer
+                IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+                AtomicInteger batches = new AtomicInteger();
+                Script script = new Script("script scoring in batches");
+                ScoreScript.LeafFactory factory = newFactory(
+                    true,
+                    false,
+                    (lookup, docReader) -> new ScoreScript(Map.of(), lookup, docReader) {
+                        @Override
+                        public double execute(ExplanationHolder explanation) {
+                            return get_score() + _getDocBaseId();
+                        }
+
+                        @Override
+                        public void executeBatch(int[] docIds, float[] subQueryScores, int count, double[] scores) {
+                            assertNotNull(subQueryScores);
+                            assertThat(count, lessThanOrEqualTo(docIds.length));
+                            batches.incrementAndGet();
+                            super.executeBatch(docIds, subQueryScores, count, scores);
+                        }
+                    }
+                );
+                ScriptScoreQuery query = new ScriptScoreQuery(
+                    new ConstantScoreQuery(new TermQuery(new Term("field", "text"))),
+                    script,
+                    factory,
+                    lookup,
+                    null,
+                    "index",
+                    0,
+                    IndexVersion.current(),
+                    batchScoring
+                );
+
+                TopDocs topDocs = indexSearcher.search(query, numDocs);
+                assertThat(topDocs.scoreDocs, arrayWithSize(numDocs));
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    assertThat(scoreDoc.score, equalTo(1f + scoreDoc.doc));
+                }
+                if (batchScoring) {
+                    assertThat(batches.get(), greaterThan(0));
+                    assertThat(batches.get(), lessThanOrEqualTo(numDocs));
+                } else {
+                    assertThat(batches.get(), equalTo(0));
+                }
+            }
+        }
+    }
+
     public void testScriptTermStatsAvailable() throws IOException {
         Script script = new Script("termStats script without setting explanation");
         ScoreScript scoreScriptMock = mock(ScoreScript.class);
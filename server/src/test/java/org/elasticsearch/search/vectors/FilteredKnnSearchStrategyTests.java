@@ -0,0 +1,161 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.vectors;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.join.QueryBitSetProducer;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.search.profile.query.QueryProfiler;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class FilteredKnnSearchStrategyTests extends ESTestCase {
+
+    public void testPreferExactSearch() {
+        // filters that accept fewer documents than the number of candidates are always searched exactly
+        assertTrue(FilteredKnnSearchStrategy.preferExactSearch(50, 1_000_000, 100));
+        // a very selective filter visits too many graph nodes per collected candidate
+        assertTrue(FilteredKnnSearchStrategy.preferExactSearch(10_000, 1_000_000, 100));
+        // a broad filter is cheaper to search through the graph
+        assertFalse(FilteredKnnSearchStrategy.preferExactSearch(500_000, 1_000_000, 100));
+        assertFalse(FilteredKnnSearchStrategy.preferExactSearch(100_000, 1_000_000, 100));
+        // empty segments
+        assertTrue(FilteredKnnSearchStrategy.preferExactSearch(0, 0, 10));
+    }
+
+    public void testSelectiveFilterIsSearchedExactly() throws IOException {
+        try (Directory d = newDirectory()) {
+            try (IndexWriter w = new IndexWriter(d, new IndexWriterConfig())) {
+                for (int i = 0; i < 200; i++) {
+                    Document document = new Document();
+                    document.add(new KnnFloatVectorField("vector", new float[] { i, i % 7, 1 }));
+                    document.add(new StringField("tenant", i % 10 == 0 ? "a" : "b", Field.Store.NO));
+                    w.addDocument(document);
+                }
+                w.forceMerge(1);
+            }
+            try (IndexReader reader = DirectoryReader.open(d)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                Query filter = new TermQuery(new Term("tenant", "a"));
+                ESKnnFloatVectorQuery query = new ESKnnFloatVectorQuery("vector", new float[] { 50, 1, 1 }, 3, 3, filter);
+                TopDocs exactDocs = searcher.search(query, 3);
+                assertThat(exactDocs.scoreDocs.length, equalTo(3));
+
+                QueryProfiler profiler = new QueryProfiler();
+                query.profile(profiler);
+                Map<String, Object> debug = profiler.getVectorSearchDebug();
+                assertThat(debug.get(FilteredKnnSearchStrategy.EXACT_SEARCH_SEGMENTS), equalTo(1L));
+                assertThat(debug.get(FilteredKnnSearchStrategy.APPROXIMATE_SEARCH_SEGMENTS), equalTo(0L));
+                // the choice was based on a filter that accepts every tenth of the 200 documents
+                assertThat(debug.get(FilteredKnnSearchStrategy.FILTER_CARDINALITY), equalTo(20L));
+                assertThat(debug.get(FilteredKnnSearchStrategy.FILTERED_VECTOR_COUNT), equalTo(200L));
+                assertThat(debug.get(FilteredKnnSearchStrategy.FILTER_SELECTIVITY), equalTo(0.1));
+                assertThat((long) debug.get(FilteredKnnSearchStrategy.ESTIMATED_GRAPH_SEARCH_COST), greaterThan(20L));
+
+                // a filter backed by a cached bit set matches the same documents
+                Query cachedFilter = new CachedBitSetFilterQuery(filter, new QueryBitSetProducer(filter));
+                TopDocs cachedDocs = searcher.search(new ESKnnFloatVectorQuery("vector", new float[] { 50, 1, 1 }, 3, 3, cachedFilter), 3);
+                assertThat(cachedDocs.scoreDocs.length, equalTo(exactDocs.scoreDocs.length));
+                for (int i = 0; i < exactDocs.scoreDocs.length; i++) {
+                    assertThat(cachedDocs.scoreDocs[i].doc, equalTo(exactDocs.scoreDocs[i].doc));
+                }
+            }
+        }
+    }
+
+    public void testExactSearchStopsOnTimeout() throws IOException {
+        try (Directory d = newDirectory()) {
+            try (IndexWriter w = new IndexWriter(d, new IndexWriterConfig())) {
+                for (int i = 0; i < 200; i++) {
+                    Document document = new Document();
+                    document.add(new KnnFloatVectorField("vector", new float[] { i, i % 7, 1 }));
+                    document.add(new StringField("tenant", i % 10 == 0 ? "a" : "b", Field.Store.NO));
+                    w.addDocument(document);
+                }
+                w.forceMerge(1);
+            }
+            try (IndexReader reader = DirectoryReader.open(d)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                AtomicBoolean timedOut = new AtomicBoolean(true);
+                searcher.setTimeout(timedOut::get);
+                ESKnnFloatVectorQuery query = new ESKnnFloatVectorQuery(
+                    "vector",
+                    new float[] { 50, 1, 1 },
+                    3,
+                    3,
+                    new TermQuery(new Term("tenant", "a"))
+                );
+                Query rewritten = searcher.rewrite(query);
+                timedOut.set(false);
+                // the exact search of the segment ran with the timeout of the searcher, so it stopped before scoring any document
+                assertThat(searcher.count(rewritten), equalTo(0));
+
+                QueryProfiler profiler = new QueryProfiler();
+                query.profile(profiler);
+                Map<String, Object> debug = profiler.getVectorSearchDebug();
+                assertThat(debug.get(FilteredKnnSearchStrategy.EXACT_SEARCH_SEGMENTS), equalTo(1L));
+                assertThat(debug.get(FilteredKnnSearchStrategy.APPROXIMATE_SEARCH_SEGMENTS), equalTo(0L));
+            }
+        }
+    }
+
+    public void testEachSegmentIsCountedOnce() throws IOException {
+        try (Directory d = newDirectory()) {
+            try (IndexWriter w = new IndexWriter(d, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                int segments = between(2, 5);
+                for (int s = 0; s < segments; s++) {
+                    for (int i = 0; i < 100; i++) {
+                        Document document = new Document();
+                        document.add(new KnnFloatVectorField("vector", new float[] { i, i % 7, s }));
+                        document.add(new StringField("tenant", randomBoolean() ? "a" : "b", Field.Store.NO));
+                        w.addDocument(document);
+                    }
+                    w.flush();
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(d)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                Query filter = randomBoolean() ? null : new TermQuery(new Term("tenant", randomFrom("a", "b")));
+                ESKnnFloatVectorQuery query = new ESKnnFloatVectorQuery("vector", new float[] { 50, 1, 1 }, 5, between(5, 50), filter);
+                searcher.search(query, 5);
+
+                QueryProfiler profiler = new QueryProfiler();
+                query.profile(profiler);
+                Map<String, Object> debug = profiler.getVectorSearchDebug();
+                long exact = (long) debug.get(FilteredKnnSearchStrategy.EXACT_SEARCH_SEGMENTS);
+                long approximate = (long) debug.get(FilteredKnnSearchStrategy.APPROXIMATE_SEARCH_SEGMENTS);
+                assertThat(exact + approximate, equalTo((long) reader.leaves().size()));
+                if (filter == null) {
+                    // the inputs of the choice are only reported if there was a filter to choose on
+                    assertThat(debug.containsKey(FilteredKnnSearchStrategy.FILTER_SELECTIVITY), equalTo(false));
+                }
+            }
+        }
+    }
+}
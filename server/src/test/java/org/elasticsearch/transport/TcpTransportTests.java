@@ -37,9 +37,11 @@ import java.net.InetSocketAddress;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
 
@@ -393,6 +395,58 @@ public class TcpTransportTests extends ESTestCase {
         }
     }
 
+    public void testCompressionSchemeByAction() {
+        Settings settings = Settings.builder()
+            .putList("transport.compression_scheme_by_action.zstd", "indices:data/write/bulk[s]", "indices:data/write/bulk[s][*]")
+            .putList("transport.compression_scheme_by_action.lz4", "indices:data/read/search*", "indices:data/*")
+            .build();
+        // the most specific pattern comes first, regardless of the scheme
+        assertEquals(
+            List.of(
+                new TcpTransport.ActionCompressionScheme("indices:data/write/bulk[s][*]", Compression.Scheme.ZSTD),
+                new TcpTransport.ActionCompressionScheme("indices:data/write/bulk[s]", Compression.Scheme.ZSTD),
+                new TcpTransport.ActionCompressionScheme("indices:data/read/search*", Compression.Scheme.LZ4),
+                new TcpTransport.ActionCompressionScheme("indices:data/*", Compression.Scheme.LZ4)
+            ),
+            TcpTransport.compressionSchemeByAction(settings)
+        );
+
+        assertTrue(TcpTransport.compressionSchemeByAction(Settings.EMPTY).isEmpty());
+
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> TcpTransport.compressionSchemeByAction(
+                Settings.builder().putList("transport.compression_scheme_by_action.snappy", "indices:*").build()
+            )
+        );
+        assertThat(e.getMessage(), containsString("unknown compression scheme [snappy]"));
+
+        e = expectThrows(
+            IllegalArgumentException.class,
+            () -> TcpTransport.compressionSchemeByAction(
+                Settings.builder()
+                    .putList("transport.compression_scheme_by_action.zstd", "indices:data/write/*")
+                    .putList("transport.compression_scheme_by_action.lz4", "indices:data/write/*")
+                    .build()
+            )
+        );
+        assertThat(e.getMessage(), containsString("action pattern [indices:data/write/*] is configured for both compression schemes"));
+    }
+
+    public void testEquallySpecificCompressionPatternsAreOrderedByPattern() {
+        Settings settings = Settings.builder()
+            .putList("transport.compression_scheme_by_action.zstd", "indices:*/bulk")
+            .putList("transport.compression_scheme_by_action.lz4", "indices:data/*")
+            .build();
+        assertEquals(
+            List.of(
+                new TcpTransport.ActionCompressionScheme("indices:*/bulk", Compression.Scheme.ZSTD),
+                new TcpTransport.ActionCompressionScheme("indices:data/*", Compression.Scheme.LZ4)
+            ),
+            TcpTransport.compressionSchemeByAction(settings)
+        );
+    }
+
     public void testHTTPResponse() throws IOException {
         BytesStreamOutput streamOutput = new BytesStreamOutput(1 << 14);
         streamOutput.write('H');
@@ -18,6 +18,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
 import org.elasticsearch.threadpool.TestThreadPool;
 
 import java.io.IOException;
@@ -60,7 +61,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testHandshakeRequestAndResponse() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
 
@@ -80,7 +81,40 @@ public class TransportHandshakerTests extends ESTestCase {
         handler.handleResponse((TransportHandshaker.HandshakeResponse) responseFuture.actionGet());
 
         assertTrue(versionFuture.isDone());
-        assertEquals(TransportVersion.current(), versionFuture.actionGet());
+        assertEquals(TransportVersion.current(), versionFuture.actionGet().transportVersion());
+        assertEquals(Compression.Scheme.isZstdAvailable(), versionFuture.actionGet().zstdSupported());
+    }
+
+    public void testZstdSupportedOnlySentBetweenNodesThatKnowAboutIt() throws IOException {
+        final TransportVersion before = TransportVersionUtils.getPreviousVersion(Compression.Scheme.ZSTD_VERSION);
+        final TransportVersion after = TransportVersionUtils.randomVersionBetween(
+            random(),
+            Compression.Scheme.ZSTD_VERSION,
+            TransportVersion.current()
+        );
+
+        assertTrue(roundTripZstdSupported(after, after, true));
+        assertFalse(roundTripZstdSupported(after, after, false));
+        // the flag is neither written nor read if either node does not know about it, so the stream is always fully consumed
+        assertFalse(roundTripZstdSupported(before, after, true));
+        assertFalse(roundTripZstdSupported(after, before, true));
+        assertFalse(roundTripZstdSupported(before, before, true));
+    }
+
+    private static boolean roundTripZstdSupported(TransportVersion responseVersion, TransportVersion requestVersion, boolean zstdSupported)
+        throws IOException {
+        TransportHandshaker.HandshakeResponse response = new TransportHandshaker.HandshakeResponse(
+            responseVersion,
+            requestVersion,
+            zstdSupported
+        );
+        BytesStreamOutput out = new BytesStreamOutput();
+        response.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        TransportHandshaker.HandshakeResponse read = new TransportHandshaker.HandshakeResponse(in, requestVersion);
+        assertEquals(0, in.available());
+        assertEquals(responseVersion, read.getResponseVersion());
+        return read.isZstdSupported();
     }
 
     public void testHandshakeRequestFutureVersionsCompatibility() throws IOException {
@@ -119,7 +153,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testHandshakeError() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
 
@@ -136,7 +170,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testSendRequestThrowsException() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         doThrow(new IOException("boom")).when(requestSender)
             .sendRequest(node, channel, reqId, TransportHandshaker.REQUEST_HANDSHAKE_VERSION);
@@ -150,7 +184,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testHandshakeTimeout() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         handshaker.sendHandshake(reqId, node, channel, new TimeValue(100, TimeUnit.MILLISECONDS), versionFuture);
 
@@ -0,0 +1,95 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ZeroCopyBytesStreamOutputTests extends ESTestCase {
+
+    private final BytesRefRecycler recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
+
+    public void testRetainsLargeReleasableReferences() throws IOException {
+        final AtomicInteger released = new AtomicInteger();
+        final List<BytesReference> references = new ArrayList<>();
+        int expectedRetained = 0;
+        final int numReferences = between(1, 20);
+        for (int i = 0; i < numReferences; i++) {
+            final int length = between(0, 3 * ZeroCopyBytesStreamOutput.MIN_ZERO_COPY_LENGTH);
+            final BytesArray bytes = new BytesArray(randomByteArrayOfLength(length));
+            if (randomBoolean()) {
+                references.add(bytes);
+            } else {
+                references.add(new ReleasableBytesReference(bytes, released::incrementAndGet));
+                if (bytes.length() >= ZeroCopyBytesStreamOutput.MIN_ZERO_COPY_LENGTH) {
+                    expectedRetained++;
+                }
+            }
+        }
+        final List<String> strings = randomList(references.size(), references.size(), () -> randomAlphaOfLength(between(0, 10)));
+        final int headerLength = between(1, 64);
+        final CheckedConsumer<StreamOutput, IOException> writer = out -> {
+            out.writeBytes(new byte[headerLength]);
+            for (int i = 0; i < references.size(); i++) {
+                out.writeString(strings.get(i));
+                out.writeBytesReference(references.get(i));
+            }
+            out.writeVInt(references.size());
+        };
+
+        final BytesStreamOutput expected = new BytesStreamOutput();
+        writer.accept(expected);
+        final int numReleasable = (int) references.stream().filter(r -> r instanceof ReleasableBytesReference).count();
+
+        try (ZeroCopyBytesStreamOutput out = new ZeroCopyBytesStreamOutput(recycler)) {
+            writer.accept(out);
+            assertEquals(expectedRetained, out.retainedReferences());
+            final BytesReference bytes = out.bytes();
+            // overwriting the header like OutboundMessage does must not affect the retained references
+            final byte[] header = randomByteArrayOfLength(headerLength);
+            out.seek(0);
+            out.writeBytes(header);
+            final byte[] expectedBytes = BytesReference.toBytes(expected.bytes());
+            System.arraycopy(header, 0, expectedBytes, 0, headerLength);
+            assertEquals(new BytesArray(expectedBytes), bytes);
+
+            try (StreamInput in = bytes.streamInput()) {
+                in.skip(headerLength);
+                for (int i = 0; i < references.size(); i++) {
+                    assertEquals(strings.get(i), in.readString());
+                    assertEquals(references.get(i), in.readBytesReference());
+                }
+                assertEquals(references.size(), in.readVInt());
+            }
+
+            // release the references on behalf of their owners, the stream still holds the retained ones
+            for (BytesReference reference : references) {
+                if (reference instanceof ReleasableBytesReference releasable) {
+                    releasable.close();
+                }
+            }
+            assertEquals(numReleasable - expectedRetained, released.get());
+        }
+        assertEquals(numReleasable, released.get());
+    }
+}
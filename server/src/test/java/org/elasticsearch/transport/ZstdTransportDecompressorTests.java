@@ -0,0 +1,182 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.transport;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.TransportVersion;
+import org.elasticsearch.TransportVersions;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ZstdTransportDecompressorTests extends ESTestCase {
+
+    private final Recycler<BytesRef> recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
+
+    public void testSimpleCompression() throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            byte randomByte = randomByte();
+            try (OutputStream zstdStream = Compression.Scheme.zstdOutputStream(org.elasticsearch.core.Streams.noCloseStream(output))) {
+                zstdStream.write(randomByte);
+            }
+
+            BytesReference bytes = output.bytes();
+            assertTrue(Compression.Scheme.isZstd(bytes));
+
+            try (TransportDecompressor decompressor = TransportDecompressor.getDecompressor(recycler, bytes)) {
+                assertEquals(Compression.Scheme.ZSTD, decompressor.getScheme());
+                int bytesConsumed = decompressor.decompress(bytes);
+                assertEquals(bytes.length(), bytesConsumed);
+                assertTrue(((ZstdTransportDecompressor) decompressor).isClosed());
+                ReleasableBytesReference releasableBytesReference = decompressor.pollDecompressedPage(true);
+                assertEquals(1, releasableBytesReference.length());
+                assertEquals(randomByte, releasableBytesReference.get(0));
+                releasableBytesReference.close();
+            }
+        }
+    }
+
+    public void testMultiBlockCompression() throws IOException {
+        // more than one block so that the decompressor has to stitch blocks together
+        int intsToWrite = ZstdTransportOutputStream.BLOCK_SIZE / Integer.BYTES + randomIntBetween(1, 50000);
+        BytesReference bytes = compressInts(intsToWrite);
+        assertThat(bytes.length(), lessThan(intsToWrite * Integer.BYTES / 2));
+
+        try (ZstdTransportDecompressor decompressor = new ZstdTransportDecompressor(recycler)) {
+            int bytesConsumed = decompressor.decompress(bytes);
+            assertEquals(bytes.length(), bytesConsumed);
+            assertTrue(decompressor.isClosed());
+            assertDecompressedInts(decompressor, intsToWrite);
+        }
+    }
+
+    public void testIncrementalMultiBlockCompression() throws IOException {
+        int intsToWrite = ZstdTransportOutputStream.BLOCK_SIZE / Integer.BYTES + randomIntBetween(1, 50000);
+        BytesReference bytes = compressInts(intsToWrite);
+
+        try (ZstdTransportDecompressor decompressor = new ZstdTransportDecompressor(recycler)) {
+            // feed the decompressor with chunks of random sizes, carrying over what it did not consume yet
+            BytesReference pending = BytesArray.EMPTY;
+            int offset = 0;
+            int totalConsumed = 0;
+            while (offset < bytes.length()) {
+                int chunk = Math.min(randomIntBetween(1, 16384), bytes.length() - offset);
+                BytesReference next = CompositeBytesReference.of(pending, bytes.slice(offset, chunk));
+                offset += chunk;
+                int consumed = decompressor.decompress(next);
+                totalConsumed += consumed;
+                pending = next.slice(consumed, next.length() - consumed);
+            }
+            assertEquals(0, pending.length());
+            assertEquals(bytes.length(), totalConsumed);
+            assertTrue(decompressor.isClosed());
+            assertDecompressedInts(decompressor, intsToWrite);
+        }
+    }
+
+    public void testCorruptedBlockHeader() throws IOException {
+        BytesReference bytes = compressInts(randomIntBetween(1, 1000));
+        byte[] corrupted = BytesReference.toBytes(bytes);
+        // the compressed length of the first block follows the 4 bytes of the scheme header
+        corrupted[Compression.Scheme.HEADER_LENGTH] = (byte) 0x80;
+
+        try (ZstdTransportDecompressor decompressor = new ZstdTransportDecompressor(recycler)) {
+            IllegalStateException e = expectThrows(IllegalStateException.class, () -> decompressor.decompress(new BytesArray(corrupted)));
+            assertThat(e.getMessage(), containsString("invalid compressedLength"));
+            e = expectThrows(IllegalStateException.class, () -> decompressor.decompress(new BytesArray(corrupted)));
+            assertThat(e.getMessage(), containsString("zstd stream corrupted"));
+        }
+    }
+
+    public void testFallbackForOlderVersions() {
+        TransportVersion oldVersion = TransportVersionUtils.randomVersionBetween(
+            random(),
+            Compression.Scheme.LZ4_VERSION,
+            TransportVersionUtils.getPreviousVersion(TransportVersions.ZSTD_TRANSPORT_COMPRESSION)
+        );
+        assertEquals(Compression.Scheme.LZ4, Compression.Scheme.adjustForVersion(oldVersion, Compression.Scheme.ZSTD));
+        assertEquals(Compression.Scheme.ZSTD, Compression.Scheme.adjustForVersion(TransportVersion.current(), Compression.Scheme.ZSTD));
+        assertNull(
+            Compression.Scheme.adjustForVersion(
+                TransportVersionUtils.getPreviousVersion(Compression.Scheme.LZ4_VERSION),
+                Compression.Scheme.ZSTD
+            )
+        );
+    }
+
+    private static BytesReference compressInts(int intsToWrite) throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (
+                StreamOutput zstdStream = new OutputStreamStreamOutput(
+                    Compression.Scheme.zstdOutputStream(Streams.flushOnCloseStream(output))
+                )
+            ) {
+                for (int i = 0; i < intsToWrite; ++i) {
+                    zstdStream.writeInt(expectedInt(i));
+                }
+            }
+            return output.copyBytes();
+        }
+    }
+
+    private static int expectedInt(int i) {
+        int lowByte = (i & 0xFF);
+        if (lowByte < 128) {
+            return 0;
+        } else if (lowByte < 200) {
+            return 1;
+        } else {
+            return i;
+        }
+    }
+
+    private static void assertDecompressedInts(TransportDecompressor decompressor, int intsToWrite) throws IOException {
+        List<ReleasableBytesReference> polledReferences = new ArrayList<>();
+        ReleasableBytesReference page;
+        while ((page = decompressor.pollDecompressedPage(false)) != null) {
+            polledReferences.add(page);
+        }
+        polledReferences.add(decompressor.pollDecompressedPage(true));
+        assertNull(decompressor.pollDecompressedPage(true));
+        assertThat(polledReferences.size(), greaterThan(1));
+
+        try {
+            BytesReference composite = CompositeBytesReference.of(polledReferences.toArray(new ReleasableBytesReference[0]));
+            assertEquals(intsToWrite * Integer.BYTES, composite.length());
+            StreamInput streamInput = composite.streamInput();
+            for (int i = 0; i < intsToWrite; ++i) {
+                assertEquals(expectedInt(i), streamInput.readInt());
+            }
+        } finally {
+            Releasables.close(polledReferences);
+        }
+    }
+}
@@ -537,6 +537,7 @@ public enum SearchResponseUtils {
         List<ProfileResult> queryProfileResults = new ArrayList<>();
         long rewriteTime = 0;
         Long vectorOperationsCount = null;
+        Map<String, Object> vectorSearchDebug = Map.of();
         CollectorResult collector = null;
         while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
             if (token == XContentParser.Token.FIELD_NAME) {
@@ -561,11 +562,17 @@ public enum SearchResponseUtils {
                 } else {
                     parser.skipChildren();
                 }
+            } else if (token == XContentParser.Token.START_OBJECT) {
+                if (QueryProfileShardResult.VECTOR_SEARCH_DEBUG.equals(currentFieldName)) {
+                    vectorSearchDebug = parser.map();
+                } else {
+                    parser.skipChildren();
+                }
             } else {
                 parser.skipChildren();
             }
         }
-        return new QueryProfileShardResult(queryProfileResults, rewriteTime, collector, vectorOperationsCount);
+        return new QueryProfileShardResult(queryProfileResults, rewriteTime, collector, vectorOperationsCount, vectorSearchDebug);
     }
 
     public static SearchHits parseSearchHits(XContentParser parser) throws IOException {
@@ -17,8 +17,10 @@ import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.xpack.core.enrich.EnrichPolicy;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 
 public abstract class AbstractEnrichProcessor extends AbstractProcessor {
@@ -61,51 +63,18 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
     public void execute(IngestDocument ingestDocument, BiConsumer<IngestDocument, Exception> handler) {
         try {
             // If a document does not have the enrich key, return the unchanged document
-            String renderedField = ingestDocument.renderTemplate(this.field);
-            final Object value = ingestDocument.getFieldValue(renderedField, Object.class, ignoreMissing);
-            if (value == null) {
+            SearchRequest req = createSearchRequest(ingestDocument);
+            if (req == null) {
                 handler.accept(ingestDocument, null);
                 return;
             }
 
-            QueryBuilder queryBuilder = getQueryBuilder(value);
-            ConstantScoreQueryBuilder constantScore = new ConstantScoreQueryBuilder(queryBuilder);
-            SearchSourceBuilder searchBuilder = new SearchSourceBuilder();
-            searchBuilder.from(0);
-            searchBuilder.size(maxMatches);
-            searchBuilder.trackScores(false);
-            searchBuilder.fetchSource(true);
-            searchBuilder.query(constantScore);
-            SearchRequest req = new SearchRequest();
-            req.indices(EnrichPolicy.getBaseName(getPolicyName()));
-            req.preference(Preference.LOCAL.type());
-            req.source(searchBuilder);
-
             searchRunner.accept(req, (searchHits, e) -> {
                 if (e != null) {
                     handler.accept(null, e);
                     return;
                 }
-
-                // If the index is empty, return the unchanged document
-                // If the enrich key does not exist in the index, throw an error
-                // If no documents match the key, return the unchanged document
-                if (searchHits.size() < 1) {
-                    handler.accept(ingestDocument, null);
-                    return;
-                }
-
-                String renderedTargetField = ingestDocument.renderTemplate(this.targetField);
-                if (overrideEnabled || ingestDocument.hasField(renderedTargetField) == false) {
-                    if (maxMatches == 1) {
-                        Map<?, ?> firstDocument = searchHits.get(0);
-                        ingestDocument.setFieldValue(renderedTargetField, firstDocument);
-                    } else {
-                        List<Map<?, ?>> enrichDocuments = new ArrayList<>(searchHits.size());
-                        enrichDocuments.addAll(searchHits);
-                        ingestDocument.setFieldValue(renderedTargetField, enrichDocuments);
-                    }
-                }
+                enrich(ingestDocument, searchHits);
                 handler.accept(ingestDocument, null);
             });
         } catch (Exception e) {
@@ -113,6 +82,117 @@ public abstract class AbstractEnrichProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * Documents of a batch often share their enrich key, so every distinct lookup of the batch is only run once and its hits are
+     * applied to all documents that need them. The distinct lookups are all issued before any of them completes, so that the
+     * coordinator can send them to the enrich index together.
+     */
+    @Override
+    public void executeBatch(List<IngestDocument> ingestDocuments, BatchHandler handler) {
+        final Map<SearchRequest, List<Integer>> slotsByRequest = new LinkedHashMap<>();
+        for (int slot = 0; slot < ingestDocuments.size(); slot++) {
+            final IngestDocument ingestDocument = ingestDocuments.get(slot);
+            final SearchRequest req;
+            try {
+                req = createSearchRequest(ingestDocument);
+            } catch (Exception e) {
+                handler.accept(slot, null, e);
+                continue;
+            }
+            if (req == null) {
+                handler.accept(slot, ingestDocument, null);
+            } else {
+                slotsByRequest.computeIfAbsent(req, k -> new ArrayList<>()).add(slot);
+            }
+        }
+        for (Map.Entry<SearchRequest, List<Integer>> entry : slotsByRequest.entrySet()) {
+            final List<Integer> slots = entry.getValue();
+            final AtomicBoolean responded = new AtomicBoolean();
+            try {
+                searchRunner.accept(entry.getKey(), (searchHits, e) -> {
+                    responded.set(true);
+                    for (int i = 0; i < slots.size(); i++) {
+                        final int slot = slots.get(i);
+                        if (e != null) {
+                            handler.accept(slot, null, e);
+                            continue;
+                        }
+                        final IngestDocument ingestDocument = ingestDocuments.get(slot);
+                        try {
+                            // the hits end up in the documents, which may modify them later on, so every document gets its own copy. the
+                            // last document gets the original, which is only handed out once all copies have been made
+                            final boolean last = i == slots.size() - 1;
+                            enrich(ingestDocument, last ? searchHits : EnrichCache.deepCopy(searchHits, false));
+                        } catch (Exception ex) {
+                            handler.accept(slot, null, ex);
+                            continue;
+                        }
+                        handler.accept(slot, ingestDocument, null);
+                    }
+                });
+            } catch (Exception e) {
+                if (responded.get()) {
+                    throw e;
+                }
+                for (int slot : slots) {
+                    handler.accept(slot, null, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
+    /**
+     * Creates the search request that looks up the enrich documents for the given document, or returns {@code null} if the document
+     * does not have the enrich key.
+     */
+    private SearchRequest createSearchRequest(IngestDocument ingestDocument) {
+        String renderedField = ingestDocument.renderTemplate(this.field);
+        final Object value = ingestDocument.getFieldValue(renderedField, Object.class, ignoreMissing);
+        if (value == null) {
+            return null;
+        }
+
+        QueryBuilder queryBuilder = getQueryBuilder(value);
+        ConstantScoreQueryBuilder constantScore = new ConstantScoreQueryBuilder(queryBuilder);
+        SearchSourceBuilder searchBuilder = new SearchSourceBuilder();
+        searchBuilder.from(0);
+        searchBuilder.size(maxMatches);
+        searchBuilder.trackScores(false);
+        searchBuilder.fetchSource(true);
+        searchBuilder.query(constantScore);
+        SearchRequest req = new SearchRequest();
+        req.indices(EnrichPolicy.getBaseName(getPolicyName()));
+        req.preference(Preference.LOCAL.type());
+        req.source(searchBuilder);
+        return req;
+    }
+
+    private void enrich(IngestDocument ingestDocument, List<Map<?, ?>> searchHits) {
+        // If the index is empty, return the unchanged document
+        // If the enrich key does not exist in the index, throw an error
+        // If no documents match the key, return the unchanged document
+        if (searchHits.size() < 1) {
+            return;
+        }
+
+        String renderedTargetField = ingestDocument.renderTemplate(this.targetField);
+        if (overrideEnabled || ingestDocument.hasField(renderedTargetField) == false) {
+            if (maxMatches == 1) {
+                Map<?, ?> firstDocument = searchHits.get(0);
+                ingestDocument.setFieldValue(renderedTargetField, firstDocument);
+            } else {
+                List<Map<?, ?>> enrichDocuments = new ArrayList<>(searchHits.size());
+                enrichDocuments.addAll(searchHits);
+                ingestDocument.setFieldValue(renderedTargetField, enrichDocuments);
+            }
+        }
+    }
+
     @Override
     public IngestDocument execute(IngestDocument ingestDocument) throws Exception {
         throw new UnsupportedOperationException("this method should not get executed");
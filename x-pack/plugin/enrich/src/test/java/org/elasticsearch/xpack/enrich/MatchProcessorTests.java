@@ -20,17 +20,22 @@ import org.elasticsearch.ingest.TestTemplateService;
 import org.elasticsearch.script.TemplateScript;
 import org.elasticsearch.test.ESTestCase;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.emptyArray;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class MatchProcessorTests extends ESTestCase {
 
@@ -376,6 +381,111 @@ public class MatchProcessorTests extends ESTestCase {
         assertThat(entry.get("tld"), equalTo("co"));
     }
 
+    public void testExecuteBatchLooksUpEachDistinctValueOnce() {
+        List<String> lookedUp = new ArrayList<>();
+        BiConsumer<SearchRequest, BiConsumer<List<Map<?, ?>>, Exception>> searchRunner = (request, handler) -> {
+            TermQueryBuilder termQuery = (TermQueryBuilder) ((ConstantScoreQueryBuilder) request.source().query()).innerQuery();
+            String domain = (String) termQuery.value();
+            lookedUp.add(domain);
+            if (domain.equals("broken.co")) {
+                handler.accept(null, new IndexNotFoundException(".enrich-_name"));
+            } else {
+                Map<String, Object> hit = new HashMap<>();
+                hit.put("domain", domain);
+                handler.accept(List.of(hit), null);
+            }
+        };
+        MatchProcessor processor = new MatchProcessor(
+            "_tag",
+            null,
+            searchRunner,
+            "_name",
+            str("domain"),
+            str("entry"),
+            true,
+            true,
+            "domain",
+            1
+        );
+        assertThat(processor.supportsBatchExecution(), equalTo(true));
+        List<String> domains = new ArrayList<>();
+        int numDocs = between(1, 20);
+        for (int i = 0; i < numDocs; i++) {
+            domains.add(randomFrom("elastic.co", "example.com", "broken.co", "missing"));
+        }
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (String domain : domains) {
+            Map<String, Object> source = domain.equals("missing") ? Map.of() : Map.of("domain", domain);
+            ingestDocuments.add(TestIngestDocument.withDefaultVersion(source));
+        }
+
+        IngestDocument[] results = new IngestDocument[domains.size()];
+        Exception[] failures = new Exception[domains.size()];
+        int[] completions = new int[domains.size()];
+        processor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            completions[slot]++;
+            results[slot] = result;
+            failures[slot] = e;
+        });
+
+        assertThat(lookedUp.size(), equalTo(Set.copyOf(lookedUp).size()));
+        assertThat(Set.copyOf(lookedUp), equalTo(domains.stream().filter(d -> d.equals("missing") == false).collect(Collectors.toSet())));
+        Map<?, ?> previousEntry = null;
+        for (int i = 0; i < domains.size(); i++) {
+            assertThat(completions[i], equalTo(1));
+            String domain = domains.get(i);
+            if (domain.equals("broken.co")) {
+                assertThat(results[i], nullValue());
+                assertThat(failures[i], instanceOf(IndexNotFoundException.class));
+            } else if (domain.equals("missing")) {
+                assertThat(failures[i], nullValue());
+                assertThat(results[i], sameInstance(ingestDocuments.get(i)));
+                assertThat(results[i].hasField("entry"), equalTo(false));
+            } else {
+                assertThat(failures[i], nullValue());
+                assertThat(results[i], sameInstance(ingestDocuments.get(i)));
+                Map<?, ?> entry = results[i].getFieldValue("entry", Map.class);
+                assertThat(entry.get("domain"), equalTo(domain));
+                // documents that share a lookup must not share the enrich documents, they may be modified by later processors
+                assertThat(entry, not(sameInstance(previousEntry)));
+                previousEntry = entry;
+            }
+        }
+    }
+
+    public void testExecuteBatchFailsDocumentsWhenLookupThrows() {
+        BiConsumer<SearchRequest, BiConsumer<List<Map<?, ?>>, Exception>> searchRunner = (request, handler) -> {
+            throw new IndexNotFoundException(".enrich-_name");
+        };
+        MatchProcessor processor = new MatchProcessor(
+            "_tag",
+            null,
+            searchRunner,
+            "_name",
+            str("domain"),
+            str("entry"),
+            true,
+            false,
+            "domain",
+            1
+        );
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        int numDocs = between(1, 5);
+        for (int i = 0; i < numDocs; i++) {
+            ingestDocuments.add(TestIngestDocument.withDefaultVersion(Map.of("domain", randomFrom("elastic.co", "example.com"))));
+        }
+
+        Exception[] failures = new Exception[ingestDocuments.size()];
+        processor.executeBatch(ingestDocuments, (slot, result, e) -> {
+            assertThat(result, nullValue());
+            assertThat(failures[slot], nullValue());
+            failures[slot] = e;
+        });
+        for (Exception failure : failures) {
+            assertThat(failure, instanceOf(IndexNotFoundException.class));
+        }
+    }
+
     private static final class MockSearchFunction implements BiConsumer<SearchRequest, BiConsumer<List<Map<?, ?>>, Exception>> {
         private final List<Map<?, ?>> mockResponse;
         private final SetOnce<SearchRequest> capturedRequest;
@@ -674,6 +674,16 @@ public class ValuesSourceReaderOperator extends AbstractPageMappingOperator {
             return factory.newLongBlockBuilder(expectedCount);
         }
 
+        @Override
+        public Block denseLongs(long[] values, int count) {
+            return factory.newLongArrayVector(values, count).asBlock();
+        }
+
+        @Override
+        public Block denseDoubles(double[] values, int count) {
+            return factory.newDoubleArrayVector(values, count).asBlock();
+        }
+
         @Override
         public BlockLoader.Builder nulls(int expectedCount) {
             return ElementType.NULL.newBlockBuilder(expectedCount, factory);
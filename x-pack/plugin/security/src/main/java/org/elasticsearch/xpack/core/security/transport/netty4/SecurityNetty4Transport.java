@@ -391,33 +391,36 @@ public class SecurityNetty4Transport extends Netty4Transport {
 
             if (tcpKeepAlive != null) {
                 bootstrap.option(ChannelOption.SO_KEEPALIVE, tcpKeepAlive);
+                final Netty4Transport.TcpKeepAliveOptions keepAliveOptions = Netty4Transport.TcpKeepAliveOptions.forGroup(
+                    bootstrap.config().group()
+                );
                 if (tcpKeepAlive) {
                     // Note that Netty logs a warning if it can't set the option
                     if (tcpKeepIdle != null) {
                         if (tcpKeepIdle >= 0) {
-                            bootstrap.option(OPTION_TCP_KEEP_IDLE, tcpKeepIdle);
+                            bootstrap.option(keepAliveOptions.idle(), tcpKeepIdle);
                         } else {
-                            bootstrap.option(OPTION_TCP_KEEP_IDLE, null);
+                            bootstrap.option(keepAliveOptions.idle(), null);
                         }
                     }
                     if (tcpKeepInterval != null) {
                         if (tcpKeepInterval >= 0) {
-                            bootstrap.option(OPTION_TCP_KEEP_INTERVAL, tcpKeepInterval);
+                            bootstrap.option(keepAliveOptions.interval(), tcpKeepInterval);
                         } else {
-                            bootstrap.option(OPTION_TCP_KEEP_INTERVAL, null);
+                            bootstrap.option(keepAliveOptions.interval(), null);
                         }
                     }
                     if (tcpKeepCount != null) {
                         if (tcpKeepCount >= 0) {
-                            bootstrap.option(OPTION_TCP_KEEP_COUNT, tcpKeepCount);
+                            bootstrap.option(keepAliveOptions.count(), tcpKeepCount);
                         } else {
-                            bootstrap.option(OPTION_TCP_KEEP_COUNT, null);
+                            bootstrap.option(keepAliveOptions.count(), null);
                         }
                     }
                 } else {
-                    bootstrap.option(OPTION_TCP_KEEP_IDLE, null);
-                    bootstrap.option(OPTION_TCP_KEEP_INTERVAL, null);
-                    bootstrap.option(OPTION_TCP_KEEP_COUNT, null);
+                    bootstrap.option(keepAliveOptions.idle(), null);
+                    bootstrap.option(keepAliveOptions.interval(), null);
+                    bootstrap.option(keepAliveOptions.count(), null);
                 }
             }
 